@@ -0,0 +1,127 @@
+package io.sniffy.benchmarks.sql;
+
+import io.sniffy.Sniffy;
+import io.sniffy.sql.SniffyConnection;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares overhead of {@link SniffyConnection} and reflective proxy used by previously released sniffy-core
+ * on top of plain H2 connection; released classes are loaded by {@link ReleasedSniffyClassLoader}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JdbcWrapperBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:JdbcWrapperBenchmark";
+    private static final String USER_NAME = "sa";
+
+    private static final int ROWS = 100;
+
+    @Param({"plain", "proxy", "wrapper"})
+    public String jdbc;
+
+    @Param({"false", "true"})
+    public boolean spy;
+
+    private Connection targetConnection;
+    private Connection connection;
+    private PreparedStatement preparedStatement;
+
+    private ClassLoader releasedClassLoader;
+
+    private Closeable globalSpy;
+
+    @Setup
+    public void setUp() throws Exception {
+        targetConnection = DriverManager.getConnection(URL, USER_NAME, USER_NAME);
+
+        Statement statement = targetConnection.createStatement();
+        statement.execute("CREATE TABLE IF NOT EXISTS PERSON (ID INT PRIMARY KEY, NAME VARCHAR(255))");
+        statement.execute("DELETE FROM PERSON");
+        for (int i = 0; i < ROWS; i++) {
+            statement.execute("INSERT INTO PERSON (ID, NAME) VALUES (" + i + ", 'Person " + i + "')");
+        }
+        statement.close();
+
+        if ("plain".equals(jdbc)) {
+            connection = targetConnection;
+        } else if ("proxy".equals(jdbc)) {
+            releasedClassLoader = new ReleasedSniffyClassLoader(JdbcWrapperBenchmark.class.getClassLoader());
+            connection = (Connection) Proxy.newProxyInstance(
+                    JdbcWrapperBenchmark.class.getClassLoader(),
+                    new Class[]{Connection.class},
+                    releasedConnectionInvocationHandler(releasedClassLoader, targetConnection)
+            );
+        } else {
+            // SniffyConnection constructor isn't accessible outside of io.sniffy.sql package
+            connection = DriverManager.getConnection("sniffy:" + URL, USER_NAME, USER_NAME);
+        }
+
+        preparedStatement = connection.prepareStatement("SELECT ID, NAME FROM PERSON WHERE ID < ?");
+
+        if (spy) {
+            // released proxy notifies spies registered in released Sniffy class
+            globalSpy = null == releasedClassLoader ? Sniffy.spy() :
+                    (Closeable) releasedClassLoader.loadClass("io.sniffy.Sniffy").getMethod("spy").invoke(null);
+        }
+    }
+
+    private static InvocationHandler releasedConnectionInvocationHandler(ClassLoader classLoader, Connection targetConnection) throws Exception {
+        Constructor<?> constructor = classLoader.loadClass("io.sniffy.sql.ConnectionInvocationHandler").
+                getDeclaredConstructor(Connection.class, String.class, String.class);
+        // released handler is package-private
+        constructor.setAccessible(true);
+        return (InvocationHandler) constructor.newInstance(targetConnection, URL, USER_NAME);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException, IOException {
+        if (null != globalSpy) {
+            globalSpy.close();
+        }
+        preparedStatement.close();
+        connection.close();
+        targetConnection.close();
+    }
+
+    @Benchmark
+    public void executeQuery(Blackhole blackhole) throws SQLException {
+        preparedStatement.setInt(1, 1);
+        ResultSet resultSet = preparedStatement.executeQuery();
+        try {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getInt(1));
+            }
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    @Benchmark
+    public void iterateResultSet(Blackhole blackhole) throws SQLException {
+        preparedStatement.setInt(1, ROWS);
+        ResultSet resultSet = preparedStatement.executeQuery();
+        try {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getInt(1));
+                blackhole.consume(resultSet.getString(2));
+            }
+        } finally {
+            resultSet.close();
+        }
+    }
+
+}
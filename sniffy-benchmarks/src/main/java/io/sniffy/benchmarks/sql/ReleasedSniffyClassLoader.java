@@ -0,0 +1,62 @@
+package io.sniffy.benchmarks.sql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads {@code io.sniffy} classes of previously released sniffy-core which are unpacked to
+ * {@value #RELEASED_CLASSES_PATH} while packaging benchmarks; other classes are loaded by the parent class loader.
+ * Allows comparing current implementation with the released one within the same JVM
+ */
+class ReleasedSniffyClassLoader extends ClassLoader {
+
+    private static final String RELEASED_CLASSES_PATH = "META-INF/released/sniffy-core/";
+
+    ReleasedSniffyClassLoader(ClassLoader parent) {
+        super(parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!name.startsWith("io.sniffy.")) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> clazz = findLoadedClass(name);
+            if (null == clazz) {
+                clazz = findClass(name);
+            }
+            if (resolve) {
+                resolveClass(clazz);
+            }
+            return clazz;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        InputStream is = getParent().getResourceAsStream(RELEASED_CLASSES_PATH + name.replace('.', '/') + ".class");
+        if (null == is) {
+            throw new ClassNotFoundException(name + " not found in " + RELEASED_CLASSES_PATH + "; run benchmarks from packaged jar");
+        }
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, read);
+            }
+            byte[] bytes = baos.toByteArray();
+            return defineClass(name, bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        } finally {
+            try {
+                is.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package io.sniffy.benchmarks.sql;
+
+import io.sniffy.Sniffy;
+import io.sniffy.sql.SniffyDriver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes queries against in-memory H2 database through {@link SniffyDriver} with different kinds of spies registered
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SniffyDriverBenchmark {
+
+    private static final String URL = "sniffy:jdbc:h2:mem:SniffyDriverBenchmark";
+    private static final String USER_NAME = "sa";
+
+    private static final int ROWS = 100;
+
+    @Param({"none", "spy", "currentThreadSpy"})
+    public String spy;
+
+    private Connection connection;
+    private Statement statement;
+    private PreparedStatement preparedStatement;
+
+    private Closeable spyInstance;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(URL, USER_NAME, USER_NAME);
+
+        statement = connection.createStatement();
+        statement.execute("CREATE TABLE IF NOT EXISTS PERSON (ID INT PRIMARY KEY, NAME VARCHAR(255))");
+        statement.execute("DELETE FROM PERSON");
+        for (int i = 0; i < ROWS; i++) {
+            statement.execute("INSERT INTO PERSON (ID, NAME) VALUES (" + i + ", 'Person " + i + "')");
+        }
+
+        preparedStatement = connection.prepareStatement("SELECT ID, NAME FROM PERSON WHERE ID < ?");
+
+        // current thread spy must be created in the same thread which executes benchmark method
+        if ("spy".equals(spy)) {
+            spyInstance = Sniffy.spy();
+        } else if ("currentThreadSpy".equals(spy)) {
+            spyInstance = Sniffy.spyCurrentThread();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException, IOException {
+        if (null != spyInstance) {
+            spyInstance.close();
+        }
+        preparedStatement.close();
+        statement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean executeStatement() throws SQLException {
+        return statement.execute("SELECT 1 FROM DUAL");
+    }
+
+    @Benchmark
+    public int executeUpdate() throws SQLException {
+        return statement.executeUpdate("UPDATE PERSON SET NAME = 'Person 0' WHERE ID = 0");
+    }
+
+    @Benchmark
+    public void executePreparedStatement(Blackhole blackhole) throws SQLException {
+        preparedStatement.setInt(1, 1);
+        ResultSet resultSet = preparedStatement.executeQuery();
+        try {
+            blackhole.consume(resultSet.next());
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void iterateResultSet(Blackhole blackhole) throws SQLException {
+        preparedStatement.setInt(1, ROWS);
+        ResultSet resultSet = preparedStatement.executeQuery();
+        try {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getInt(1));
+            }
+        } finally {
+            resultSet.close();
+        }
+    }
+
+}
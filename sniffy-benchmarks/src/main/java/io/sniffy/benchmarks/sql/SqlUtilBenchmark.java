@@ -0,0 +1,59 @@
+package io.sniffy.benchmarks.sql;
+
+import io.sniffy.sql.SqlFingerprint;
+import io.sniffy.sql.SqlStatement;
+import io.sniffy.sql.SqlUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures normalization of SQL queries which is done for each executed statement
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SqlUtilBenchmark {
+
+    /**
+     * Number of bind parameters in IN clause; zero means there's no IN clause in the query
+     */
+    @Param({"0", "3", "100"})
+    public int parameters;
+
+    private String sql;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("SELECT P.ID, P.NAME, P.EMAIL FROM PERSON P WHERE P.ACTIVE = ?");
+        if (parameters > 0) {
+            sb.append(" AND P.ID IN (");
+            for (int i = 0; i < parameters; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append('?');
+            }
+            sb.append(')');
+        }
+        sb.append(" ORDER BY P.NAME");
+        sql = sb.toString();
+    }
+
+    @Benchmark
+    public String normalizeInStatement() {
+        return SqlUtil.normalizeInStatement(sql);
+    }
+
+    @Benchmark
+    public SqlStatement guessQueryType() {
+        return SqlUtil.guessQueryType(sql);
+    }
+
+    @Benchmark
+    public SqlFingerprint fingerprint() {
+        return SqlFingerprint.of(sql);
+    }
+
+}
@@ -0,0 +1,92 @@
+package io.sniffy.nio;
+
+import io.sniffy.Sniffy;
+import io.sniffy.Spy;
+import io.sniffy.configuration.SniffyConfiguration;
+import io.sniffy.socket.EchoServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes data to {@link SniffySocketChannel} connected to loopback echo server and reads the response back.
+ * Modes are the same as in {@link io.sniffy.socket.SnifferSocketBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SniffySocketChannelBenchmark {
+
+    @Param({"plain", "sniffy", "spy"})
+    public String mode;
+
+    @Param({"64", "8192"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean direct;
+
+    private EchoServer echoServer;
+
+    private Spy<?> spy;
+
+    private SocketChannel socketChannel;
+
+    private ByteBuffer request;
+    private ByteBuffer response;
+
+    @Setup
+    public void setUp() throws IOException {
+        echoServer = new EchoServer();
+
+        if (!"plain".equals(mode)) {
+            SniffyConfiguration.INSTANCE.setMonitorNio(true);
+            Sniffy.initialize();
+        }
+        if ("spy".equals(mode)) {
+            spy = Sniffy.spy();
+        }
+
+        socketChannel = SocketChannel.open();
+        if (!"plain".equals(mode) && !(socketChannel instanceof SniffySocketChannel)) {
+            throw new IllegalStateException("Sniffy NIO instrumentation is not installed");
+        }
+        socketChannel.socket().setTcpNoDelay(true);
+        socketChannel.connect(echoServer.getAddress());
+
+        request = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        for (int i = 0; i < size; i++) {
+            request.put((byte) i);
+        }
+        response = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        socketChannel.close();
+        if (null != spy) {
+            spy.close();
+        }
+        echoServer.close();
+    }
+
+    @Benchmark
+    public int writeAndRead() throws IOException {
+        request.clear();
+        while (request.hasRemaining()) {
+            socketChannel.write(request);
+        }
+        response.clear();
+        while (response.hasRemaining()) {
+            if (socketChannel.read(response) < 0) throw new IOException("Connection closed");
+        }
+        return response.get(size - 1);
+    }
+
+}
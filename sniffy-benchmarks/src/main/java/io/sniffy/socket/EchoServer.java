@@ -0,0 +1,83 @@
+package io.sniffy.socket;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Loopback server which sends back all received bytes.
+ * It is based on channels created before Sniffy instrumentation is installed, so only the client side is instrumented
+ */
+public class EchoServer implements Runnable, Closeable {
+
+    private final ServerSocketChannel serverSocketChannel;
+    private final Thread thread;
+
+    public EchoServer() throws IOException {
+        serverSocketChannel = ServerSocketChannel.open();
+        serverSocketChannel.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        thread = new Thread(this, "Sniffy Benchmark Echo Server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) serverSocketChannel.socket().getLocalSocketAddress();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (serverSocketChannel.isOpen()) {
+                final SocketChannel socketChannel = serverSocketChannel.accept();
+                socketChannel.socket().setTcpNoDelay(true);
+                Thread connectionThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        echo(socketChannel);
+                    }
+                }, "Sniffy Benchmark Echo Server Connection");
+                connectionThread.setDaemon(true);
+                connectionThread.start();
+            }
+        } catch (IOException e) {
+            // server socket is closed
+        }
+    }
+
+    private static void echo(SocketChannel socketChannel) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try {
+            while (socketChannel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    socketChannel.write(buffer);
+                }
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            // connection is closed
+        } finally {
+            try {
+                socketChannel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocketChannel.close();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package io.sniffy.socket;
+
+import io.sniffy.Sniffy;
+import io.sniffy.Spy;
+import io.sniffy.configuration.SniffyConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends data over loopback connection using {@link SnifferOutputStream} and reads the echoed response using {@link SnifferInputStream}.
+ * <ul>
+ * <li>{@code plain} - Sniffy socket instrumentation is not installed</li>
+ * <li>{@code sniffy} - instrumentation is installed but there are no spies</li>
+ * <li>{@code spy} - instrumentation is installed and global {@link Spy} is registered</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnifferSocketBenchmark {
+
+    @Param({"plain", "sniffy", "spy"})
+    public String mode;
+
+    @Param({"64", "8192"})
+    public int size;
+
+    private EchoServer echoServer;
+
+    private Spy<?> spy;
+
+    private Socket socket;
+    private InputStream inputStream;
+    private OutputStream outputStream;
+
+    private byte[] request;
+    private byte[] response;
+
+    @Setup
+    public void setUp() throws IOException {
+        echoServer = new EchoServer();
+
+        if (!"plain".equals(mode)) {
+            SniffyConfiguration.INSTANCE.setMonitorSocket(true);
+            Sniffy.initialize();
+        }
+        if ("spy".equals(mode)) {
+            spy = Sniffy.spy();
+        }
+
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(echoServer.getAddress());
+        inputStream = socket.getInputStream();
+        outputStream = socket.getOutputStream();
+
+        request = new byte[size];
+        for (int i = 0; i < size; i++) {
+            request[i] = (byte) i;
+        }
+        response = new byte[size];
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        socket.close();
+        if (null != spy) {
+            spy.close();
+        }
+        echoServer.close();
+    }
+
+    @Benchmark
+    public int writeAndRead() throws IOException {
+        outputStream.write(request);
+        outputStream.flush();
+        int read = 0;
+        while (read < size) {
+            int bytes = inputStream.read(response, read, size - read);
+            if (bytes < 0) throw new IOException("Connection closed");
+            read += bytes;
+        }
+        return response[size - 1];
+    }
+
+    @Benchmark
+    public int writeAndReadByteByByte() throws IOException {
+        outputStream.write(request[0]);
+        outputStream.flush();
+        return inputStream.read();
+    }
+
+}
@@ -0,0 +1,53 @@
+package io.sniffy.tls;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up a {@link MessageDigest} via JCA; every lookup reads current provider list via {@code Providers.getProviderList()}
+ * which is intercepted by {@link SniffyThreadLocalProviderList} once Sniffy TLS module is installed.
+ * <ul>
+ * <li>{@code plain} - Sniffy TLS module is not installed</li>
+ * <li>{@code sniffy} - Sniffy TLS module is installed</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageDigestBenchmark {
+
+    @Param({"plain", "sniffy"})
+    public String mode;
+
+    @Setup
+    public void setUp() {
+        if ("sniffy".equals(mode)) {
+            SniffyTlsModule.initialize();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if ("sniffy".equals(mode)) {
+            SniffyTlsModule.uninstall();
+        }
+    }
+
+    @Benchmark
+    public MessageDigest getInstance() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public MessageDigest getInstanceContended() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256");
+    }
+
+}
@@ -0,0 +1,162 @@
+package io.sniffy.tls;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import javax.net.ssl.*;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static javax.net.ssl.SSLEngineResult.HandshakeStatus.NEED_TASK;
+import static javax.net.ssl.SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
+
+/**
+ * Encrypts and decrypts application data using a pair of {@link SSLEngine} instances connected in memory.
+ * In {@code sniffy} mode both engines are wrapped with {@link SniffySSLEngine}; since there's no underlying socket
+ * this benchmark measures the overhead of wrapper itself rather than capturing decrypted traffic
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SniffySSLEngineBenchmark {
+
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    @Param({"plain", "sniffy"})
+    public String mode;
+
+    @Param({"64", "8192"})
+    public int size;
+
+    private SSLEngine clientEngine;
+    private SSLEngine serverEngine;
+
+    private ByteBuffer applicationData;
+    private ByteBuffer packetData;
+    private ByteBuffer receivedData;
+
+    @Setup
+    public void setUp() throws Exception {
+        SSLContext sslContext = createSslContext();
+
+        clientEngine = sslContext.createSSLEngine("localhost", 443);
+        clientEngine.setUseClientMode(true);
+        serverEngine = sslContext.createSSLEngine();
+        serverEngine.setUseClientMode(false);
+
+        if ("sniffy".equals(mode)) {
+            clientEngine = new SniffySSLEngine(clientEngine, "localhost", 443);
+            serverEngine = new SniffySSLEngine(serverEngine);
+        }
+
+        handshake(clientEngine, serverEngine);
+
+        applicationData = ByteBuffer.allocate(size);
+        for (int i = 0; i < size; i++) {
+            applicationData.put((byte) i);
+        }
+        packetData = ByteBuffer.allocate(clientEngine.getSession().getPacketBufferSize());
+        receivedData = ByteBuffer.allocate(serverEngine.getSession().getApplicationBufferSize());
+    }
+
+    @Benchmark
+    public SSLEngineResult wrap() throws SSLException {
+        applicationData.clear();
+        packetData.clear();
+        return clientEngine.wrap(applicationData, packetData);
+    }
+
+    @Benchmark
+    public SSLEngineResult wrapAndUnwrap() throws SSLException {
+        applicationData.clear();
+        packetData.clear();
+        clientEngine.wrap(applicationData, packetData);
+        packetData.flip();
+        receivedData.clear();
+        return serverEngine.unwrap(packetData, receivedData);
+    }
+
+    private static SSLContext createSslContext() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+        long now = System.currentTimeMillis();
+        X500Name x500Name = new X500Name("CN=localhost");
+        X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(
+                new JcaX509v3CertificateBuilder(
+                        x500Name, BigInteger.valueOf(now), new Date(now), new Date(now + TimeUnit.DAYS.toMillis(1)),
+                        x500Name, keyPair.getPublic()
+                ).build(new JcaContentSignerBuilder("SHA256WithRSA").build(keyPair.getPrivate()))
+        );
+
+        KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        keyStore.load(null, PASSWORD);
+        keyStore.setKeyEntry("key", keyPair.getPrivate(), PASSWORD, new Certificate[]{certificate});
+        keyStore.setCertificateEntry("ca", certificate);
+
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, PASSWORD);
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(keyStore);
+
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+        return sslContext;
+    }
+
+    private static void handshake(SSLEngine clientEngine, SSLEngine serverEngine) throws SSLException {
+        ByteBuffer empty = ByteBuffer.allocate(0);
+        ByteBuffer clientToServer = ByteBuffer.allocate(clientEngine.getSession().getPacketBufferSize());
+        ByteBuffer serverToClient = ByteBuffer.allocate(serverEngine.getSession().getPacketBufferSize());
+        ByteBuffer clientApplicationData = ByteBuffer.allocate(clientEngine.getSession().getApplicationBufferSize());
+        ByteBuffer serverApplicationData = ByteBuffer.allocate(serverEngine.getSession().getApplicationBufferSize());
+
+        clientEngine.beginHandshake();
+        serverEngine.beginHandshake();
+
+        for (int i = 0; i < 100; i++) {
+            clientEngine.wrap(empty, clientToServer);
+            serverEngine.wrap(empty, serverToClient);
+
+            clientToServer.flip();
+            serverToClient.flip();
+            clientEngine.unwrap(serverToClient, clientApplicationData);
+            serverEngine.unwrap(clientToServer, serverApplicationData);
+            clientToServer.compact();
+            serverToClient.compact();
+
+            runDelegatedTasks(clientEngine);
+            runDelegatedTasks(serverEngine);
+
+            if (NOT_HANDSHAKING == clientEngine.getHandshakeStatus() && NOT_HANDSHAKING == serverEngine.getHandshakeStatus() &&
+                    0 == clientToServer.position() && 0 == serverToClient.position()) {
+                return;
+            }
+        }
+
+        throw new SSLHandshakeException("Failed to complete handshake");
+    }
+
+    private static void runDelegatedTasks(SSLEngine engine) {
+        while (NEED_TASK == engine.getHandshakeStatus()) {
+            Runnable task = engine.getDelegatedTask();
+            if (null == task) break;
+            task.run();
+        }
+    }
+
+}
@@ -0,0 +1 @@
+memberSearchIndex = [{"p":"io.sniffy.socket","c":"EchoServer","l":"close()"},{"p":"io.sniffy.nio","c":"SniffySocketChannelBenchmark","l":"direct"},{"p":"io.sniffy.socket","c":"EchoServer","l":"EchoServer()","u":"%3Cinit%3E()"},{"p":"io.sniffy.benchmarks.sql","c":"SniffyDriverBenchmark","l":"executePreparedStatement(Blackhole)","u":"executePreparedStatement(org.openjdk.jmh.infra.Blackhole)"},{"p":"io.sniffy.benchmarks.sql","c":"JdbcWrapperBenchmark","l":"executeQuery(Blackhole)","u":"executeQuery(org.openjdk.jmh.infra.Blackhole)"},{"p":"io.sniffy.benchmarks.sql","c":"SniffyDriverBenchmark","l":"executeStatement()"},{"p":"io.sniffy.benchmarks.sql","c":"SniffyDriverBenchmark","l":"executeUpdate()"},{"p":"io.sniffy.benchmarks.sql","c":"SqlUtilBenchmark","l":"fingerprint()"},{"p":"io.sniffy.socket","c":"EchoServer","l":"getAddress()"},{"p":"io.sniffy.tls","c":"MessageDigestBenchmark","l":"getInstance()"},{"p":"io.sniffy.tls","c":"MessageDigestBenchmark","l":"getInstanceContended()"},{"p":"io.sniffy.benchmarks.sql","c":"SqlUtilBenchmark","l":"guessQueryType()"},{"p":"io.sniffy.benchmarks.sql","c":"JdbcWrapperBenchmark","l":"iterateResultSet(Blackhole)","u":"iterateResultSet(org.openjdk.jmh.infra.Blackhole)"},{"p":"io.sniffy.benchmarks.sql","c":"SniffyDriverBenchmark","l":"iterateResultSet(Blackhole)","u":"iterateResultSet(org.openjdk.jmh.infra.Blackhole)"},{"p":"io.sniffy.benchmarks.sql","c":"JdbcWrapperBenchmark","l":"jdbc"},{"p":"io.sniffy.benchmarks.sql","c":"JdbcWrapperBenchmark","l":"JdbcWrapperBenchmark()","u":"%3Cinit%3E()"},{"p":"io.sniffy.tls","c":"MessageDigestBenchmark","l":"MessageDigestBenchmark()","u":"%3Cinit%3E()"},{"p":"io.sniffy.nio","c":"SniffySocketChannelBenchmark","l":"mode"},{"p":"io.sniffy.socket","c":"SnifferSocketBenchmark","l":"mode"},{"p":"io.sniffy.tls","c":"MessageDigestBenchmark","l":"mode"},{"p":"io.sniffy.tls","c":"SniffySSLEngineBenchmark","l":"mode"},{"p":"io.sniffy.benchmarks.sql","c":"SqlUtilBenchmark","l":"normalizeInStatement()"},{"p":"io.sniffy.benchmarks.sql","c":"SqlUtilBenchmark","l":"parameters"},{"p":"io.sniffy.socket","c":"EchoServer","l":"run()"},{"p":"io.sniffy.benchmarks.sql","c":"JdbcWrapperBenchmark","l":"setUp()"},{"p":"io.sniffy.benchmarks.sql","c":"SniffyDriverBenchmark","l":"setUp()"},{"p":"io.sniffy.benchmarks.sql","c":"SqlUtilBenchmark","l":"setUp()"},{"p":"io.sniffy.nio","c":"SniffySocketChannelBenchmark","l":"setUp()"},{"p":"io.sniffy.socket","c":"SnifferSocketBenchmark","l":"setUp()"},{"p":"io.sniffy.tls","c":"MessageDigestBenchmark","l":"setUp()"},{"p":"io.sniffy.tls","c":"SniffySSLEngineBenchmark","l":"setUp()"},{"p":"io.sniffy.nio","c":"SniffySocketChannelBenchmark","l":"size"},{"p":"io.sniffy.socket","c":"SnifferSocketBenchmark","l":"size"},{"p":"io.sniffy.tls","c":"SniffySSLEngineBenchmark","l":"size"},{"p":"io.sniffy.socket","c":"SnifferSocketBenchmark","l":"SnifferSocketBenchmark()","u":"%3Cinit%3E()"},{"p":"io.sniffy.benchmarks.sql","c":"SniffyDriverBenchmark","l":"SniffyDriverBenchmark()","u":"%3Cinit%3E()"},{"p":"io.sniffy.nio","c":"SniffySocketChannelBenchmark","l":"SniffySocketChannelBenchmark()","u":"%3Cinit%3E()"},{"p":"io.sniffy.tls","c":"SniffySSLEngineBenchmark","l":"SniffySSLEngineBenchmark()","u":"%3Cinit%3E()"},{"p":"io.sniffy.benchmarks.sql","c":"JdbcWrapperBenchmark","l":"spy"},{"p":"io.sniffy.benchmarks.sql","c":"SniffyDriverBenchmark","l":"spy"},{"p":"io.sniffy.benchmarks.sql","c":"SqlUtilBenchmark","l":"SqlUtilBenchmark()","u":"%3Cinit%3E()"},{"p":"io.sniffy.benchmarks.sql","c":"JdbcWrapperBenchmark","l":"tearDown()"},{"p":"io.sniffy.benchmarks.sql","c":"SniffyDriverBenchmark","l":"tearDown()"},{"p":"io.sniffy.nio","c":"SniffySocketChannelBenchmark","l":"tearDown()"},{"p":"io.sniffy.socket","c":"SnifferSocketBenchmark","l":"tearDown()"},{"p":"io.sniffy.tls","c":"MessageDigestBenchmark","l":"tearDown()"},{"p":"io.sniffy.tls","c":"SniffySSLEngineBenchmark","l":"wrap()"},{"p":"io.sniffy.tls","c":"SniffySSLEngineBenchmark","l":"wrapAndUnwrap()"},{"p":"io.sniffy.nio","c":"SniffySocketChannelBenchmark","l":"writeAndRead()"},{"p":"io.sniffy.socket","c":"SnifferSocketBenchmark","l":"writeAndRead()"},{"p":"io.sniffy.socket","c":"SnifferSocketBenchmark","l":"writeAndReadByteByByte()"}];updateSearchResults();
\ No newline at end of file
@@ -0,0 +1 @@
+packageSearchIndex = [{"l":"All Packages","u":"allpackages-index.html"},{"l":"io.sniffy.benchmarks.sql"},{"l":"io.sniffy.nio"},{"l":"io.sniffy.socket"},{"l":"io.sniffy.tls"}];updateSearchResults();
\ No newline at end of file
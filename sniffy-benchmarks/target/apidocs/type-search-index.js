@@ -0,0 +1 @@
+typeSearchIndex = [{"l":"All Classes and Interfaces","u":"allclasses-index.html"},{"p":"io.sniffy.socket","l":"EchoServer"},{"p":"io.sniffy.benchmarks.sql","l":"JdbcWrapperBenchmark"},{"p":"io.sniffy.tls","l":"MessageDigestBenchmark"},{"p":"io.sniffy.socket","l":"SnifferSocketBenchmark"},{"p":"io.sniffy.benchmarks.sql","l":"SniffyDriverBenchmark"},{"p":"io.sniffy.nio","l":"SniffySocketChannelBenchmark"},{"p":"io.sniffy.tls","l":"SniffySSLEngineBenchmark"},{"p":"io.sniffy.benchmarks.sql","l":"SqlUtilBenchmark"}];updateSearchResults();
\ No newline at end of file
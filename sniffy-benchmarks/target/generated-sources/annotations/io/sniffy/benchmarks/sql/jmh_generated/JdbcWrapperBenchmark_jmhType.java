@@ -0,0 +1,4 @@
+package io.sniffy.benchmarks.sql.jmh_generated;
+public class JdbcWrapperBenchmark_jmhType extends JdbcWrapperBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package io.sniffy.benchmarks.sql.jmh_generated;
+public class SniffyDriverBenchmark_jmhType extends SniffyDriverBenchmark_jmhType_B3 {
+}
+
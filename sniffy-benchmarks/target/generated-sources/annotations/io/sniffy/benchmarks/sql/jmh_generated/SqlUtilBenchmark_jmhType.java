@@ -0,0 +1,4 @@
+package io.sniffy.benchmarks.sql.jmh_generated;
+public class SqlUtilBenchmark_jmhType extends SqlUtilBenchmark_jmhType_B3 {
+}
+
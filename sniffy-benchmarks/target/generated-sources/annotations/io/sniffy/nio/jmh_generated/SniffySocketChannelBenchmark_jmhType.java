@@ -0,0 +1,4 @@
+package io.sniffy.nio.jmh_generated;
+public class SniffySocketChannelBenchmark_jmhType extends SniffySocketChannelBenchmark_jmhType_B3 {
+}
+
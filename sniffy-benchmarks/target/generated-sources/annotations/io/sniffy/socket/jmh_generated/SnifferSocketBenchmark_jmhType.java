@@ -0,0 +1,4 @@
+package io.sniffy.socket.jmh_generated;
+public class SnifferSocketBenchmark_jmhType extends SnifferSocketBenchmark_jmhType_B3 {
+}
+
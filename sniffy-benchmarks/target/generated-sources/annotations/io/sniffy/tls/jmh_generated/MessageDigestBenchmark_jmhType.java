@@ -0,0 +1,4 @@
+package io.sniffy.tls.jmh_generated;
+public class MessageDigestBenchmark_jmhType extends MessageDigestBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package io.sniffy.tls.jmh_generated;
+public class SniffySSLEngineBenchmark_jmhType extends SniffySSLEngineBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,42 @@
+package java.lang;
+
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@IgnoreJRERequirement
+public final class StackWalker {
+
+    public interface StackFrame {
+
+        String getClassName();
+
+        String getMethodName();
+
+        StackTraceElement toStackTraceElement();
+
+    }
+
+    public enum Option {
+        RETAIN_CLASS_REFERENCE,
+        SHOW_REFLECT_FRAMES,
+        SHOW_HIDDEN_FRAMES
+    }
+
+    private StackWalker() {
+    }
+
+    public static StackWalker getInstance() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static StackWalker getInstance(Option option) {
+        throw new UnsupportedOperationException();
+    }
+
+    public <T> T walk(Function<? super Stream<StackFrame>, ? extends T> function) {
+        throw new UnsupportedOperationException();
+    }
+
+}
@@ -2,17 +2,27 @@ package io.sniffy;
 
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import io.sniffy.configuration.SniffyConfiguration;
+import io.sniffy.socket.ByteArena;
 import io.sniffy.socket.NetworkPacket;
 import io.sniffy.socket.SocketMetaData;
 import io.sniffy.socket.SocketStats;
 import io.sniffy.sql.SqlStats;
 import io.sniffy.sql.StatementMetaData;
+import io.sniffy.util.CapturedStackTrace;
 import io.sniffy.util.JVMUtil;
 import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @since 3.1
@@ -21,6 +31,11 @@ public abstract class BaseSpy<C extends BaseSpy<C>> {
 
     private final SpyConfiguration spyConfiguration;
 
+    /**
+     * Storage for bytes of captured traffic shared by all packets captured by this spy
+     */
+    private final ByteArena trafficArena = new ByteArena(SniffyConfiguration.INSTANCE.isCaptureTrafficOffHeap());
+
     protected volatile ConcurrentLinkedHashMap<StatementMetaData, SqlStats> executedStatements =
             new ConcurrentLinkedHashMap.Builder<StatementMetaData, SqlStats>().
                     maximumWeightedCapacity(Long.MAX_VALUE).
@@ -41,10 +56,25 @@ public abstract class BaseSpy<C extends BaseSpy<C>> {
                     maximumWeightedCapacity(Long.MAX_VALUE).
                     build();
 
+    private final AtomicLong networkTrafficBytes = new AtomicLong();
+    private final AtomicLong evictedNetworkTrafficBytes = new AtomicLong();
+    private final AtomicLong evictedNetworkPackets = new AtomicLong();
+    private final AtomicBoolean evictingNetworkTraffic = new AtomicBoolean();
+
+    /**
+     * Connections of captured packets (raw and decrypted) in the order packets were created; only used if
+     * {@link SpyConfiguration#getNetworkTrafficBudget()} is set.
+     * Since {@link #trafficArena} is append-only, evicting packets in this order releases whole arena chunks;
+     * the only packet kept out of this order is compacted to the chunk being written
+     */
+    private final Queue<CapturedPacket> capturedPackets = new ConcurrentLinkedQueue<CapturedPacket>();
+
+    private static final boolean CONCURRENT_DEQUE_AVAILABLE = JVMUtil.getVersion() >= 7;
+
     // TODO: backport ConcurrentLinkedDeque for Java 1.6 and remove this code
     @IgnoreJRERequirement
     private static <T> Deque<T> createConcurrentDeque() {
-        if (JVMUtil.getVersion() < 7) {
+        if (!CONCURRENT_DEQUE_AVAILABLE) {
             return new LinkedList<T>();
         } else {
             return new ConcurrentLinkedDeque<T>();
@@ -56,22 +86,35 @@ public abstract class BaseSpy<C extends BaseSpy<C>> {
             boolean sent, long timestamp,
             String stackTrace, ThreadMetaData threadMetaData,
             byte[] traffic, int off, int len) {
-        Deque<NetworkPacket> networkPackets = networkTraffic.get(socketMetaData);
-        if (null == networkPackets) {
-            networkTraffic.putIfAbsent(socketMetaData, networkPackets = createConcurrentDeque());
-        }
-        NetworkPacket lastPacket = networkPackets.peekLast();
-        if (null == lastPacket || !lastPacket.combine(sent, timestamp, stackTrace, threadMetaData, traffic, off, len, SniffyConfiguration.INSTANCE.getPacketMergeThreshold())) {
-            if (JVMUtil.getVersion() < 7) {
-                //noinspection SynchronizationOnLocalVariableOrMethodParameter
-                synchronized (networkPackets) {
-                    networkPackets.add(new NetworkPacket(sent, timestamp, stackTrace, threadMetaData, traffic, off, len));
-                }
-            } else {
-                networkPackets.add(new NetworkPacket(sent, timestamp, stackTrace, threadMetaData, traffic, off, len));
-            }
+        addNetworkPacket(networkTraffic, socketMetaData, sent, timestamp, stackTrace, null, threadMetaData, ByteBuffer.wrap(traffic), off, len);
+    }
 
-        }
+    /**
+     * Captures bytes between {@code off} and {@code off + len} absolute positions of given buffer;
+     * position and limit of given buffer aren't changed
+     *
+     * @since 3.1.14
+     */
+    protected void addNetworkTraffic(
+            SocketMetaData socketMetaData,
+            boolean sent, long timestamp,
+            String stackTrace, ThreadMetaData threadMetaData,
+            ByteBuffer traffic, int off, int len) {
+        addNetworkPacket(networkTraffic, socketMetaData, sent, timestamp, stackTrace, null, threadMetaData, traffic, off, len);
+    }
+
+    /**
+     * Captured stack trace is only rendered once {@link NetworkPacket#getStackTrace()} is called
+     *
+     * @see #addNetworkTraffic(SocketMetaData, boolean, long, String, ThreadMetaData, ByteBuffer, int, int)
+     * @since 3.1.14
+     */
+    void addNetworkTraffic(
+            SocketMetaData socketMetaData,
+            boolean sent, long timestamp,
+            ThreadMetaData threadMetaData, CapturedStackTrace capturedStackTrace,
+            ByteBuffer traffic, int off, int len) {
+        addNetworkPacket(networkTraffic, socketMetaData, sent, timestamp, null, capturedStackTrace, threadMetaData, traffic, off, len);
     }
 
     protected void addDecryptedNetworkTraffic(
@@ -79,25 +122,212 @@ public abstract class BaseSpy<C extends BaseSpy<C>> {
             boolean sent, long timestamp,
             String stackTrace, ThreadMetaData threadMetaData,
             byte[] traffic, int off, int len) {
-        Deque<NetworkPacket> networkPackets = decryptedNetworkTraffic.get(socketMetaData);
+        addNetworkPacket(decryptedNetworkTraffic, socketMetaData, sent, timestamp, stackTrace, null, threadMetaData, ByteBuffer.wrap(traffic), off, len);
+    }
+
+    /**
+     * @see #addNetworkTraffic(SocketMetaData, boolean, long, String, ThreadMetaData, ByteBuffer, int, int)
+     * @since 3.1.14
+     */
+    protected void addDecryptedNetworkTraffic(
+            SocketMetaData socketMetaData,
+            boolean sent, long timestamp,
+            String stackTrace, ThreadMetaData threadMetaData,
+            ByteBuffer traffic, int off, int len) {
+        addNetworkPacket(decryptedNetworkTraffic, socketMetaData, sent, timestamp, stackTrace, null, threadMetaData, traffic, off, len);
+    }
+
+    /**
+     * @see #addNetworkTraffic(SocketMetaData, boolean, long, ThreadMetaData, CapturedStackTrace, ByteBuffer, int, int)
+     * @since 3.1.14
+     */
+    void addDecryptedNetworkTraffic(
+            SocketMetaData socketMetaData,
+            boolean sent, long timestamp,
+            ThreadMetaData threadMetaData, CapturedStackTrace capturedStackTrace,
+            ByteBuffer traffic, int off, int len) {
+        addNetworkPacket(decryptedNetworkTraffic, socketMetaData, sent, timestamp, null, capturedStackTrace, threadMetaData, traffic, off, len);
+    }
+
+    private void addNetworkPacket(
+            ConcurrentLinkedHashMap<SocketMetaData, Deque<NetworkPacket>> networkTraffic,
+            SocketMetaData socketMetaData,
+            boolean sent, long timestamp,
+            String stackTrace, CapturedStackTrace capturedStackTrace, ThreadMetaData threadMetaData,
+            ByteBuffer traffic, int off, int len) {
+        Deque<NetworkPacket> networkPackets = networkTraffic.get(socketMetaData);
         if (null == networkPackets) {
-            decryptedNetworkTraffic.putIfAbsent(socketMetaData, networkPackets = createConcurrentDeque());
+            Deque<NetworkPacket> existingNetworkPackets = networkTraffic.putIfAbsent(socketMetaData, networkPackets = createConcurrentDeque());
+            if (null != existingNetworkPackets) {
+                networkPackets = existingNetworkPackets;
+            }
         }
+
+        long networkTrafficBudget = spyConfiguration.getNetworkTrafficBudget();
+
         NetworkPacket lastPacket = networkPackets.peekLast();
-        if (null == lastPacket || !lastPacket.combine(sent, timestamp, stackTrace, threadMetaData, traffic, off, len, SniffyConfiguration.INSTANCE.getPacketMergeThreshold())) {
-            if (JVMUtil.getVersion() < 7) {
+        if (null == lastPacket ||
+                // last packet of the connection being written isn't evicted, so it shouldn't grow beyond the evicted part of budget
+                (networkTrafficBudget > 0 && lastPacket.getLength() + len > networkTrafficBudget / 10) ||
+                !(null == capturedStackTrace ?
+                        lastPacket.combine(sent, timestamp, stackTrace, threadMetaData, traffic, off, len, SniffyConfiguration.INSTANCE.getPacketMergeThreshold()) :
+                        lastPacket.combineCaptured(sent, timestamp, capturedStackTrace, threadMetaData, traffic, off, len, SniffyConfiguration.INSTANCE.getPacketMergeThreshold()))) {
+            NetworkPacket networkPacket = null == capturedStackTrace ?
+                    new NetworkPacket(sent, timestamp, stackTrace, threadMetaData, trafficArena, traffic, off, len) :
+                    NetworkPacket.of(sent, timestamp, capturedStackTrace, threadMetaData, trafficArena, traffic, off, len);
+            if (!CONCURRENT_DEQUE_AVAILABLE) {
                 // TODO: backport ConcurrentLinkedDeque for Java 1.6 and remove this code
                 //noinspection SynchronizationOnLocalVariableOrMethodParameter
                 synchronized (networkPackets) {
-                    networkPackets.add(new NetworkPacket(sent, timestamp, stackTrace, threadMetaData, traffic, off, len));
+                    networkPackets.add(networkPacket);
                 }
             } else {
-                networkPackets.add(new NetworkPacket(sent, timestamp, stackTrace, threadMetaData, traffic, off, len));
+                networkPackets.add(networkPacket);
+            }
+            if (networkTrafficBudget > 0) {
+                capturedPackets.offer(new CapturedPacket(networkTraffic, socketMetaData, networkPackets));
             }
+        }
 
+        if (networkTrafficBudget > 0) {
+            if (networkTraffic.get(socketMetaData) != networkPackets) {
+                reattachNetworkPackets(networkTraffic, socketMetaData, networkPackets);
+            }
+            if (networkTrafficBytes.addAndGet(len) > networkTrafficBudget) {
+                evictNetworkTraffic(networkPackets, networkTrafficBudget);
+            }
+        } else {
+            networkTrafficBytes.addAndGet(len);
+        }
+    }
+
+    /**
+     * Puts back packets added to a connection which was concurrently removed by {@link #evictNetworkTraffic(Deque, long)}
+     */
+    private void reattachNetworkPackets(
+            ConcurrentLinkedHashMap<SocketMetaData, Deque<NetworkPacket>> networkTraffic,
+            SocketMetaData socketMetaData,
+            Deque<NetworkPacket> networkPackets) {
+        Deque<NetworkPacket> existingNetworkPackets = networkTraffic.putIfAbsent(socketMetaData, networkPackets);
+        if (null != existingNetworkPackets && existingNetworkPackets != networkPackets) {
+            NetworkPacket networkPacket;
+            while (null != (networkPacket = pollFirst(networkPackets))) {
+                if (!CONCURRENT_DEQUE_AVAILABLE) {
+                    //noinspection SynchronizationOnLocalVariableOrMethodParameter
+                    synchronized (existingNetworkPackets) {
+                        existingNetworkPackets.add(networkPacket);
+                    }
+                } else {
+                    existingNetworkPackets.add(networkPacket);
+                }
+                capturedPackets.offer(new CapturedPacket(networkTraffic, socketMetaData, existingNetworkPackets));
+            }
+        }
+    }
+
+    /**
+     * Evicts packets in the order they were captured until captured traffic fits into the low watermark of the budget.
+     * The last packet of the connection being written is kept; connections left without packets are removed
+     */
+    private void evictNetworkTraffic(Deque<NetworkPacket> currentNetworkPackets, long networkTrafficBudget) {
+        if (!evictingNetworkTraffic.compareAndSet(false, true)) return;
+        List<CapturedPacket> keptPackets = null;
+        try {
+            long lowWatermark = networkTrafficBudget - networkTrafficBudget / 10;
+            CapturedPacket capturedPacket;
+            while (networkTrafficBytes.get() > lowWatermark && null != (capturedPacket = capturedPackets.poll())) {
+                Deque<NetworkPacket> networkPackets = capturedPacket.networkPackets;
+                boolean keepLast = networkPackets == currentNetworkPackets;
+                NetworkPacket evictedPacket;
+                if (!CONCURRENT_DEQUE_AVAILABLE) {
+                    //noinspection SynchronizationOnLocalVariableOrMethodParameter
+                    synchronized (networkPackets) {
+                        evictedPacket = keepLast && networkPackets.size() <= 1 ? null : networkPackets.pollFirst();
+                    }
+                } else {
+                    evictedPacket = keepLast && networkPackets.peekFirst() == networkPackets.peekLast() ? null : networkPackets.pollFirst();
+                }
+                if (null == evictedPacket) {
+                    if (keepLast) {
+                        if (null == keptPackets) {
+                            keptPackets = new ArrayList<CapturedPacket>();
+                            // kept packet would otherwise pin a whole arena chunk shared with evicted packets
+                            NetworkPacket keptPacket = peekLast(networkPackets);
+                            if (null != keptPacket) {
+                                keptPacket.compact();
+                            }
+                        }
+                        keptPackets.add(capturedPacket);
+                    }
+                    continue;
+                }
+                int length = evictedPacket.getLength();
+                networkTrafficBytes.addAndGet(-length);
+                evictedNetworkTrafficBytes.addAndGet(length);
+                evictedNetworkPackets.incrementAndGet();
+                if (networkPackets.isEmpty() &&
+                        capturedPacket.networkTraffic.remove(capturedPacket.socketMetaData, networkPackets) &&
+                        !networkPackets.isEmpty()) {
+                    // packet was added concurrently
+                    reattachNetworkPackets(capturedPacket.networkTraffic, capturedPacket.socketMetaData, networkPackets);
+                }
+            }
+        } finally {
+            if (null != keptPackets) {
+                for (CapturedPacket capturedPacket : keptPackets) {
+                    capturedPackets.offer(capturedPacket);
+                }
+            }
+            evictingNetworkTraffic.set(false);
+        }
+    }
+
+    private static NetworkPacket peekLast(Deque<NetworkPacket> networkPackets) {
+        if (!CONCURRENT_DEQUE_AVAILABLE) {
+            //noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (networkPackets) {
+                return networkPackets.peekLast();
+            }
+        } else {
+            return networkPackets.peekLast();
+        }
+    }
+
+    private static NetworkPacket pollFirst(Deque<NetworkPacket> networkPackets) {
+        if (!CONCURRENT_DEQUE_AVAILABLE) {
+            //noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (networkPackets) {
+                return networkPackets.pollFirst();
+            }
+        } else {
+            return networkPackets.pollFirst();
         }
     }
 
+    /**
+     * @return number of captured traffic bytes (both raw and decrypted) currently kept by this spy
+     * @since 3.1.14
+     */
+    public long getNetworkTrafficBytes() {
+        return networkTrafficBytes.get();
+    }
+
+    /**
+     * @return number of captured traffic bytes evicted since {@link SpyConfiguration#getNetworkTrafficBudget()} was exceeded
+     * @since 3.1.14
+     */
+    public long getEvictedNetworkTrafficBytes() {
+        return evictedNetworkTrafficBytes.get();
+    }
+
+    /**
+     * @return number of network packets evicted since {@link SpyConfiguration#getNetworkTrafficBudget()} was exceeded
+     * @since 3.1.14
+     */
+    public long getEvictedNetworkPackets() {
+        return evictedNetworkPackets.get();
+    }
+
     protected BaseSpy(SpyConfiguration spyConfiguration) {
         this.spyConfiguration = spyConfiguration;
     }
@@ -105,6 +335,7 @@ public abstract class BaseSpy<C extends BaseSpy<C>> {
     public C reset() {
         resetExecutedStatements();
         resetSocketOperations();
+        resetNetworkTraffic();
         return self();
     }
 
@@ -130,14 +361,33 @@ public abstract class BaseSpy<C extends BaseSpy<C>> {
                 build();
     }
 
+    /**
+     * Discards captured packets together with the counters used for enforcing {@link SpyConfiguration#getNetworkTrafficBudget()},
+     * so that traffic captured after reset gets the whole budget
+     *
+     * @since 3.1.14
+     */
+    protected void resetNetworkTraffic() {
+        networkTraffic = new ConcurrentLinkedHashMap.Builder<SocketMetaData, Deque<NetworkPacket>>().
+                maximumWeightedCapacity(Long.MAX_VALUE).
+                build();
+        decryptedNetworkTraffic = new ConcurrentLinkedHashMap.Builder<SocketMetaData, Deque<NetworkPacket>>().
+                maximumWeightedCapacity(Long.MAX_VALUE).
+                build();
+        capturedPackets.clear();
+        networkTrafficBytes.set(0);
+        evictedNetworkTrafficBytes.set(0);
+        evictedNetworkPackets.set(0);
+    }
+
 
-    protected void addExecutedStatement(StatementMetaData statementMetaData, long elapsedTime, int bytesDown, int bytesUp, long rowsUpdated) {
+    protected void addExecutedStatement(StatementMetaData statementMetaData, long elapsedTimeNanos, int bytesDown, int bytesUp, long rowsUpdated) {
         SqlStats sqlStats = executedStatements.get(statementMetaData);
         if (null == sqlStats) {
-            sqlStats = executedStatements.putIfAbsent(statementMetaData, new SqlStats(elapsedTime, bytesDown, bytesUp, rowsUpdated, 1));
+            sqlStats = executedStatements.putIfAbsent(statementMetaData, new SqlStats(elapsedTimeNanos, TimeUnit.NANOSECONDS, bytesDown, bytesUp, rowsUpdated, 1));
         }
         if (null != sqlStats) {
-            sqlStats.accumulate(elapsedTime, bytesDown, bytesUp, rowsUpdated, 1);
+            sqlStats.accumulate(elapsedTimeNanos, TimeUnit.NANOSECONDS, bytesDown, bytesUp, rowsUpdated, 1);
         }
     }
 
@@ -148,14 +398,34 @@ public abstract class BaseSpy<C extends BaseSpy<C>> {
         }
     }
 
-    protected void addSocketOperation(SocketMetaData socketMetaData, long elapsedTime, int bytesDown, int bytesUp) {
+    protected void addSocketOperation(SocketMetaData socketMetaData, long elapsedTimeNanos, int bytesDown, int bytesUp) {
         SocketStats socketStats = socketOperations.get(socketMetaData);
         if (null == socketStats) {
-            socketStats = socketOperations.putIfAbsent(socketMetaData, new SocketStats(elapsedTime, bytesDown, bytesUp));
+            socketStats = socketOperations.putIfAbsent(socketMetaData, new SocketStats(elapsedTimeNanos, TimeUnit.NANOSECONDS, bytesDown, bytesUp));
         }
         if (null != socketStats) {
-            socketStats.accumulate(elapsedTime, bytesDown, bytesUp);
+            socketStats.accumulate(elapsedTimeNanos, TimeUnit.NANOSECONDS, bytesDown, bytesUp);
         }
     }
 
+    /**
+     * Connection which a captured packet belongs to
+     */
+    private static final class CapturedPacket {
+
+        private final ConcurrentLinkedHashMap<SocketMetaData, Deque<NetworkPacket>> networkTraffic;
+        private final SocketMetaData socketMetaData;
+        private final Deque<NetworkPacket> networkPackets;
+
+        private CapturedPacket(
+                ConcurrentLinkedHashMap<SocketMetaData, Deque<NetworkPacket>> networkTraffic,
+                SocketMetaData socketMetaData,
+                Deque<NetworkPacket> networkPackets) {
+            this.networkTraffic = networkTraffic;
+            this.socketMetaData = socketMetaData;
+            this.networkPackets = networkPackets;
+        }
+
+    }
+
 }
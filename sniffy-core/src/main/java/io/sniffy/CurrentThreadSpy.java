@@ -2,19 +2,41 @@ package io.sniffy;
 
 import io.sniffy.socket.SocketMetaData;
 import io.sniffy.socket.SocketStats;
+import io.sniffy.socket.SocketStatsAccumulator;
 import io.sniffy.sql.SqlStatement;
 import io.sniffy.sql.SqlStats;
 import io.sniffy.sql.StatementMetaData;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @since 3.1
  */
 public class CurrentThreadSpy extends BaseSpy<CurrentThreadSpy> implements Closeable {
 
+    // accessed only from the thread owning this spy
+    private long effectiveSpyConfigurationVersion = -1;
+    private SpyConfiguration effectiveSpyConfiguration;
+
+    /**
+     * Accumulators of connections with socket operations performed by the thread owning this spy which weren't
+     * reported yet; operations can be accumulated on other threads in case of asynchronous channels
+     */
+    private final Set<SocketStatsAccumulator> pendingSocketStatsAccumulators =
+            Collections.newSetFromMap(new ConcurrentHashMap<SocketStatsAccumulator, Boolean>());
+
+    /**
+     * Sequence of the last event published to {@link SpyEventDispatcher} for this spy or -1 if there was none
+     */
+    private final AtomicLong lastEventSequence = new AtomicLong(-1);
+
     @Deprecated
     public CurrentThreadSpy(boolean captureStackTraces) {
         this(SpyConfiguration.builder().captureStackTraces(captureStackTraces).build());
@@ -26,6 +48,7 @@ public class CurrentThreadSpy extends BaseSpy<CurrentThreadSpy> implements Close
     }
 
     public int executedStatements() {
+        flushPendingEvents();
         int count = 0;
 
         if (null != executedStatements) for (Map.Entry<StatementMetaData, SqlStats> entry : executedStatements.entrySet()) {
@@ -40,15 +63,66 @@ public class CurrentThreadSpy extends BaseSpy<CurrentThreadSpy> implements Close
     }
 
     public Map<StatementMetaData, SqlStats> getExecutedStatements() {
+        flushPendingEvents();
         return executedStatements;
     }
 
     public Map<SocketMetaData, SocketStats> getSocketOperations() {
+        flushPendingEvents();
         return socketOperations;
     }
 
+    /**
+     * Reports pending socket operations of this spy's thread and waits until events published for this spy are
+     * applied; unlike {@link Sniffy#flushPendingEvents()} neither touches operations of other threads nor waits for
+     * events published after the last one for this spy. Returns immediately if there's nothing pending
+     */
+    void flushPendingEvents() {
+        flushPendingSocketStats();
+        long lastEventSequence = this.lastEventSequence.get();
+        if (lastEventSequence >= 0) {
+            Sniffy.flushPendingEvents(lastEventSequence);
+        }
+    }
+
+    private void flushPendingSocketStats() {
+        if (!pendingSocketStatsAccumulators.isEmpty()) {
+            for (Iterator<SocketStatsAccumulator> it = pendingSocketStatsAccumulators.iterator(); it.hasNext(); ) {
+                SocketStatsAccumulator accumulator = it.next();
+                it.remove();
+                Sniffy.flushSocketStats(accumulator);
+            }
+        }
+    }
+
+    void addPendingSocketStats(SocketStatsAccumulator accumulator) {
+        pendingSocketStatsAccumulators.add(accumulator);
+    }
+
+    void eventPublished(long sequence) {
+        long lastEventSequence;
+        do {
+            lastEventSequence = this.lastEventSequence.get();
+        } while (sequence > lastEventSequence && !this.lastEventSequence.compareAndSet(lastEventSequence, sequence));
+    }
+
+    /**
+     * @return configuration of this spy combined with configuration of global spies; cached until a new
+     * {@link SpyRegistrySnapshot} is published
+     * @since 3.1.14
+     */
+    SpyConfiguration getEffectiveSpyConfiguration(SpyRegistrySnapshot snapshot) {
+        if (snapshot.version != effectiveSpyConfigurationVersion || null == effectiveSpyConfiguration) {
+            effectiveSpyConfiguration = snapshot.or(getSpyConfiguration());
+            effectiveSpyConfigurationVersion = snapshot.version;
+        }
+        return effectiveSpyConfiguration;
+    }
+
     @Override
     public void close() throws IOException {
+        // operations of other threads aren't flushed unlike when global spy is closed
+        flushPendingSocketStats();
         Sniffy.removeCurrentThreadSpyReference();
     }
 
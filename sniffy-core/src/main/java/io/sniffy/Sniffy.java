@@ -8,8 +8,11 @@ import io.sniffy.log.PolyglogFactory;
 import io.sniffy.log.PolyglogLevel;
 import io.sniffy.socket.*;
 import io.sniffy.sql.SqlStatement;
+import io.sniffy.sql.SqlTimeAggregator;
+import io.sniffy.sql.SqlTimer;
 import io.sniffy.sql.SqlUtil;
 import io.sniffy.sql.StatementMetaData;
+import io.sniffy.util.CapturedStackTrace;
 import io.sniffy.util.JVMUtil;
 import io.sniffy.util.OSUtil;
 
@@ -21,7 +24,10 @@ import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Queue;
@@ -50,33 +56,55 @@ public class Sniffy {
 
     public static final int TOP_SQL_CAPACITY = 1024;
 
+    //@VisibleForTesting
+    protected static final Queue<WeakReference<Spy>> registeredSpies =
+            new ConcurrentLinkedQueue<WeakReference<Spy>>();
+    //@VisibleForTesting
+    protected static final ConcurrentMap<Long, WeakReference<CurrentThreadSpy>> currentThreadSpies =
+            new ConcurrentHashMap<Long, WeakReference<CurrentThreadSpy>>();
+
     /**
-     * Indicates if Sniffy potentially has global (non thread-local) spies registered
-     * Once set to true it is never reseted to false
-     * <p>
-     * Used for (premature) optimization only
+     * Number of entries in {@link #currentThreadSpies}; if zero there's no need to check thread local spies
      *
-     * @since 3.1.9
+     * @since 3.1.14
      */
-    private static volatile boolean hasGlobalSpies = false;
+    private static final AtomicInteger currentThreadSpiesCount = new AtomicInteger();
 
     /**
-     * Indicates if Sniffy potentially has thread-local spies registered
-     * Once set to true it is never reseted to false
-     * <p>
-     * Used for (premature) optimization only
+     * Immutable snapshot of registered global spies; replaced on each global spy registration or removal
      *
-     * @since 3.1.9
+     * @since 3.1.14
      */
-    private static volatile boolean hasThreadLocalSpies = false;
+    private static volatile SpyRegistrySnapshot spyRegistrySnapshot =
+            new SpyRegistrySnapshot(0, Collections.<WeakReference<Spy>>emptyList(), SpyRegistrySnapshot.emptySpyConfigurationBuilder().build());
 
-    //@VisibleForTesting
-    protected static final Queue<WeakReference<Spy>> registeredSpies =
-            new ConcurrentLinkedQueue<WeakReference<Spy>>();
-    //@VisibleForTesting
-    protected static final ConcurrentMap<Long, WeakReference<CurrentThreadSpy>> currentThreadSpies =
-            new ConcurrentHashMap<Long, WeakReference<CurrentThreadSpy>>();
+    private static final ThreadLocal<WeakReference<CurrentThreadSpy>> currentThreadSpyReference =
+            new ThreadLocal<WeakReference<CurrentThreadSpy>>();
+
+    /**
+     * Not null if asynchronous event processing is enabled
+     *
+     * @since 3.1.14
+     */
+    private static volatile SpyEventDispatcher spyEventDispatcher;
+
+
+    /**
+     * Correlates connections created by Sniffy SSLEngine with network connections used for sending their traffic
+     *
+     * @since 3.1.14
+     */
+    public final static ClientHelloRegistry CLIENT_HELLO_REGISTRY = new ClientHelloRegistry(
+            SniffyConfiguration.INSTANCE.getClientHelloCacheSize(),
+            SniffyConfiguration.INSTANCE.getClientHelloCacheExpireAfterMillis()
+    );
 
+    /**
+     * @deprecated use {@link #CLIENT_HELLO_REGISTRY}; this map is a view of it which finds each connection
+     * only once and cannot be iterated
+     */
+    @Deprecated
+    public final static Map<ByteBuffer, SniffySSLNetworkConnection> CLIENT_HELLO_CACHE = CLIENT_HELLO_REGISTRY.asMap();
 
     // TODO: add globalSocketStats
     protected static volatile ConcurrentLinkedHashMap<String, Timer> globalSqlStats =
@@ -84,8 +112,37 @@ public class Sniffy {
                     maximumWeightedCapacity(SniffyConfiguration.INSTANCE.getTopSqlCapacity()).
                     build();
 
+    /**
+     * @since 3.1.14
+     */
+    //noinspection Convert2Lambda
+    private static final SqlTimeAggregator sqlTimeAggregator = new SqlTimeAggregator() {
+
+        @Override
+        protected Timer getTimer(String normalizedSql) {
+            return getSqlTimer(normalizedSql);
+        }
+
+    };
+
     private static final ThreadLocal<SocketStats> socketStatsAccumulator = new ThreadLocal<SocketStats>();
 
+    /**
+     * Connections with socket operations which haven't been published to spies yet
+     *
+     * @since 3.1.14
+     */
+    private static final Queue<SocketStatsAccumulator> pendingSocketStatsAccumulators =
+            new ConcurrentLinkedQueue<SocketStatsAccumulator>();
+
+    private static final AtomicInteger pendingSocketStatsAccumulatorsCount = new AtomicInteger();
+
+    /**
+     * Pending connections are flushed eagerly once there are more of them, so that closed connections
+     * do not pile up if spies are not queried for a long time
+     */
+    private static final int MAX_PENDING_SOCKET_STATS_ACCUMULATORS = 1024;
+
     public final static AtomicInteger CONNECTION_ID_SEQUENCE = new AtomicInteger();
 
     private static volatile boolean initialized = false;
@@ -179,6 +236,29 @@ public class Sniffy {
 
         });
 
+        setAsyncEventProcessing(SniffyConfiguration.INSTANCE.isAsyncEventProcessing());
+
+        //noinspection Convert2Lambda
+        SniffyConfiguration.INSTANCE.addAsyncEventProcessingListener(new PropertyChangeListener() {
+
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                setAsyncEventProcessing(Boolean.TRUE.equals(evt.getNewValue()));
+            }
+
+        });
+
+        // default value of bufferIncomingTraffic is a part of effective spy configuration
+        //noinspection Convert2Lambda
+        SniffyConfiguration.INSTANCE.addBufferIncomingTrafficListener(new PropertyChangeListener() {
+
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                publishSpyRegistrySnapshot();
+            }
+
+        });
+
         if (SniffyConfiguration.INSTANCE.isMonitorSocket()) {
 
             LOG.info("Socket monitoring enabled - installing SnifferSocketImplFactory");
@@ -336,153 +416,307 @@ public class Sniffy {
         }
     }
 
-    // TODO: call this method via Disruptor or something
+    /**
+     * @param elapsedTime query execution time in milliseconds
+     * @deprecated use {@link #logSqlTime(String, long, TimeUnit)} which supports sub-millisecond precision
+     */
+    @Deprecated
     public static void logSqlTime(String sql, long elapsedTime) {
+        logSqlTime(sql, elapsedTime, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Query execution times are buffered and merged into {@link #getGlobalSqlStats()} in batches
+     *
+     * @since 3.1.14
+     */
+    public static void logSqlTime(String sql, long elapsedTime, TimeUnit timeUnit) {
         if (SniffyConfiguration.INSTANCE.getTopSqlCapacity() <= 0) return;
-        String normalizedSql = SqlUtil.normalizeInStatement(sql);
+        long elapsedTimeNanos = timeUnit.toNanos(elapsedTime);
+        SpyEventDispatcher spyEventDispatcher = Sniffy.spyEventDispatcher;
+        if (null == spyEventDispatcher || !spyEventDispatcher.publishSqlTime(sql, elapsedTimeNanos)) {
+            sqlTimeAggregator.record(sql, elapsedTimeNanos);
+        }
+    }
+
+    static void updateSqlTime(String sql, long elapsedTimeNanos) {
+        Timer timer = getSqlTimer(SqlUtil.normalizeInStatement(sql));
+        if (timer instanceof SqlTimer) {
+            ((SqlTimer) timer).update(elapsedTimeNanos, System.currentTimeMillis());
+        } else {
+            timer.update(elapsedTimeNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer getSqlTimer(String normalizedSql) {
+        ConcurrentLinkedHashMap<String, Timer> globalSqlStats = Sniffy.globalSqlStats;
         Timer timer = globalSqlStats.get(normalizedSql);
         if (null == timer) {
-            Timer newTimer = new Timer();
-            newTimer.update(elapsedTime, TimeUnit.MILLISECONDS);
+            Timer newTimer = new SqlTimer(SniffyConfiguration.INSTANCE.getTopSqlWindowsMillis());
             timer = globalSqlStats.putIfAbsent(normalizedSql, newTimer);
+            if (null == timer) {
+                timer = newTimer;
+            }
         }
-        if (null != timer) {
-            timer.update(elapsedTime, TimeUnit.MILLISECONDS);
-        }
+        return timer;
     }
 
+    /**
+     * Merges buffered query execution times first
+     *
+     * @return timers of normalized SQL queries; instances of {@link SqlTimer} unless added to this map explicitly
+     */
     public static ConcurrentMap<String, Timer> getGlobalSqlStats() {
+        sqlTimeAggregator.flush();
         return globalSqlStats;
     }
 
     protected static WeakReference<Spy> registerSpy(Spy spy) {
-        LOG.trace("Registered new global Spy " + spy);
-        hasGlobalSpies = true;
+        LOG.trace("Registered new global Spy {}", spy);
+        flushSocketStats();
         WeakReference<Spy> spyReference = new WeakReference<Spy>(spy);
         registeredSpies.add(spyReference);
+        publishSpyRegistrySnapshot();
         return spyReference;
     }
 
+    /**
+     * Thread local spies aren't part of {@link SpyRegistrySnapshot}, so registering them doesn't publish a new one
+     */
     protected static WeakReference<CurrentThreadSpy> registerCurrentThreadSpy(CurrentThreadSpy spy) {
-        LOG.trace("Registered new ThreadLocal Spy " + spy);
-        hasThreadLocalSpies = true;
+        LOG.trace("Registered new ThreadLocal Spy {}", spy);
+        // operations performed by this thread so far shouldn't be reported to the new spy
+        flushSocketStats();
         WeakReference<CurrentThreadSpy> spyReference = new WeakReference<CurrentThreadSpy>(spy);
-        currentThreadSpies.put(Thread.currentThread().getId(), spyReference);
+        if (null == currentThreadSpies.put(Thread.currentThread().getId(), spyReference)) {
+            currentThreadSpiesCount.incrementAndGet();
+        }
+        currentThreadSpyReference.set(spyReference);
         return spyReference;
     }
 
     protected static void removeSpyReference(WeakReference<Spy> spyReference) {
-        LOG.trace("Removing global Spy reference" + spyReference);
+        LOG.trace("Removing global Spy reference{}", spyReference);
+        flushSocketStats();
         registeredSpies.remove(spyReference);
+        publishSpyRegistrySnapshot();
     }
 
     protected static void removeCurrentThreadSpyReference() {
         WeakReference<CurrentThreadSpy> removed = currentThreadSpies.remove(Thread.currentThread().getId());
-        LOG.trace("Removed ThreadLocal Spy reference " + removed);
+        if (null != removed) {
+            currentThreadSpiesCount.decrementAndGet();
+        }
+        currentThreadSpyReference.remove();
+        LOG.trace("Removed ThreadLocal Spy reference {}", removed);
     }
 
-    private static Iterable<BaseSpy<?>> getEffectiveSpyList() {
+    /**
+     * Removes reference to the thread local spy which was garbage collected without being closed
+     */
+    private static void removeCurrentThreadSpyReference(long threadId, WeakReference<CurrentThreadSpy> spyReference) {
+        if (currentThreadSpies.remove(threadId, spyReference)) {
+            currentThreadSpiesCount.decrementAndGet();
+        }
+    }
 
-        //noinspection Convert2Lambda
-        return new Iterable<BaseSpy<?>>() {
+    //@VisibleForTesting
+    static void clearSpies() {
+        flushSocketStats();
+        registeredSpies.clear();
+        for (Map.Entry<Long, WeakReference<CurrentThreadSpy>> entry : currentThreadSpies.entrySet()) {
+            removeCurrentThreadSpyReference(entry.getKey(), entry.getValue());
+        }
+        currentThreadSpyReference.remove();
+        publishSpyRegistrySnapshot();
+    }
 
-            @Override
-            public Iterator<BaseSpy<?>> iterator() {
-
-                return new Iterator<BaseSpy<?>>() {
-
-                    private BaseSpy<?> next;
-
-                    @SuppressWarnings("rawtypes")
-                    private final Iterator<WeakReference<Spy>> globalSpiesIterator = registeredSpies.iterator();
-                    private boolean globalSpiesChecked;
-
-                    private boolean threadLocalSpiesChecked;
-
-                    @Override
-                    public boolean hasNext() {
-
-                        if (!globalSpiesChecked) {
-                            if (hasGlobalSpies) {
-                                while (globalSpiesIterator.hasNext()) {
-                                    //noinspection rawtypes
-                                    WeakReference<Spy> spyReference = globalSpiesIterator.next();
-                                    Spy<?> spy = spyReference.get();
-                                    if (null == spy) {
-                                        globalSpiesIterator.remove();
-                                    } else {
-                                        next = spy;
-                                        return true;
-                                    }
-                                }
-                            }
-                            globalSpiesChecked = true;
-                        }
+    /**
+     * Rebuilds {@link SpyRegistrySnapshot} from registered global spies and publishes it; references to garbage
+     * collected spies, including thread local ones, are purged along the way
+     *
+     * @since 3.1.14
+     */
+    private static void publishSpyRegistrySnapshot() {
+        synchronized (registeredSpies) {
+
+            List<WeakReference<Spy>> globalSpies = new ArrayList<WeakReference<Spy>>();
+            SpyConfiguration.Builder builder = SpyRegistrySnapshot.emptySpyConfigurationBuilder();
+
+            for (Iterator<WeakReference<Spy>> it = registeredSpies.iterator(); it.hasNext(); ) {
+                WeakReference<Spy> spyReference = it.next();
+                Spy<?> spy = spyReference.get();
+                if (null == spy) {
+                    it.remove();
+                } else {
+                    globalSpies.add(spyReference);
+                    builder = builder.or(spy.getSpyConfiguration());
+                }
+            }
 
-                        if (!threadLocalSpiesChecked) {
-                            if (hasThreadLocalSpies) {
-                                Long threadId = Thread.currentThread().getId();
-
-                                WeakReference<CurrentThreadSpy> spyReference = currentThreadSpies.get(threadId);
-                                if (null != spyReference) {
-                                    CurrentThreadSpy spy = spyReference.get();
-                                    if (null == spy) {
-                                        currentThreadSpies.remove(threadId);
-                                    } else {
-                                        next = spy;
-                                        threadLocalSpiesChecked = true;
-                                        return true;
-                                    }
-                                }
-                            }
-                        }
-                        threadLocalSpiesChecked = true;
-                        return false;
+            for (Map.Entry<Long, WeakReference<CurrentThreadSpy>> entry : currentThreadSpies.entrySet()) {
+                if (null == entry.getValue().get()) {
+                    removeCurrentThreadSpyReference(entry.getKey(), entry.getValue());
+                }
+            }
 
-                    }
+            spyRegistrySnapshot = new SpyRegistrySnapshot(
+                    spyRegistrySnapshot.version + 1, globalSpies, builder.build()
+            );
 
-                    @Override
-                    public BaseSpy<?> next() {
-                        return next;
-                    }
+        }
+    }
 
-                };
+    private static CurrentThreadSpy getCurrentThreadSpy(SpyRegistrySnapshot snapshot) {
+        if (0 == currentThreadSpiesCount.get()) return null;
+        WeakReference<CurrentThreadSpy> spyReference = currentThreadSpyReference.get();
+        if (null == spyReference) return null;
+        CurrentThreadSpy spy = spyReference.get();
+        if (null == spy) {
+            currentThreadSpyReference.remove();
+            removeCurrentThreadSpyReference(Thread.currentThread().getId(), spyReference);
+        }
+        return spy;
+    }
 
-            }
+    /**
+     * @return spy bound to given thread; unlike {@link #getCurrentThreadSpy(SpyRegistrySnapshot)} works for threads other than current
+     */
+    private static CurrentThreadSpy getThreadSpy(SpyRegistrySnapshot snapshot, long ownerThreadId) {
+        if (Thread.currentThread().getId() == ownerThreadId) return getCurrentThreadSpy(snapshot);
+        if (0 == currentThreadSpiesCount.get()) return null;
+        WeakReference<CurrentThreadSpy> spyReference = currentThreadSpies.get(ownerThreadId);
+        return null == spyReference ? null : spyReference.get();
+    }
 
-        };
+    private static boolean hasSpies(SpyRegistrySnapshot snapshot) {
+        return snapshot.globalSpies.length > 0 || currentThreadSpiesCount.get() > 0;
+    }
 
+    private static Spy<?> getGlobalSpy(SpyRegistrySnapshot snapshot, int i) {
+        Spy<?> spy = (Spy<?>) snapshot.globalSpies[i].get();
+        if (null == spy) {
+            publishSpyRegistrySnapshot();
+        }
+        return spy;
     }
 
-    private static void notifyListeners(StatementMetaData statementMetaData, long elapsedTime, int bytesDown, int bytesUp, long rowsUpdated) {
-        for (BaseSpy<?> spy : getEffectiveSpyList()) {
-            spy.addExecutedStatement(statementMetaData, elapsedTime, bytesDown, bytesUp, rowsUpdated);
+    private static void notifyListeners(StatementMetaData statementMetaData, long elapsedTimeNanos, int bytesDown, int bytesUp, long rowsUpdated) {
+        SpyRegistrySnapshot snapshot = spyRegistrySnapshot;
+        if (!hasSpies(snapshot)) return;
+        CurrentThreadSpy currentThreadSpy = getCurrentThreadSpy(snapshot);
+        SpyEventDispatcher spyEventDispatcher = Sniffy.spyEventDispatcher;
+        if (null != spyEventDispatcher && spyEventDispatcher.publishExecutedStatement(
+                snapshot, currentThreadSpy, statementMetaData, elapsedTimeNanos, bytesDown, bytesUp, rowsUpdated)) return;
+        for (int i = 0; i < snapshot.globalSpies.length; i++) {
+            Spy<?> spy = getGlobalSpy(snapshot, i);
+            if (null != spy) spy.addExecutedStatement(statementMetaData, elapsedTimeNanos, bytesDown, bytesUp, rowsUpdated);
         }
+        if (null != currentThreadSpy) currentThreadSpy.addExecutedStatement(statementMetaData, elapsedTimeNanos, bytesDown, bytesUp, rowsUpdated);
     }
 
     private static void notifyListeners(StatementMetaData statementMetaData) {
-        for (BaseSpy<?> spy : getEffectiveSpyList()) {
-            spy.addReturnedRow(statementMetaData);
+        SpyRegistrySnapshot snapshot = spyRegistrySnapshot;
+        if (!hasSpies(snapshot)) return;
+        CurrentThreadSpy currentThreadSpy = getCurrentThreadSpy(snapshot);
+        SpyEventDispatcher spyEventDispatcher = Sniffy.spyEventDispatcher;
+        if (null != spyEventDispatcher && spyEventDispatcher.publishReturnedRow(
+                snapshot, currentThreadSpy, statementMetaData)) return;
+        for (int i = 0; i < snapshot.globalSpies.length; i++) {
+            Spy<?> spy = getGlobalSpy(snapshot, i);
+            if (null != spy) spy.addReturnedRow(statementMetaData);
         }
+        if (null != currentThreadSpy) currentThreadSpy.addReturnedRow(statementMetaData);
+    }
+
+    private static void notifyListeners(SocketMetaData socketMetaData, long elapsedTimeNanos, int bytesDown, int bytesUp) {
+        notifyListeners(socketMetaData, elapsedTimeNanos, bytesDown, bytesUp, Thread.currentThread().getId());
     }
 
-    private static void notifyListeners(SocketMetaData socketMetaData, long elapsedTime, int bytesDown, int bytesUp) {
-        for (BaseSpy<?> spy : getEffectiveSpyList()) {
-            spy.addSocketOperation(socketMetaData, elapsedTime, bytesDown, bytesUp);
+    private static void notifyListeners(SocketMetaData socketMetaData, long elapsedTimeNanos, int bytesDown, int bytesUp, long ownerThreadId) {
+        SpyRegistrySnapshot snapshot = spyRegistrySnapshot;
+        if (!hasSpies(snapshot)) return;
+        CurrentThreadSpy currentThreadSpy = getThreadSpy(snapshot, ownerThreadId);
+        SpyEventDispatcher spyEventDispatcher = Sniffy.spyEventDispatcher;
+        if (null != spyEventDispatcher && spyEventDispatcher.publishSocketOperation(
+                snapshot, currentThreadSpy, socketMetaData, elapsedTimeNanos, bytesDown, bytesUp)) return;
+        for (int i = 0; i < snapshot.globalSpies.length; i++) {
+            Spy<?> spy = getGlobalSpy(snapshot, i);
+            if (null != spy) spy.addSocketOperation(socketMetaData, elapsedTimeNanos, bytesDown, bytesUp);
         }
+        if (null != currentThreadSpy) currentThreadSpy.addSocketOperation(socketMetaData, elapsedTimeNanos, bytesDown, bytesUp);
     }
 
-    private static void notifyListeners(SocketMetaData socketMetaData, boolean sent, long timestamp, String stackTrace, byte[] traffic, int off, int len) {
-        ThreadMetaData threadMetaData = ThreadMetaData.create(Thread.currentThread());
-        for (BaseSpy<?> spy : getEffectiveSpyList()) {
-            spy.addNetworkTraffic(socketMetaData, sent, timestamp, stackTrace, threadMetaData, traffic, off, len);
+    private static void notifyListeners(SocketMetaData socketMetaData, boolean sent, long timestamp, CapturedStackTrace stackTrace, ByteBuffer traffic, int off, int len) {
+        notifyListeners(socketMetaData, sent, timestamp, stackTrace, Thread.currentThread(), traffic, off, len);
+    }
+
+    private static void notifyListeners(SocketMetaData socketMetaData, boolean sent, long timestamp, CapturedStackTrace stackTrace, Thread ownerThread, ByteBuffer traffic, int off, int len) {
+        SpyRegistrySnapshot snapshot = spyRegistrySnapshot;
+        if (!hasSpies(snapshot)) return;
+        CurrentThreadSpy currentThreadSpy = getThreadSpy(snapshot, ownerThread.getId());
+        ThreadMetaData threadMetaData = ThreadMetaData.create(ownerThread);
+        SpyEventDispatcher spyEventDispatcher = Sniffy.spyEventDispatcher;
+        if (null != spyEventDispatcher && spyEventDispatcher.publishNetworkTraffic(
+                snapshot, currentThreadSpy, false, socketMetaData, sent, timestamp, stackTrace, threadMetaData, traffic, off, len)) return;
+        for (int i = 0; i < snapshot.globalSpies.length; i++) {
+            Spy<?> spy = getGlobalSpy(snapshot, i);
+            if (null != spy) spy.addNetworkTraffic(socketMetaData, sent, timestamp, threadMetaData, stackTrace, traffic, off, len);
         }
+        if (null != currentThreadSpy) currentThreadSpy.addNetworkTraffic(socketMetaData, sent, timestamp, threadMetaData, stackTrace, traffic, off, len);
     }
 
-    private static void notifyListenersDecryptedTraffic(SocketMetaData socketMetaData, boolean sent, long timestamp, String stackTrace, byte[] traffic, int off, int len) {
+    private static void notifyListenersDecryptedTraffic(SocketMetaData socketMetaData, boolean sent, long timestamp, CapturedStackTrace stackTrace, ByteBuffer traffic, int off, int len) {
+        SpyRegistrySnapshot snapshot = spyRegistrySnapshot;
+        if (!hasSpies(snapshot)) return;
+        CurrentThreadSpy currentThreadSpy = getCurrentThreadSpy(snapshot);
         ThreadMetaData threadMetaData = ThreadMetaData.create(Thread.currentThread());
-        for (BaseSpy<?> spy : getEffectiveSpyList()) {
-            spy.addDecryptedNetworkTraffic(socketMetaData, sent, timestamp, stackTrace, threadMetaData, traffic, off, len);
+        SpyEventDispatcher spyEventDispatcher = Sniffy.spyEventDispatcher;
+        if (null != spyEventDispatcher && spyEventDispatcher.publishNetworkTraffic(
+                snapshot, currentThreadSpy, true, socketMetaData, sent, timestamp, stackTrace, threadMetaData, traffic, off, len)) return;
+        for (int i = 0; i < snapshot.globalSpies.length; i++) {
+            Spy<?> spy = getGlobalSpy(snapshot, i);
+            if (null != spy) spy.addDecryptedNetworkTraffic(socketMetaData, sent, timestamp, threadMetaData, stackTrace, traffic, off, len);
+        }
+        if (null != currentThreadSpy) currentThreadSpy.addDecryptedNetworkTraffic(socketMetaData, sent, timestamp, threadMetaData, stackTrace, traffic, off, len);
+    }
+
+    /**
+     * Waits until events published to asynchronous {@link SpyEventDispatcher} are applied to spies;
+     * returns immediately if asynchronous event processing is disabled
+     *
+     * @since 3.1.14
+     */
+    static void flushPendingEvents() {
+        flushSocketStats();
+        SpyEventDispatcher spyEventDispatcher = Sniffy.spyEventDispatcher;
+        if (null != spyEventDispatcher) {
+            spyEventDispatcher.flush();
+        }
+    }
+
+    /**
+     * Waits until event with given sequence and events published before it are applied to spies;
+     * unlike {@link #flushPendingEvents()} doesn't report socket operations of other threads
+     */
+    static void flushPendingEvents(long sequence) {
+        SpyEventDispatcher spyEventDispatcher = Sniffy.spyEventDispatcher;
+        if (null != spyEventDispatcher) {
+            spyEventDispatcher.flush(sequence);
+        }
+    }
+
+    private static synchronized void setAsyncEventProcessing(boolean asyncEventProcessing) {
+        SpyEventDispatcher spyEventDispatcher = Sniffy.spyEventDispatcher;
+        if (asyncEventProcessing && null == spyEventDispatcher) {
+            LOG.info("Async event processing enabled - starting Sniffy event dispatcher");
+            spyEventDispatcher = new SpyEventDispatcher(SniffyConfiguration.INSTANCE.getAsyncEventBufferSize());
+            spyEventDispatcher.start();
+            Sniffy.spyEventDispatcher = spyEventDispatcher;
+        } else if (!asyncEventProcessing && null != spyEventDispatcher) {
+            LOG.info("Async event processing disabled - stopping Sniffy event dispatcher");
+            Sniffy.spyEventDispatcher = null;
+            spyEventDispatcher.shutdown();
         }
     }
 
@@ -493,22 +727,15 @@ public class Sniffy {
     }
 
     /**
+     * Returns effective configuration of global spies and spy bound to current thread if any.
+     * Doesn't allocate new objects unless set of registered spies was changed
+     *
      * @since 3.1.10
      */
     public static SpyConfiguration getEffectiveSpyConfiguration() {
-
-        SpyConfiguration.Builder builder = SpyConfiguration.builder().
-                captureJdbc(false).
-                captureNetwork(false).
-                captureNetworkTraffic(false).
-                captureStackTraces(false);
-
-        for (BaseSpy<?> spy : getEffectiveSpyList()) {
-            builder = builder.or(spy.getSpyConfiguration());
-        }
-
-        return builder.build();
-
+        SpyRegistrySnapshot snapshot = spyRegistrySnapshot;
+        CurrentThreadSpy spy = getCurrentThreadSpy(snapshot);
+        return null == spy ? snapshot.spyConfiguration : spy.getEffectiveSpyConfiguration(snapshot);
     }
 
     // TODO: use getEffectiveSpyConfiguration() instead
@@ -529,55 +756,223 @@ public class Sniffy {
 
     }
 
-    // TODO: merge with logTraffic
+    /**
+     * @param elapsedTime time spent in socket operation in milliseconds
+     * @deprecated use {@link #logSocket(int, InetSocketAddress, long, TimeUnit, int, int, boolean)} which supports
+     * sub-millisecond precision
+     */
+    @Deprecated
     public static void logSocket(int connectionId, InetSocketAddress address, long elapsedTime, int bytesDown, int bytesUp) {
-        logSocket(connectionId, address, elapsedTime, bytesDown, bytesUp, true);
+        logSocket(connectionId, address, elapsedTime, TimeUnit.MILLISECONDS, bytesDown, bytesUp, true);
     }
 
-    // TODO: merge with logTraffic
+    /**
+     * @param elapsedTime time spent in socket operation in milliseconds
+     * @deprecated use {@link #logSocket(int, InetSocketAddress, long, TimeUnit, int, int, boolean)} which supports
+     * sub-millisecond precision
+     */
+    @Deprecated
     public static void logSocket(int connectionId, InetSocketAddress address, long elapsedTime, int bytesDown, int bytesUp, boolean captureStackTraces) {
+        logSocket(connectionId, address, elapsedTime, TimeUnit.MILLISECONDS, bytesDown, bytesUp, captureStackTraces);
+    }
+
+    // TODO: merge with logTraffic
+
+    /**
+     * @since 3.1.14
+     */
+    public static void logSocket(int connectionId, InetSocketAddress address, long elapsedTime, TimeUnit timeUnit, int bytesDown, int bytesUp, boolean captureStackTraces) {
+
+        long elapsedTimeNanos = timeUnit.toNanos(elapsedTime);
 
         // do not track JDBC socket operations
         SocketStats socketStats = socketStatsAccumulator.get();
         if (null != socketStats) {
-            socketStats.accumulate(elapsedTime, bytesDown, bytesUp);
+            socketStats.accumulate(elapsedTimeNanos, TimeUnit.NANOSECONDS, bytesDown, bytesUp);
         } else {
             // build stackTrace
-            String stackTrace = captureStackTraces ? printStackTrace(getTraceTillPackage("java.net")) : null; // TODO: is stacktrace different for NIO and NIO2 ?
+            CapturedStackTrace stackTrace = captureStackTraces ? captureTraceTillPackage("java.net") : null; // TODO: is stacktrace different for NIO and NIO2 ?
 
             // increment counters
-            SocketMetaData socketMetaData = new SocketMetaData(address, connectionId, stackTrace, Thread.currentThread());
+            SocketMetaData socketMetaData = new SocketMetaData(Protocol.TCP, address, connectionId, ThreadMetaData.create(Thread.currentThread()), stackTrace);
 
             // notify listeners
-            notifyListeners(socketMetaData, elapsedTime, bytesDown, bytesUp);
+            notifyListeners(socketMetaData, elapsedTimeNanos, bytesDown, bytesUp);
         }
     }
 
-    // TODO: how to do lookup if client hello is written to socket in a few steps ?
-    public final static Map<ByteBuffer, SniffySSLNetworkConnection> CLIENT_HELLO_CACHE = new ConcurrentLinkedHashMap.Builder<ByteBuffer, SniffySSLNetworkConnection>().
-            maximumWeightedCapacity(200).
-            build();
+    /**
+     * Accumulates socket operation in given per-connection accumulator; spies are notified once the burst of
+     * operations performed by current thread is over, see {@link SocketStatsAccumulator}
+     *
+     * @param elapsedTimeNanos time spent in socket operation in nanoseconds as measured by {@link System#nanoTime()}
+     * @since 3.1.14
+     */
+    public static void logSocket(SocketStatsAccumulator accumulator, InetSocketAddress address, long elapsedTimeNanos, int bytesDown, int bytesUp, boolean captureStackTraces) {
+
+        // do not track JDBC socket operations
+        SocketStats socketStats = socketStatsAccumulator.get();
+        if (null != socketStats) {
+            socketStats.accumulate(elapsedTimeNanos, TimeUnit.NANOSECONDS, bytesDown, bytesUp);
+            return;
+        }
+
+        Thread currentThread = Thread.currentThread();
+        if (!accumulator.accumulate(currentThread.getId(), address, elapsedTimeNanos, bytesDown, bytesUp)) {
+            CapturedStackTrace stackTrace = captureStackTraces ? captureTraceTillPackage("java.net") : null;
+            SocketMetaData socketMetaData = new SocketMetaData(Protocol.TCP, address, accumulator.getConnectionId(), ThreadMetaData.create(currentThread), stackTrace);
+            startSocketStatsBurst(accumulator, socketMetaData, currentThread.getId(), elapsedTimeNanos, bytesDown, bytesUp);
+        }
+
+    }
+
+    /**
+     * Accumulates socket operation performed on behalf of given thread; used for asynchronous operations which are
+     * initiated by {@code ownerThread} and completed on another thread, for example in
+     * {@link java.nio.channels.AsynchronousChannelGroup}
+     *
+     * @param elapsedTimeNanos time spent in socket operation in nanoseconds as measured by {@link System#nanoTime()}
+     * @param stackTrace stack trace captured when the operation was initiated or null
+     * @see #logSocket(SocketStatsAccumulator, InetSocketAddress, long, int, int, boolean)
+     * @since 3.1.14
+     */
+    public static void logSocket(SocketStatsAccumulator accumulator, InetSocketAddress address, long elapsedTimeNanos, int bytesDown, int bytesUp,
+                                 CapturedStackTrace stackTrace, Thread ownerThread) {
+
+        if (Thread.currentThread() == ownerThread) {
+            SocketStats socketStats = socketStatsAccumulator.get();
+            if (null != socketStats) {
+                socketStats.accumulate(elapsedTimeNanos, TimeUnit.NANOSECONDS, bytesDown, bytesUp);
+                return;
+            }
+        }
+
+        if (!accumulator.accumulate(ownerThread.getId(), address, elapsedTimeNanos, bytesDown, bytesUp)) {
+            SocketMetaData socketMetaData = new SocketMetaData(Protocol.TCP, address, accumulator.getConnectionId(), ThreadMetaData.create(ownerThread), stackTrace);
+            startSocketStatsBurst(accumulator, socketMetaData, ownerThread.getId(), elapsedTimeNanos, bytesDown, bytesUp);
+        }
+
+    }
+
+    private static void startSocketStatsBurst(SocketStatsAccumulator accumulator, SocketMetaData socketMetaData, long ownerThreadId,
+                                              long elapsedTimeNanos, int bytesDown, int bytesUp) {
+        publishSocketStats(accumulator.start(socketMetaData, ownerThreadId, elapsedTimeNanos, bytesDown, bytesUp));
+        CurrentThreadSpy currentThreadSpy = getThreadSpy(spyRegistrySnapshot, ownerThreadId);
+        if (null != currentThreadSpy) {
+            currentThreadSpy.addPendingSocketStats(accumulator);
+        }
+        if (accumulator.enqueue()) {
+            pendingSocketStatsAccumulators.add(accumulator);
+            if (pendingSocketStatsAccumulatorsCount.incrementAndGet() > MAX_PENDING_SOCKET_STATS_ACCUMULATORS) {
+                flushSocketStats();
+            }
+        }
+    }
+
+    /**
+     * Notifies spies about socket operations accumulated so far; called when the connection is closed
+     *
+     * @since 3.1.14
+     */
+    public static void flushSocketStats(SocketStatsAccumulator accumulator) {
+        publishSocketStats(accumulator.drain());
+    }
+
+    private static void flushSocketStats() {
+        SocketStatsAccumulator accumulator;
+        while (null != (accumulator = pendingSocketStatsAccumulators.poll())) {
+            pendingSocketStatsAccumulatorsCount.decrementAndGet();
+            flushSocketStats(accumulator);
+        }
+    }
+
+    private static void publishSocketStats(SocketStatsAccumulator.Burst burst) {
+        if (null != burst) {
+            notifyListeners(burst.getSocketMetaData(), burst.getElapsedTimeNanos(), burst.getBytesDown(), burst.getBytesUp(), burst.getOwnerThreadId());
+        }
+    }
+
+    /**
+     * @return connection which has produced bytes between {@code off} and {@code off + len} absolute positions of
+     * given buffer as a TLS client hello message or null
+     * @since 3.1.14
+     * @deprecated use {@link ClientHelloRegistry#lookup(ByteBuffer, int, int)} of {@link #CLIENT_HELLO_REGISTRY}
+     */
+    @Deprecated
+    public static SniffySSLNetworkConnection getClientHelloConnection(ByteBuffer traffic, int off, int len) {
+        return CLIENT_HELLO_REGISTRY.lookup(traffic, off, len);
+    }
 
     public static void logTraffic(int connectionId, InetSocketAddress address, boolean sent, Protocol protocol, byte[] traffic, int off, int len, boolean captureStackTraces) {
+        logTraffic(connectionId, address, sent, protocol, ByteBuffer.wrap(traffic), off, len, captureStackTraces);
+    }
 
-        if (0 == len) return;
+    /**
+     * Logs bytes between {@code off} and {@code off + len} absolute positions of given buffer; position and limit
+     * of the buffer aren't changed. Bytes are copied directly to the storage of spies capturing network traffic,
+     * and aren't copied at all if there're no such spies
+     *
+     * @since 3.1.14
+     */
+    public static void logTraffic(int connectionId, InetSocketAddress address, boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len, boolean captureStackTraces) {
+
+        // avoid allocating metadata and capturing stack trace if nobody would receive them
+        if (0 == len || !hasSpies(spyRegistrySnapshot)) return;
 
         SocketMetaData socketMetaData = new SocketMetaData(protocol, address, connectionId);
 
         // build stackTrace
-        String stackTrace = captureStackTraces ? printStackTrace(getTraceTillPackage("java.net")) : null;
+        CapturedStackTrace stackTrace = captureStackTraces ? captureTraceTillPackage("java.net") : null;
 
         // notify listeners
         notifyListeners(socketMetaData, sent, System.currentTimeMillis(), stackTrace, traffic, off, len);
 
     }
 
+    /**
+     * Logs traffic sent or received on behalf of given thread; see {@link #logSocket(SocketStatsAccumulator, InetSocketAddress, long, int, int, CapturedStackTrace, Thread)}
+     *
+     * @param stackTrace stack trace captured when the operation was initiated or null
+     * @since 3.1.14
+     */
+    public static void logTraffic(int connectionId, InetSocketAddress address, boolean sent, Protocol protocol, byte[] traffic, int off, int len,
+                                  CapturedStackTrace stackTrace, Thread ownerThread) {
+        logTraffic(connectionId, address, sent, protocol, ByteBuffer.wrap(traffic), off, len, stackTrace, ownerThread);
+    }
+
+    /**
+     * @see #logTraffic(int, InetSocketAddress, boolean, Protocol, ByteBuffer, int, int, boolean)
+     * @see #logTraffic(int, InetSocketAddress, boolean, Protocol, byte[], int, int, CapturedStackTrace, Thread)
+     * @since 3.1.14
+     */
+    public static void logTraffic(int connectionId, InetSocketAddress address, boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len,
+                                  CapturedStackTrace stackTrace, Thread ownerThread) {
+
+        // avoid allocating metadata and capturing stack trace if nobody would receive them
+        if (0 == len || !hasSpies(spyRegistrySnapshot)) return;
+
+        SocketMetaData socketMetaData = new SocketMetaData(protocol, address, connectionId);
+
+        // notify listeners
+        notifyListeners(socketMetaData, sent, System.currentTimeMillis(), stackTrace, ownerThread, traffic, off, len);
+
+    }
+
     public static void logDecryptedTraffic(int connectionId, InetSocketAddress address, boolean sent, Protocol protocol, byte[] traffic, int off, int len, boolean captureStackTraces) {
+        logDecryptedTraffic(connectionId, address, sent, protocol, ByteBuffer.wrap(traffic), off, len, captureStackTraces);
+    }
 
-        if (0 == len) return;
+    /**
+     * @see #logTraffic(int, InetSocketAddress, boolean, Protocol, ByteBuffer, int, int, boolean)
+     * @since 3.1.14
+     */
+    public static void logDecryptedTraffic(int connectionId, InetSocketAddress address, boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len, boolean captureStackTraces) {
+
+        // avoid allocating metadata and capturing stack trace if nobody would receive them
+        if (0 == len || !hasSpies(spyRegistrySnapshot)) return;
 
         // build stackTrace
-        String stackTrace = captureStackTraces ? printStackTrace(getTraceTillPackage("java.net")) : null; // TODO: check if package name is correct
+        CapturedStackTrace stackTrace = captureStackTraces ? captureTraceTillPackage("java.net") : null; // TODO: check if package name is correct
 
         SocketMetaData socketMetaData = new SocketMetaData(protocol, address, connectionId);
 
@@ -591,64 +986,194 @@ public class Sniffy {
         socketStatsAccumulator.set(new SocketStats(0, 0, 0));
     }
 
+    /**
+     * @param elapsedTime time spent in JDBC method in milliseconds
+     * @deprecated use {@link #exitJdbcMethod(Method, long, TimeUnit)} which supports sub-millisecond precision
+     */
+    @Deprecated
     public static void exitJdbcMethod(Method method, long elapsedTime) {
-        exitJdbcMethod(method, elapsedTime, null);
+        exitJdbcMethod(method, elapsedTime, TimeUnit.MILLISECONDS, null);
     }
 
+    /**
+     * @since 3.1.14
+     */
+    public static void exitJdbcMethod(Method method, long elapsedTime, TimeUnit timeUnit) {
+        exitJdbcMethod(method, elapsedTime, timeUnit, null);
+    }
+
+    /**
+     * @param elapsedTime time spent in JDBC method in milliseconds
+     * @deprecated use {@link #exitJdbcMethod(Method, long, TimeUnit, Method)} which supports sub-millisecond precision
+     */
+    @Deprecated
     public static void exitJdbcMethod(Method method, long elapsedTime, Method implMethod) {
+        exitJdbcMethod(method, elapsedTime, TimeUnit.MILLISECONDS, implMethod);
+    }
 
-        SniffyMode sniffyMode = Sniffy.getSniffyMode();
+    /**
+     * @since 3.1.14
+     */
+    public static void exitJdbcMethod(Method method, long elapsedTime, TimeUnit timeUnit, Method implMethod) {
 
-        if (sniffyMode.isEnabled()) {
-            // get accumulated socket stats
-            SocketStats socketStats = socketStatsAccumulator.get();
+        long elapsedTimeNanos = timeUnit.toNanos(elapsedTime);
 
-            if (null != socketStats) {
+        SocketStats socketStats = removeJdbcMethodSocketStats();
 
-                if (socketStats.bytesDown.longValue() > 0 || socketStats.bytesUp.longValue() > 0) {
-                    String stackTrace = null;
-                    if (sniffyMode.isCaptureStackTraces()) {
-                        try {
-                            stackTrace = printStackTrace(null == implMethod ?
-                                    getTraceForProxiedMethod(method) :
-                                    getTraceForImplementingMethod(method, implMethod)
-                            );
-                        } catch (ClassNotFoundException e) {
-                            e.printStackTrace();
-                        }
+        if (null != socketStats) {
+            SniffyMode sniffyMode = Sniffy.getSniffyMode();
+            if (sniffyMode.isEnabled()) {
+                CapturedStackTrace stackTrace = null;
+                if (sniffyMode.isCaptureStackTraces()) {
+                    try {
+                        stackTrace = CapturedStackTrace.of(null == implMethod ?
+                                getTraceForProxiedMethod(method) :
+                                getTraceForImplementingMethod(method, implMethod)
+                        );
+                    } catch (ClassNotFoundException e) {
+                        e.printStackTrace();
                     }
-                    StatementMetaData statementMetaData = new StatementMetaData(
-                            method.getDeclaringClass().getSimpleName() + "." + method.getName() + "()",
-                            SqlStatement.SYSTEM,
-                            stackTrace,
-                            Thread.currentThread()
-                    );
-                    notifyListeners(
-                            statementMetaData,
-                            elapsedTime,
-                            socketStats.bytesDown.intValue(),
-                            socketStats.bytesUp.intValue(),
-                            0L
-                    );
                 }
+                notifyListeners(method.getDeclaringClass(), method.getName(), stackTrace, elapsedTimeNanos, socketStats);
+            }
+        }
+
+    }
 
+    /**
+     * Same as {@link #exitJdbcMethod(Method, long, TimeUnit, Method)} but doesn't require reflective {@link Method} instances
+     *
+     * @param elapsedTimeNanos time spent in JDBC method in nanoseconds as measured by {@link System#nanoTime()}
+     * @param declaringClass JDBC interface declaring the method, say {@link java.sql.Connection}
+     * @param implClass class implementing the method; used for finding the JDBC call in stack trace
+     * @since 3.1.14
+     */
+    public static void exitJdbcMethod(Class<?> declaringClass, String methodName, long elapsedTimeNanos, Class<?> implClass) {
+
+        SocketStats socketStats = removeJdbcMethodSocketStats();
+
+        if (null != socketStats) {
+            SniffyMode sniffyMode = Sniffy.getSniffyMode();
+            if (sniffyMode.isEnabled()) {
+                CapturedStackTrace stackTrace = sniffyMode.isCaptureStackTraces() ?
+                        captureTraceForImplementingMethod(declaringClass, methodName, implClass) :
+                        null;
+                notifyListeners(declaringClass, methodName, stackTrace, elapsedTimeNanos, socketStats);
             }
         }
 
+    }
+
+    /**
+     * @return socket stats accumulated by current JDBC method if it has produced any traffic
+     */
+    private static SocketStats removeJdbcMethodSocketStats() {
+        SocketStats socketStats = socketStatsAccumulator.get();
+        if (null == socketStats) return null;
         socketStatsAccumulator.remove();
+        return socketStats.bytesDown.longValue() > 0 || socketStats.bytesUp.longValue() > 0 ? socketStats : null;
     }
 
+    private static void notifyListeners(Class<?> declaringClass, String methodName, CapturedStackTrace stackTrace, long elapsedTimeNanos, SocketStats socketStats) {
+        StatementMetaData statementMetaData = new StatementMetaData(
+                declaringClass.getSimpleName() + "." + methodName + "()",
+                SqlStatement.SYSTEM,
+                ThreadMetaData.create(Thread.currentThread()),
+                stackTrace
+        );
+        notifyListeners(
+                statementMetaData,
+                elapsedTimeNanos,
+                socketStats.bytesDown.intValue(),
+                socketStats.bytesUp.intValue(),
+                0L
+        );
+    }
+
+    /**
+     * @param elapsedTime time spent in JDBC method in milliseconds
+     * @deprecated use {@link #readDatabaseRow(Method, long, TimeUnit, StatementMetaData)} which supports
+     * sub-millisecond precision
+     */
+    @Deprecated
     public static void readDatabaseRow(Method method, long elapsedTime, StatementMetaData statementMetaData) {
-        exitJdbcMethod(method, elapsedTime);
+        readDatabaseRow(method, elapsedTime, TimeUnit.MILLISECONDS, statementMetaData);
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public static void readDatabaseRow(Method method, long elapsedTime, TimeUnit timeUnit, StatementMetaData statementMetaData) {
+        exitJdbcMethod(method, elapsedTime, timeUnit);
 
         notifyListeners(statementMetaData);
     }
 
+    /**
+     * @param elapsedTimeNanos time spent in JDBC method in nanoseconds as measured by {@link System#nanoTime()}
+     * @see #exitJdbcMethod(Class, String, long, Class)
+     * @since 3.1.14
+     */
+    public static void readDatabaseRow(Class<?> declaringClass, String methodName, long elapsedTimeNanos, Class<?> implClass,
+                                       StatementMetaData statementMetaData) {
+        exitJdbcMethod(declaringClass, methodName, elapsedTimeNanos, implClass);
+
+        notifyListeners(statementMetaData);
+    }
+
+    /**
+     * @param elapsedTime query execution time in milliseconds
+     * @deprecated use {@link #executeStatement(String, long, TimeUnit, String)} which supports sub-millisecond precision
+     */
+    @Deprecated
     public static StatementMetaData executeStatement(String sql, long elapsedTime, String stackTrace) {
-        return executeStatement(sql, elapsedTime, stackTrace, 0L);
+        return executeStatement(sql, elapsedTime, TimeUnit.MILLISECONDS, stackTrace, 0L);
     }
 
+    /**
+     * @since 3.1.14
+     */
+    public static StatementMetaData executeStatement(String sql, long elapsedTime, TimeUnit timeUnit, String stackTrace) {
+        return executeStatement(sql, elapsedTime, timeUnit, stackTrace, 0L);
+    }
+
+    /**
+     * @param elapsedTime query execution time in milliseconds
+     * @deprecated use {@link #executeStatement(String, long, TimeUnit, String, long)} which supports sub-millisecond
+     * precision
+     */
+    @Deprecated
     public static StatementMetaData executeStatement(String sql, long elapsedTime, String stackTrace, long rowsUpdated) {
+        return executeStatement(sql, elapsedTime, TimeUnit.MILLISECONDS, stackTrace, rowsUpdated);
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public static StatementMetaData executeStatement(String sql, long elapsedTime, TimeUnit timeUnit, String stackTrace, long rowsUpdated) {
+        return executeStatement(
+                new StatementMetaData(sql, SqlUtil.guessQueryType(sql), stackTrace, Thread.currentThread()),
+                timeUnit.toNanos(elapsedTime),
+                rowsUpdated
+        );
+    }
+
+    /**
+     * Same as {@link #executeStatement(String, long, TimeUnit, String, long)} but stack trace is only rendered
+     * if it is requested from returned {@link StatementMetaData}
+     *
+     * @since 3.1.14
+     */
+    public static StatementMetaData executeStatement(String sql, long elapsedTime, TimeUnit timeUnit, CapturedStackTrace stackTrace, long rowsUpdated) {
+        return executeStatement(
+                new StatementMetaData(sql, SqlUtil.guessQueryType(sql), ThreadMetaData.create(Thread.currentThread()), stackTrace),
+                timeUnit.toNanos(elapsedTime),
+                rowsUpdated
+        );
+    }
+
+    private static StatementMetaData executeStatement(StatementMetaData statementMetaData, long elapsedTimeNanos, long rowsUpdated) {
+
         // increment global counter
         Sniffer.executedStatementsGlobalCounter.incrementAndGet();
 
@@ -656,10 +1181,9 @@ public class Sniffy {
         SocketStats socketStats = socketStatsAccumulator.get();
 
         // notify listeners
-        StatementMetaData statementMetaData = new StatementMetaData(sql, SqlUtil.guessQueryType(sql), stackTrace, Thread.currentThread());
         notifyListeners(
                 statementMetaData,
-                elapsedTime,
+                elapsedTimeNanos,
                 null == socketStats ? 0 : socketStats.bytesDown.intValue(),
                 null == socketStats ? 0 : socketStats.bytesUp.intValue(),
                 rowsUpdated
@@ -5,6 +5,7 @@ import io.sniffy.configuration.SniffyConfiguration;
 import io.sniffy.socket.*;
 import io.sniffy.sql.SqlStats;
 import io.sniffy.sql.StatementMetaData;
+import io.sniffy.util.CapturedStackTrace;
 import io.sniffy.util.ExceptionUtil;
 import io.sniffy.util.JVMUtil;
 import io.sniffy.util.StringUtil;
@@ -37,6 +38,7 @@ public class Spy<C extends Spy<C>> extends LegacySpy<C> implements Closeable {
      */
     @Override
     public Map<StatementMetaData, SqlStats> getExecutedStatements(ThreadMatcher threadMatcher, boolean removeStackTraces) {
+        Sniffy.flushPendingEvents();
 
         Map<StatementMetaData, SqlStats> executedStatements = new LinkedHashMap<StatementMetaData, SqlStats>();
         for (Map.Entry<StatementMetaData, SqlStats> entry : this.executedStatements.ascendingMap().entrySet()) {
@@ -77,6 +79,7 @@ public class Spy<C extends Spy<C>> extends LegacySpy<C> implements Closeable {
      */
     public C reset() {
         checkOpened();
+        Sniffy.flushPendingEvents();
         super.reset();
         expectations.clear();
         return self();
@@ -100,6 +103,7 @@ public class Spy<C extends Spy<C>> extends LegacySpy<C> implements Closeable {
      * @since 3.1.10
      */
     public Map<SocketMetaData, SocketStats> getSocketOperations(ThreadMatcher threadMatcher, AddressMatcher addressMatcher, boolean removeStackTraces) {
+        Sniffy.flushPendingEvents();
 
         Map<SocketMetaData, SocketStats> socketOperations = new LinkedHashMap<SocketMetaData, SocketStats>();
         for (Map.Entry<SocketMetaData, SocketStats> entry : this.socketOperations.ascendingMap().entrySet()) {
@@ -164,6 +168,7 @@ public class Spy<C extends Spy<C>> extends LegacySpy<C> implements Closeable {
     }
 
     private Map<SocketMetaData, List<NetworkPacket>> filterTraffic(ConcurrentLinkedHashMap<SocketMetaData, Deque<NetworkPacket>> originalTraffic, ThreadMatcher threadMatcher, AddressMatcher addressMatcher, GroupingOptions groupingOptions) {
+        Sniffy.flushPendingEvents();
         Map<SocketMetaData, List<NetworkPacket>> reducedTraffic = new LinkedHashMap<SocketMetaData, List<NetworkPacket>>();
 
         for (Map.Entry<SocketMetaData, Deque<NetworkPacket>> entry : originalTraffic.ascendingMap().entrySet()) {
@@ -196,13 +201,25 @@ public class Spy<C extends Spy<C>> extends LegacySpy<C> implements Closeable {
 
             if (threadMatcher.matches(networkPacket.getThreadMetaData())) {
 
-                SocketMetaData reducedSocketMetaData = new SocketMetaData(
-                        socketMetaData.getProtocol(),
-                        socketMetaData.getAddress(),
-                        groupingOptions.isGroupByConnection() ? socketMetaData.getConnectionId() : -1,
-                        groupingOptions.isGroupByStackTrace() ? networkPacket.getStackTrace() : null,
-                        groupingOptions.isGroupByThread() ? networkPacket.getThreadMetaData() : null
-                );
+                // captured stack traces are grouped without rendering them
+                CapturedStackTrace capturedStackTrace = groupingOptions.isGroupByStackTrace() ? networkPacket.getCapturedStackTrace() : null;
+                ThreadMetaData threadMetaData = groupingOptions.isGroupByThread() ? networkPacket.getThreadMetaData() : null;
+
+                SocketMetaData reducedSocketMetaData = null == capturedStackTrace ?
+                        new SocketMetaData(
+                                socketMetaData.getProtocol(),
+                                socketMetaData.getAddress(),
+                                groupingOptions.isGroupByConnection() ? socketMetaData.getConnectionId() : -1,
+                                groupingOptions.isGroupByStackTrace() ? networkPacket.getStackTrace() : null,
+                                threadMetaData
+                        ) :
+                        new SocketMetaData(
+                                socketMetaData.getProtocol(),
+                                socketMetaData.getAddress(),
+                                groupingOptions.isGroupByConnection() ? socketMetaData.getConnectionId() : -1,
+                                threadMetaData,
+                                capturedStackTrace
+                        );
 
                 List<NetworkPacket> reducedNetworkPackets = reducedTraffic.get(reducedSocketMetaData);
                 //noinspection Java8MapApi
@@ -211,17 +228,10 @@ public class Spy<C extends Spy<C>> extends LegacySpy<C> implements Closeable {
                     reducedTraffic.put(reducedSocketMetaData, reducedNetworkPackets);
                 }
 
-                if ((getSpyConfiguration().isCaptureStackTraces() && !groupingOptions.isGroupByStackTrace())
-                        || !groupingOptions.isGroupByThread()) {
-                    byte[] bytes = networkPacket.getBytes();
-                    networkPacket = new NetworkPacket(
-                            networkPacket.isSent(),
-                            networkPacket.getTimestamp(),
-                            groupingOptions.isGroupByStackTrace() ? networkPacket.getStackTrace() : null,
-                            groupingOptions.isGroupByThread() ? networkPacket.getThreadMetaData() : null,
-                            bytes, 0, bytes.length
-                    );
-                }
+                // bytes are shared with original packet; a copy is still required since it can be combined below
+                networkPacket = null == capturedStackTrace ?
+                        networkPacket.withMetaData(groupingOptions.isGroupByStackTrace() ? networkPacket.getStackTrace() : null, threadMetaData) :
+                        networkPacket.withCapturedStackTrace(capturedStackTrace, threadMetaData);
 
                 if (reducedNetworkPackets.isEmpty()) {
                     reducedNetworkPackets.add(networkPacket);
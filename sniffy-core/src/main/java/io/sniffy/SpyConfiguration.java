@@ -14,12 +14,20 @@ public class SpyConfiguration {
      */
     private final boolean bufferIncomingTraffic;
 
-    private SpyConfiguration(boolean captureStackTraces, boolean captureNetwork, boolean captureNetworkTraffic, boolean captureJdbc, boolean bufferIncomingTraffic) {
+    /**
+     * Maximum number of captured traffic bytes kept by spy; non-positive value means no limit
+     *
+     * @since 3.1.14
+     */
+    private final long networkTrafficBudget;
+
+    private SpyConfiguration(boolean captureStackTraces, boolean captureNetwork, boolean captureNetworkTraffic, boolean captureJdbc, boolean bufferIncomingTraffic, long networkTrafficBudget) {
         this.captureStackTraces = captureStackTraces;
         this.captureNetwork = captureNetwork;
         this.captureNetworkTraffic = captureNetworkTraffic;
         this.captureJdbc = captureJdbc;
         this.bufferIncomingTraffic = bufferIncomingTraffic;
+        this.networkTrafficBudget = networkTrafficBudget;
     }
 
     public boolean isCaptureStackTraces() {
@@ -45,6 +53,13 @@ public class SpyConfiguration {
         return bufferIncomingTraffic;
     }
 
+    /**
+     * @since 3.1.14
+     */
+    public long getNetworkTrafficBudget() {
+        return networkTrafficBudget;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -56,11 +71,13 @@ public class SpyConfiguration {
         private boolean captureNetworkTraffic;
         private boolean captureJdbc;
         private boolean bufferIncomingTraffic;
+        private long networkTrafficBudget;
 
         public Builder() {
             captureJdbc = SniffyConfiguration.INSTANCE.isMonitorJdbc();
             captureNetwork = SniffyConfiguration.INSTANCE.isMonitorSocket();
             bufferIncomingTraffic = SniffyConfiguration.INSTANCE.isBufferIncomingTraffic();
+            networkTrafficBudget = SniffyConfiguration.INSTANCE.getNetworkTrafficBudget();
             captureStackTraces = true;
         }
 
@@ -93,16 +110,37 @@ public class SpyConfiguration {
             return this;
         }
 
+        /**
+         * Makes capturing traffic lossy: once budget is exceeded, packets are evicted in the order they were captured
+         * until 90% of the budget is used. Budget bounds the captured bytes themselves (as reported by
+         * {@link BaseSpy#getNetworkTrafficBytes()}) rather than memory: captured bytes are stored in shared 64KB chunks,
+         * so retained memory can exceed the budget by up to two chunks - the oldest one which is partially evicted
+         * and the one being written. Views returned by {@link io.sniffy.socket.NetworkPacket#getByteBuffers()} keep
+         * whole chunks reachable regardless of the budget
+         *
+         * @param networkTrafficBudget maximum number of captured traffic bytes kept by spy; oldest packets are evicted
+         *                             once it is exceeded. Non-positive value means no limit
+         * @since 3.1.14
+         */
+        public Builder networkTrafficBudget(long networkTrafficBudget) {
+            this.networkTrafficBudget = networkTrafficBudget;
+            return this;
+        }
+
         public Builder or(SpyConfiguration spyConfiguration) {
+            // captureNetworkTraffic() also sets captureNetwork flag hence it should go first
+            boolean captureNetwork = this.captureNetwork || spyConfiguration.captureNetwork;
             return captureStackTraces(captureStackTraces || spyConfiguration.captureStackTraces).
-                    captureNetwork(captureNetwork || spyConfiguration.captureNetwork).
                     captureNetworkTraffic(captureNetworkTraffic || spyConfiguration.captureNetworkTraffic).
+                    captureNetwork(captureNetwork || captureNetworkTraffic).
                     captureJdbc(captureJdbc || spyConfiguration.captureJdbc).
-                    bufferIncomingTraffic(bufferIncomingTraffic || spyConfiguration.bufferIncomingTraffic);
+                    bufferIncomingTraffic(bufferIncomingTraffic || spyConfiguration.bufferIncomingTraffic).
+                    networkTrafficBudget(networkTrafficBudget <= 0 || spyConfiguration.networkTrafficBudget <= 0 ?
+                            0 : Math.max(networkTrafficBudget, spyConfiguration.networkTrafficBudget));
         }
 
         public SpyConfiguration build() {
-            return new SpyConfiguration(captureStackTraces, captureNetwork, captureNetworkTraffic, captureJdbc, bufferIncomingTraffic);
+            return new SpyConfiguration(captureStackTraces, captureNetwork, captureNetworkTraffic, captureJdbc, bufferIncomingTraffic, networkTrafficBudget);
         }
 
     }
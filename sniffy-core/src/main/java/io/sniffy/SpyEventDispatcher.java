@@ -0,0 +1,423 @@
+package io.sniffy;
+
+import io.sniffy.log.Polyglog;
+import io.sniffy.log.PolyglogFactory;
+import io.sniffy.socket.SocketMetaData;
+import io.sniffy.sql.StatementMetaData;
+import io.sniffy.util.CapturedStackTrace;
+
+import java.lang.ref.WeakReference;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Multi-producer single-consumer ring buffer which moves updating spies off the application threads.
+ * Event slots are preallocated and reused; producers only claim a sequence, copy event fields and publish it
+ * while a single background thread applies events to spies in the order they were claimed.
+ * <p>
+ * {@link #flush()} acts as a barrier: once it returns all events published before the call are applied to spies.
+ * {@link #shutdown()} stops accepting new events first and then drains the ones already claimed, so that no event
+ * is published after the background thread exits
+ *
+ * @see io.sniffy.configuration.SniffyConfiguration#isAsyncEventProcessing()
+ * @since 3.1.14
+ */
+final class SpyEventDispatcher implements Runnable {
+
+    private static final Polyglog LOG = PolyglogFactory.log(SpyEventDispatcher.class);
+
+    private static final int EXECUTED_STATEMENT = 1;
+    private static final int RETURNED_ROW = 2;
+    private static final int SOCKET_OPERATION = 3;
+    private static final int NETWORK_TRAFFIC = 4;
+    private static final int DECRYPTED_NETWORK_TRAFFIC = 5;
+    private static final int SQL_TIME = 6;
+
+    /**
+     * Claimed sequence which doesn't carry an event since filling the slot has failed
+     */
+    private static final int TOMBSTONE = 0;
+
+    /**
+     * Set in {@link #producerSequence} once dispatcher stops accepting new events
+     */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private static final byte[] EMPTY_TRAFFIC = new byte[0];
+
+    /**
+     * Traffic buffers larger than this value are not retained in slots after the event is processed
+     */
+    private static final int MAX_RETAINED_TRAFFIC_BUFFER = 64 * 1024;
+
+    /**
+     * Total size of traffic buffers retained in all slots; bounds the memory held by an idle dispatcher
+     * regardless of {@link io.sniffy.configuration.SniffyConfiguration#getAsyncEventBufferSize() buffer size}
+     */
+    private static final int MAX_RETAINED_TRAFFIC_BYTES = 1024 * 1024;
+
+    private static final long MAX_IDLE_PARK_NANOS = 10 * 1000 * 1000;
+
+    private static final class Event {
+
+        private volatile long sequence = -1;
+
+        private int type;
+
+        private SpyRegistrySnapshot snapshot;
+        private CurrentThreadSpy currentThreadSpy;
+
+        private StatementMetaData statementMetaData;
+        private SocketMetaData socketMetaData;
+        private ThreadMetaData threadMetaData;
+        private String text;
+        private CapturedStackTrace capturedStackTrace;
+
+        private long elapsedTimeNanos;
+        private int bytesDown;
+        private int bytesUp;
+        private long rowsUpdated;
+
+        private boolean sent;
+        private long timestamp;
+        private byte[] traffic = EMPTY_TRAFFIC;
+        private int length;
+
+        /**
+         * Size of {@link #traffic} buffer accounted in {@link #retainedTrafficBytes}
+         */
+        private int retainedLength;
+
+        private void clear() {
+            snapshot = null;
+            currentThreadSpy = null;
+            statementMetaData = null;
+            socketMetaData = null;
+            threadMetaData = null;
+            text = null;
+            capturedStackTrace = null;
+        }
+
+    }
+
+    private final Event[] events;
+    private final int mask;
+
+    /**
+     * Next sequence to be claimed by producers; {@link #CLOSED} bit is set once dispatcher is stopped
+     */
+    private final AtomicLong producerSequence = new AtomicLong();
+
+    /**
+     * Next sequence to be processed by consumer; all events with smaller sequence are already applied
+     */
+    private final AtomicLong consumerSequence = new AtomicLong();
+
+    private final Thread thread;
+
+    /**
+     * Monitor used by {@link #flush()} callers waiting for the background thread
+     */
+    private final Object flushLock = new Object();
+    private final AtomicInteger flushWaiters = new AtomicInteger();
+
+    /**
+     * Total size of traffic buffers retained in slots; only accessed by the background thread
+     */
+    private long retainedTrafficBytes;
+
+    SpyEventDispatcher(int bufferSize) {
+        int capacity = 1;
+        while (capacity < bufferSize) {
+            capacity <<= 1;
+        }
+        events = new Event[capacity];
+        for (int i = 0; i < capacity; i++) {
+            events[i] = new Event();
+        }
+        mask = capacity - 1;
+        thread = new Thread(this, "Sniffy Event Dispatcher");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops accepting new events, processes the ones already claimed and stops the background thread
+     */
+    void shutdown() {
+        long sequence;
+        do {
+            sequence = producerSequence.get();
+        } while (0 == (sequence & CLOSED) && !producerSequence.compareAndSet(sequence, sequence | CLOSED));
+        flush();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until all events published before this call are applied to spies
+     */
+    void flush() {
+        awaitConsumerSequence(producerSequence.get() & ~CLOSED);
+    }
+
+    /**
+     * Waits until event with given sequence and all events published before it are applied to spies.
+     * Sequences of a previous dispatcher are covered as well since target is limited by the sequences claimed so far
+     */
+    void flush(long sequence) {
+        awaitConsumerSequence(Math.min(sequence + 1, producerSequence.get() & ~CLOSED));
+    }
+
+    private void awaitConsumerSequence(long target) {
+        if (Thread.currentThread() == thread) return;
+        if (consumerSequence.get() >= target) return;
+        flushWaiters.incrementAndGet();
+        try {
+            LockSupport.unpark(thread);
+            synchronized (flushLock) {
+                while (consumerSequence.get() < target && thread.isAlive()) {
+                    // timeout covers notifications missed since consumer sequence is updated lazily
+                    flushLock.wait(MAX_IDLE_PARK_NANOS / 1000 / 1000);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flushWaiters.decrementAndGet();
+        }
+    }
+
+    boolean publishExecutedStatement(SpyRegistrySnapshot snapshot, CurrentThreadSpy currentThreadSpy,
+                                     StatementMetaData statementMetaData, long elapsedTimeNanos, int bytesDown, int bytesUp, long rowsUpdated) {
+        long sequence = claim();
+        if (sequence < 0) return false;
+        Event event = events[(int) (sequence & mask)];
+        event.type = EXECUTED_STATEMENT;
+        event.snapshot = snapshot;
+        event.currentThreadSpy = currentThreadSpy;
+        if (null != currentThreadSpy) {
+            currentThreadSpy.eventPublished(sequence);
+        }
+        event.statementMetaData = statementMetaData;
+        event.elapsedTimeNanos = elapsedTimeNanos;
+        event.bytesDown = bytesDown;
+        event.bytesUp = bytesUp;
+        event.rowsUpdated = rowsUpdated;
+        event.sequence = sequence;
+        return true;
+    }
+
+    boolean publishReturnedRow(SpyRegistrySnapshot snapshot, CurrentThreadSpy currentThreadSpy, StatementMetaData statementMetaData) {
+        long sequence = claim();
+        if (sequence < 0) return false;
+        Event event = events[(int) (sequence & mask)];
+        event.type = RETURNED_ROW;
+        event.snapshot = snapshot;
+        event.currentThreadSpy = currentThreadSpy;
+        if (null != currentThreadSpy) {
+            currentThreadSpy.eventPublished(sequence);
+        }
+        event.statementMetaData = statementMetaData;
+        event.sequence = sequence;
+        return true;
+    }
+
+    boolean publishSocketOperation(SpyRegistrySnapshot snapshot, CurrentThreadSpy currentThreadSpy,
+                                   SocketMetaData socketMetaData, long elapsedTimeNanos, int bytesDown, int bytesUp) {
+        long sequence = claim();
+        if (sequence < 0) return false;
+        Event event = events[(int) (sequence & mask)];
+        event.type = SOCKET_OPERATION;
+        event.snapshot = snapshot;
+        event.currentThreadSpy = currentThreadSpy;
+        if (null != currentThreadSpy) {
+            currentThreadSpy.eventPublished(sequence);
+        }
+        event.socketMetaData = socketMetaData;
+        event.elapsedTimeNanos = elapsedTimeNanos;
+        event.bytesDown = bytesDown;
+        event.bytesUp = bytesUp;
+        event.sequence = sequence;
+        return true;
+    }
+
+    boolean publishNetworkTraffic(SpyRegistrySnapshot snapshot, CurrentThreadSpy currentThreadSpy, boolean decrypted,
+                                  SocketMetaData socketMetaData, boolean sent, long timestamp, CapturedStackTrace stackTrace,
+                                  ThreadMetaData threadMetaData, ByteBuffer traffic, int off, int len) {
+        long sequence = claim();
+        if (sequence < 0) return false;
+        Event event = events[(int) (sequence & mask)];
+        try {
+            event.type = decrypted ? DECRYPTED_NETWORK_TRAFFIC : NETWORK_TRAFFIC;
+            event.snapshot = snapshot;
+            event.currentThreadSpy = currentThreadSpy;
+            if (null != currentThreadSpy) {
+                currentThreadSpy.eventPublished(sequence);
+            }
+            event.socketMetaData = socketMetaData;
+            event.sent = sent;
+            event.timestamp = timestamp;
+            event.capturedStackTrace = stackTrace;
+            event.threadMetaData = threadMetaData;
+            // caller is free to reuse the buffer once we return, hence the copy
+            if (event.traffic.length < len) {
+                event.traffic = new byte[len];
+            }
+            if (traffic.hasArray()) {
+                System.arraycopy(traffic.array(), traffic.arrayOffset() + off, event.traffic, 0, len);
+            } else {
+                ByteBuffer source = traffic.duplicate();
+                // cast is required for compatibility with Java 8 when compiled on newer JDK
+                ((Buffer) source).position(off);
+                source.get(event.traffic, 0, len);
+            }
+            event.length = len;
+        } catch (RuntimeException e) {
+            event.type = TOMBSTONE;
+            throw e;
+        } catch (Error e) {
+            event.type = TOMBSTONE;
+            throw e;
+        } finally {
+            // claimed sequence must always be published, otherwise consumer would wait for it forever
+            event.sequence = sequence;
+        }
+        return true;
+    }
+
+    boolean publishSqlTime(String sql, long elapsedTimeNanos) {
+        long sequence = claim();
+        if (sequence < 0) return false;
+        Event event = events[(int) (sequence & mask)];
+        event.type = SQL_TIME;
+        event.text = sql;
+        event.elapsedTimeNanos = elapsedTimeNanos;
+        event.sequence = sequence;
+        return true;
+    }
+
+    /**
+     * Claimed sequence must be published even if dispatcher is stopped in the meantime; consumer drains all claimed
+     * sequences before exiting
+     *
+     * @return claimed sequence or -1 if dispatcher is stopped and event should be processed synchronously
+     */
+    private long claim() {
+        long sequence;
+        do {
+            sequence = producerSequence.get();
+            if (0 != (sequence & CLOSED)) return -1;
+        } while (!producerSequence.compareAndSet(sequence, sequence + 1));
+        // wait until consumer frees the slot used by this sequence on the previous lap
+        while (sequence - consumerSequence.get() >= events.length) {
+            LockSupport.unpark(thread);
+            Thread.yield();
+        }
+        return sequence;
+    }
+
+    @Override
+    public void run() {
+
+        long idleParkNanos = 1000;
+
+        while (true) {
+
+            long sequence = consumerSequence.get();
+            Event event = events[(int) (sequence & mask)];
+
+            if (event.sequence == sequence) {
+                try {
+                    if (TOMBSTONE != event.type) {
+                        process(event);
+                    }
+                } catch (Throwable e) {
+                    LOG.error(e);
+                } finally {
+                    event.clear();
+                    releaseTraffic(event);
+                    consumerSequence.lazySet(sequence + 1);
+                }
+                if (flushWaiters.get() > 0) {
+                    notifyFlushWaiters();
+                }
+                idleParkNanos = 1000;
+            } else if (producerSequence.get() != (sequence | CLOSED)) {
+                // either dispatcher is running or a claimed sequence isn't published yet
+                LockSupport.parkNanos(this, idleParkNanos);
+                idleParkNanos = Math.min(idleParkNanos * 2, MAX_IDLE_PARK_NANOS);
+            } else {
+                break;
+            }
+
+        }
+
+        notifyFlushWaiters();
+
+    }
+
+    /**
+     * Keeps traffic buffer in the slot for reuse unless it is too large or other slots retain enough already
+     */
+    private void releaseTraffic(Event event) {
+        retainedTrafficBytes -= event.retainedLength;
+        int length = event.traffic.length;
+        if (length <= MAX_RETAINED_TRAFFIC_BUFFER && retainedTrafficBytes + length <= MAX_RETAINED_TRAFFIC_BYTES) {
+            event.retainedLength = length;
+            retainedTrafficBytes += length;
+        } else {
+            event.traffic = EMPTY_TRAFFIC;
+            event.retainedLength = 0;
+        }
+    }
+
+    private void notifyFlushWaiters() {
+        synchronized (flushLock) {
+            flushLock.notifyAll();
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void process(Event event) {
+
+        if (SQL_TIME == event.type) {
+            Sniffy.updateSqlTime(event.text, event.elapsedTimeNanos);
+            return;
+        }
+
+        WeakReference[] globalSpies = event.snapshot.globalSpies;
+        for (int i = 0; i <= globalSpies.length; i++) {
+            BaseSpy<?> spy = i < globalSpies.length ? (Spy<?>) globalSpies[i].get() : event.currentThreadSpy;
+            if (null == spy) continue;
+            switch (event.type) {
+                case EXECUTED_STATEMENT:
+                    spy.addExecutedStatement(event.statementMetaData, event.elapsedTimeNanos, event.bytesDown, event.bytesUp, event.rowsUpdated);
+                    break;
+                case RETURNED_ROW:
+                    spy.addReturnedRow(event.statementMetaData);
+                    break;
+                case SOCKET_OPERATION:
+                    spy.addSocketOperation(event.socketMetaData, event.elapsedTimeNanos, event.bytesDown, event.bytesUp);
+                    break;
+                case NETWORK_TRAFFIC:
+                    spy.addNetworkTraffic(event.socketMetaData, event.sent, event.timestamp, event.threadMetaData, event.capturedStackTrace, ByteBuffer.wrap(event.traffic), 0, event.length);
+                    break;
+                case DECRYPTED_NETWORK_TRAFFIC:
+                    spy.addDecryptedNetworkTraffic(event.socketMetaData, event.sent, event.timestamp, event.threadMetaData, event.capturedStackTrace, ByteBuffer.wrap(event.traffic), 0, event.length);
+                    break;
+            }
+        }
+
+    }
+
+}
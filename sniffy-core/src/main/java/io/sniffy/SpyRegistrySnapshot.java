@@ -0,0 +1,64 @@
+package io.sniffy;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+/**
+ * Immutable view of global spies registered in {@link Sniffy}
+ * <p>
+ * A new snapshot is published each time a global spy is registered or closed, so that code on the I/O path
+ * only needs to read a single volatile field in order to get the list of global spies and the effective
+ * {@link SpyConfiguration} without iterating over spies or allocating new objects.
+ * {@link CurrentThreadSpy} instances aren't part of the snapshot since they're registered and closed far more often
+ *
+ * @since 3.1.14
+ */
+final class SpyRegistrySnapshot {
+
+    @SuppressWarnings("rawtypes")
+    private static final WeakReference[] NO_SPIES = new WeakReference[0];
+
+    /**
+     * Incremented each time a new snapshot is published; allows spies to cache values derived from given snapshot
+     */
+    final long version;
+
+    @SuppressWarnings("rawtypes")
+    final WeakReference[] globalSpies;
+
+    /**
+     * Effective configuration of all global spies
+     */
+    final SpyConfiguration spyConfiguration;
+
+    @SuppressWarnings("rawtypes")
+    SpyRegistrySnapshot(long version, List<WeakReference<Spy>> globalSpies, SpyConfiguration spyConfiguration) {
+        this.version = version;
+        this.globalSpies = globalSpies.isEmpty() ? NO_SPIES : globalSpies.toArray(new WeakReference[globalSpies.size()]);
+        this.spyConfiguration = spyConfiguration;
+    }
+
+    static SpyConfiguration.Builder emptySpyConfigurationBuilder() {
+        return SpyConfiguration.builder().
+                captureJdbc(false).
+                captureNetwork(false).
+                captureNetworkTraffic(false).
+                captureStackTraces(false);
+    }
+
+    /**
+     * @return effective configuration of global spies combined with given spy configuration
+     */
+    SpyConfiguration or(SpyConfiguration spyConfiguration) {
+        return emptySpyConfigurationBuilder().or(this.spyConfiguration).or(spyConfiguration).build();
+    }
+
+    @Override
+    public String toString() {
+        return "SpyRegistrySnapshot{" +
+                "version=" + version +
+                ", globalSpies=" + globalSpies.length +
+                '}';
+    }
+
+}
@@ -1,11 +1,10 @@
 package io.sniffy;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Map;
-import java.util.WeakHashMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @since 3.1.10
@@ -17,38 +16,87 @@ public class ThreadMetaData {
     private final String threadGroupName;
     private final WeakReference<Thread> threadReference;
 
-    private static Map<Thread, ThreadMetaData> CACHE = new WeakHashMap<Thread, ThreadMetaData>();
-    private static ReadWriteLock CACHE_LOCK = new ReentrantReadWriteLock();
+    /**
+     * Metadata of current thread; doesn't require any synchronization and is discarded together with the thread
+     * which is important for short-lived virtual threads
+     */
+    private static final ThreadLocal<ThreadMetaData> CURRENT_THREAD_META_DATA = new ThreadLocal<ThreadMetaData>();
+
+    /**
+     * Metadata of threads other than current one; entries are removed once corresponding thread is garbage collected
+     */
+    private static final ConcurrentMap<Long, ThreadMetaDataReference> CACHE = new ConcurrentHashMap<Long, ThreadMetaDataReference>();
+    private static final ReferenceQueue<Thread> CACHE_REFERENCE_QUEUE = new ReferenceQueue<Thread>();
 
     public static ThreadMetaData create(Thread thread) {
 
         if (null == thread) return null;
 
-        ThreadMetaData threadMetaData;
+        if (thread == Thread.currentThread()) {
+            ThreadMetaData threadMetaData = CURRENT_THREAD_META_DATA.get();
+            if (null == threadMetaData) {
+                threadMetaData = new ThreadMetaData(thread);
+                CURRENT_THREAD_META_DATA.set(threadMetaData);
+            }
+            return threadMetaData;
+        } else {
+            return getOrCreateCached(thread);
+        }
+
+    }
+
+    private static ThreadMetaData getOrCreateCached(Thread thread) {
 
-        Lock readLock = CACHE_LOCK.readLock();
-        try {
-            readLock.lock();
-            threadMetaData = CACHE.get(thread);
-        } finally {
-            readLock.unlock();
+        expungeStaleEntries();
+
+        Long threadId = thread.getId();
+
+        ThreadMetaDataReference reference = CACHE.get(threadId);
+        if (null != reference && reference.get() == thread) {
+            return reference.threadMetaData;
         }
 
-        if (null == threadMetaData) {
-            Lock writeLock = CACHE_LOCK.writeLock();
-            try {
-                writeLock.lock();
-                threadMetaData = CACHE.get(thread);
-                if (null == threadMetaData) {
-                    threadMetaData = new ThreadMetaData(thread);
-                    CACHE.put(thread, threadMetaData);
-                }
-            } finally {
-                writeLock.unlock();
+        ThreadMetaData threadMetaData = new ThreadMetaData(thread);
+        ThreadMetaDataReference newReference = new ThreadMetaDataReference(thread, threadMetaData, CACHE_REFERENCE_QUEUE);
+
+        if (null == reference) {
+            reference = CACHE.putIfAbsent(threadId, newReference);
+            if (null == reference) {
+                return threadMetaData;
+            } else if (reference.get() == thread) {
+                return reference.threadMetaData;
             }
         }
 
+        // replace stale entry
+        CACHE.put(threadId, newReference);
         return threadMetaData;
+
+    }
+
+    private static void expungeStaleEntries() {
+        Reference<? extends Thread> reference;
+        while (null != (reference = CACHE_REFERENCE_QUEUE.poll())) {
+            ThreadMetaDataReference threadMetaDataReference = (ThreadMetaDataReference) reference;
+            CACHE.remove(threadMetaDataReference.threadMetaData.threadId, threadMetaDataReference);
+        }
+    }
+
+    // @VisibleForTesting
+    static int cacheSize() {
+        expungeStaleEntries();
+        return CACHE.size();
+    }
+
+    private static class ThreadMetaDataReference extends WeakReference<Thread> {
+
+        private final ThreadMetaData threadMetaData;
+
+        private ThreadMetaDataReference(Thread thread, ThreadMetaData threadMetaData, ReferenceQueue<Thread> queue) {
+            super(thread, queue);
+            this.threadMetaData = threadMetaData;
+        }
+
     }
 
     private ThreadMetaData(Thread thread) {
@@ -1,9 +1,17 @@
 package io.sniffy.configuration;
 
+import io.sniffy.log.PolyglogBackend;
 import io.sniffy.log.PolyglogLevel;
+import io.sniffy.socket.AddressMatcher;
+import io.sniffy.socket.AddressMatchers;
+import io.sniffy.socket.NetworkChaos;
+import io.sniffy.socket.SniffyNetworkConnection;
+import io.sniffy.socket.TrafficCapturePolicy;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.List;
 
 import static io.sniffy.log.PolyglogLevel.INFO;
 
@@ -20,6 +28,20 @@ public enum SniffyConfiguration {
      */
     private volatile PolyglogLevel logLevel;
 
+    /**
+     * Logging framework used by Sniffy
+     *
+     * @since 3.1.14
+     */
+    private volatile PolyglogBackend logBackend;
+
+    /**
+     * If true, Sniffy logs written to standard output are written by a background thread
+     *
+     * @since 3.1.14
+     */
+    private volatile boolean logAsync;
+
     private volatile boolean monitorJdbc;
     private volatile boolean monitorSocket;
 
@@ -52,6 +74,13 @@ public enum SniffyConfiguration {
      */
     private volatile int topSqlCapacity;
 
+    /**
+     * Lengths in milliseconds of sliding time windows for which top SQL timers keep separate histograms
+     *
+     * @since 3.1.14
+     */
+    private volatile long[] topSqlWindowsMillis;
+
     /**
      * Threshold in milliseconds for merging bytes from similar operations when capturing traffic by Sniffy
      *
@@ -66,6 +95,64 @@ public enum SniffyConfiguration {
      */
     private volatile int incomingTrafficBufferSize;
 
+    /**
+     * Process captured events in a background thread instead of the application thread which performed the I/O
+     *
+     * @since 3.1.14
+     */
+    private volatile boolean asyncEventProcessing;
+
+    /**
+     * Store captured traffic in direct (off-heap) buffers
+     *
+     * @since 3.1.14
+     */
+    private volatile boolean captureTrafficOffHeap;
+
+    /**
+     * Default maximum number of captured traffic bytes kept by a single spy; non-positive value (default) means no limit
+     *
+     * @see io.sniffy.SpyConfiguration.Builder#networkTrafficBudget(long)
+     * @since 3.1.14
+     */
+    private volatile long networkTrafficBudget;
+
+    /**
+     * Capacity of the ring buffer used when {@link #asyncEventProcessing} is enabled; rounded up to the power of two
+     *
+     * @since 3.1.14
+     */
+    private volatile int asyncEventBufferSize;
+
+    /**
+     * Maximum estimated size in bytes of request stats cached by Sniffy filter; non-positive value means no limit
+     *
+     * @since 3.1.14
+     */
+    private volatile long requestStatsCacheMaxBytes;
+
+    /**
+     * Time in milliseconds after which request stats cached by Sniffy filter expire; non-positive value means never
+     *
+     * @since 3.1.14
+     */
+    private volatile long requestStatsCacheExpireAfterMillis;
+
+    /**
+     * Number of slots in the table correlating TLS handshakes produced by Sniffy SSLEngine with network connections
+     *
+     * @since 3.1.14
+     */
+    private volatile int clientHelloCacheSize;
+
+    /**
+     * Time in milliseconds after which TLS handshakes not matched with a network connection are discarded;
+     * non-positive value means never
+     *
+     * @since 3.1.14
+     */
+    private volatile long clientHelloCacheExpireAfterMillis;
+
     private volatile Boolean filterEnabled;
     private volatile String excludePattern;
 
@@ -119,6 +206,20 @@ public enum SniffyConfiguration {
      */
     private volatile Boolean interceptProxyConnections;
 
+    /**
+     * Profile of emulated network link used for connections with latency defined in {@link io.sniffy.registry.ConnectionsRegistry}
+     *
+     * @since 3.1.14
+     */
+    private volatile NetworkChaos networkChaos;
+
+    /**
+     * Defines which connections have their traffic captured when it is requested by spies
+     *
+     * @since 3.1.14
+     */
+    private volatile TrafficCapturePolicy trafficCapturePolicy;
+
     SniffyConfiguration() {
         loadSniffyConfiguration();
     }
@@ -130,6 +231,15 @@ public enum SniffyConfiguration {
 
         logLevel = null == polyglogLevel ? INFO : polyglogLevel;
 
+        PolyglogBackend polyglogBackend = PolyglogBackend.parse(getProperty(
+                "io.sniffy.logBackend", "IO_SNIFFY_LOG_BACKEND", "stdout"
+        ));
+        logBackend = null == polyglogBackend ? PolyglogBackend.STDOUT : polyglogBackend;
+
+        logAsync = Boolean.parseBoolean(getProperty(
+                "io.sniffy.logAsync", "IO_SNIFFY_LOG_ASYNC", "false"
+        ));
+
         monitorJdbc = Boolean.parseBoolean(getProperty(
                 "io.sniffy.monitorJdbc", "IO_SNIFFY_MONITOR_JDBC", "true"
         ));
@@ -149,6 +259,23 @@ public enum SniffyConfiguration {
         } catch (NumberFormatException e) {
             topSqlCapacity = 0;
         }
+        List<Long> topSqlWindowsMillis = new ArrayList<Long>();
+        for (String windowMillis : getProperty(
+                "io.sniffy.topSqlWindowsMillis", "IO_SNIFFY_TOP_SQL_WINDOWS_MILLIS", "60000,300000,3600000"
+        ).split(",")) {
+            try {
+                long window = Long.parseLong(windowMillis.trim());
+                if (window > 0) {
+                    topSqlWindowsMillis.add(window);
+                }
+            } catch (NumberFormatException e) {
+                // invalid window - ignore it
+            }
+        }
+        this.topSqlWindowsMillis = new long[topSqlWindowsMillis.size()];
+        for (int i = 0; i < topSqlWindowsMillis.size(); i++) {
+            this.topSqlWindowsMillis[i] = topSqlWindowsMillis.get(i);
+        }
         try {
             packetMergeThreshold = Integer.parseInt(getProperty(
                     "io.sniffy.packetMergeThreshold", "IO_SNIFFY_PACKET_MERGE_THRESHOLD", "500"
@@ -166,6 +293,60 @@ public enum SniffyConfiguration {
             incomingTrafficBufferSize = 0;
         }
 
+        String asyncEventProcessing = getProperty("io.sniffy.asyncEventProcessing", "IO_SNIFFY_ASYNC_EVENT_PROCESSING");
+        this.asyncEventProcessing = Boolean.parseBoolean(asyncEventProcessing);
+
+        String captureTrafficOffHeap = getProperty("io.sniffy.captureTrafficOffHeap", "IO_SNIFFY_CAPTURE_TRAFFIC_OFF_HEAP");
+        this.captureTrafficOffHeap = Boolean.parseBoolean(captureTrafficOffHeap);
+
+        try {
+            networkTrafficBudget = Long.parseLong(getProperty(
+                    "io.sniffy.networkTrafficBudget", "IO_SNIFFY_NETWORK_TRAFFIC_BUDGET", "0"
+            ));
+        } catch (NumberFormatException e) {
+            networkTrafficBudget = 0;
+        }
+
+        try {
+            asyncEventBufferSize = Integer.parseInt(getProperty(
+                    "io.sniffy.asyncEventBufferSize", "IO_SNIFFY_ASYNC_EVENT_BUFFER_SIZE", "16384"
+            ));
+        } catch (NumberFormatException e) {
+            asyncEventBufferSize = 16384;
+        }
+
+        try {
+            requestStatsCacheMaxBytes = Long.parseLong(getProperty(
+                    "io.sniffy.requestStatsCacheMaxBytes", "IO_SNIFFY_REQUEST_STATS_CACHE_MAX_BYTES", "33554432"
+            ));
+        } catch (NumberFormatException e) {
+            requestStatsCacheMaxBytes = 33554432;
+        }
+
+        try {
+            requestStatsCacheExpireAfterMillis = Long.parseLong(getProperty(
+                    "io.sniffy.requestStatsCacheExpireAfterMillis", "IO_SNIFFY_REQUEST_STATS_CACHE_EXPIRE_AFTER_MILLIS", "0"
+            ));
+        } catch (NumberFormatException e) {
+            requestStatsCacheExpireAfterMillis = 0;
+        }
+
+        try {
+            clientHelloCacheSize = Integer.parseInt(getProperty(
+                    "io.sniffy.clientHelloCacheSize", "IO_SNIFFY_CLIENT_HELLO_CACHE_SIZE", "4096"
+            ));
+        } catch (NumberFormatException e) {
+            clientHelloCacheSize = 4096;
+        }
+
+        try {
+            clientHelloCacheExpireAfterMillis = Long.parseLong(getProperty(
+                    "io.sniffy.clientHelloCacheExpireAfterMillis", "IO_SNIFFY_CLIENT_HELLO_CACHE_EXPIRE_AFTER_MILLIS", "60000"
+            ));
+        } catch (NumberFormatException e) {
+            clientHelloCacheExpireAfterMillis = 60000;
+        }
+
         String filterEnabled = getProperty("io.sniffy.filterEnabled", "IO_SNIFFY_FILTER_ENABLED");
         this.filterEnabled = null == filterEnabled ? null : Boolean.parseBoolean(filterEnabled);
 
@@ -198,6 +379,73 @@ public enum SniffyConfiguration {
         String interceptProxyConnections = getProperty("io.sniffy.interceptProxyConnections", "IO_SNIFFY_INTERCEPT_PROXY_CONNECTIONS", "true");
         this.interceptProxyConnections = null == flushResponse || Boolean.parseBoolean(interceptProxyConnections);
 
+        NetworkChaos.Builder networkChaosBuilder = NetworkChaos.builder();
+        try {
+            networkChaosBuilder.bandwidth(Long.parseLong(getProperty(
+                    "io.sniffy.socketBandwidth", "IO_SNIFFY_SOCKET_BANDWIDTH", "0"
+            )));
+        } catch (NumberFormatException e) {
+            networkChaosBuilder.bandwidth(0);
+        }
+        try {
+            networkChaosBuilder.jitter(Integer.parseInt(getProperty(
+                    "io.sniffy.socketJitter", "IO_SNIFFY_SOCKET_JITTER", "0"
+            )));
+        } catch (NumberFormatException e) {
+            networkChaosBuilder.jitter(0);
+        }
+        networkChaosBuilder.jitterDistribution(NetworkChaos.JitterDistribution.parse(getProperty(
+                "io.sniffy.socketJitterDistribution", "IO_SNIFFY_SOCKET_JITTER_DISTRIBUTION", "uniform"
+        )));
+        try {
+            networkChaosBuilder.initialWindowSize(Integer.parseInt(getProperty(
+                    "io.sniffy.socketInitialWindowSize", "IO_SNIFFY_SOCKET_INITIAL_WINDOW_SIZE", Integer.toString(SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE)
+            )));
+        } catch (NumberFormatException e) {
+            networkChaosBuilder.initialWindowSize(SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE);
+        }
+        try {
+            networkChaosBuilder.maximumWindowSize(Integer.parseInt(getProperty(
+                    "io.sniffy.socketMaximumWindowSize", "IO_SNIFFY_SOCKET_MAXIMUM_WINDOW_SIZE", "0"
+            )));
+        } catch (NumberFormatException e) {
+            networkChaosBuilder.maximumWindowSize(0);
+        }
+        networkChaos = networkChaosBuilder.build();
+
+        TrafficCapturePolicy.Builder trafficCapturePolicyBuilder = TrafficCapturePolicy.builder();
+        String captureTrafficAddresses = getProperty("io.sniffy.captureTrafficAddresses", "IO_SNIFFY_CAPTURE_TRAFFIC_ADDRESSES");
+        if (null != captureTrafficAddresses && !captureTrafficAddresses.trim().isEmpty()) {
+            List<AddressMatcher> addressMatchers = new ArrayList<AddressMatcher>();
+            for (String address : captureTrafficAddresses.split(",")) {
+                if (!address.trim().isEmpty()) {
+                    try {
+                        addressMatchers.add(AddressMatchers.exactAddressMatcher(address.trim()));
+                    } catch (NumberFormatException e) {
+                        // invalid port - ignore this address
+                    }
+                }
+            }
+            trafficCapturePolicyBuilder.addressMatcher(
+                    AddressMatchers.anyOfAddressMatcher(addressMatchers.toArray(new AddressMatcher[0]))
+            );
+        }
+        try {
+            trafficCapturePolicyBuilder.sampleRate(Double.parseDouble(getProperty(
+                    "io.sniffy.captureTrafficSampleRate", "IO_SNIFFY_CAPTURE_TRAFFIC_SAMPLE_RATE", "1"
+            )));
+        } catch (NumberFormatException e) {
+            trafficCapturePolicyBuilder.sampleRate(1);
+        }
+        try {
+            trafficCapturePolicyBuilder.maximumBytesPerConnection(Long.parseLong(getProperty(
+                    "io.sniffy.captureTrafficMaxBytesPerConnection", "IO_SNIFFY_CAPTURE_TRAFFIC_MAX_BYTES_PER_CONNECTION", "0"
+            )));
+        } catch (NumberFormatException e) {
+            trafficCapturePolicyBuilder.maximumBytesPerConnection(0);
+        }
+        trafficCapturePolicy = trafficCapturePolicyBuilder.build();
+
     }
 
     private String getProperty(String systemPropertyName, String environmentVariableName, String defaultValue) {
@@ -238,6 +486,38 @@ public enum SniffyConfiguration {
         this.logLevel = logLevel;
     }
 
+    /**
+     * @since 3.1.14
+     */
+    public PolyglogBackend getLogBackend() {
+        return logBackend;
+    }
+
+    /**
+     * Takes effect for loggers created afterwards
+     *
+     * @since 3.1.14
+     */
+    public void setLogBackend(PolyglogBackend logBackend) {
+        this.logBackend = null == logBackend ? PolyglogBackend.STDOUT : logBackend;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public boolean isLogAsync() {
+        return logAsync;
+    }
+
+    /**
+     * Takes effect for messages logged afterwards
+     *
+     * @since 3.1.14
+     */
+    public void setLogAsync(boolean logAsync) {
+        this.logAsync = logAsync;
+    }
+
     public boolean isMonitorJdbc() {
         return monitorJdbc;
     }
@@ -309,7 +589,21 @@ public enum SniffyConfiguration {
     public void setBufferIncomingTraffic(boolean bufferIncomingTraffic) {
         boolean oldValue = this.bufferIncomingTraffic;
         this.bufferIncomingTraffic = bufferIncomingTraffic;
-        pcs.firePropertyChange("bufferIncomingTraffic", oldValue, captureTraffic);
+        pcs.firePropertyChange("bufferIncomingTraffic", oldValue, bufferIncomingTraffic);
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void addBufferIncomingTrafficListener(PropertyChangeListener listener) {
+        this.pcs.addPropertyChangeListener("bufferIncomingTraffic", listener);
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void removeBufferIncomingTrafficListener(PropertyChangeListener listener) {
+        this.pcs.removePropertyChangeListener("bufferIncomingTraffic", listener);
     }
 
     /**
@@ -372,6 +666,22 @@ public enum SniffyConfiguration {
         pcs.firePropertyChange("topSqlCapacity", oldValue, topSqlCapacity);
     }
 
+    /**
+     * @since 3.1.14
+     */
+    public long[] getTopSqlWindowsMillis() {
+        return topSqlWindowsMillis.clone();
+    }
+
+    /**
+     * Takes effect for queries executed for the first time afterwards
+     *
+     * @since 3.1.14
+     */
+    public void setTopSqlWindowsMillis(long... topSqlWindowsMillis) {
+        this.topSqlWindowsMillis = topSqlWindowsMillis.clone();
+    }
+
     /**
      * @since 3.1.10
      */
@@ -404,6 +714,180 @@ public enum SniffyConfiguration {
         pcs.firePropertyChange("incomingTrafficBufferSize", oldValue, incomingTrafficBufferSize);
     }
 
+    /**
+     * @since 3.1.14
+     */
+    public boolean isAsyncEventProcessing() {
+        return asyncEventProcessing;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void setAsyncEventProcessing(boolean asyncEventProcessing) {
+        boolean oldValue = this.asyncEventProcessing;
+        this.asyncEventProcessing = asyncEventProcessing;
+        pcs.firePropertyChange("asyncEventProcessing", oldValue, asyncEventProcessing);
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public int getAsyncEventBufferSize() {
+        return asyncEventBufferSize;
+    }
+
+    /**
+     * Takes effect next time async event processing is enabled
+     *
+     * @since 3.1.14
+     */
+    public void setAsyncEventBufferSize(int asyncEventBufferSize) {
+        this.asyncEventBufferSize = asyncEventBufferSize;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public boolean isCaptureTrafficOffHeap() {
+        return captureTrafficOffHeap;
+    }
+
+    /**
+     * Takes effect for spies created afterwards
+     *
+     * @since 3.1.14
+     */
+    public void setCaptureTrafficOffHeap(boolean captureTrafficOffHeap) {
+        this.captureTrafficOffHeap = captureTrafficOffHeap;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public long getNetworkTrafficBudget() {
+        return networkTrafficBudget;
+    }
+
+    /**
+     * Takes effect for spies created afterwards
+     *
+     * @since 3.1.14
+     */
+    public void setNetworkTrafficBudget(long networkTrafficBudget) {
+        this.networkTrafficBudget = networkTrafficBudget;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public NetworkChaos getNetworkChaos() {
+        return networkChaos;
+    }
+
+    /**
+     * Takes effect for connections created afterwards
+     *
+     * @since 3.1.14
+     */
+    public void setNetworkChaos(NetworkChaos networkChaos) {
+        this.networkChaos = null == networkChaos ? NetworkChaos.DEFAULT : networkChaos;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public TrafficCapturePolicy getTrafficCapturePolicy() {
+        return trafficCapturePolicy;
+    }
+
+    /**
+     * Takes effect for connections created afterwards
+     *
+     * @since 3.1.14
+     */
+    public void setTrafficCapturePolicy(TrafficCapturePolicy trafficCapturePolicy) {
+        this.trafficCapturePolicy = null == trafficCapturePolicy ? TrafficCapturePolicy.DEFAULT : trafficCapturePolicy;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public long getRequestStatsCacheMaxBytes() {
+        return requestStatsCacheMaxBytes;
+    }
+
+    /**
+     * Takes effect for filters created afterwards
+     *
+     * @since 3.1.14
+     */
+    public void setRequestStatsCacheMaxBytes(long requestStatsCacheMaxBytes) {
+        this.requestStatsCacheMaxBytes = requestStatsCacheMaxBytes;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public long getRequestStatsCacheExpireAfterMillis() {
+        return requestStatsCacheExpireAfterMillis;
+    }
+
+    /**
+     * Takes effect for filters created afterwards
+     *
+     * @since 3.1.14
+     */
+    public void setRequestStatsCacheExpireAfterMillis(long requestStatsCacheExpireAfterMillis) {
+        this.requestStatsCacheExpireAfterMillis = requestStatsCacheExpireAfterMillis;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public int getClientHelloCacheSize() {
+        return clientHelloCacheSize;
+    }
+
+    /**
+     * Takes effect after restart
+     *
+     * @since 3.1.14
+     */
+    public void setClientHelloCacheSize(int clientHelloCacheSize) {
+        this.clientHelloCacheSize = clientHelloCacheSize;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public long getClientHelloCacheExpireAfterMillis() {
+        return clientHelloCacheExpireAfterMillis;
+    }
+
+    /**
+     * Takes effect after restart
+     *
+     * @since 3.1.14
+     */
+    public void setClientHelloCacheExpireAfterMillis(long clientHelloCacheExpireAfterMillis) {
+        this.clientHelloCacheExpireAfterMillis = clientHelloCacheExpireAfterMillis;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void addAsyncEventProcessingListener(PropertyChangeListener listener) {
+        this.pcs.addPropertyChangeListener("asyncEventProcessing", listener);
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void removeAsyncEventProcessingListener(PropertyChangeListener listener) {
+        this.pcs.removePropertyChangeListener("asyncEventProcessing", listener);
+    }
+
     /**
      * @since 3.1.3
      */
@@ -29,4 +29,58 @@ public abstract class AbstractPolyglogImpl implements Polyglog {
         return level.isEnabled(SniffyConfiguration.INSTANCE.getLogLevel());
     }
 
+    @Override
+    public void trace(String format, Object arg) {
+        if (isLevelEnabled(PolyglogLevel.TRACE)) {
+            log(PolyglogLevel.TRACE, PolyglogMessageFormatter.format(format, arg));
+        }
+    }
+
+    @Override
+    public void trace(String format, Object arg1, Object arg2) {
+        if (isLevelEnabled(PolyglogLevel.TRACE)) {
+            log(PolyglogLevel.TRACE, PolyglogMessageFormatter.format(format, arg1, arg2));
+        }
+    }
+
+    @Override
+    public void trace(String format, Object arg1, Object arg2, Object arg3) {
+        if (isLevelEnabled(PolyglogLevel.TRACE)) {
+            log(PolyglogLevel.TRACE, PolyglogMessageFormatter.format(format, arg1, arg2, arg3));
+        }
+    }
+
+    @Override
+    public void trace(String format, Object... args) {
+        if (isLevelEnabled(PolyglogLevel.TRACE)) {
+            log(PolyglogLevel.TRACE, PolyglogMessageFormatter.format(format, args));
+        }
+    }
+
+    @Override
+    public void debug(String format, Object arg) {
+        if (isLevelEnabled(PolyglogLevel.DEBUG)) {
+            log(PolyglogLevel.DEBUG, PolyglogMessageFormatter.format(format, arg));
+        }
+    }
+
+    @Override
+    public void debug(String format, Object... args) {
+        if (isLevelEnabled(PolyglogLevel.DEBUG)) {
+            log(PolyglogLevel.DEBUG, PolyglogMessageFormatter.format(format, args));
+        }
+    }
+
+    @Override
+    public void trace(PolyglogMessage message) {
+        log(PolyglogLevel.TRACE, message);
+    }
+
+    @Override
+    public void log(PolyglogLevel level, PolyglogMessage message) {
+        if (null != message && isLevelEnabled(level)) {
+            log(level, message.getMessage());
+        }
+    }
+
 }
@@ -0,0 +1,189 @@
+package io.sniffy.log;
+
+import io.sniffy.util.StringUtil;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes formatted log lines to {@link System#out} in batches from a background daemon thread, so that logging
+ * never blocks application threads, including the ones performing network I/O intercepted by Sniffy.
+ * <p>
+ * Lines which do not fit into the bounded queue are dropped unless appended using {@link #appendOrWrite(String)};
+ * number of dropped lines is reported with the next batch.
+ * Remaining lines are written by the background thread on JVM shutdown, so that they aren't printed before the batch
+ * it is writing at the moment
+ *
+ * @see PolyglogSystemOutImpl
+ * @since 3.1.14
+ */
+final class AsyncPolyglogAppender implements Runnable {
+
+    static final AsyncPolyglogAppender INSTANCE = new AsyncPolyglogAppender(8192, 256);
+
+    private static final long FLUSH_TIMEOUT_MILLIS = 1000;
+
+    private final BlockingQueue<String> queue;
+    private final int batchSize;
+
+    private final AtomicLong droppedLines = new AtomicLong();
+
+    /**
+     * Lines queued but not written yet including the ones taken by the background thread
+     */
+    private final AtomicLong pendingLines = new AtomicLong();
+
+    private volatile boolean started;
+    private volatile Thread thread;
+
+    AsyncPolyglogAppender(int capacity, int batchSize) {
+        this.queue = new ArrayBlockingQueue<String>(capacity);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return false if line was dropped since the queue is full
+     */
+    boolean append(String line) {
+        if (!started) {
+            start();
+        }
+        return offer(line);
+    }
+
+    /**
+     * Same as {@link #append(String)} but writes the line in the calling thread instead of dropping it if the queue
+     * is full; used for errors which shouldn't be lost
+     */
+    void appendOrWrite(String line) {
+        if (!started) {
+            start();
+        }
+        if (!enqueue(line)) {
+            write(Collections.singletonList(line));
+        }
+    }
+
+    /**
+     * Same as {@link #append(String)} but doesn't start the background thread
+     */
+    boolean offer(String line) {
+        if (!enqueue(line)) {
+            droppedLines.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean enqueue(String line) {
+        pendingLines.incrementAndGet();
+        if (!queue.offer(line)) {
+            pendingLines.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized void start() {
+        if (started) return;
+
+        Thread thread = new Thread(this, "Sniffy-Polyglog");
+        thread.setDaemon(true);
+        thread.start();
+        this.thread = thread;
+
+        try {
+            //noinspection Convert2Lambda
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, "Sniffy-Polyglog-Shutdown"));
+        } catch (IllegalStateException e) {
+            // JVM is shutting down already
+        } catch (SecurityException e) {
+            // lines remaining in the queue on shutdown will be lost
+        }
+
+        started = true;
+    }
+
+    @Override
+    public void run() {
+        List<String> batch = new ArrayList<String>(batchSize);
+        try {
+            //noinspection InfiniteLoopStatement
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+                written(batch.size());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void written(int lines) {
+        if (0 == pendingLines.addAndGet(-lines)) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits for the background thread to write all queued lines; writes them in the calling thread if background
+     * thread isn't running
+     */
+    void flush() {
+        Thread thread = this.thread;
+        if (null != thread) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_TIMEOUT_MILLIS);
+            synchronized (this) {
+                long remaining;
+                while (pendingLines.get() > 0 && thread.isAlive() && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            if (thread.isAlive()) {
+                return;
+            }
+        }
+        List<String> batch = new ArrayList<String>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            written(batch.size());
+            batch.clear();
+        }
+    }
+
+    private synchronized void write(List<String> batch) {
+        StringBuilder sb = new StringBuilder(128 * batch.size());
+        long droppedLines = this.droppedLines.getAndSet(0);
+        if (droppedLines > 0) {
+            sb.append("[Polyglog] ").append(droppedLines).append(" log messages were dropped since the log queue was full").
+                    append(StringUtil.LINE_SEPARATOR);
+        }
+        for (String line : batch) {
+            sb.append(line).append(StringUtil.LINE_SEPARATOR);
+        }
+        PrintStream out = System.out;
+        out.print(sb);
+        out.flush();
+    }
+
+}
@@ -19,6 +19,15 @@ public class OneTimePolyglogImpl extends AbstractPolyglogImpl {
         logged = true;
     }
 
+    /**
+     * @return false once the message has been logged
+     * @since 3.1.14
+     */
+    @Override
+    public boolean isLevelEnabled(PolyglogLevel level) {
+        return !logged && delegate.isLevelEnabled(level);
+    }
+
     @Override
     public void error(String message, Throwable e) {
         if (logged) return;
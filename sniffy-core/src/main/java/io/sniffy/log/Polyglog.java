@@ -18,4 +18,48 @@ public interface Polyglog {
 
     boolean isLevelEnabled(PolyglogLevel level);
 
+    /**
+     * Logs message with {@code {}} placeholder replaced by given argument; message is built only if TRACE level is enabled
+     *
+     * @since 3.1.14
+     */
+    void trace(String format, Object arg);
+
+    /**
+     * @since 3.1.14
+     */
+    void trace(String format, Object arg1, Object arg2);
+
+    /**
+     * @since 3.1.14
+     */
+    void trace(String format, Object arg1, Object arg2, Object arg3);
+
+    /**
+     * @since 3.1.14
+     */
+    void trace(String format, Object... args);
+
+    /**
+     * @since 3.1.14
+     */
+    void debug(String format, Object arg);
+
+    /**
+     * @since 3.1.14
+     */
+    void debug(String format, Object... args);
+
+    /**
+     * @since 3.1.14
+     */
+    void trace(PolyglogMessage message);
+
+    /**
+     * Logs message supplied by given {@link PolyglogMessage} if the level is enabled
+     *
+     * @since 3.1.14
+     */
+    void log(PolyglogLevel level, PolyglogMessage message);
+
 }
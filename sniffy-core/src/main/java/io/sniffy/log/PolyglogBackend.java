@@ -0,0 +1,29 @@
+package io.sniffy.log;
+
+/**
+ * Logging framework used by {@link PolyglogFactory} for loggers created afterwards
+ *
+ * @since 3.1.14
+ */
+public enum PolyglogBackend {
+    /**
+     * SLF4J if it is available to Sniffy classloader and has a binding; standard output otherwise
+     */
+    AUTO,
+    SLF4J,
+    JUL,
+    STDOUT;
+
+    public static PolyglogBackend parse(String value) {
+
+        for (PolyglogBackend backend : values()) {
+            if (backend.name().equalsIgnoreCase(value)) {
+                return backend;
+            }
+        }
+
+        return null;
+
+    }
+
+}
@@ -1,12 +1,31 @@
 package io.sniffy.log;
 
+import io.sniffy.configuration.SniffyConfiguration;
+
 public class PolyglogFactory {
 
     public static Polyglog oneTimeLog(Class<?> clazz) {
         return new OneTimePolyglogImpl(log(clazz));
     }
 
+    /**
+     * @return logger backed by {@link SniffyConfiguration#getLogBackend()}; standard output is used if selected
+     * backend is not available
+     */
     public static Polyglog log(Class<?> clazz) {
+        SniffyConfiguration configuration = SniffyConfiguration.INSTANCE;
+        // logger might be requested by a class initialized while SniffyConfiguration is being initialized itself
+        PolyglogBackend backend = null == configuration ? null : configuration.getLogBackend();
+
+        if (PolyglogBackend.JUL == backend) {
+            return new PolyglogJulImpl(clazz);
+        } else if (PolyglogBackend.SLF4J == backend || PolyglogBackend.AUTO == backend) {
+            Polyglog polyglog = PolyglogSlf4jImpl.create(clazz);
+            if (null != polyglog) {
+                return polyglog;
+            }
+        }
+
         return new PolyglogSystemOutImpl(clazz);
     }
 
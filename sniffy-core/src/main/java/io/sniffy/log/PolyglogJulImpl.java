@@ -0,0 +1,61 @@
+package io.sniffy.log;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delegates to {@link java.util.logging.Logger}; message is logged if it is enabled both by
+ * {@link io.sniffy.configuration.SniffyConfiguration#getLogLevel()} and by JUL configuration
+ *
+ * @since 3.1.14
+ */
+class PolyglogJulImpl extends AbstractPolyglogImpl {
+
+    private final Logger logger;
+
+    PolyglogJulImpl(Class<?> clazz) {
+        this.logger = Logger.getLogger(null == clazz ? "io.sniffy" : clazz.getName());
+    }
+
+    @Override
+    public boolean isLevelEnabled(PolyglogLevel level) {
+        return super.isLevelEnabled(level) && logger.isLoggable(toJulLevel(level));
+    }
+
+    @Override
+    public void log(PolyglogLevel level, String message) {
+        if (super.isLevelEnabled(level)) {
+            logger.log(toJulLevel(level), message);
+        }
+    }
+
+    @Override
+    public void error(String message, Throwable e) {
+        if (super.isLevelEnabled(PolyglogLevel.ERROR)) {
+            logger.log(Level.SEVERE, message, e);
+        }
+    }
+
+    @Override
+    public void error(Throwable e) {
+        if (null != e) {
+            error(e.toString(), e);
+        }
+    }
+
+    private static Level toJulLevel(PolyglogLevel level) {
+        switch (level) {
+            case TRACE:
+                return Level.FINEST;
+            case DEBUG:
+                return Level.FINE;
+            case INFO:
+                return Level.INFO;
+            case ERROR:
+                return Level.SEVERE;
+            default:
+                return Level.OFF;
+        }
+    }
+
+}
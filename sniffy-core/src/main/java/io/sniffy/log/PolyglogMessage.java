@@ -0,0 +1,13 @@
+package io.sniffy.log;
+
+/**
+ * Log message which is built only if corresponding level is enabled
+ *
+ * @see Polyglog#log(PolyglogLevel, PolyglogMessage)
+ * @since 3.1.14
+ */
+public interface PolyglogMessage {
+
+    String getMessage();
+
+}
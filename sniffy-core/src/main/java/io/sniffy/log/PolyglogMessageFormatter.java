@@ -0,0 +1,40 @@
+package io.sniffy.log;
+
+/**
+ * Substitutes {@code {}} placeholders in log message pattern with arguments in order;
+ * placeholders without corresponding arguments are left as is
+ *
+ * @since 3.1.14
+ */
+final class PolyglogMessageFormatter {
+
+    private static final String PLACEHOLDER = "{}";
+
+    private PolyglogMessageFormatter() {
+    }
+
+    static String format(String pattern, Object arg) {
+        if (null == pattern) return null;
+        int placeholder = pattern.indexOf(PLACEHOLDER);
+        if (-1 == placeholder) return pattern;
+        return new StringBuilder(pattern.length() + 16).
+                append(pattern, 0, placeholder).
+                append(arg).
+                append(pattern, placeholder + PLACEHOLDER.length(), pattern.length()).
+                toString();
+    }
+
+    static String format(String pattern, Object... args) {
+        if (null == pattern || null == args || 0 == args.length) return pattern;
+        StringBuilder sb = new StringBuilder(pattern.length() + 16 * args.length);
+        int copied = 0;
+        for (Object arg : args) {
+            int placeholder = pattern.indexOf(PLACEHOLDER, copied);
+            if (-1 == placeholder) break;
+            sb.append(pattern, copied, placeholder).append(arg);
+            copied = placeholder + PLACEHOLDER.length();
+        }
+        return sb.append(pattern, copied, pattern.length()).toString();
+    }
+
+}
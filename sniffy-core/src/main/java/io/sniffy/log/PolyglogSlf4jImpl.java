@@ -0,0 +1,173 @@
+package io.sniffy.log;
+
+import java.lang.reflect.Method;
+
+/**
+ * Delegates to SLF4J logger; SLF4J is accessed via reflection since it is an optional dependency of Sniffy.
+ * <p>
+ * Message is logged if it is enabled both by {@link io.sniffy.configuration.SniffyConfiguration#getLogLevel()}
+ * and by SLF4J configuration
+ *
+ * @since 3.1.14
+ */
+class PolyglogSlf4jImpl extends AbstractPolyglogImpl {
+
+    private static final String LOGGER_FACTORY_CLASS_NAME = "org.slf4j.LoggerFactory";
+    private static final String LOGGER_CLASS_NAME = "org.slf4j.Logger";
+
+    private static final Method GET_LOGGER_METHOD;
+
+    private static final Method IS_TRACE_ENABLED_METHOD;
+    private static final Method IS_DEBUG_ENABLED_METHOD;
+    private static final Method IS_INFO_ENABLED_METHOD;
+    private static final Method IS_ERROR_ENABLED_METHOD;
+
+    private static final Method TRACE_METHOD;
+    private static final Method DEBUG_METHOD;
+    private static final Method INFO_METHOD;
+    private static final Method ERROR_METHOD;
+    private static final Method ERROR_WITH_THROWABLE_METHOD;
+
+    static {
+        Method getLoggerMethod = null;
+        Method isTraceEnabledMethod = null;
+        Method isDebugEnabledMethod = null;
+        Method isInfoEnabledMethod = null;
+        Method isErrorEnabledMethod = null;
+        Method traceMethod = null;
+        Method debugMethod = null;
+        Method infoMethod = null;
+        Method errorMethod = null;
+        Method errorWithThrowableMethod = null;
+        try {
+            ClassLoader classLoader = PolyglogSlf4jImpl.class.getClassLoader();
+            Class<?> loggerFactoryClass = Class.forName(LOGGER_FACTORY_CLASS_NAME, true, classLoader);
+            Class<?> loggerClass = Class.forName(LOGGER_CLASS_NAME, true, classLoader);
+
+            Object loggerFactory = loggerFactoryClass.getMethod("getILoggerFactory").invoke(null);
+            // SLF4J without binding discards all messages
+            if (null != loggerFactory && !loggerFactory.getClass().getName().startsWith("org.slf4j.helpers.NOP")) {
+                getLoggerMethod = loggerFactoryClass.getMethod("getLogger", String.class);
+                isTraceEnabledMethod = loggerClass.getMethod("isTraceEnabled");
+                isDebugEnabledMethod = loggerClass.getMethod("isDebugEnabled");
+                isInfoEnabledMethod = loggerClass.getMethod("isInfoEnabled");
+                isErrorEnabledMethod = loggerClass.getMethod("isErrorEnabled");
+                traceMethod = loggerClass.getMethod("trace", String.class);
+                debugMethod = loggerClass.getMethod("debug", String.class);
+                infoMethod = loggerClass.getMethod("info", String.class);
+                errorMethod = loggerClass.getMethod("error", String.class);
+                errorWithThrowableMethod = loggerClass.getMethod("error", String.class, Throwable.class);
+            }
+        } catch (Throwable e) {
+            getLoggerMethod = null;
+        }
+        GET_LOGGER_METHOD = getLoggerMethod;
+        IS_TRACE_ENABLED_METHOD = isTraceEnabledMethod;
+        IS_DEBUG_ENABLED_METHOD = isDebugEnabledMethod;
+        IS_INFO_ENABLED_METHOD = isInfoEnabledMethod;
+        IS_ERROR_ENABLED_METHOD = isErrorEnabledMethod;
+        TRACE_METHOD = traceMethod;
+        DEBUG_METHOD = debugMethod;
+        INFO_METHOD = infoMethod;
+        ERROR_METHOD = errorMethod;
+        ERROR_WITH_THROWABLE_METHOD = errorWithThrowableMethod;
+    }
+
+    private final Object logger;
+
+    private PolyglogSlf4jImpl(Object logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * @return true if SLF4J with a binding is available to Sniffy classloader
+     */
+    static boolean isAvailable() {
+        return null != GET_LOGGER_METHOD;
+    }
+
+    /**
+     * @return SLF4J logger for given class or null if SLF4J is not available
+     */
+    static Polyglog create(Class<?> clazz) {
+        if (!isAvailable()) return null;
+        try {
+            Object logger = GET_LOGGER_METHOD.invoke(null, null == clazz ? "io.sniffy" : clazz.getName());
+            return null == logger ? null : new PolyglogSlf4jImpl(logger);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isLevelEnabled(PolyglogLevel level) {
+        if (!super.isLevelEnabled(level)) return false;
+        switch (level) {
+            case TRACE:
+                return invokeBoolean(IS_TRACE_ENABLED_METHOD);
+            case DEBUG:
+                return invokeBoolean(IS_DEBUG_ENABLED_METHOD);
+            case INFO:
+                return invokeBoolean(IS_INFO_ENABLED_METHOD);
+            case ERROR:
+                return invokeBoolean(IS_ERROR_ENABLED_METHOD);
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void log(PolyglogLevel level, String message) {
+        if (!super.isLevelEnabled(level)) return;
+        switch (level) {
+            case TRACE:
+                invoke(TRACE_METHOD, message);
+                break;
+            case DEBUG:
+                invoke(DEBUG_METHOD, message);
+                break;
+            case INFO:
+                invoke(INFO_METHOD, message);
+                break;
+            case ERROR:
+                invoke(ERROR_METHOD, message);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void error(String message, Throwable e) {
+        if (!super.isLevelEnabled(PolyglogLevel.ERROR)) return;
+        try {
+            ERROR_WITH_THROWABLE_METHOD.invoke(logger, message, e);
+        } catch (Exception ignored) {
+            // logging must never break the application
+        }
+    }
+
+    @Override
+    public void error(Throwable e) {
+        if (null != e) {
+            error(e.toString(), e);
+        }
+    }
+
+    private boolean invokeBoolean(Method method) {
+        try {
+            return Boolean.TRUE.equals(method.invoke(logger));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void invoke(Method method, String message) {
+        try {
+            method.invoke(logger, message);
+        } catch (Exception e) {
+            // logging must never break the application
+        }
+    }
+
+}
@@ -1,5 +1,7 @@
 package io.sniffy.log;
 
+import io.sniffy.configuration.SniffyConfiguration;
+
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.text.SimpleDateFormat;
@@ -31,7 +33,7 @@ public class PolyglogSystemOutImpl extends AbstractPolyglogImpl {
         if (isLevelEnabled(level)) {
             // TODO: make formatting configurable;
             // TODO: if system out is redirected to another logging framework it is probably redundant
-            System.out.println(DATE_FORMAT_THREAD_LOCAL.get().format(new Date()) +
+            String line = DATE_FORMAT_THREAD_LOCAL.get().format(new Date()) +
                     " [" +
                     level.name() +
                     "]" +
@@ -39,7 +41,16 @@ public class PolyglogSystemOutImpl extends AbstractPolyglogImpl {
                     Thread.currentThread().getName() +
                     "] " +
                     ((null == name) ? "" : ("[" + name + "] ")) +
-                    message);
+                    message;
+            if (SniffyConfiguration.INSTANCE.isLogAsync()) {
+                if (PolyglogLevel.ERROR == level) {
+                    AsyncPolyglogAppender.INSTANCE.appendOrWrite(line);
+                } else {
+                    AsyncPolyglogAppender.INSTANCE.append(line);
+                }
+            } else {
+                System.out.println(line);
+            }
         }
     }
 
@@ -14,6 +14,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @since 3.1
@@ -24,9 +25,31 @@ public enum ConnectionsRegistry implements Runnable {
     private final Map<Map.Entry<String, Integer>, Integer> discoveredAddresses = new ConcurrentHashMap<Map.Entry<String, Integer>, Integer>();
     private final Map<Map.Entry<String, String>, Integer> discoveredDataSources = new ConcurrentHashMap<Map.Entry<String, String>, Integer>();
 
+    /**
+     * Indexes compiled from discoveredAddresses and discoveredDataSources; recompiled whenever rules are changed
+     */
+    private volatile SocketAddressRules socketAddressRules = SocketAddressRules.EMPTY;
+    private volatile DataSourceRules dataSourceRules = DataSourceRules.EMPTY;
+
+    private final SocketAddressRules.HostNameCache hostNameCache = new SocketAddressRules.HostNameCache();
+
+    /**
+     * Compiled indexes (global and thread local) with host name rules; addresses of these host names are refreshed
+     * by housekeeping thread so that connections never wait for DNS lookups
+     */
+    private final Set<SocketAddressRules> hostNameSocketAddressRules =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<SocketAddressRules, Boolean>()));
+
+    private static final long REFRESH_INTERVAL_MILLIS = 1000;
+
+    private long lastRefreshNanos = System.nanoTime();
+
+    /**
+     * Open connections grouped by port; used for applying new rules to connections which are already established
+     */
     // visible for testing
-    protected final Map<Map.Entry<String, Integer>, Collection<Reference<SniffyNetworkConnection>>> sniffySocketImpls =
-            new ConcurrentHashMap<Map.Entry<String, Integer>, Collection<Reference<SniffyNetworkConnection>>>();
+    protected final Map<Integer, Collection<Reference<SniffyNetworkConnection>>> sniffySocketImpls =
+            new ConcurrentHashMap<Integer, Collection<Reference<SniffyNetworkConnection>>>();
 
     private volatile boolean persistRegistry = false;
 
@@ -53,14 +76,34 @@ public enum ConnectionsRegistry implements Runnable {
                 }
             };
 
+    private final ThreadLocal<SocketAddressRules> threadLocalSocketAddressRules = new ThreadLocal<SocketAddressRules>() {
+
+        @Override
+        protected SocketAddressRules initialValue() {
+            return SocketAddressRules.EMPTY;
+        }
+
+    };
+
+    private final ThreadLocal<DataSourceRules> threadLocalDataSourceRules = new ThreadLocal<DataSourceRules>() {
+
+        @Override
+        protected DataSourceRules initialValue() {
+            return DataSourceRules.EMPTY;
+        }
+
+    };
+
     private volatile boolean threadLocal = false;
 
     public void setThreadLocalDiscoveredAddresses(Map<Map.Entry<String, Integer>, Integer> discoveredAddresses) {
         threadLocalDiscoveredAddresses.set(discoveredAddresses);
+        threadLocalSocketAddressRules.set(compileSocketAddressRules(discoveredAddresses));
     }
 
     public void setThreadLocalDiscoveredDataSources(Map<Map.Entry<String, String>, Integer> discoveredDataSources) {
         threadLocalDiscoveredDataSources.set(discoveredDataSources);
+        threadLocalDataSourceRules.set(DataSourceRules.compile(discoveredDataSources));
     }
 
     ConnectionsRegistry() {
@@ -75,84 +118,65 @@ public enum ConnectionsRegistry implements Runnable {
 
     public Integer resolveDataSourceStatus(String url, String userName) {
 
-        Map<Map.Entry<String, String>, Integer> discoveredDataSources = getDiscoveredDataSources();
-
-        for (Map.Entry<Map.Entry<String, String>, Integer> entry : discoveredDataSources.entrySet()) {
-
-            if ((null == url || url.equals(entry.getKey().getKey())) &&
-                    (null == userName || userName.equals(entry.getKey().getValue())) &&
-                    0 != entry.getValue()) {
-                return entry.getValue();
-            }
+        Integer status = (threadLocal ? threadLocalDataSourceRules.get() : dataSourceRules).resolve(url, userName);
 
+        if (null == status) {
+            setDataSourceStatus(url, userName, 0);
+            status = 0;
         }
 
-        setDataSourceStatus(url, userName, 0);
-
-        return 0;
+        return status;
 
     }
 
+    /**
+     * If several rules match given address, the most specific one wins: rule for the IP address, then rule for
+     * the host name, then rule for any host; rule for the exact port is preferred over rule for any port.
+     * Host names from rules are resolved when rules are changed and refreshed in background every 30 seconds
+     *
+     * @return status of the most specific rule with non-zero status matching given address or 0 if there are none
+     */
     public int resolveSocketAddressStatus(InetSocketAddress inetSocketAddress, SniffyNetworkConnection sniffyNetworkConnection) {
 
         if (null == inetSocketAddress || null == inetSocketAddress.getAddress()) { // TODO: can be null for unresolved addresses
             return 0;
         }
 
-        Map<Map.Entry<String, Integer>, Integer> discoveredAddresses = getDiscoveredAddresses();
-
         InetAddress inetAddress = inetSocketAddress.getAddress();
+        int port = inetSocketAddress.getPort();
 
         if (null != sniffyNetworkConnection && !threadLocal) {
 
             // register given SniffyNetworkConnetion instance (SocketImpl or SocketChannel or similar) in sniffySocketImpls map
 
-            {
-                AbstractMap.SimpleEntry<String, Integer> hostNamePortPair = new AbstractMap.SimpleEntry<String, Integer>(inetAddress.getHostName(), inetSocketAddress.getPort());
-                Collection<Reference<SniffyNetworkConnection>> sniffySockets = sniffySocketImpls.get(hostNamePortPair);
-                if (null == sniffySockets) {
-                    synchronized (sniffySocketImpls) {
-                        sniffySockets = sniffySocketImpls.get(hostNamePortPair);
-                        if (null == sniffySockets) {
-                            sniffySockets = Collections.newSetFromMap(new ConcurrentHashMap<Reference<SniffyNetworkConnection>, Boolean>());
-                            sniffySocketImpls.put(hostNamePortPair, sniffySockets);
-                        }
-                    }
-                }
-                sniffySockets.add(new WeakReference<SniffyNetworkConnection>(sniffyNetworkConnection, sniffySocketReferenceQueue));
-            }
-            {
-                AbstractMap.SimpleEntry<String, Integer> hostAddressPortPair = new AbstractMap.SimpleEntry<String, Integer>(inetAddress.getHostAddress(), inetSocketAddress.getPort());
-                Collection<Reference<SniffyNetworkConnection>> sniffySockets = sniffySocketImpls.get(hostAddressPortPair);
-                if (null == sniffySockets) {
-                    synchronized (sniffySocketImpls) {
-                        sniffySockets = sniffySocketImpls.get(hostAddressPortPair);
-                        if (null == sniffySockets) {
-                            sniffySockets = Collections.newSetFromMap(new ConcurrentHashMap<Reference<SniffyNetworkConnection>, Boolean>());
-                            sniffySocketImpls.put(hostAddressPortPair, sniffySockets);
-                        }
+            Collection<Reference<SniffyNetworkConnection>> sniffySockets = sniffySocketImpls.get(port);
+            if (null == sniffySockets) {
+                synchronized (sniffySocketImpls) {
+                    sniffySockets = sniffySocketImpls.get(port);
+                    if (null == sniffySockets) {
+                        sniffySockets = Collections.newSetFromMap(new ConcurrentHashMap<Reference<SniffyNetworkConnection>, Boolean>());
+                        sniffySocketImpls.put(port, sniffySockets);
                     }
                 }
-                sniffySockets.add(new WeakReference<SniffyNetworkConnection>(sniffyNetworkConnection, sniffySocketReferenceQueue));
             }
-        }
-
-        // search for given address in discoveredAddresses map (global or thread local)
-        for (Map.Entry<Map.Entry<String, Integer>, Integer> entry : discoveredAddresses.entrySet()) {
-
-            String hostName = entry.getKey().getKey();
-            Integer port = entry.getKey().getValue();
+            sniffySockets.add(new ConnectionReference(sniffyNetworkConnection, inetAddress, port, sniffySocketReferenceQueue));
 
-            if ((null == hostName || hostName.equals(inetAddress.getHostName()) || hostName.equals(inetAddress.getHostAddress())) &&
-                    (null == port || port == inetSocketAddress.getPort()) &&
-                    0 != entry.getValue()) {
-                return entry.getValue();
-            }
+        }
 
+        // search for given address in compiled discoveredAddresses (global or thread local)
+        int status = (threadLocal ? threadLocalSocketAddressRules.get() : socketAddressRules).resolve(inetAddress, port);
+        if (0 != status) {
+            return status;
         }
 
         // store given address with 0 connection status (allowed without delay) to discoveredAddresses map (global)
-        setSocketAddressStatus(inetSocketAddress.getHostName(), inetSocketAddress.getPort(), 0);
+        String hostName = SocketAddressRules.getHostNameIfKnown(inetAddress);
+        Map.Entry<String, Integer> hostNamePortPair = new AbstractMap.SimpleEntry<String, Integer>(
+                null == hostName ? inetAddress.getHostAddress() : hostName, port
+        );
+        if (!getDiscoveredAddressesImpl().containsKey(hostNamePortPair)) {
+            storeSocketAddressStatus(hostNamePortPair.getKey(), port, 0);
+        }
 
         // return 0 - connection allowed without delay
         return 0;
@@ -169,9 +193,42 @@ public enum ConnectionsRegistry implements Runnable {
 
     public void setSocketAddressStatus(String hostName, Integer port, Integer connectionStatus) {
 
+        storeSocketAddressStatus(hostName, port, connectionStatus);
+
+        // apply rule to established connections with given host name or address and port
+        Collection<Reference<SniffyNetworkConnection>> sniffySockets = null == hostName || null == port ? null : sniffySocketImpls.get(port);
+        if (null != sniffySockets && !sniffySockets.isEmpty()) {
+            // host name is resolved only if some of connections don't carry it
+            List<InetAddress> inetAddresses = null;
+            for (Reference<SniffyNetworkConnection> sniffySocketWeakReference : sniffySockets) {
+                SniffyNetworkConnection sniffyNetworkConnection = sniffySocketWeakReference.get();
+                if (null != sniffyNetworkConnection) {
+                    InetAddress inetAddress = ((ConnectionReference) sniffySocketWeakReference).inetAddress;
+                    boolean matches = hostName.equals(SocketAddressRules.getHostNameIfKnown(inetAddress));
+                    if (!matches) {
+                        if (null == inetAddresses) {
+                            inetAddresses = Arrays.asList(hostNameCache.resolve(hostName));
+                        }
+                        matches = inetAddresses.contains(inetAddress);
+                    }
+                    if (matches) {
+                        sniffyNetworkConnection.setConnectionStatus(connectionStatus);
+                    }
+                }
+            }
+        }
+
+    }
+
+    private void storeSocketAddressStatus(String hostName, Integer port, Integer connectionStatus) {
+
         Map<Map.Entry<String, Integer>, Integer> discoveredAddresses = getDiscoveredAddressesImpl();
 
-        discoveredAddresses.put(new AbstractMap.SimpleEntry<String, Integer>(hostName, port), connectionStatus);
+        Integer previousConnectionStatus = discoveredAddresses.put(new AbstractMap.SimpleEntry<String, Integer>(hostName, port), connectionStatus);
+
+        if (!isZero(connectionStatus) || !isZero(previousConnectionStatus)) {
+            compileSocketAddressRules();
+        }
 
         if (persistRegistry) {
             try {
@@ -181,27 +238,27 @@ public enum ConnectionsRegistry implements Runnable {
             }
         }
 
-        Collection<Reference<SniffyNetworkConnection>> sniffySockets = sniffySocketImpls.get(new AbstractMap.SimpleEntry<String, Integer>(hostName, port));
-        if (null != sniffySockets) {
-            for (Reference<SniffyNetworkConnection> sniffySocketWeakReference : sniffySockets) {
-                SniffyNetworkConnection sniffyNetworkConnection = sniffySocketWeakReference.get();
-                if (null != sniffyNetworkConnection) {
-                    sniffyNetworkConnection.setConnectionStatus(connectionStatus);
-                }
-            }
-        }
-
     }
 
+    /**
+     * @return discovered data sources (global or thread local); changes made via returned map are applied
+     * to subsequent data source lookups
+     */
     public Map<Map.Entry<String, String>, Integer> getDiscoveredDataSources() {
+        return new DiscoveredDataSources(getDiscoveredDataSourcesImpl());
+    }
+
+    private Map<Map.Entry<String, String>, Integer> getDiscoveredDataSourcesImpl() {
         return threadLocal ? threadLocalDiscoveredDataSources.get() : this.discoveredDataSources;
     }
 
     public void setDataSourceStatus(String url, String userName, Integer status) {
 
-        Map<Map.Entry<String, String>, Integer> discoveredDataSources = getDiscoveredDataSources();
+        Map<Map.Entry<String, String>, Integer> discoveredDataSources = getDiscoveredDataSourcesImpl();
 
         discoveredDataSources.put(new AbstractMap.SimpleEntry<String, String>(url, userName), status);
+        compileDataSourceRules();
+
         if (persistRegistry) {
             try {
                 ConnectionsRegistryStorage.INSTANCE.storeConnectionsRegistry(this);
@@ -232,6 +289,62 @@ public enum ConnectionsRegistry implements Runnable {
         discoveredDataSources.clear();
         persistRegistry = false;
         sniffySocketImpls.clear();
+        hostNameCache.clear();
+        compileSocketAddressRules();
+        compileDataSourceRules();
+    }
+
+    private static boolean isZero(Integer connectionStatus) {
+        return null == connectionStatus || 0 == connectionStatus;
+    }
+
+    /**
+     * Rebuilds index of socket address rules for current mode (global or thread local) on the thread changing
+     * the rules; host names used in rules are looked up here unless they're cached already
+     */
+    private void compileSocketAddressRules() {
+        if (threadLocal) {
+            threadLocalSocketAddressRules.set(compileSocketAddressRules(threadLocalDiscoveredAddresses.get()));
+        } else {
+            synchronized (discoveredAddresses) {
+                socketAddressRules = compileSocketAddressRules(discoveredAddresses);
+            }
+        }
+    }
+
+    private SocketAddressRules compileSocketAddressRules(Map<Map.Entry<String, Integer>, Integer> discoveredAddresses) {
+        SocketAddressRules socketAddressRules = SocketAddressRules.compile(discoveredAddresses, hostNameCache);
+        if (socketAddressRules.hasHostNameRules()) {
+            hostNameSocketAddressRules.add(socketAddressRules);
+        }
+        return socketAddressRules;
+    }
+
+    /**
+     * Looks up expired host names from rules again; called by housekeeping thread only
+     */
+    private void refreshSocketAddressRules(long now) {
+        SocketAddressRules[] socketAddressRules;
+        synchronized (hostNameSocketAddressRules) {
+            socketAddressRules = hostNameSocketAddressRules.toArray(new SocketAddressRules[0]);
+        }
+        for (SocketAddressRules rules : socketAddressRules) {
+            rules.refresh(now);
+        }
+    }
+
+    private void compileDataSourceRules() {
+        compileDataSourceRules(getDiscoveredDataSourcesImpl());
+    }
+
+    private void compileDataSourceRules(Map<Map.Entry<String, String>, Integer> discoveredDataSources) {
+        if (discoveredDataSources != this.discoveredDataSources) {
+            threadLocalDataSourceRules.set(DataSourceRules.compile(discoveredDataSources));
+        } else {
+            synchronized (discoveredDataSources) {
+                dataSourceRules = DataSourceRules.compile(discoveredDataSources);
+            }
+        }
     }
 
     public void readFrom(Reader reader) throws IOException {
@@ -260,6 +373,13 @@ public enum ConnectionsRegistry implements Runnable {
             }
         }
 
+        synchronized (discoveredAddresses) {
+            socketAddressRules = compileSocketAddressRules(discoveredAddresses);
+        }
+        synchronized (discoveredDataSources) {
+            dataSourceRules = DataSourceRules.compile(discoveredDataSources);
+        }
+
     }
 
     public void writeTo(OutputStream outputStream, String charset) throws IOException {
@@ -362,33 +482,17 @@ public enum ConnectionsRegistry implements Runnable {
 
         while (!Thread.currentThread().isInterrupted()) {
             try {
-                Reference<? extends SniffyNetworkConnection> reference = sniffySocketReferenceQueue.remove();
-                SniffyNetworkConnection sniffyNetworkConnection = reference.get();
-                if (null != sniffyNetworkConnection) {
-                    InetSocketAddress inetSocketAddress = sniffyNetworkConnection.getInetSocketAddress();
-
-                    {
-                        Collection<Reference<SniffyNetworkConnection>> sniffySockets = sniffySocketImpls.get(
-                                new AbstractMap.SimpleEntry<String, Integer>(
-                                        inetSocketAddress.getAddress().getHostName(), inetSocketAddress.getPort()
-                                )
-                        );
-                        if (null != sniffySockets) {
-                            sniffySockets.remove(reference);
-                        }
+                Reference<? extends SniffyNetworkConnection> reference = sniffySocketReferenceQueue.remove(REFRESH_INTERVAL_MILLIS);
+                if (null != reference) {
+                    Collection<Reference<SniffyNetworkConnection>> sniffySockets = sniffySocketImpls.get(((ConnectionReference) reference).port);
+                    if (null != sniffySockets) {
+                        sniffySockets.remove(reference);
                     }
-
-                    {
-                        Collection<Reference<SniffyNetworkConnection>> sniffySockets = sniffySocketImpls.get(
-                                new AbstractMap.SimpleEntry<String, Integer>(
-                                        inetSocketAddress.getAddress().getHostAddress(), inetSocketAddress.getPort()
-                                )
-                        );
-                        if (null != sniffySockets) {
-                            sniffySockets.remove(reference);
-                        }
-                    }
-
+                }
+                long now = System.nanoTime();
+                if (now - lastRefreshNanos >= TimeUnit.MILLISECONDS.toNanos(REFRESH_INTERVAL_MILLIS)) {
+                    lastRefreshNanos = now;
+                    refreshSocketAddressRules(now);
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -397,4 +501,114 @@ public enum ConnectionsRegistry implements Runnable {
 
     }
 
+    /**
+     * Live view of discovered data sources which recompiles {@link DataSourceRules} whenever it is modified
+     */
+    private class DiscoveredDataSources extends AbstractMap<Map.Entry<String, String>, Integer> {
+
+        private final Map<Map.Entry<String, String>, Integer> discoveredDataSources;
+
+        private DiscoveredDataSources(Map<Map.Entry<String, String>, Integer> discoveredDataSources) {
+            this.discoveredDataSources = discoveredDataSources;
+        }
+
+        @Override
+        public int size() {
+            return discoveredDataSources.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return discoveredDataSources.containsKey(key);
+        }
+
+        @Override
+        public Integer get(Object key) {
+            return discoveredDataSources.get(key);
+        }
+
+        @Override
+        public Integer put(Map.Entry<String, String> key, Integer value) {
+            Integer previousValue = discoveredDataSources.put(key, value);
+            compileDataSourceRules(discoveredDataSources);
+            return previousValue;
+        }
+
+        @Override
+        public Integer remove(Object key) {
+            Integer previousValue = discoveredDataSources.remove(key);
+            compileDataSourceRules(discoveredDataSources);
+            return previousValue;
+        }
+
+        @Override
+        public void clear() {
+            discoveredDataSources.clear();
+            compileDataSourceRules(discoveredDataSources);
+        }
+
+        @Override
+        public Set<Map.Entry<Map.Entry<String, String>, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<Map.Entry<String, String>, Integer>>() {
+
+                @Override
+                public int size() {
+                    return discoveredDataSources.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<Map.Entry<String, String>, Integer>> iterator() {
+                    final Iterator<Map.Entry<Map.Entry<String, String>, Integer>> iterator = discoveredDataSources.entrySet().iterator();
+                    return new Iterator<Map.Entry<Map.Entry<String, String>, Integer>>() {
+
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<Map.Entry<String, String>, Integer> next() {
+                            return new SimpleEntry<Map.Entry<String, String>, Integer>(iterator.next()) {
+
+                                @Override
+                                public Integer setValue(Integer value) {
+                                    super.setValue(value);
+                                    return put(getKey(), value);
+                                }
+
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            iterator.remove();
+                            compileDataSourceRules(discoveredDataSources);
+                        }
+
+                    };
+                }
+
+            };
+        }
+
+    }
+
+    /**
+     * Keeps the address used for resolving the connection status since it can differ from
+     * {@link SniffyNetworkConnection#getInetSocketAddress()} for proxied connections
+     */
+    private static class ConnectionReference extends WeakReference<SniffyNetworkConnection> {
+
+        private final InetAddress inetAddress;
+        private final int port;
+
+        private ConnectionReference(SniffyNetworkConnection sniffyNetworkConnection, InetAddress inetAddress, int port,
+                                    ReferenceQueue<? super SniffyNetworkConnection> queue) {
+            super(sniffyNetworkConnection, queue);
+            this.inetAddress = inetAddress;
+            this.port = port;
+        }
+
+    }
+
 }
@@ -0,0 +1,114 @@
+package io.sniffy.registry;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable index of data source rules compiled from {@link ConnectionsRegistry#getDiscoveredDataSources()}.
+ * <p>
+ * Statuses are indexed by url and user name; statuses for lookups with a {@code null} url or user name
+ * which match any rule are precomputed when the index is compiled
+ *
+ * @since 3.1.14
+ */
+final class DataSourceRules {
+
+    static final DataSourceRules EMPTY = new DataSourceRules(
+            Collections.<String, Map<String, Integer>>emptyMap(),
+            Collections.<String, Integer>emptyMap(),
+            Collections.<String, Integer>emptyMap(),
+            0
+    );
+
+    /**
+     * All rules including the ones with zero status, url -&gt; user name -&gt; status
+     */
+    private final Map<String, Map<String, Integer>> statuses;
+
+    /**
+     * First non-zero status for each url
+     */
+    private final Map<String, Integer> urlStatuses;
+
+    /**
+     * First non-zero status for each user name
+     */
+    private final Map<String, Integer> userNameStatuses;
+
+    /**
+     * First non-zero status
+     */
+    private final int anyStatus;
+
+    private DataSourceRules(Map<String, Map<String, Integer>> statuses,
+                            Map<String, Integer> urlStatuses, Map<String, Integer> userNameStatuses,
+                            int anyStatus) {
+        this.statuses = statuses;
+        this.urlStatuses = urlStatuses;
+        this.userNameStatuses = userNameStatuses;
+        this.anyStatus = anyStatus;
+    }
+
+    static DataSourceRules compile(Map<Map.Entry<String, String>, Integer> discoveredDataSources) {
+
+        if (discoveredDataSources.isEmpty()) return EMPTY;
+
+        Map<String, Map<String, Integer>> statuses = new HashMap<String, Map<String, Integer>>();
+        Map<String, Integer> urlStatuses = new HashMap<String, Integer>();
+        Map<String, Integer> userNameStatuses = new HashMap<String, Integer>();
+        int anyStatus = 0;
+
+        for (Map.Entry<Map.Entry<String, String>, Integer> entry : discoveredDataSources.entrySet()) {
+
+            String url = entry.getKey().getKey();
+            String userName = entry.getKey().getValue();
+            int status = null == entry.getValue() ? 0 : entry.getValue();
+
+            Map<String, Integer> userNames = statuses.get(url);
+            if (null == userNames) {
+                statuses.put(url, userNames = new HashMap<String, Integer>());
+            }
+            userNames.put(userName, status);
+
+            if (0 != status) {
+                if (!urlStatuses.containsKey(url)) urlStatuses.put(url, status);
+                if (!userNameStatuses.containsKey(userName)) userNameStatuses.put(userName, status);
+                if (0 == anyStatus) anyStatus = status;
+            }
+
+        }
+
+        return new DataSourceRules(statuses, urlStatuses, userNameStatuses, anyStatus);
+
+    }
+
+    /**
+     * {@code null} url or user name matches any rule
+     *
+     * @return status of matching rule, 0 if there's a matching rule with zero status or null if
+     * given data source wasn't discovered yet
+     */
+    Integer resolve(String url, String userName) {
+
+        if (null != url && null != userName) {
+            Map<String, Integer> userNames = statuses.get(url);
+            return null == userNames ? null : userNames.get(userName);
+        }
+
+        if (null != url) {
+            Integer status = urlStatuses.get(url);
+            if (null != status) return status;
+        } else if (null != userName) {
+            Integer status = userNameStatuses.get(userName);
+            if (null != status) return status;
+        } else if (0 != anyStatus) {
+            return anyStatus;
+        }
+
+        Map<String, Integer> userNames = statuses.get(url);
+        return null != userNames && userNames.containsKey(userName) ? 0 : null;
+
+    }
+
+}
@@ -0,0 +1,352 @@
+package io.sniffy.registry;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable index of socket address rules compiled from {@link ConnectionsRegistry#getDiscoveredAddresses()}.
+ * <p>
+ * Rules are indexed by {@link InetAddress}, by host name and by port so that resolving the status of
+ * a connection doesn't iterate over all rules. IP literals from rules are indexed by address right away, while
+ * connections are matched against host names from rules using the host name they already carry. Addresses of host
+ * names from rules are looked up when the index is compiled, i.e. on the thread changing the rules, and published as
+ * an immutable snapshot; {@link #refresh(long)} replaces the snapshot once it is older than
+ * {@link HostNameCache#TTL_NANOS}. Hence {@link #resolve(InetAddress, int)} only reads maps and never does a DNS lookup.
+ * Only rules with non-zero status are indexed since zero status means "allowed without delay".
+ * <p>
+ * If several rules match a connection, the most specific one wins: rules for the IP address are checked first, then
+ * rules for the host name and then rules for any host; for each host a rule for the exact port is preferred over
+ * a rule for any port
+ *
+ * @since 3.1.14
+ */
+final class SocketAddressRules {
+
+    private static final ResolvedAddressRules NO_RESOLVED_ADDRESS_RULES = new ResolvedAddressRules(
+            Collections.<InetAddress, PortRules>emptyMap(),
+            Long.MAX_VALUE
+    );
+
+    static final SocketAddressRules EMPTY = new SocketAddressRules(
+            Collections.<InetAddress, PortRules>emptyMap(),
+            Collections.<String, PortRules>emptyMap(),
+            null,
+            null
+    );
+
+    private static final InetAddress[] NO_ADDRESSES = new InetAddress[0];
+
+    private final Map<InetAddress, PortRules> addressRules;
+    private final Map<String, PortRules> hostNameRules;
+    private final PortRules anyHostRules;
+
+    private final HostNameCache hostNameCache;
+
+    /**
+     * Rules for addresses of host names from {@link #hostNameRules}; replaced by {@link #refresh(long)}
+     */
+    private volatile ResolvedAddressRules resolvedAddressRules = NO_RESOLVED_ADDRESS_RULES;
+
+    private SocketAddressRules(Map<InetAddress, PortRules> addressRules, Map<String, PortRules> hostNameRules,
+                               PortRules anyHostRules, HostNameCache hostNameCache) {
+        this.addressRules = addressRules;
+        this.hostNameRules = hostNameRules;
+        this.anyHostRules = anyHostRules;
+        this.hostNameCache = hostNameCache;
+    }
+
+    /**
+     * Might do DNS lookups for host names from rules unless they're cached already
+     *
+     * @param hostNameCache cache of resolved host names shared between compilations
+     */
+    static SocketAddressRules compile(Map<Map.Entry<String, Integer>, Integer> discoveredAddresses,
+                                      HostNameCache hostNameCache) {
+
+        Map<InetAddress, PortRules.Builder> addressRules = new HashMap<InetAddress, PortRules.Builder>();
+        Map<String, PortRules.Builder> hostNameRules = new HashMap<String, PortRules.Builder>();
+        PortRules.Builder anyHostRules = null;
+
+        for (Map.Entry<Map.Entry<String, Integer>, Integer> entry : discoveredAddresses.entrySet()) {
+
+            Integer status = entry.getValue();
+            if (null == status || 0 == status) continue;
+
+            String hostName = entry.getKey().getKey();
+            Integer port = entry.getKey().getValue();
+
+            if (null == hostName) {
+                if (null == anyHostRules) anyHostRules = new PortRules.Builder();
+                anyHostRules.add(port, status);
+            } else {
+                InetAddress inetAddress = parseLiteral(hostName);
+                if (null != inetAddress) {
+                    builder(addressRules, inetAddress).add(port, status);
+                } else {
+                    builder(hostNameRules, hostName).add(port, status);
+                }
+            }
+
+        }
+
+        if (addressRules.isEmpty() && hostNameRules.isEmpty() && null == anyHostRules) {
+            return EMPTY;
+        }
+
+        SocketAddressRules socketAddressRules = new SocketAddressRules(
+                build(addressRules),
+                build(hostNameRules),
+                null == anyHostRules ? null : anyHostRules.build(),
+                hostNameCache
+        );
+
+        if (socketAddressRules.hasHostNameRules()) {
+            socketAddressRules.resolvedAddressRules = socketAddressRules.resolveAddressRules(System.nanoTime());
+        }
+
+        return socketAddressRules;
+
+    }
+
+    /**
+     * @return address represented by given IP literal or null if it is a host name; never does a DNS lookup
+     */
+    static InetAddress parseLiteral(String hostName) {
+        if (hostName.length() == 0 || (hostName.indexOf(':') < 0 && !isIPv4Literal(hostName))) {
+            return null;
+        }
+        try {
+            // literals are parsed without a lookup
+            return InetAddress.getByName(hostName);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static boolean isIPv4Literal(String hostName) {
+        int dots = 0;
+        for (int i = 0; i < hostName.length(); i++) {
+            char c = hostName.charAt(i);
+            if ('.' == c) {
+                dots++;
+            } else if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return 3 == dots;
+    }
+
+    /**
+     * @return host name associated with given address or null if it is unknown; never does a reverse DNS lookup
+     * unlike {@link InetAddress#getHostName()}
+     */
+    static String getHostNameIfKnown(InetAddress inetAddress) {
+        // toString() returns "hostName/hostAddress" or "/hostAddress" without resolving the host name
+        String hostNameAndAddress = inetAddress.toString();
+        int slashIndex = hostNameAndAddress.indexOf('/');
+        return slashIndex > 0 ? hostNameAndAddress.substring(0, slashIndex) : null;
+    }
+
+    /**
+     * @return status of the most specific rule matching given address and port or 0 if none of them match
+     */
+    int resolve(InetAddress inetAddress, int port) {
+
+        int status = resolve(addressRules.get(inetAddress), port);
+
+        if (0 == status && !hostNameRules.isEmpty()) {
+            String hostName = getHostNameIfKnown(inetAddress);
+            if (null != hostName) {
+                status = resolve(hostNameRules.get(hostName), port);
+            }
+            if (0 == status) {
+                status = resolve(resolvedAddressRules.addressRules.get(inetAddress), port);
+            }
+        }
+
+        if (0 == status) {
+            status = resolve(anyHostRules, port);
+        }
+
+        return status;
+
+    }
+
+    /**
+     * @return true if some of rules use host names which have to be resolved and refreshed
+     */
+    boolean hasHostNameRules() {
+        return !hostNameRules.isEmpty();
+    }
+
+    /**
+     * Looks up addresses of host names from rules again if any of them has expired; supposed to be called
+     * by a single background thread
+     */
+    void refresh(long now) {
+        if (hasHostNameRules() && now - resolvedAddressRules.expiresAtNanos > 0) {
+            resolvedAddressRules = resolveAddressRules(now);
+        }
+    }
+
+    private ResolvedAddressRules resolveAddressRules(long now) {
+        Map<InetAddress, PortRules> addressRules = new HashMap<InetAddress, PortRules>();
+        long expiresAtNanos = now + HostNameCache.TTL_NANOS;
+        for (Map.Entry<String, PortRules> entry : hostNameRules.entrySet()) {
+            HostNameCache.Entry hostNameCacheEntry = hostNameCache.get(entry.getKey(), now);
+            for (InetAddress inetAddress : hostNameCacheEntry.inetAddresses) {
+                if (!addressRules.containsKey(inetAddress)) {
+                    addressRules.put(inetAddress, entry.getValue());
+                }
+            }
+            if (hostNameCacheEntry.expiresAtNanos - expiresAtNanos < 0) {
+                expiresAtNanos = hostNameCacheEntry.expiresAtNanos;
+            }
+        }
+        return new ResolvedAddressRules(addressRules, expiresAtNanos);
+    }
+
+    private static int resolve(PortRules portRules, int port) {
+        return null == portRules ? 0 : portRules.resolve(port);
+    }
+
+    private static <K> PortRules.Builder builder(Map<K, PortRules.Builder> builders, K key) {
+        PortRules.Builder builder = builders.get(key);
+        if (null == builder) {
+            builders.put(key, builder = new PortRules.Builder());
+        }
+        return builder;
+    }
+
+    private static <K> Map<K, PortRules> build(Map<K, PortRules.Builder> builders) {
+        if (builders.isEmpty()) return Collections.emptyMap();
+        Map<K, PortRules> portRules = new HashMap<K, PortRules>(builders.size() * 2);
+        for (Map.Entry<K, PortRules.Builder> entry : builders.entrySet()) {
+            portRules.put(entry.getKey(), entry.getValue().build());
+        }
+        return portRules;
+    }
+
+    /**
+     * Rules for a single host; statuses of specific ports are stored in sorted primitive arrays
+     * so that lookups don't box the port number
+     */
+    private static final class PortRules {
+
+        private final int[] ports;
+        private final int[] statuses;
+        private final int anyPortStatus;
+
+        private PortRules(int[] ports, int[] statuses, int anyPortStatus) {
+            this.ports = ports;
+            this.statuses = statuses;
+            this.anyPortStatus = anyPortStatus;
+        }
+
+        private int resolve(int port) {
+            int index = Arrays.binarySearch(ports, port);
+            return index >= 0 ? statuses[index] : anyPortStatus;
+        }
+
+        private static final class Builder {
+
+            private final SortedMap<Integer, Integer> statuses = new TreeMap<Integer, Integer>();
+            private int anyPortStatus;
+
+            private void add(Integer port, int status) {
+                if (null == port) {
+                    if (0 == anyPortStatus) anyPortStatus = status;
+                } else if (!statuses.containsKey(port)) {
+                    statuses.put(port, status);
+                }
+            }
+
+            private PortRules build() {
+                int[] ports = new int[statuses.size()];
+                int[] portStatuses = new int[statuses.size()];
+                int i = 0;
+                for (Map.Entry<Integer, Integer> entry : statuses.entrySet()) {
+                    ports[i] = entry.getKey();
+                    portStatuses[i++] = entry.getValue();
+                }
+                return new PortRules(ports, portStatuses, anyPortStatus);
+            }
+
+        }
+
+    }
+
+    private static final class ResolvedAddressRules {
+
+        private final Map<InetAddress, PortRules> addressRules;
+        private final long expiresAtNanos;
+
+        private ResolvedAddressRules(Map<InetAddress, PortRules> addressRules, long expiresAtNanos) {
+            this.addressRules = addressRules;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+    }
+
+    /**
+     * Addresses of host names used in rules; entries expire after {@link #TTL_NANOS} so that rules follow DNS changes
+     */
+    static class HostNameCache {
+
+        /**
+         * Same as the default positive TTL of JVM DNS cache
+         */
+        static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+        private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+        /**
+         * @return addresses of given host name or IP literal; might do a DNS lookup if they aren't cached yet
+         */
+        InetAddress[] resolve(String hostName) {
+            return get(hostName, System.nanoTime()).inetAddresses;
+        }
+
+        private Entry get(String hostName, long now) {
+            Entry entry = entries.get(hostName);
+            if (null == entry || now - entry.expiresAtNanos > 0) {
+                InetAddress[] inetAddresses;
+                try {
+                    inetAddresses = lookup(hostName);
+                } catch (UnknownHostException e) {
+                    inetAddresses = NO_ADDRESSES;
+                } catch (SecurityException e) {
+                    inetAddresses = NO_ADDRESSES;
+                }
+                entries.put(hostName, entry = new Entry(inetAddresses, System.nanoTime() + TTL_NANOS));
+            }
+            return entry;
+        }
+
+        // visible for testing
+        protected InetAddress[] lookup(String hostName) throws UnknownHostException {
+            return InetAddress.getAllByName(hostName);
+        }
+
+        void clear() {
+            entries.clear();
+        }
+
+        private static final class Entry {
+
+            private final InetAddress[] inetAddresses;
+            private final long expiresAtNanos;
+
+            private Entry(InetAddress[] inetAddresses, long expiresAtNanos) {
+                this.inetAddresses = inetAddresses;
+                this.expiresAtNanos = expiresAtNanos;
+            }
+
+        }
+
+    }
+
+}
@@ -23,6 +23,14 @@ public class AddressMatchers {
         return new AnyAddressMatcher();
     }
 
+    /**
+     * @return matcher which matches addresses matched by any of given matchers
+     * @since 3.1.14
+     */
+    public static AddressMatcher anyOfAddressMatcher(AddressMatcher... addressMatchers) {
+        return new AnyOfAddressMatcher(addressMatchers);
+    }
+
     private static final class ExactAddressMatcher implements AddressMatcher {
 
         private final String hostName;
@@ -33,12 +41,16 @@ public class AddressMatchers {
             this.port = port;
         }
 
+        /**
+         * Compares host name the address was created with and its IP literal; never performs reverse DNS lookup
+         * since matcher is called for each new connection
+         */
         @Override
         public boolean matches(InetSocketAddress inetSocketAddress) {
             InetAddress inetAddress = inetSocketAddress.getAddress();
             return (null == hostName ||
-                    (null != inetAddress && (hostName.equalsIgnoreCase(inetAddress.getHostName()) || hostName.equalsIgnoreCase(inetAddress.getHostAddress()))) ||
-                    (null == inetAddress && (hostName.equalsIgnoreCase(inetSocketAddress.getHostName()) || hostName.equalsIgnoreCase(inetSocketAddress.getHostString())))
+                    hostName.equalsIgnoreCase(inetSocketAddress.getHostString()) ||
+                    (null != inetAddress && hostName.equalsIgnoreCase(inetAddress.getHostAddress()))
             ) && (null == port || port == inetSocketAddress.getPort());
         }
 
@@ -66,4 +78,33 @@ public class AddressMatchers {
         }
     }
 
+    private static final class AnyOfAddressMatcher implements AddressMatcher {
+
+        private final AddressMatcher[] addressMatchers;
+
+        public AnyOfAddressMatcher(AddressMatcher[] addressMatchers) {
+            this.addressMatchers = addressMatchers;
+        }
+
+        @Override
+        public boolean matches(InetSocketAddress inetSocketAddress) {
+            for (AddressMatcher addressMatcher : addressMatchers) {
+                if (addressMatcher.matches(inetSocketAddress)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void describe(StringBuilder appendable) {
+            for (int i = 0; i < addressMatchers.length; i++) {
+                if (i > 0) {
+                    appendable.append(",");
+                }
+                addressMatchers[i].describe(appendable);
+            }
+        }
+    }
+
 }
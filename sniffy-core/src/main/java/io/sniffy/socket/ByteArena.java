@@ -0,0 +1,241 @@
+package io.sniffy.socket;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only storage for captured traffic; bytes are written into fixed size chunks and {@link NetworkPacket}
+ * keeps (chunk, offset, length) slices instead of copies.
+ * <p>
+ * Chunks are taken from a global pool and are returned there once all packets referencing them
+ * are garbage collected or evicted. Chunks which have been exposed via {@link NetworkPacket#getByteBuffers()} aren't
+ * returned to the pool since the views don't keep the chunk reachable. Chunks can be allocated off-heap using direct
+ * {@link ByteBuffer}s.
+ * <p>
+ * First chunk of an arena is a small one allocated outside of the pool, so that spies capturing little traffic
+ * don't pin a whole pooled chunk each.
+ *
+ * @since 3.1.14
+ */
+public final class ByteArena {
+
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Size of the first chunk of an arena unless first written bytes don't fit it
+     */
+    static final int INITIAL_CHUNK_SIZE = 4 * 1024;
+
+    /**
+     * Maximum number of free chunks of each kind (heap and direct) kept in the pool
+     */
+    private static final int MAX_POOLED_CHUNKS = 256;
+
+    private static final Pool POOL = new Pool();
+
+    /**
+     * Shared arena which copies each appended region into a separate heap chunk of exact size; it doesn't use the pool
+     * and is used by packets created without an arena
+     */
+    static final ByteArena UNPOOLED_HEAP = new ByteArena(false, 0);
+
+    private final boolean direct;
+
+    /**
+     * Only arenas with default chunk size use the pool; zero means a separate chunk for each appended region
+     */
+    private final int chunkSize;
+
+    private Chunk currentChunk;
+    private ByteBuffer currentChunkWriter;
+
+    public ByteArena(boolean direct) {
+        this(direct, CHUNK_SIZE);
+    }
+
+    ByteArena(boolean direct, int chunkSize) {
+        this.direct = direct;
+        this.chunkSize = Math.max(0, chunkSize);
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Copies given bytes to the arena and appends corresponding slices to given packet
+     */
+    void append(NetworkPacket networkPacket, byte[] traffic, int off, int len) {
+        append(networkPacket, ByteBuffer.wrap(traffic), off, len);
+    }
+
+    /**
+     * Copies bytes between {@code off} and {@code off + len} absolute positions of given buffer to the arena and
+     * appends corresponding slices to given packet; position and limit of given buffer aren't changed
+     *
+     * @since 3.1.14
+     */
+    void append(NetworkPacket networkPacket, ByteBuffer traffic, int off, int len) {
+        ByteBuffer source = traffic.duplicate();
+        // cast is required for compatibility with Java 8 when compiled on newer JDK
+        ((Buffer) source).limit(off + len);
+        ((Buffer) source).position(off);
+        if (0 == chunkSize) {
+            if (len > 0) {
+                Chunk chunk = Chunk.allocate(direct, len);
+                chunk.buffer.duplicate().put(source);
+                networkPacket.addSlice(chunk, 0, len);
+            }
+        } else {
+            synchronized (this) {
+                appendToChunks(networkPacket, source, off + len);
+            }
+        }
+    }
+
+    private void appendToChunks(NetworkPacket networkPacket, ByteBuffer source, int limit) {
+        while (source.hasRemaining()) {
+            if (null == currentChunk || !currentChunkWriter.hasRemaining()) {
+                if (CHUNK_SIZE != chunkSize) {
+                    currentChunk = Chunk.allocate(direct, chunkSize);
+                } else if (null == currentChunk && source.remaining() <= INITIAL_CHUNK_SIZE) {
+                    currentChunk = Chunk.allocate(direct, INITIAL_CHUNK_SIZE);
+                } else {
+                    currentChunk = POOL.acquire(direct);
+                }
+                currentChunkWriter = currentChunk.buffer.duplicate();
+            }
+            int offset = currentChunkWriter.position();
+            int length = Math.min(source.remaining(), currentChunkWriter.remaining());
+            ((Buffer) source).limit(source.position() + length);
+            currentChunkWriter.put(source);
+            ((Buffer) source).limit(limit);
+            networkPacket.addSlice(currentChunk, offset, length);
+        }
+    }
+
+    /**
+     * @return number of free chunks in the pool
+     */
+    static int pooledChunks(boolean direct) {
+        POOL.reclaim();
+        return (direct ? POOL.directChunks : POOL.heapChunks).size();
+    }
+
+    /**
+     * Region of memory shared by slices of network packets; underlying buffer is returned to the pool
+     * once chunk becomes unreachable
+     */
+    static final class Chunk {
+
+        private final ByteBuffer buffer;
+
+        /**
+         * Null unless chunk is taken from the pool
+         */
+        private ChunkReference reference;
+
+        private Chunk(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private static Chunk allocate(boolean direct, int size) {
+            return new Chunk(direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size));
+        }
+
+        /**
+         * Returns read-only view of given region; chunk won't be returned to the pool afterwards since the view
+         * doesn't keep it reachable and underlying memory could be reused by another arena while it's still in use
+         */
+        ByteBuffer view(int offset, int length) {
+            if (null != reference) {
+                reference.exposed = true;
+            }
+            ByteBuffer view = buffer.duplicate();
+            // cast is required for compatibility with Java 8 when compiled on newer JDK
+            ((Buffer) view).limit(offset + length);
+            ((Buffer) view).position(offset);
+            return view.slice().asReadOnlyBuffer();
+        }
+
+        /**
+         * Copies the given region of chunk
+         */
+        void copy(int offset, int length, byte[] dst, int dstOffset) {
+            ByteBuffer view = buffer.duplicate();
+            // cast is required for compatibility with Java 8 when compiled on newer JDK
+            ((Buffer) view).limit(offset + length);
+            ((Buffer) view).position(offset);
+            view.get(dst, dstOffset, length);
+        }
+
+    }
+
+    private static class ChunkReference extends PhantomReference<Chunk> {
+
+        private final ByteBuffer buffer;
+
+        private volatile boolean exposed;
+
+        private ChunkReference(Chunk chunk, ReferenceQueue<Chunk> queue) {
+            super(chunk, queue);
+            this.buffer = chunk.buffer;
+        }
+
+    }
+
+    private static class Pool {
+
+        private final Queue<ByteBuffer> heapChunks = new ConcurrentLinkedQueue<ByteBuffer>();
+        private final Queue<ByteBuffer> directChunks = new ConcurrentLinkedQueue<ByteBuffer>();
+
+        private final AtomicInteger heapChunksCount = new AtomicInteger();
+        private final AtomicInteger directChunksCount = new AtomicInteger();
+
+        private final ReferenceQueue<Chunk> referenceQueue = new ReferenceQueue<Chunk>();
+        private final Map<ChunkReference, Boolean> references = new ConcurrentHashMap<ChunkReference, Boolean>();
+
+        private Chunk acquire(boolean direct) {
+            reclaim();
+            ByteBuffer buffer = (direct ? directChunks : heapChunks).poll();
+            if (null != buffer) {
+                (direct ? directChunksCount : heapChunksCount).decrementAndGet();
+            } else {
+                buffer = direct ? ByteBuffer.allocateDirect(CHUNK_SIZE) : ByteBuffer.allocate(CHUNK_SIZE);
+            }
+            Chunk chunk = new Chunk(buffer);
+            chunk.reference = new ChunkReference(chunk, referenceQueue);
+            references.put(chunk.reference, Boolean.TRUE);
+            return chunk;
+        }
+
+        private void reclaim() {
+            Reference<? extends Chunk> reference;
+            while (null != (reference = referenceQueue.poll())) {
+                ChunkReference chunkReference = (ChunkReference) reference;
+                references.remove(chunkReference);
+                if (chunkReference.exposed) {
+                    // views of this buffer might still be in use
+                    continue;
+                }
+                ByteBuffer buffer = chunkReference.buffer;
+                AtomicInteger freeChunksCount = buffer.isDirect() ? directChunksCount : heapChunksCount;
+                if (freeChunksCount.incrementAndGet() > MAX_POOLED_CHUNKS) {
+                    freeChunksCount.decrementAndGet();
+                } else {
+                    (buffer.isDirect() ? directChunks : heapChunks).offer(buffer);
+                }
+            }
+        }
+
+    }
+
+}
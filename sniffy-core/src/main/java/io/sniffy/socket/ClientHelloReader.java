@@ -0,0 +1,115 @@
+package io.sniffy.socket;
+
+import io.sniffy.Sniffy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the first TLS record sent via a network connection and looks up the {@link SniffySSLNetworkConnection}
+ * which has produced it in {@link ClientHelloRegistry}.
+ * <p>
+ * Record might be written in a few chunks; at most {@link ClientHelloRegistry#MAX_HELLO_PREFIX_LENGTH} bytes are
+ * buffered until it can be fingerprinted. Lookup isn't performed if the first sent bytes aren't a TLS handshake
+ * record.
+ *
+ * @since 3.1.14
+ */
+public class ClientHelloReader {
+
+    private final ClientHelloRegistry clientHelloRegistry;
+
+    private boolean done;
+    private byte[] buffer;
+    private int length;
+
+    public ClientHelloReader() {
+        this(Sniffy.CLIENT_HELLO_REGISTRY);
+    }
+
+    public ClientHelloReader(ClientHelloRegistry clientHelloRegistry) {
+        this.clientHelloRegistry = clientHelloRegistry;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Reads bytes sent via this network connection
+     *
+     * @return connection which has produced them or null if they're incomplete yet or don't match any connection
+     */
+    public SniffySSLNetworkConnection read(byte[] traffic, int off, int len) {
+
+        if (done || len <= 0) {
+            return null;
+        }
+
+        if (null == buffer) {
+            int prefixLength = ClientHelloRegistry.getHelloPrefixLength(traffic, off, len);
+            if (prefixLength < 0) {
+                return complete();
+            } else if (prefixLength <= len) {
+                done = true;
+                return clientHelloRegistry.lookup(traffic, off, prefixLength);
+            }
+            buffer = new byte[ClientHelloRegistry.MAX_HELLO_PREFIX_LENGTH];
+        }
+
+        int chunkLength = Math.min(len, buffer.length - length);
+        System.arraycopy(traffic, off, buffer, length, chunkLength);
+        length += chunkLength;
+
+        return readBuffer();
+
+    }
+
+    /**
+     * Reads bytes between {@code off} and {@code off + len} absolute positions of given buffer; position and limit
+     * of the buffer aren't changed
+     *
+     * @see #read(byte[], int, int)
+     */
+    public SniffySSLNetworkConnection read(ByteBuffer traffic, int off, int len) {
+
+        if (done || len <= 0) {
+            return null;
+        }
+
+        if (traffic.hasArray()) {
+            return read(traffic.array(), traffic.arrayOffset() + off, len);
+        }
+
+        if (null == buffer) {
+            buffer = new byte[ClientHelloRegistry.MAX_HELLO_PREFIX_LENGTH];
+        }
+
+        int chunkLength = Math.min(len, buffer.length - length);
+        for (int i = 0; i < chunkLength; i++) {
+            buffer[length++] = traffic.get(off + i);
+        }
+
+        return readBuffer();
+
+    }
+
+    private SniffySSLNetworkConnection readBuffer() {
+        int prefixLength = ClientHelloRegistry.getHelloPrefixLength(buffer, 0, length);
+        if (prefixLength < 0) {
+            return complete();
+        } else if (prefixLength > length) {
+            return null;
+        }
+        SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloRegistry.lookup(buffer, 0, prefixLength);
+        complete();
+        return sniffySSLNetworkConnection;
+    }
+
+    private SniffySSLNetworkConnection complete() {
+        done = true;
+        buffer = null;
+        length = 0;
+        return null;
+    }
+
+}
@@ -0,0 +1,323 @@
+package io.sniffy.socket;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Correlates {@link SniffySSLNetworkConnection} with the network connection used for sending its first TLS handshake
+ * record (ClientHello or ServerHello).
+ * <p>
+ * Records are matched by a fingerprint of the handshake random and session id, so only the first
+ * {@link #MAX_HELLO_PREFIX_LENGTH} bytes of a record are ever inspected. Fingerprints are kept in a fixed-size
+ * open-addressing table; entries expire after configured time and are removed once matched. If all slots for a
+ * fingerprint are taken, the entry which expires first is evicted.
+ * <p>
+ * Connections are only weakly referenced, so connections which are closed before their records are sent aren't
+ * retained by the slots they occupy.
+ *
+ * @see ClientHelloReader
+ * @since 3.1.14
+ */
+public class ClientHelloRegistry {
+
+    private static final int HANDSHAKE_CONTENT_TYPE = 22;
+    private static final int CLIENT_HELLO_HANDSHAKE_TYPE = 1;
+    private static final int SERVER_HELLO_HANDSHAKE_TYPE = 2;
+
+    private static final int HANDSHAKE_TYPE_OFFSET = 5;
+    private static final int RANDOM_OFFSET = 11;
+    private static final int SESSION_ID_LENGTH_OFFSET = 43;
+    private static final int MAX_SESSION_ID_LENGTH = 32;
+
+    /**
+     * Number of bytes required to determine the length of fingerprinted prefix
+     */
+    public static final int MIN_HELLO_PREFIX_LENGTH = SESSION_ID_LENGTH_OFFSET + 1;
+
+    /**
+     * Maximum number of bytes covered by fingerprint: record and handshake headers, random and session id
+     */
+    public static final int MAX_HELLO_PREFIX_LENGTH = MIN_HELLO_PREFIX_LENGTH + MAX_SESSION_ID_LENGTH;
+
+    private static final int PROBE_LENGTH = 4;
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+    private final long expireAfterNanos;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param capacity          number of slots; rounded up to the nearest power of two
+     * @param expireAfterMillis time after which registered connections are discarded; non-positive value means never
+     */
+    public ClientHelloRegistry(int capacity, long expireAfterMillis) {
+        int size = PROBE_LENGTH;
+        while (size < capacity && size < (1 << 30)) {
+            size <<= 1;
+        }
+        this.entries = new AtomicReferenceArray<Entry>(size);
+        this.mask = size - 1;
+        // expiry time is compared with System.nanoTime() using subtraction, so it is capped to stay far from overflow
+        this.expireAfterNanos = expireAfterMillis > 0 ?
+                Math.min(TimeUnit.MILLISECONDS.toNanos(expireAfterMillis), Long.MAX_VALUE / 2) : 0;
+    }
+
+    /**
+     * @return -1 if given bytes don't start a ClientHello or ServerHello record; otherwise the number of bytes
+     * required for fingerprinting it, which might be greater than {@code len} if record is incomplete
+     */
+    public static int getHelloPrefixLength(byte[] record, int off, int len) {
+        if (len > 0 && HANDSHAKE_CONTENT_TYPE != record[off]) {
+            return -1;
+        }
+        if (len > HANDSHAKE_TYPE_OFFSET) {
+            int handshakeType = record[off + HANDSHAKE_TYPE_OFFSET];
+            if (CLIENT_HELLO_HANDSHAKE_TYPE != handshakeType && SERVER_HELLO_HANDSHAKE_TYPE != handshakeType) {
+                return -1;
+            }
+        }
+        if (len < MIN_HELLO_PREFIX_LENGTH) {
+            return MIN_HELLO_PREFIX_LENGTH;
+        }
+        int sessionIdLength = record[off + SESSION_ID_LENGTH_OFFSET] & 0xFF;
+        return sessionIdLength > MAX_SESSION_ID_LENGTH ? -1 : MIN_HELLO_PREFIX_LENGTH + sessionIdLength;
+    }
+
+    /**
+     * Registers connection which has produced bytes between {@code off} and {@code off + len} absolute positions of
+     * given buffer; position and limit of the buffer aren't changed
+     */
+    public void register(ByteBuffer record, int off, int len, SniffySSLNetworkConnection connection) {
+        byte[] prefix = new byte[Math.min(len, MAX_HELLO_PREFIX_LENGTH)];
+        for (int i = 0; i < prefix.length; i++) {
+            prefix[i] = record.get(off + i);
+        }
+        register(prefix, 0, prefix.length, connection);
+    }
+
+    public void register(byte[] record, int off, int len, SniffySSLNetworkConnection connection) {
+
+        int prefixLength = getHelloPrefixLength(record, off, len);
+        if (prefixLength < 0 || prefixLength > len) {
+            return;
+        }
+
+        byte[] key = new byte[prefixLength - RANDOM_OFFSET];
+        System.arraycopy(record, off + RANDOM_OFFSET, key, 0, key.length);
+        long hash = hash(key, 0, key.length);
+
+        long now = System.nanoTime();
+        Entry entry = new Entry(hash, key, connection, 0 == expireAfterNanos ? 0 : now + expireAfterNanos);
+
+        int index = index(hash);
+        int victimIndex = index;
+        Entry victim = null;
+
+        for (int i = 0; i < PROBE_LENGTH; i++) {
+            int slot = (index + i) & mask;
+            Entry existing = entries.get(slot);
+            if (null == existing || existing.isStale(now)) {
+                if (entries.compareAndSet(slot, existing, entry)) {
+                    return;
+                }
+                existing = entries.get(slot);
+                if (null == existing) {
+                    continue;
+                }
+            }
+            if (null == victim || existing.expiresBefore(victim)) {
+                victim = existing;
+                victimIndex = slot;
+            }
+        }
+
+        // concurrent registration might have replaced the victim already; overwriting it is fine as well
+        entries.set(victimIndex, entry);
+        evictionCount.incrementAndGet();
+
+    }
+
+    /**
+     * Finds and removes connection which has produced bytes between {@code off} and {@code off + len} absolute
+     * positions of given buffer; position and limit of the buffer aren't changed
+     *
+     * @return matching connection or null
+     */
+    public SniffySSLNetworkConnection lookup(ByteBuffer record, int off, int len) {
+        byte[] prefix = new byte[Math.min(len, MAX_HELLO_PREFIX_LENGTH)];
+        for (int i = 0; i < prefix.length; i++) {
+            prefix[i] = record.get(off + i);
+        }
+        return lookup(prefix, 0, prefix.length);
+    }
+
+    /**
+     * Finds and removes connection which has produced a record starting with given bytes
+     *
+     * @return matching connection or null
+     */
+    public SniffySSLNetworkConnection lookup(byte[] record, int off, int len) {
+
+        int prefixLength = getHelloPrefixLength(record, off, len);
+        if (prefixLength < 0 || prefixLength > len) {
+            return null;
+        }
+
+        int keyOffset = off + RANDOM_OFFSET;
+        int keyLength = prefixLength - RANDOM_OFFSET;
+        long hash = hash(record, keyOffset, keyLength);
+
+        int index = index(hash);
+
+        for (int i = 0; i < PROBE_LENGTH; i++) {
+            int slot = (index + i) & mask;
+            Entry entry = entries.get(slot);
+            if (null != entry && entry.matches(hash, record, keyOffset, keyLength)) {
+                SniffySSLNetworkConnection connection = entry.get();
+                if (entries.compareAndSet(slot, entry, null) && null != connection && !entry.isExpired(System.nanoTime())) {
+                    hitCount.incrementAndGet();
+                    return connection;
+                }
+                break;
+            }
+        }
+
+        missCount.incrementAndGet();
+        return null;
+
+    }
+
+    /**
+     * @return number of sent handshake records which were matched with a registered connection
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of sent handshake records which weren't matched with a registered connection, including
+     * the ones sent by TLS implementations not based on {@link javax.net.ssl.SSLEngine}
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of registered connections discarded before they were matched or expired
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return ratio of matched handshake records or 0 if no records were looked up yet
+     */
+    public double getHitRate() {
+        long hitCount = this.hitCount.get();
+        long lookupCount = hitCount + missCount.get();
+        return 0 == lookupCount ? 0 : (double) hitCount / lookupCount;
+    }
+
+    /**
+     * @return map view of this registry keyed by the remaining bytes of record buffers; {@code put} registers
+     * a connection and {@code get} or {@code remove} look it up, while iterating the view returns no entries
+     * since only fingerprints of records are kept
+     */
+    public Map<ByteBuffer, SniffySSLNetworkConnection> asMap() {
+        return new AbstractMap<ByteBuffer, SniffySSLNetworkConnection>() {
+
+            @Override
+            public SniffySSLNetworkConnection put(ByteBuffer key, SniffySSLNetworkConnection value) {
+                register(key, key.position(), key.remaining(), value);
+                return null;
+            }
+
+            @Override
+            public SniffySSLNetworkConnection get(Object key) {
+                if (!(key instanceof ByteBuffer)) return null;
+                ByteBuffer record = (ByteBuffer) key;
+                return lookup(record, record.position(), record.remaining());
+            }
+
+            @Override
+            public SniffySSLNetworkConnection remove(Object key) {
+                return get(key);
+            }
+
+            @Override
+            public Set<Entry<ByteBuffer, SniffySSLNetworkConnection>> entrySet() {
+                return Collections.emptySet();
+            }
+
+        };
+    }
+
+    private int index(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * FNV-1a 64-bit hash
+     */
+    private static long hash(byte[] bytes, int off, int len) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = off; i < off + len; i++) {
+            hash ^= bytes[i] & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static class Entry extends WeakReference<SniffySSLNetworkConnection> {
+
+        private final long hash;
+        private final byte[] key;
+        private final long expiresAtNanos;
+
+        private Entry(long hash, byte[] key, SniffySSLNetworkConnection connection, long expiresAtNanos) {
+            super(connection);
+            this.hash = hash;
+            this.key = key;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long nowNanos) {
+            return 0 != expiresAtNanos && nowNanos - expiresAtNanos > 0;
+        }
+
+        /**
+         * @return true if slot taken by this entry can be reused
+         */
+        private boolean isStale(long nowNanos) {
+            return isExpired(nowNanos) || null == get();
+        }
+
+        private boolean expiresBefore(Entry that) {
+            return 0 != expiresAtNanos && (0 == that.expiresAtNanos || expiresAtNanos - that.expiresAtNanos < 0);
+        }
+
+        private boolean matches(long hash, byte[] record, int off, int len) {
+            if (this.hash != hash || key.length != len) {
+                return false;
+            }
+            for (int i = 0; i < len; i++) {
+                if (key[i] != record[off + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
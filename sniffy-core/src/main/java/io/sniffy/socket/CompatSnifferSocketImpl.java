@@ -5,6 +5,7 @@ import io.sniffy.SpyConfiguration;
 import io.sniffy.configuration.SniffyConfiguration;
 import io.sniffy.log.Polyglog;
 import io.sniffy.log.PolyglogFactory;
+import io.sniffy.log.PolyglogLevel;
 import io.sniffy.registry.ConnectionsRegistry;
 import io.sniffy.util.StackTraceExtractor;
 import io.sniffy.util.StringUtil;
@@ -12,6 +13,8 @@ import io.sniffy.util.StringUtil;
 import java.io.*;
 import java.net.*;
 import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @since 3.1.9
@@ -34,6 +37,8 @@ class CompatSnifferSocketImpl extends CompatSniffySocketImplAdapter implements S
 
     private final int id = Sniffy.CONNECTION_ID_SEQUENCE.getAndIncrement();
 
+    private final SocketStatsAccumulator socketStatsAccumulator = new SocketStatsAccumulator(id);
+
     private volatile Integer connectionStatus;
 
     // fields related to injecting latency fault
@@ -43,7 +48,11 @@ class CompatSnifferSocketImpl extends CompatSniffySocketImplAdapter implements S
     private volatile long lastReadThreadId;
     private volatile long lastWriteThreadId;
 
-    private boolean firstChunk = true;
+    private final TrafficShaper trafficShaper = SniffyConfiguration.INSTANCE.getNetworkChaos().createTrafficShaper();
+
+    private final AtomicReference<TrafficCapture> trafficCapture = new AtomicReference<TrafficCapture>();
+
+    private final ClientHelloReader clientHelloReader = new ClientHelloReader();
 
     protected CompatSnifferSocketImpl(SocketImpl delegate, Sleep sleep) {
         super(delegate);
@@ -87,19 +96,31 @@ class CompatSnifferSocketImpl extends CompatSniffySocketImplAdapter implements S
     @Deprecated
     @Override
     public void logSocket(long millis) {
-        logSocket(millis, 0, 0);
+        logSocket(millis, TimeUnit.MILLISECONDS, 0, 0);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit) {
+        logSocket(elapsedTime, timeUnit, 0, 0);
     }
 
     @Deprecated
     @Override
     public void logSocket(long millis, int bytesDown, int bytesUp) {
+        logSocket(millis, TimeUnit.MILLISECONDS, bytesDown, bytesUp);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit, int bytesDown, int bytesUp) {
+
+        long elapsedTimeNanos = timeUnit.toNanos(elapsedTime);
 
         if (!SniffyConfiguration.INSTANCE.getSocketCaptureEnabled()) return;
 
-        if (null != address && (millis > 0 || bytesDown > 0 || bytesUp > 0)) {
+        if (null != address && (elapsedTimeNanos > 0 || bytesDown > 0 || bytesUp > 0)) {
             Sniffy.SniffyMode sniffyMode = Sniffy.getSniffyMode();
             if (sniffyMode.isEnabled()) {
-                Sniffy.logSocket(id, address, millis, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces());
+                Sniffy.logSocket(socketStatsAccumulator, address, elapsedTimeNanos, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces());
             }
         }
     }
@@ -107,35 +128,94 @@ class CompatSnifferSocketImpl extends CompatSniffySocketImplAdapter implements S
     public void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("CompatSnifferSocketImpl.logTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + id);
-            LOG_TRAFFIC_VERBOSE_LOG.trace("StackTrace for first CompatSnifferSocketImpl.logTraffic() invocation was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
-            Sniffy.logTraffic(
-                    id, getInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
-            if (sent && firstChunk) {
-                SniffySSLNetworkConnection sniffySSLNetworkConnection = Sniffy.CLIENT_HELLO_CACHE.get(ByteBuffer.wrap(traffic, off, len));
-                if (null != sniffySSLNetworkConnection) {
-                    sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("CompatSnifferSocketImpl.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                if (LOG_TRAFFIC_VERBOSE_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+                    LOG_TRAFFIC_VERBOSE_LOG.trace("StackTrace for first CompatSnifferSocketImpl.logTraffic() invocation was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+                }
+                Sniffy.logTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                    if (null != sniffySSLNetworkConnection) {
+                        sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                    }
                 }
             }
-            firstChunk = false;
         }
     }
 
     public void logDecryptedTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("CompatSnifferSocketImpl.logDecryptedTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + id);
-            LOG_TRAFFIC_VERBOSE_LOG.trace("StackTrace for first CompatSnifferSocketImpl.logDecryptedTraffic() invocation was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
-            Sniffy.logDecryptedTraffic(
-                    id, getInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("CompatSnifferSocketImpl.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                if (LOG_TRAFFIC_VERBOSE_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+                    LOG_TRAFFIC_VERBOSE_LOG.trace("StackTrace for first CompatSnifferSocketImpl.logDecryptedTraffic() invocation was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+                }
+                Sniffy.logDecryptedTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("CompatSnifferSocketImpl.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                if (LOG_TRAFFIC_VERBOSE_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+                    LOG_TRAFFIC_VERBOSE_LOG.trace("StackTrace for first CompatSnifferSocketImpl.logTraffic() invocation was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+                }
+                Sniffy.logTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                    if (null != sniffySSLNetworkConnection) {
+                        sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logDecryptedTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("CompatSnifferSocketImpl.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                if (LOG_TRAFFIC_VERBOSE_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+                    LOG_TRAFFIC_VERBOSE_LOG.trace("StackTrace for first CompatSnifferSocketImpl.logDecryptedTraffic() invocation was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+                }
+                Sniffy.logDecryptedTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
         }
     }
 
@@ -170,7 +250,7 @@ class CompatSnifferSocketImpl extends CompatSniffySocketImplAdapter implements S
                 throw new ConnectException(String.format("Connection to %s refused by Sniffy", inetSocketAddress));
             } else if (numberOfSleepCycles > 0 && connectionStatus > 0) {
                 try {
-                    sleepImpl(connectionStatus * numberOfSleepCycles);
+                    sleepImpl(trafficShaper.getDelay(connectionStatus, numberOfSleepCycles));
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                 }
@@ -178,99 +258,118 @@ class CompatSnifferSocketImpl extends CompatSniffySocketImplAdapter implements S
         }
     }
 
+    @Override
+    public TrafficShaper getTrafficShaper() {
+        return trafficShaper;
+    }
+
+    @Override
+    public TrafficCapture getTrafficCapture() {
+        TrafficCapture trafficCapture = this.trafficCapture.get();
+        if (null == trafficCapture) {
+            trafficCapture = SniffyConfiguration.INSTANCE.getTrafficCapturePolicy().createTrafficCapture(
+                    null == proxiedAddress ? address : proxiedAddress
+            );
+            if (!this.trafficCapture.compareAndSet(null, trafficCapture)) {
+                trafficCapture = this.trafficCapture.get();
+            }
+        }
+        return trafficCapture;
+    }
+
     private void sleepImpl(int millis) throws InterruptedException {
         sleep.doSleep(millis);
     }
 
     @Override
     protected void sendUrgentData(int data) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             checkConnectionAllowed(1);
             super.sendUrgentData(data);
         } finally {
-            logSocket(System.currentTimeMillis() - start, 0, 1);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, 1);
             logTraffic(true, Protocol.TCP, new byte[]{(byte) data}, 0, 1);
         }
     }
 
     @Override
     protected void shutdownInput() throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             super.shutdownInput();
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected void shutdownOutput() throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             super.shutdownOutput();
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected FileDescriptor getFileDescriptor() {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return super.getFileDescriptor();
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected InetAddress getInetAddress() {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return super.getInetAddress();
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected int getPort() {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return super.getPort();
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected boolean supportsUrgentData() {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return super.supportsUrgentData();
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected int getLocalPort() {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return super.getLocalPort();
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public String toString() {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return super.toString();
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -278,92 +377,92 @@ class CompatSnifferSocketImpl extends CompatSniffySocketImplAdapter implements S
 
     @Override
     protected void setPerformancePreferences(int connectionTime, int latency, int bandwidth) {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             super.setPerformancePreferences(connectionTime, latency, bandwidth);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected void create(boolean stream) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             super.create(stream);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected void connect(String host, int port) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             checkConnectionAllowed(this.address = new InetSocketAddress(host, port));
             super.connect(host, port);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected void connect(InetAddress address, int port) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             checkConnectionAllowed(this.address = new InetSocketAddress(address, port));
             super.connect(address, port);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected void connect(SocketAddress address, int timeout) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             if (address instanceof InetSocketAddress) {
                 checkConnectionAllowed(this.address = (InetSocketAddress) address);
             }
             super.connect(address, timeout);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected void bind(InetAddress host, int port) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             super.bind(host, port); // TODO: should we check connectivity enabled here as well ?
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected void listen(int backlog) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             super.listen(backlog);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected void accept(SocketImpl s) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             super.accept(s);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected InputStream getInputStream() throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         checkConnectionAllowed();
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         boolean isInputStreamBufferingEnabled = effectiveSpyConfiguration.isBufferIncomingTraffic();
@@ -371,39 +470,40 @@ class CompatSnifferSocketImpl extends CompatSniffySocketImplAdapter implements S
             SnifferInputStream snifferInputStream = new SnifferInputStream(this, super.getInputStream());
             return isInputStreamBufferingEnabled ? new BufferedInputStream(snifferInputStream, SniffyConfiguration.INSTANCE.getIncomingTrafficBufferSize()) : snifferInputStream;
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected OutputStream getOutputStream() throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         checkConnectionAllowed();
         try {
             return new SnifferOutputStream(this, super.getOutputStream());
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected int available() throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return super.available();
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     protected void close() throws IOException {
         checkConnectionAllowed(1);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             super.close();
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Sniffy.flushSocketStats(socketStatsAccumulator);
         }
     }
 
@@ -411,21 +511,21 @@ class CompatSnifferSocketImpl extends CompatSniffySocketImplAdapter implements S
 
     @Override
     public void setOption(int optID, Object value) throws SocketException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             super.setOption(optID, value);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public Object getOption(int optID) throws SocketException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return super.getOption(optID);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -3,26 +3,191 @@ package io.sniffy.socket;
 /**
  * Allows adding latency to network connections using a lot of assumptions and heuristics
  *
- * This class tries to emulate TCP Windows and TCP Window Scaling and add a latency for each TCP Window sent or received
- * By default it assumes that starting window size is 64K and i can grow up to 8M
+ * This class describes an emulated network link: it tries to emulate TCP Windows and TCP Window Scaling and add a latency
+ * for each TCP Window sent or received. Latency itself (i.e. round trip time) is defined per host and port in
+ * {@link io.sniffy.registry.ConnectionsRegistry} while this profile defines how it is applied:
+ * <ul>
+ *     <li>TCP Window starts with {@link #getInitialWindowSize()} bytes and doubles after each round trip
+ *     (like TCP slow start does) until it reaches {@link #getMaximumWindowSize()}</li>
+ *     <li>Each round trip is delayed by latency plus a random jitter with given {@link JitterDistribution}</li>
+ *     <li>Bandwidth is throttled using a token bucket for each direction allowing bursts of up to 100 milliseconds of traffic</li>
+ * </ul>
  *
  * Another functionality provided is autodetect of request-response protocols where each write followed by read causes
  * a delay to be injected regardless from amount of bytes sent previously
  *
+ * Default profile uses a fixed window of {@link SniffyNetworkConnection#DEFAULT_TCP_WINDOW_SIZE} bytes without jitter and
+ * bandwidth limit. State of the model for each connection is kept in {@link TrafficShaper}
+ *
  * TODO: parse net.ipv4.tcp_rmem and similar parameters on Linux to get OS settings for TCP Windows
  * TODO: find a similar way for Windows and MacOS X as lower priority
  *
  * TODO: support Nagle algorithm
  * TODO: support other options like late ack, TCP FAST START etc.
- * TODO: support throttling bandwidth
- * TODO: can we do something about Jitter as well (?)
  * TODO: shall we look at SocketOptions.SO_RCVBUF and similar options? They do not seem to correlate with TCP Window size
  */
 public class NetworkChaos {
 
-    private static int defaultTcpWindowSize = 1 << 16;
-    private static int maximumTcpScale = 7;
+    /**
+     * @since 3.1.14
+     */
+    public enum JitterDistribution {
+
+        /**
+         * Jitter is uniformly distributed between {@code -jitter} and {@code jitter} milliseconds
+         */
+        UNIFORM,
+
+        /**
+         * Jitter is normally distributed with zero mean and standard deviation of {@code jitter} milliseconds
+         */
+        NORMAL;
+
+        public static JitterDistribution parse(String value) {
+            for (JitterDistribution jitterDistribution : values()) {
+                if (jitterDistribution.name().equalsIgnoreCase(value)) {
+                    return jitterDistribution;
+                }
+            }
+            return null;
+        }
+
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public static final NetworkChaos DEFAULT = builder().build();
+
+    private final long bandwidth;
+    private final int jitter;
+    private final JitterDistribution jitterDistribution;
+    private final int initialWindowSize;
+    private final int maximumWindowSize;
+
+    /**
+     * Profiles which neither grow windows nor throttle bandwidth don't have per-connection state hence single
+     * {@link TrafficShaper} can be shared by all connections
+     */
+    private final TrafficShaper sharedTrafficShaper;
+
+    private NetworkChaos(long bandwidth, int jitter, JitterDistribution jitterDistribution, int initialWindowSize, int maximumWindowSize) {
+        this.bandwidth = bandwidth;
+        this.jitter = jitter;
+        this.jitterDistribution = jitterDistribution;
+        this.initialWindowSize = initialWindowSize;
+        this.maximumWindowSize = maximumWindowSize;
+        this.sharedTrafficShaper = 0 == bandwidth && initialWindowSize == maximumWindowSize ? new TrafficShaper(this) : null;
+    }
+
+    /**
+     * @return bandwidth in bytes per second in each direction; non-positive value means no limit
+     * @since 3.1.14
+     */
+    public long getBandwidth() {
+        return bandwidth;
+    }
+
+    /**
+     * @return jitter in milliseconds added to each round trip
+     * @since 3.1.14
+     */
+    public int getJitter() {
+        return jitter;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public JitterDistribution getJitterDistribution() {
+        return jitterDistribution;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public int getInitialWindowSize() {
+        return initialWindowSize;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public int getMaximumWindowSize() {
+        return maximumWindowSize;
+    }
+
+    /**
+     * @return state of this model for a single connection; connections share it if the model is stateless
+     * @since 3.1.14
+     */
+    public TrafficShaper createTrafficShaper() {
+        return null == sharedTrafficShaper ? new TrafficShaper(this) : sharedTrafficShaper;
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public static class Builder {
+
+        private long bandwidth;
+        private int jitter;
+        private JitterDistribution jitterDistribution = JitterDistribution.UNIFORM;
+        private int initialWindowSize = SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
+        private int maximumWindowSize;
+
+        /**
+         * @param bandwidth bandwidth in bytes per second in each direction; non-positive value means no limit
+         */
+        public Builder bandwidth(long bandwidth) {
+            this.bandwidth = bandwidth;
+            return this;
+        }
+
+        /**
+         * @param jitter jitter in milliseconds added to each round trip
+         */
+        public Builder jitter(int jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        public Builder jitterDistribution(JitterDistribution jitterDistribution) {
+            this.jitterDistribution = jitterDistribution;
+            return this;
+        }
+
+        public Builder initialWindowSize(int initialWindowSize) {
+            this.initialWindowSize = initialWindowSize;
+            return this;
+        }
+
+        /**
+         * @param maximumWindowSize maximum size of TCP Window; non-positive value means that window doesn't grow
+         */
+        public Builder maximumWindowSize(int maximumWindowSize) {
+            this.maximumWindowSize = maximumWindowSize;
+            return this;
+        }
+
+        public NetworkChaos build() {
+            int initialWindowSize = this.initialWindowSize > 0 ? this.initialWindowSize : SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
+            return new NetworkChaos(
+                    Math.max(0, bandwidth),
+                    Math.max(0, jitter),
+                    null == jitterDistribution ? JitterDistribution.UNIFORM : jitterDistribution,
+                    initialWindowSize,
+                    Math.max(initialWindowSize, maximumWindowSize)
+            );
+        }
 
-    // TODO: implement
+    }
 
 }
@@ -1,9 +1,11 @@
 package io.sniffy.socket;
 
 import io.sniffy.ThreadMetaData;
+import io.sniffy.util.CapturedStackTrace;
+import io.sniffy.util.StackTraceExtractor;
 import io.sniffy.util.StringUtil;
 
-import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -15,43 +17,195 @@ public class NetworkPacket {
     private final long timestamp;
 
     private final String stackTrace;
+    private final CapturedStackTrace capturedStackTrace;
     private final ThreadMetaData threadMetaData;
 
-    private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    private final ByteArena arena;
+
+    /**
+     * Chunks are recycled once no packet references them
+     */
+    private ByteArena.Chunk[] chunks;
+    private int[] offsets;
+    private int[] lengths;
+    private int slices;
+    private int length;
 
     public NetworkPacket(boolean sent, long timestamp, String stackTrace, ThreadMetaData threadMetaData, byte[] traffic, int off, int len) {
+        this(sent, timestamp, stackTrace, threadMetaData, ByteArena.UNPOOLED_HEAP, traffic, off, len);
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public NetworkPacket(boolean sent, long timestamp, String stackTrace, ThreadMetaData threadMetaData, ByteArena arena, byte[] traffic, int off, int len) {
+        this(sent, timestamp, stackTrace, threadMetaData, arena, ByteBuffer.wrap(traffic), off, len);
+    }
+
+    /**
+     * Copies bytes between {@code off} and {@code off + len} absolute positions of given buffer to the arena;
+     * position and limit of given buffer aren't changed
+     *
+     * @since 3.1.14
+     */
+    public NetworkPacket(boolean sent, long timestamp, String stackTrace, ThreadMetaData threadMetaData, ByteArena arena, ByteBuffer traffic, int off, int len) {
+        this(sent, timestamp, stackTrace, null, threadMetaData, arena, 1);
+        arena.append(this, traffic, off, len);
+    }
+
+    /**
+     * Same as {@link #NetworkPacket(boolean, long, String, ThreadMetaData, ByteArena, ByteBuffer, int, int)} but
+     * captured stack trace is only rendered once {@link #getStackTrace()} is called
+     *
+     * @since 3.1.14
+     */
+    public static NetworkPacket of(boolean sent, long timestamp, CapturedStackTrace capturedStackTrace, ThreadMetaData threadMetaData, ByteArena arena, ByteBuffer traffic, int off, int len) {
+        NetworkPacket networkPacket = new NetworkPacket(sent, timestamp, null, capturedStackTrace, threadMetaData, arena, 1);
+        arena.append(networkPacket, traffic, off, len);
+        return networkPacket;
+    }
+
+    private NetworkPacket(boolean sent, long timestamp, String stackTrace, CapturedStackTrace capturedStackTrace, ThreadMetaData threadMetaData, ByteArena arena, int capacity) {
         this.sent = sent;
         this.timestamp = timestamp;
         this.stackTrace = stackTrace;
+        this.capturedStackTrace = capturedStackTrace;
         this.threadMetaData = threadMetaData;
-        this.baos.write(traffic, off, len);
+        this.arena = arena;
+        this.chunks = new ByteArena.Chunk[capacity];
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+    }
+
+    /**
+     * @return new packet with given metadata which shares the bytes with this packet instead of copying them
+     * @since 3.1.14
+     */
+    public synchronized NetworkPacket withMetaData(String stackTrace, ThreadMetaData threadMetaData) {
+        NetworkPacket networkPacket = new NetworkPacket(sent, timestamp, stackTrace, null, threadMetaData, arena, Math.max(1, slices));
+        networkPacket.addSlices(this);
+        return networkPacket;
+    }
+
+    /**
+     * @see #withMetaData(String, ThreadMetaData)
+     * @since 3.1.14
+     */
+    public synchronized NetworkPacket withCapturedStackTrace(CapturedStackTrace capturedStackTrace, ThreadMetaData threadMetaData) {
+        NetworkPacket networkPacket = new NetworkPacket(sent, timestamp, null, capturedStackTrace, threadMetaData, arena, Math.max(1, slices));
+        networkPacket.addSlices(this);
+        return networkPacket;
     }
 
     public boolean combine(boolean sent, long timestamp, String stackTrace, ThreadMetaData threadMetaData, byte[] traffic, int off, int len, long maxDelay) {
+        return combine(sent, timestamp, stackTrace, threadMetaData, ByteBuffer.wrap(traffic), off, len, maxDelay);
+    }
+
+    /**
+     * @see #NetworkPacket(boolean, long, String, ThreadMetaData, ByteArena, ByteBuffer, int, int)
+     * @since 3.1.14
+     */
+    public boolean combine(boolean sent, long timestamp, String stackTrace, ThreadMetaData threadMetaData, ByteBuffer traffic, int off, int len, long maxDelay) {
         if (this.sent != sent) return false;
         if (timestamp - this.timestamp > maxDelay) return false;
-        //noinspection StringEquality
-        if (this.stackTrace != stackTrace) return false;
-        //noinspection ConstantConditions
-        if (null != this.stackTrace && !this.stackTrace.equals(stackTrace)) return false;
+        if (!hasStackTrace(stackTrace, null)) return false;
         if (null != this.threadMetaData && !this.threadMetaData.equals(threadMetaData)) return false;
-        this.baos.write(traffic, off, len);
+        arena.append(this, traffic, off, len);
+        return true;
+    }
+
+    /**
+     * @see #of(boolean, long, CapturedStackTrace, ThreadMetaData, ByteArena, ByteBuffer, int, int)
+     * @since 3.1.14
+     */
+    public boolean combineCaptured(boolean sent, long timestamp, CapturedStackTrace capturedStackTrace, ThreadMetaData threadMetaData, ByteBuffer traffic, int off, int len, long maxDelay) {
+        if (this.sent != sent) return false;
+        if (timestamp - this.timestamp > maxDelay) return false;
+        if (!hasStackTrace(null, capturedStackTrace)) return false;
+        if (null != this.threadMetaData && !this.threadMetaData.equals(threadMetaData)) return false;
+        arena.append(this, traffic, off, len);
         return true;
     }
 
     public boolean combine(NetworkPacket that, long maxDelay) {
         if (this.sent != that.sent) return false;
         if (that.timestamp - this.timestamp > maxDelay) return false;
-        //noinspection StringEquality
-        if (this.stackTrace != that.stackTrace) return false;
-        //noinspection ConstantConditions
-        if (null != this.stackTrace && !this.stackTrace.equals(that.stackTrace)) return false;
+        if (!hasStackTrace(that.stackTrace, that.capturedStackTrace)) return false;
         if (null != this.threadMetaData && !this.threadMetaData.equals(that.threadMetaData)) return false;
-        byte[] bytes = that.getBytes();
-        this.baos.write(bytes, 0, bytes.length);
+        addSlices(that);
         return true;
     }
 
+    /**
+     * Captured stack traces are compared without rendering them unless only one of the packets has a captured stack trace
+     */
+    private boolean hasStackTrace(String stackTrace, CapturedStackTrace capturedStackTrace) {
+        if (null != this.capturedStackTrace && null != capturedStackTrace) {
+            return this.capturedStackTrace.equals(capturedStackTrace);
+        }
+        String thisStackTrace = getStackTrace();
+        if (null != capturedStackTrace) {
+            stackTrace = StackTraceExtractor.renderStackTrace(capturedStackTrace);
+        }
+        //noinspection StringEquality
+        return thisStackTrace == stackTrace || (null != thisStackTrace && thisStackTrace.equals(stackTrace));
+    }
+
+    /**
+     * Copies captured bytes to the chunk of the arena being written, so that this packet no longer references chunks
+     * shared with packets which were evicted; bytes appended concurrently are kept where they are
+     *
+     * @since 3.1.14
+     */
+    public void compact() {
+        byte[] bytes = getBytes();
+        // bytes are appended without holding the lock of this packet since arena calls addSlice() holding its own lock
+        NetworkPacket networkPacket = new NetworkPacket(sent, timestamp, stackTrace, capturedStackTrace, threadMetaData, arena, 1);
+        arena.append(networkPacket, bytes, 0, bytes.length);
+        synchronized (this) {
+            if (length == bytes.length) {
+                chunks = networkPacket.chunks;
+                offsets = networkPacket.offsets;
+                lengths = networkPacket.lengths;
+                slices = networkPacket.slices;
+            }
+        }
+    }
+
+    private void addSlices(NetworkPacket that) {
+        //noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized (that) {
+            for (int i = 0; i < that.slices; i++) {
+                addSlice(that.chunks[i], that.offsets[i], that.lengths[i]);
+            }
+        }
+    }
+
+    synchronized void addSlice(ByteArena.Chunk chunk, int offset, int length) {
+        if (slices > 0 && chunks[slices - 1] == chunk && offsets[slices - 1] + lengths[slices - 1] == offset) {
+            // adjacent region of the same chunk
+            lengths[slices - 1] += length;
+        } else {
+            if (slices == chunks.length) {
+                int capacity = slices * 2;
+                ByteArena.Chunk[] chunks = new ByteArena.Chunk[capacity];
+                int[] offsets = new int[capacity];
+                int[] lengths = new int[capacity];
+                System.arraycopy(this.chunks, 0, chunks, 0, slices);
+                System.arraycopy(this.offsets, 0, offsets, 0, slices);
+                System.arraycopy(this.lengths, 0, lengths, 0, slices);
+                this.chunks = chunks;
+                this.offsets = offsets;
+                this.lengths = lengths;
+            }
+            chunks[slices] = chunk;
+            offsets[slices] = offset;
+            lengths[slices] = length;
+            slices++;
+        }
+        this.length += length;
+    }
+
     public boolean isSent() {
         return sent;
     }
@@ -61,15 +215,68 @@ public class NetworkPacket {
     }
 
     public String getStackTrace() {
-        return stackTrace;
+        return null == capturedStackTrace ? stackTrace : StackTraceExtractor.renderStackTrace(capturedStackTrace);
+    }
+
+    /**
+     * @return stack trace captured when the packet was sent or received or null if it wasn't captured or was
+     * provided as a string; see {@link #getStackTrace()}
+     * @since 3.1.14
+     */
+    public CapturedStackTrace getCapturedStackTrace() {
+        return capturedStackTrace;
     }
 
     public ThreadMetaData getThreadMetaData() {
         return threadMetaData;
     }
 
-    public byte[] getBytes() {
-        return baos.toByteArray();
+    /**
+     * @since 3.1.14
+     */
+    public synchronized int getLength() {
+        return length;
+    }
+
+    /**
+     * @return copy of captured bytes
+     */
+    public synchronized byte[] getBytes() {
+        byte[] bytes = new byte[length];
+        int position = 0;
+        for (int i = 0; i < slices; i++) {
+            chunks[i].copy(offsets[i], lengths[i], bytes, position);
+            position += lengths[i];
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns read-only views of captured bytes, one per contiguous region of the underlying arena.
+     * Bytes aren't copied; arena memory exposed this way is never reused for other packets
+     *
+     * @since 3.1.14
+     */
+    public synchronized ByteBuffer[] getByteBuffers() {
+        ByteBuffer[] byteBuffers = new ByteBuffer[slices];
+        for (int i = 0; i < slices; i++) {
+            byteBuffers[i] = chunks[i].view(offsets[i], lengths[i]);
+        }
+        return byteBuffers;
+    }
+
+    /**
+     * Returns read-only view of captured bytes if they're stored in a single region of the underlying arena
+     * or read-only copy otherwise
+     *
+     * @see #getByteBuffers()
+     * @since 3.1.14
+     */
+    public synchronized ByteBuffer getByteBuffer() {
+        if (1 == slices) {
+            return chunks[0].view(offsets[0], lengths[0]);
+        }
+        return ByteBuffer.wrap(getBytes()).asReadOnlyBuffer();
     }
 
     /**
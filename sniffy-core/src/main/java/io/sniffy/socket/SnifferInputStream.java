@@ -1,10 +1,12 @@
 package io.sniffy.socket;
 
+import io.sniffy.configuration.SniffyConfiguration;
 import io.sniffy.registry.ConnectionsRegistry;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.ConnectException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @since 3.1
@@ -29,7 +31,7 @@ public class SnifferInputStream extends InputStream {
     @Override
     public int read() throws IOException {
         if (null != snifferSocket) snifferSocket.checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         int bytesDown = 0;
         try {
             int read = delegate.read();
@@ -44,14 +46,16 @@ public class SnifferInputStream extends InputStream {
             return read;
         } finally {
             sleepIfRequired(bytesDown);
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start, bytesDown, 0);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, bytesDown, 0);
         }
     }
 
     /**
      * Adds a delay as defined for current {@link SnifferSocketImpl} in {@link ConnectionsRegistry#discoveredDataSources}
      * <p>
-     * Delay is added for each <b>N</b> bytes received where <b>N</b> is the value of {@link SniffyNetworkConnection#DEFAULT_TCP_WINDOW_SIZE}
+     * Delay is added for each <b>N</b> bytes received where <b>N</b> is the current TCP Window size as defined by {@link NetworkChaos}
+     * and starts with {@link SniffyNetworkConnection#DEFAULT_TCP_WINDOW_SIZE} by default; traffic is also throttled if
+     * {@link NetworkChaos#getBandwidth()} is set
      * <p>
      * If application reads <b>M</b> bytes where (k-1) * N &lt; M  &lt; k * N exactly <b>k</b> delays will be added
      * <p>
@@ -78,18 +82,34 @@ public class SnifferInputStream extends InputStream {
         int potentiallyBufferedInputBytes = snifferSocket.getPotentiallyBufferedInputBytes() - bytesDown;
         snifferSocket.setPotentiallyBufferedInputBytes(potentiallyBufferedInputBytes);
 
+        TrafficShaper trafficShaper = getTrafficShaper();
+
         if (potentiallyBufferedInputBytes < 0) {
-            int estimatedNumberOfTcpPackets = 1 + (-1 * potentiallyBufferedInputBytes) / SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
+            int estimatedNumberOfTcpPackets = trafficShaper.getNumberOfRoundTrips(false, -1 * potentiallyBufferedInputBytes);
             snifferSocket.checkConnectionAllowed(estimatedNumberOfTcpPackets);
-            snifferSocket.setPotentiallyBufferedInputBytes(SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE);
+            snifferSocket.setPotentiallyBufferedInputBytes(trafficShaper.getWindowSize(false));
+        }
+
+        if (SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled()) {
+            int throttlingDelay = trafficShaper.getThrottlingDelay(false, bytesDown);
+            if (throttlingDelay > 0) try {
+                Thread.sleep(throttlingDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
 
     }
 
+    private TrafficShaper getTrafficShaper() {
+        TrafficShaper trafficShaper = snifferSocket.getTrafficShaper();
+        return null == trafficShaper ? NetworkChaos.DEFAULT.createTrafficShaper() : trafficShaper;
+    }
+
     @Override
     public int read(byte[] b) throws IOException {
         if (null != snifferSocket) snifferSocket.checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         int bytesDown = 0;
         try {
             bytesDown = delegate.read(b);
@@ -103,14 +123,14 @@ public class SnifferInputStream extends InputStream {
             return bytesDown;
         } finally {
             sleepIfRequired(bytesDown);
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start, bytesDown, 0);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, bytesDown, 0);
         }
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
         if (null != snifferSocket) snifferSocket.checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         int bytesDown = 0;
         try {
             bytesDown = delegate.read(b, off, len);
@@ -125,73 +145,73 @@ public class SnifferInputStream extends InputStream {
         } finally {
             sleepIfRequired(bytesDown);
             //snifferSocket.logTraffic(false, Protocol.TCP, b, off, bytesDown); // TODO
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start, bytesDown, 0);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, bytesDown, 0);
         }
     }
 
     @Override
     public long skip(long n) throws IOException {
         if (null != snifferSocket) snifferSocket.checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return super.skip(n);
         } finally {
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public int available() throws IOException {
         if (null != snifferSocket) snifferSocket.checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return delegate.available();
         } finally {
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public void close() throws IOException {
         if (null != snifferSocket) snifferSocket.checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             delegate.close();
         } finally {
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public void mark(int readlimit) {
         // TODO: support this method in case it is supported in future by SocketInputStream; at least print a warning
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             delegate.mark(readlimit);
         } finally {
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public void reset() throws IOException {
         if (null != snifferSocket) snifferSocket.checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             delegate.reset();
         } finally {
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public boolean markSupported() {
         // TODO: support this method in case it is supported in future by SocketInputStream; at least print a warning
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return delegate.markSupported();
         } finally {
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
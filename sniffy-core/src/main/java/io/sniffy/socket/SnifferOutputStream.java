@@ -2,11 +2,13 @@ package io.sniffy.socket;
 
 import io.sniffy.log.Polyglog;
 import io.sniffy.log.PolyglogFactory;
+import io.sniffy.configuration.SniffyConfiguration;
 import io.sniffy.registry.ConnectionsRegistry;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.ConnectException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @since 3.1
@@ -33,7 +35,7 @@ public class SnifferOutputStream extends OutputStream {
     @Override
     public void write(int b) throws IOException {
         if (null != snifferSocket) snifferSocket.checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             delegate.write(b);
             trafficCapturingNetworkConnection.logTraffic(
@@ -43,14 +45,16 @@ public class SnifferOutputStream extends OutputStream {
             );
         } finally {
             sleepIfRequired(1);
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start, 0, 1);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, 1);
         }
     }
 
     /**
      * Adds a delay as defined for current {@link SnifferSocketImpl} in {@link ConnectionsRegistry#discoveredDataSources}
      * <p>
-     * Delay is added for each <b>N</b> bytes sent where <b>N</b> is the value of {@link SniffyNetworkConnection#DEFAULT_TCP_WINDOW_SIZE}
+     * Delay is added for each <b>N</b> bytes sent where <b>N</b> is the current TCP Window size as defined by {@link NetworkChaos}
+     * and starts with {@link SniffyNetworkConnection#DEFAULT_TCP_WINDOW_SIZE} by default; traffic is also throttled if
+     * {@link NetworkChaos#getBandwidth()} is set
      * <p>
      * If application writes <b>M</b> bytes where (k-1) * N &lt; M  &lt; k * N exactly <b>k</b> delays will be added
      * <p>
@@ -75,14 +79,30 @@ public class SnifferOutputStream extends OutputStream {
         int potentiallyBufferedOutputBytes = snifferSocket.getPotentiallyBufferedOutputBytes() - bytesUp;
         snifferSocket.setPotentiallyBufferedOutputBytes(potentiallyBufferedOutputBytes);
 
+        TrafficShaper trafficShaper = getTrafficShaper();
+
         if (potentiallyBufferedOutputBytes < 0) {
-            int estimatedNumberOfTcpPackets = 1 + (-1 * potentiallyBufferedOutputBytes) / SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
+            int estimatedNumberOfTcpPackets = trafficShaper.getNumberOfRoundTrips(true, -1 * potentiallyBufferedOutputBytes);
             snifferSocket.checkConnectionAllowed(estimatedNumberOfTcpPackets);
-            snifferSocket.setPotentiallyBufferedOutputBytes(SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE);
+            snifferSocket.setPotentiallyBufferedOutputBytes(trafficShaper.getWindowSize(true));
+        }
+
+        if (SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled()) {
+            int throttlingDelay = trafficShaper.getThrottlingDelay(true, bytesUp);
+            if (throttlingDelay > 0) try {
+                Thread.sleep(throttlingDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
 
     }
 
+    private TrafficShaper getTrafficShaper() {
+        TrafficShaper trafficShaper = snifferSocket.getTrafficShaper();
+        return null == trafficShaper ? NetworkChaos.DEFAULT.createTrafficShaper() : trafficShaper;
+    }
+
     @Override
     public void write(byte[] b) throws IOException {
 
@@ -101,7 +121,7 @@ public class SnifferOutputStream extends OutputStream {
 
         }
 
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             delegate.write(b);
             trafficCapturingNetworkConnection.logTraffic(
@@ -111,7 +131,7 @@ public class SnifferOutputStream extends OutputStream {
             );
         } finally {
             sleepIfRequired(b.length);
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start, 0, b.length);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, b.length);
         }
     }
 
@@ -132,7 +152,7 @@ public class SnifferOutputStream extends OutputStream {
 
         }
 
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             delegate.write(b, off, len);
             trafficCapturingNetworkConnection.logTraffic(
@@ -142,29 +162,29 @@ public class SnifferOutputStream extends OutputStream {
             );
         } finally {
             sleepIfRequired(len);
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start, 0, len);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, len);
         }
     }
 
     @Override
     public void flush() throws IOException {
         if (null != snifferSocket) snifferSocket.checkConnectionAllowed(1);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             delegate.flush();
         } finally {
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public void close() throws IOException {
         if (null != snifferSocket) snifferSocket.checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             delegate.close();
         } finally {
-            if (null != snifferSocket) snifferSocket.logSocket(System.currentTimeMillis() - start);
+            if (null != snifferSocket) snifferSocket.logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.net.SocketImpl;
 import java.net.SocketOption;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @since 3.1
@@ -26,39 +27,39 @@ class SnifferSocketImpl extends CompatSnifferSocketImpl {
 
     //@Override
     protected <T> void setOption(SocketOption<T> name, T value) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             ReflectionUtil.invokeMethod(SocketImpl.class, delegate, "setOption", SocketOption.class, name, Object.class, value, Void.TYPE);
         } catch (Exception e) {
             throw ExceptionUtil.processException(e);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     //@Override
     @SuppressWarnings("unchecked")
     protected <T> T getOption(SocketOption<T> name) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return (T) ReflectionUtil.invokeMethod(SocketImpl.class, delegate, "getOption", SocketOption.class, name, Object.class);
         } catch (Exception e) {
             throw ExceptionUtil.processException(e);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     //@Override
     @SuppressWarnings("unchecked")
     protected Set<SocketOption<?>> supportedOptions() {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             return (Set<SocketOption<?>>) ReflectionUtil.invokeMethod(SocketImpl.class, delegate, "supportedOptions", Set.class);
         } catch (Exception e) {
             throw ExceptionUtil.processException(e);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -2,6 +2,7 @@ package io.sniffy.socket;
 
 import io.sniffy.log.Polyglog;
 import io.sniffy.log.PolyglogFactory;
+import io.sniffy.log.PolyglogLevel;
 import io.sniffy.util.*;
 
 import java.io.IOException;
@@ -87,36 +88,55 @@ public class SnifferSocketImplFactory implements SocketImplFactory {
 
     @Override
     public SocketImpl createSocketImpl() {
-        SocketImpl socketImpl = isServerSocketAccept() ? newSocketImpl(false) :
-                isServerSocket() ? newSocketImpl(true) :
+        SocketTypeDetector socketTypeDetector = new SocketTypeDetector();
+        StackTraceExtractor.walkStackTrace(socketTypeDetector);
+        SocketImpl socketImpl = socketTypeDetector.serverSocketAccept ? newSocketImpl(false) :
+                socketTypeDetector.serverSocket ? newSocketImpl(true) :
                         JVMUtil.getVersion() > 6 ? new SnifferSocketImpl(newSocketImpl(false)) :
                                 new CompatSnifferSocketImpl(newSocketImpl(false));
-        LOG.trace("Created SocketImpl " + socketImpl);
-        // TODO: optimize polyglog to support lazy evaluation in order not to call StackTraceExtractor.getStackTraceAsString() each time
-        CONSTRUCTOR_VERBOSE_LOG.trace("StackTrace for creating new SocketImpl was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        LOG.trace("Created SocketImpl {}", socketImpl);
+        if (CONSTRUCTOR_VERBOSE_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+            CONSTRUCTOR_VERBOSE_LOG.trace("StackTrace for creating new SocketImpl was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        }
         return socketImpl;
     }
 
-    private static boolean isServerSocketAccept() {
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        for (StackTraceElement ste : stackTrace) {
-            if (ste.getClassName().startsWith("java.net.ServerSocket") || ste.getClassName().startsWith("sun.security.ssl.SSLServerSocketImpl")) {
-                if (ste.getMethodName().equals("accept")) {
-                    return true;
+    /**
+     * Detects if socket is created by {@link java.net.ServerSocket} itself or by {@link java.net.ServerSocket#accept()}
+     * in a single pass over the stack.
+     * <p>
+     * Server sockets only call {@link SocketImplFactory} from JDK code, so the walk stops at the first frame which
+     * doesn't belong to JDK or Sniffy, i.e. at the application code which created the socket
+     *
+     * @since 3.1.14
+     */
+    private static class SocketTypeDetector implements StackTraceExtractor.StackFrameVisitor {
+
+        private boolean serverSocket;
+        private boolean serverSocketAccept;
+
+        @Override
+        public boolean visitFrame(String className, String methodName) {
+            if (className.startsWith("java.net.ServerSocket") || className.startsWith("sun.security.ssl.SSLServerSocketImpl")) {
+                serverSocket = true;
+                if (methodName.equals("accept")) {
+                    serverSocketAccept = true;
+                    return false;
                 }
+                return true;
             }
+            return isJdkOrSniffyFrame(className);
         }
-        return false;
-    }
 
-    private static boolean isServerSocket() {
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        for (StackTraceElement ste : stackTrace) {
-            if (ste.getClassName().startsWith("java.net.ServerSocket") || ste.getClassName().startsWith("sun.security.ssl.SSLServerSocketImpl")) {
-                return true;
-            }
+        private static boolean isJdkOrSniffyFrame(String className) {
+            return className.startsWith("java.") ||
+                    className.startsWith("javax.") ||
+                    className.startsWith("jdk.") ||
+                    className.startsWith("sun.") ||
+                    className.startsWith("com.sun.") ||
+                    className.startsWith("io.sniffy.");
         }
-        return false;
+
     }
 
     private static SocketImpl newSocketImpl(boolean serverSocket) {
@@ -124,13 +144,13 @@ public class SnifferSocketImplFactory implements SocketImplFactory {
         SocketImpl originalSocketImpl = null;
 
         if (null != previousSocketImplFactory) {
-            LOG.trace("Creating SocketImpl delegate using original SocketImplFactory " + previousSocketImplFactory);
+            LOG.trace("Creating SocketImpl delegate using original SocketImplFactory {}", previousSocketImplFactory);
             originalSocketImpl = previousSocketImplFactory.createSocketImpl();
         }
 
         if (null != defaultSocketImplClassConstructor) {
             try {
-                LOG.trace("Creating SocketImpl delegate using original SocketImpl constructor " + defaultSocketImplClassConstructor);
+                LOG.trace("Creating SocketImpl delegate using original SocketImpl constructor {}", defaultSocketImplClassConstructor);
                 originalSocketImpl = defaultSocketImplClassConstructor.newInstance();
             } catch (Exception e) {
                 LOG.error(e);
@@ -141,7 +161,7 @@ public class SnifferSocketImplFactory implements SocketImplFactory {
         if (null != defaultSocketImplFactoryMethod) {
             //noinspection TryWithIdenticalCatches
             try {
-                LOG.trace("Creating SocketImpl delegate using original SocketImpl factory method " + defaultSocketImplFactoryMethod + " with argument serverSocket=" + serverSocket);
+                LOG.trace("Creating SocketImpl delegate using original SocketImpl factory method {} with argument serverSocket={}", defaultSocketImplFactoryMethod, serverSocket);
                 originalSocketImpl = (SocketImpl) defaultSocketImplFactoryMethod.invoke(null, serverSocket);
             } catch (IllegalAccessException e) {
                 LOG.error(e);
@@ -2,6 +2,7 @@ package io.sniffy.socket;
 
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @since 3.1.7
@@ -50,12 +51,28 @@ public interface SniffyNetworkConnection extends TrafficCapturingNetworkConnecti
 
     void setLastWriteThreadId(long lastWriteThreadId);
 
+    /**
+     * @deprecated use {@link #logSocket(long, TimeUnit)} which supports sub-millisecond precision
+     */
     @Deprecated
     void logSocket(long millis);
 
+    /**
+     * @deprecated use {@link #logSocket(long, TimeUnit, int, int)} which supports sub-millisecond precision
+     */
     @Deprecated
     void logSocket(long millis, int bytesDown, int bytesUp);
 
+    /**
+     * @since 3.1.14
+     */
+    void logSocket(long elapsedTime, TimeUnit timeUnit);
+
+    /**
+     * @since 3.1.14
+     */
+    void logSocket(long elapsedTime, TimeUnit timeUnit, int bytesDown, int bytesUp);
+
     void checkConnectionAllowed() throws ConnectException;
 
     void checkConnectionAllowed(int numberOfSleepCycles) throws ConnectException;
@@ -64,4 +81,17 @@ public interface SniffyNetworkConnection extends TrafficCapturingNetworkConnecti
 
     void checkConnectionAllowed(InetSocketAddress inetSocketAddress, int numberOfSleepCycles) throws ConnectException;
 
+    /**
+     * @return state of {@link NetworkChaos} model used for injecting latency into this connection
+     * @since 3.1.14
+     */
+    TrafficShaper getTrafficShaper();
+
+    /**
+     * @return decision of {@link TrafficCapturePolicy} whether traffic of this connection should be captured; it is
+     * made once the connection is established and kept afterwards
+     * @since 3.1.14
+     */
+    TrafficCapture getTrafficCapture();
+
 }
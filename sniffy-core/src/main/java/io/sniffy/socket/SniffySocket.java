@@ -2,6 +2,7 @@ package io.sniffy.socket;
 
 import io.sniffy.Sniffy;
 import io.sniffy.SpyConfiguration;
+import io.sniffy.configuration.SniffyConfiguration;
 import io.sniffy.log.Polyglog;
 import io.sniffy.log.PolyglogFactory;
 import io.sniffy.registry.ConnectionsRegistry;
@@ -12,6 +13,8 @@ import java.io.OutputStream;
 import java.net.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class SniffySocket extends SniffySocketAdapter implements SniffyNetworkConnection {
 
@@ -32,14 +35,28 @@ public class SniffySocket extends SniffySocketAdapter implements SniffyNetworkCo
 
     private volatile Integer connectionStatus;
 
-    private boolean firstChunk = true;
+    private final ClientHelloReader clientHelloReader = new ClientHelloReader();
 
     private final Sleep sleep = new Sleep();
 
+    private final TrafficShaper trafficShaper;
+
+    private final AtomicReference<TrafficCapture> trafficCapture;
+
+    private final SocketStatsAccumulator socketStatsAccumulator;
+
     public SniffySocket(Socket delegate, SocketChannel socketChannel, int connectionId, InetSocketAddress address) throws SocketException {
         super(delegate);
         this.socketChannel = socketChannel;
         this.id = connectionId;
+        this.socketStatsAccumulator = new SocketStatsAccumulator(connectionId);
+        // socket obtained from a channel shares its network model state
+        this.trafficShaper = socketChannel instanceof SniffyNetworkConnection ?
+                ((SniffyNetworkConnection) socketChannel).getTrafficShaper() :
+                SniffyConfiguration.INSTANCE.getNetworkChaos().createTrafficShaper();
+        this.trafficCapture = new AtomicReference<TrafficCapture>(socketChannel instanceof SniffyNetworkConnection ?
+                ((SniffyNetworkConnection) socketChannel).getTrafficCapture() :
+                null);
         if (null == address) {
             this.address = (InetSocketAddress) delegate.getRemoteSocketAddress();
         } else {
@@ -83,48 +100,108 @@ public class SniffySocket extends SniffySocketAdapter implements SniffyNetworkCo
     @Deprecated
     @Override
     public void logSocket(long millis) {
-        logSocket(millis, 0, 0);
+        logSocket(millis, TimeUnit.MILLISECONDS, 0, 0);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit) {
+        logSocket(elapsedTime, timeUnit, 0, 0);
     }
 
     @Deprecated
     @Override
     public void logSocket(long millis, int bytesDown, int bytesUp) {
+        logSocket(millis, TimeUnit.MILLISECONDS, bytesDown, bytesUp);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit, int bytesDown, int bytesUp) {
+        long elapsedTimeNanos = timeUnit.toNanos(elapsedTime);
         Sniffy.SniffyMode sniffyMode = Sniffy.getSniffyMode();
-        if (sniffyMode.isEnabled() && null != address && (millis > 0 || bytesDown > 0 || bytesUp > 0)) {
-            Sniffy.logSocket(id, address, millis, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces());
+        if (sniffyMode.isEnabled() && null != address && (elapsedTimeNanos > 0 || bytesDown > 0 || bytesUp > 0)) {
+            Sniffy.logSocket(socketStatsAccumulator, address, elapsedTimeNanos, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces());
         }
     }
 
     public void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("SniffySocket.logTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + id);
-            Sniffy.logTraffic(
-                    id, address,
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
-            if (sent && firstChunk) {
-                SniffySSLNetworkConnection sniffySSLNetworkConnection = Sniffy.CLIENT_HELLO_CACHE.get(ByteBuffer.wrap(traffic, off, len));
-                if (null != sniffySSLNetworkConnection) {
-                    sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffySocket.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logTraffic(
+                        id, address,
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                    if (null != sniffySSLNetworkConnection) {
+                        sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                    }
                 }
             }
-            firstChunk = false;
         }
     }
 
     public void logDecryptedTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("SniffySocket.logDecryptedTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + id);
-            Sniffy.logDecryptedTraffic(
-                    id, address,
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffySocket.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logDecryptedTraffic(
+                        id, address,
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffySocket.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logTraffic(
+                        id, address,
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                    if (null != sniffySSLNetworkConnection) {
+                        sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logDecryptedTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffySocket.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logDecryptedTraffic(
+                        id, address,
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
         }
     }
 
@@ -154,7 +231,7 @@ public class SniffySocket extends SniffySocketAdapter implements SniffyNetworkCo
                 throw new ConnectException(String.format("Connection to %s refused by Sniffy", inetSocketAddress));
             } else if (numberOfSleepCycles > 0 && connectionStatus > 0) {
                 try {
-                    sleep.doSleep(connectionStatus * numberOfSleepCycles);
+                    sleep.doSleep(trafficShaper.getDelay(connectionStatus, numberOfSleepCycles));
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                 }
@@ -162,39 +239,67 @@ public class SniffySocket extends SniffySocketAdapter implements SniffyNetworkCo
         }
     }
 
+    @Override
+    public TrafficShaper getTrafficShaper() {
+        return trafficShaper;
+    }
+
+    @Override
+    public TrafficCapture getTrafficCapture() {
+        TrafficCapture trafficCapture = this.trafficCapture.get();
+        if (null == trafficCapture) {
+            trafficCapture = SniffyConfiguration.INSTANCE.getTrafficCapturePolicy().createTrafficCapture(
+                    null == proxiedAddress ? address : proxiedAddress
+            );
+            if (!this.trafficCapture.compareAndSet(null, trafficCapture)) {
+                trafficCapture = this.trafficCapture.get();
+            }
+        }
+        return trafficCapture;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            Sniffy.flushSocketStats(socketStatsAccumulator);
+        }
+    }
+
     @Override
     public void connect(SocketAddress address) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             if (address instanceof InetSocketAddress) {
                 checkConnectionAllowed(this.address = (InetSocketAddress) address);
             }
             super.connect(address);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public void connect(SocketAddress address, int timeout) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             if (address instanceof InetSocketAddress) {
                 checkConnectionAllowed(this.address = (InetSocketAddress) address);
             }
             super.connect(address, timeout);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public void bind(SocketAddress bindpoint) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             super.bind(bindpoint); // TODO: should we check connectivity enabled here as well ?
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -205,34 +310,34 @@ public class SniffySocket extends SniffySocketAdapter implements SniffyNetworkCo
 
     @Override
     public InputStream getInputStream() throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         checkConnectionAllowed();
         try {
             return new SnifferInputStream(this, super.getInputStream());
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public OutputStream getOutputStream() throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         checkConnectionAllowed();
         try {
             return new SnifferOutputStream(this, super.getOutputStream());
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     @Override
     public void sendUrgentData(int data) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             checkConnectionAllowed(1);
             super.sendUrgentData(data);
         } finally {
-            logSocket(System.currentTimeMillis() - start, 0, 1);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, 1);
             logTraffic(true, Protocol.TCP, new byte[]{(byte) data}, 0, 1);
         }
     }
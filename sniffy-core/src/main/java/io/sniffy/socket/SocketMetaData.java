@@ -1,6 +1,8 @@
 package io.sniffy.socket;
 
 import io.sniffy.ThreadMetaData;
+import io.sniffy.util.CapturedStackTrace;
+import io.sniffy.util.StackTraceExtractor;
 
 import java.net.InetSocketAddress;
 
@@ -15,11 +17,18 @@ public class SocketMetaData {
     public final InetSocketAddress address;
     @Deprecated
     public final int connectionId;
+    /**
+     * If socket operation was logged with {@link CapturedStackTrace}, this field is only populated once {@link #getStackTrace()}
+     * is called for the first time and is null before that
+     *
+     * @deprecated use {@link #getStackTrace()} which renders captured stack trace on demand
+     */
     @Deprecated
-    public final String stackTrace;
+    public String stackTrace;
     @Deprecated
     public final long ownerThreadId;
     private final ThreadMetaData threadMetaData;
+    private final CapturedStackTrace capturedStackTrace;
 
     private final int hashCode;
 
@@ -36,10 +45,24 @@ public class SocketMetaData {
     }
 
     public SocketMetaData(Protocol protocol, InetSocketAddress address, int connectionId, String stackTrace, ThreadMetaData threadMetaData) {
+        this(protocol, address, connectionId, null == stackTrace ? null : stackTrace.intern(), null, threadMetaData);
+    }
+
+    /**
+     * Captured stack trace is only rendered once {@link #getStackTrace()} is called
+     *
+     * @since 3.1.14
+     */
+    public SocketMetaData(Protocol protocol, InetSocketAddress address, int connectionId, ThreadMetaData threadMetaData, CapturedStackTrace capturedStackTrace) {
+        this(protocol, address, connectionId, null, capturedStackTrace, threadMetaData);
+    }
+
+    private SocketMetaData(Protocol protocol, InetSocketAddress address, int connectionId, String stackTrace, CapturedStackTrace capturedStackTrace, ThreadMetaData threadMetaData) {
         this.protocol = protocol;
         this.address = address;
         this.connectionId = connectionId;
-        this.stackTrace = null == stackTrace ? null : stackTrace.intern();
+        this.stackTrace = stackTrace;
+        this.capturedStackTrace = capturedStackTrace;
         this.threadMetaData = threadMetaData;
         this.ownerThreadId = null == threadMetaData ? -1 : threadMetaData.getThreadId();
         hashCode = computeHashCode();
@@ -49,7 +72,7 @@ public class SocketMetaData {
         int result = address.hashCode();
         result = 31 * result + protocol.hashCode();
         result = 31 * result + connectionId;
-        result = 31 * result + System.identityHashCode(stackTrace);
+        result = 31 * result + (null == capturedStackTrace ? System.identityHashCode(stackTrace) : capturedStackTrace.hashCode());
         result = 31 * result + (int)(ownerThreadId ^ (ownerThreadId >>> 32));
         return result;
     }
@@ -65,6 +88,10 @@ public class SocketMetaData {
         if (ownerThreadId != that.ownerThreadId) return false;
         if (!protocol.equals(that.protocol)) return false;
         if (!address.equals(that.address)) return false;
+        if (null != capturedStackTrace || null != that.capturedStackTrace) {
+            // stackTrace field of captured stack traces is populated lazily
+            return null != capturedStackTrace && capturedStackTrace.equals(that.capturedStackTrace);
+        }
         //noinspection StringEquality
         return stackTrace == that.stackTrace;
 
@@ -90,8 +117,15 @@ public class SocketMetaData {
         return connectionId;
     }
 
-    @Deprecated
+    /**
+     * @return stack trace of the socket operation or null if it wasn't captured
+     */
     public String getStackTrace() {
+        String stackTrace = this.stackTrace;
+        if (null == stackTrace && null != capturedStackTrace) {
+            // keep deprecated field populated for existing readers
+            this.stackTrace = stackTrace = StackTraceExtractor.renderStackTrace(capturedStackTrace);
+        }
         return stackTrace;
     }
 
@@ -99,4 +133,14 @@ public class SocketMetaData {
     public ThreadMetaData getThreadMetaData() {
         return threadMetaData;
     }
+
+    /**
+     * @return stack trace of the socket operation if it was captured with {@link CapturedStackTrace} or null otherwise;
+     * unlike {@link #getStackTrace()} it doesn't render the stack trace
+     * @since 3.1.14
+     */
+    public CapturedStackTrace getCapturedStackTrace() {
+        return capturedStackTrace;
+    }
+
 }
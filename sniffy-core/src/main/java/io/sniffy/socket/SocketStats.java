@@ -1,5 +1,6 @@
 package io.sniffy.socket;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -7,7 +8,16 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public class SocketStats {
 
+    /**
+     * Elapsed time in milliseconds; derived from {@link #elapsedTimeNanos} and kept for compatibility
+     */
     public final AtomicLong elapsedTime = new AtomicLong();
+
+    /**
+     * @since 3.1.14
+     */
+    public final AtomicLong elapsedTimeNanos = new AtomicLong();
+
     public final AtomicLong bytesDown = new AtomicLong();
     public final AtomicLong bytesUp = new AtomicLong();
 
@@ -16,19 +26,47 @@ public class SocketStats {
     }
 
     public SocketStats(long elapsedTime, long bytesDown, long bytesUp) {
-        this.elapsedTime.set(elapsedTime);
-        this.bytesDown.set(Math.max(bytesDown, 0));
-        this.bytesUp.set(Math.max(bytesUp, 0));
+        this(elapsedTime, TimeUnit.MILLISECONDS, bytesDown, bytesUp);
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public SocketStats(long elapsedTime, TimeUnit timeUnit, long bytesDown, long bytesUp) {
+        accumulate(elapsedTime, timeUnit, bytesDown, bytesUp);
     }
 
     public void accumulate(long elapsedTime, long bytesDown, long bytesUp) {
-        this.elapsedTime.addAndGet(elapsedTime);
+        accumulate(elapsedTime, TimeUnit.MILLISECONDS, bytesDown, bytesUp);
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void accumulate(long elapsedTime, TimeUnit timeUnit, long bytesDown, long bytesUp) {
+        accumulateElapsedTime(timeUnit.toNanos(elapsedTime));
         this.bytesDown.addAndGet(Math.max(bytesDown, 0));
         this.bytesUp.addAndGet(Math.max(bytesUp, 0));
     }
 
     public void accumulate(SocketStats that) {
-        accumulate(that.elapsedTime.longValue(), that.bytesDown.intValue(), that.bytesUp.intValue());
+        accumulate(that.elapsedTimeNanos.longValue(), TimeUnit.NANOSECONDS, that.bytesDown.intValue(), that.bytesUp.intValue());
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public long getElapsedTime(TimeUnit timeUnit) {
+        return timeUnit.convert(elapsedTimeNanos.longValue(), TimeUnit.NANOSECONDS);
+    }
+
+    private void accumulateElapsedTime(long elapsedTimeNanos) {
+        long elapsedTimeMillis = TimeUnit.NANOSECONDS.toMillis(this.elapsedTimeNanos.addAndGet(elapsedTimeNanos));
+        // concurrent updates may complete out of order; millisecond value should never go back
+        long previousElapsedTimeMillis;
+        while ((previousElapsedTimeMillis = elapsedTime.get()) < elapsedTimeMillis) {
+            if (elapsedTime.compareAndSet(previousElapsedTimeMillis, elapsedTimeMillis)) break;
+        }
     }
 
 }
@@ -0,0 +1,128 @@
+package io.sniffy.socket;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Aggregates socket operations performed on a single connection by the same thread, so that spies are notified once
+ * per burst of reads and writes rather than for each of them; stack trace is captured for the first operation
+ * of a burst only.
+ * <p>
+ * Burst ends when the connection is used by another thread, when the connection is closed or when
+ * {@link io.sniffy.Sniffy} flushes pending operations, i.e. before spies are registered, removed or queried
+ *
+ * @see io.sniffy.Sniffy#logSocket(SocketStatsAccumulator, InetSocketAddress, long, int, int, boolean)
+ * @since 3.1.14
+ */
+public class SocketStatsAccumulator {
+
+    private final int connectionId;
+
+    private Burst burst;
+    private boolean queued;
+
+    public SocketStatsAccumulator(int connectionId) {
+        this.connectionId = connectionId;
+    }
+
+    public int getConnectionId() {
+        return connectionId;
+    }
+
+    /**
+     * @return true if operation was added to the current burst; false if new burst should be started using
+     * {@link #start(SocketMetaData, long, long, int, int)}
+     */
+    public synchronized boolean accumulate(long ownerThreadId, InetSocketAddress address,
+                                           long elapsedTimeNanos, int bytesDown, int bytesUp) {
+        // end of stream is reported as -1 bytes; SocketStats ignores negative values of each operation and so should we
+        bytesDown = Math.max(bytesDown, 0);
+        bytesUp = Math.max(bytesUp, 0);
+        Burst burst = this.burst;
+        if (null == burst || burst.ownerThreadId != ownerThreadId || !burst.socketMetaData.address.equals(address) ||
+                (long) burst.bytesDown + bytesDown > Integer.MAX_VALUE ||
+                (long) burst.bytesUp + bytesUp > Integer.MAX_VALUE) {
+            return false;
+        }
+        burst.elapsedTimeNanos += elapsedTimeNanos;
+        burst.bytesDown += bytesDown;
+        burst.bytesUp += bytesUp;
+        return true;
+    }
+
+    /**
+     * Starts a new burst with given operation
+     *
+     * @return previous burst which should be published or null if there was none
+     */
+    public synchronized Burst start(SocketMetaData socketMetaData, long ownerThreadId,
+                                    long elapsedTimeNanos, int bytesDown, int bytesUp) {
+        Burst previousBurst = this.burst;
+        this.burst = new Burst(socketMetaData, ownerThreadId, elapsedTimeNanos, bytesDown, bytesUp);
+        return previousBurst;
+    }
+
+    /**
+     * @return current burst which should be published or null if there's none
+     */
+    public synchronized Burst drain() {
+        Burst burst = this.burst;
+        this.burst = null;
+        queued = false;
+        return burst;
+    }
+
+    /**
+     * Marks this accumulator as queued for flushing
+     *
+     * @return false if it is queued already
+     */
+    public synchronized boolean enqueue() {
+        if (queued) return false;
+        queued = true;
+        return true;
+    }
+
+    /**
+     * Socket operations aggregated by {@link SocketStatsAccumulator}; owner thread is referenced by id only,
+     * so that bursts of idle connections don't retain terminated threads
+     */
+    public static class Burst {
+
+        private final SocketMetaData socketMetaData;
+        private final long ownerThreadId;
+
+        private long elapsedTimeNanos;
+        private int bytesDown;
+        private int bytesUp;
+
+        private Burst(SocketMetaData socketMetaData, long ownerThreadId, long elapsedTimeNanos, int bytesDown, int bytesUp) {
+            this.socketMetaData = socketMetaData;
+            this.ownerThreadId = ownerThreadId;
+            this.elapsedTimeNanos = elapsedTimeNanos;
+            this.bytesDown = Math.max(bytesDown, 0);
+            this.bytesUp = Math.max(bytesUp, 0);
+        }
+
+        public SocketMetaData getSocketMetaData() {
+            return socketMetaData;
+        }
+
+        public long getOwnerThreadId() {
+            return ownerThreadId;
+        }
+
+        public long getElapsedTimeNanos() {
+            return elapsedTimeNanos;
+        }
+
+        public int getBytesDown() {
+            return bytesDown;
+        }
+
+        public int getBytesUp() {
+            return bytesUp;
+        }
+
+    }
+
+}
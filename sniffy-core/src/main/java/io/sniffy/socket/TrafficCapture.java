@@ -0,0 +1,55 @@
+package io.sniffy.socket;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of {@link TrafficCapturePolicy} for a single connection
+ *
+ * @see SniffyNetworkConnection#getTrafficCapture()
+ * @since 3.1.14
+ */
+public class TrafficCapture {
+
+    /**
+     * Captures all traffic; shared by connections since it is stateless
+     */
+    public static final TrafficCapture ALL = new TrafficCapture(Long.MAX_VALUE);
+
+    /**
+     * Doesn't capture anything; shared by connections since it is stateless
+     */
+    public static final TrafficCapture NONE = new TrafficCapture(0);
+
+    private final AtomicLong remainingBytes;
+
+    TrafficCapture(long maximumBytes) {
+        this.remainingBytes = new AtomicLong(maximumBytes);
+    }
+
+    /**
+     * @return false if traffic of this connection shouldn't be captured anymore; callers should check it before
+     * copying traffic
+     */
+    public boolean isEnabled() {
+        return this == ALL || remainingBytes.get() > 0;
+    }
+
+    /**
+     * Reserves given number of bytes for capturing
+     *
+     * @param length number of bytes in the packet
+     * @return number of leading bytes of the packet which should be captured
+     */
+    public int acquire(int length) {
+        if (this == ALL) return length;
+        while (true) {
+            long remainingBytes = this.remainingBytes.get();
+            if (remainingBytes <= 0 || length <= 0) return 0;
+            int acquired = (int) Math.min(length, remainingBytes);
+            if (this.remainingBytes.compareAndSet(remainingBytes, remainingBytes - acquired)) {
+                return acquired;
+            }
+        }
+    }
+
+}
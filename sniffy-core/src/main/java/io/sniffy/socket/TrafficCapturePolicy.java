@@ -0,0 +1,119 @@
+package io.sniffy.socket;
+
+import java.net.InetSocketAddress;
+import java.util.Random;
+
+/**
+ * Defines which connections have their traffic captured when capturing network traffic is enabled by
+ * {@link io.sniffy.SpyConfiguration#isCaptureNetworkTraffic()}
+ *
+ * Decision is made once per connection and kept in {@link TrafficCapture} so that connections which aren't sampled
+ * don't pay for copying and storing their traffic:
+ * <ul>
+ *     <li>Only connections to addresses matching {@link #getAddressMatcher()} are captured</li>
+ *     <li>Among them only {@link #getSampleRate()} share of connections chosen randomly is captured</li>
+ *     <li>Only first {@link #getMaximumBytesPerConnection()} bytes of each captured connection are kept</li>
+ * </ul>
+ *
+ * Default policy captures all traffic of all connections
+ *
+ * @since 3.1.14
+ */
+public class TrafficCapturePolicy {
+
+    public static final TrafficCapturePolicy DEFAULT = builder().build();
+
+    private final AddressMatcher addressMatcher;
+    private final double sampleRate;
+    private final long maximumBytesPerConnection;
+
+    private final Random random = new Random();
+
+    private TrafficCapturePolicy(AddressMatcher addressMatcher, double sampleRate, long maximumBytesPerConnection) {
+        this.addressMatcher = addressMatcher;
+        this.sampleRate = sampleRate;
+        this.maximumBytesPerConnection = maximumBytesPerConnection;
+    }
+
+    /**
+     * @return matcher for addresses of captured connections; null means any address
+     */
+    public AddressMatcher getAddressMatcher() {
+        return addressMatcher;
+    }
+
+    /**
+     * @return share of connections to be captured from 0 to 1
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @return maximum number of captured bytes per connection in both directions; non-positive value means no limit
+     */
+    public long getMaximumBytesPerConnection() {
+        return maximumBytesPerConnection;
+    }
+
+    /**
+     * @param address remote address of connection; connections with unknown address are captured only if policy
+     *                doesn't restrict addresses
+     * @return capture state for a single connection
+     */
+    public TrafficCapture createTrafficCapture(InetSocketAddress address) {
+        if (null != addressMatcher && (null == address || !addressMatcher.matches(address))) {
+            return TrafficCapture.NONE;
+        }
+        if (sampleRate < 1 && (sampleRate <= 0 || random.nextDouble() >= sampleRate)) {
+            return TrafficCapture.NONE;
+        }
+        return maximumBytesPerConnection > 0 ? new TrafficCapture(maximumBytesPerConnection) : TrafficCapture.ALL;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private AddressMatcher addressMatcher;
+        private double sampleRate = 1;
+        private long maximumBytesPerConnection;
+
+        /**
+         * @param addressMatcher matcher for addresses of captured connections; null means any address
+         */
+        public Builder addressMatcher(AddressMatcher addressMatcher) {
+            this.addressMatcher = addressMatcher;
+            return this;
+        }
+
+        /**
+         * @param sampleRate share of connections to be captured from 0 to 1
+         */
+        public Builder sampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * @param maximumBytesPerConnection maximum number of captured bytes per connection in both directions;
+         *                                  non-positive value means no limit
+         */
+        public Builder maximumBytesPerConnection(long maximumBytesPerConnection) {
+            this.maximumBytesPerConnection = maximumBytesPerConnection;
+            return this;
+        }
+
+        public TrafficCapturePolicy build() {
+            return new TrafficCapturePolicy(
+                    addressMatcher,
+                    Double.isNaN(sampleRate) ? 1 : Math.max(0, Math.min(1, sampleRate)),
+                    Math.max(0, maximumBytesPerConnection)
+            );
+        }
+
+    }
+
+}
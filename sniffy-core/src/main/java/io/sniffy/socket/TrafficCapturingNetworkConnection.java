@@ -1,9 +1,25 @@
 package io.sniffy.socket;
 
+import java.nio.ByteBuffer;
+
 public interface TrafficCapturingNetworkConnection {
 
     void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len);
 
     void logDecryptedTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len);
 
+    /**
+     * Logs bytes between {@code off} and {@code off + len} absolute positions of given buffer without copying them
+     * to an intermediate array; position and limit of the buffer aren't changed
+     *
+     * @since 3.1.14
+     */
+    void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len);
+
+    /**
+     * @see #logTraffic(boolean, Protocol, ByteBuffer, int, int)
+     * @since 3.1.14
+     */
+    void logDecryptedTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len);
+
 }
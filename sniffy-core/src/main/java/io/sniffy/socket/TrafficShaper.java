@@ -0,0 +1,174 @@
+package io.sniffy.socket;
+
+import java.util.Random;
+
+/**
+ * State of {@link NetworkChaos} model for a single connection: current TCP Window size and token bucket for each direction
+ * <p>
+ * This class only calculates delays; applying them (sleeping in blocking mode, holding back readiness of non-blocking
+ * channels or scheduling completion handlers of asynchronous channels) is up to the connection.
+ * Instances are thread safe
+ *
+ * @since 3.1.14
+ */
+public class TrafficShaper {
+
+    private static final long NANOS_PER_SECOND = 1000L * 1000 * 1000;
+
+    /**
+     * Sum of jitter for larger number of round trips is approximated using a single normally distributed sample
+     */
+    private static final int MAX_JITTER_SAMPLES = 16;
+
+    private final NetworkChaos networkChaos;
+
+    private final Direction incoming;
+    private final Direction outgoing;
+
+    private volatile Random random;
+
+    TrafficShaper(NetworkChaos networkChaos) {
+        this.networkChaos = networkChaos;
+        this.incoming = new Direction(networkChaos);
+        this.outgoing = new Direction(networkChaos);
+    }
+
+    public NetworkChaos getNetworkChaos() {
+        return networkChaos;
+    }
+
+    /**
+     * @param sent  true for outgoing traffic and false for incoming
+     * @param bytes number of bytes which cannot be buffered by the current TCP Window
+     * @return estimated number of round trips (i.e. TCP Windows) required to transfer given bytes; TCP Window grows after each of them
+     */
+    public int getNumberOfRoundTrips(boolean sent, int bytes) {
+        Direction direction = sent ? outgoing : incoming;
+        synchronized (direction) {
+            int maximumWindowSize = networkChaos.getMaximumWindowSize();
+            int numberOfRoundTrips = 0;
+            long remainingBytes = bytes;
+            while (direction.windowSize < maximumWindowSize) {
+                numberOfRoundTrips++;
+                remainingBytes -= direction.windowSize;
+                direction.windowSize = (int) Math.min(maximumWindowSize, 2L * direction.windowSize);
+                if (remainingBytes < 0) {
+                    return numberOfRoundTrips;
+                }
+            }
+            return (int) Math.min(Integer.MAX_VALUE, numberOfRoundTrips + 1 + remainingBytes / direction.windowSize);
+        }
+    }
+
+    /**
+     * @return current TCP Window size, i.e. number of bytes which can be transferred without a delay after a round trip
+     */
+    public int getWindowSize(boolean sent) {
+        Direction direction = sent ? outgoing : incoming;
+        synchronized (direction) {
+            return direction.windowSize;
+        }
+    }
+
+    /**
+     * @param latency            latency in milliseconds as defined in {@link io.sniffy.registry.ConnectionsRegistry}
+     * @param numberOfRoundTrips number of round trips
+     * @return delay in milliseconds including jitter
+     */
+    public int getDelay(int latency, int numberOfRoundTrips) {
+
+        if (latency <= 0 || numberOfRoundTrips <= 0) return 0;
+
+        int jitter = networkChaos.getJitter();
+
+        if (0 == jitter) {
+            return (int) Math.min(Integer.MAX_VALUE, (long) latency * numberOfRoundTrips);
+        }
+
+        Random random = getRandom();
+        double delay;
+
+        if (numberOfRoundTrips <= MAX_JITTER_SAMPLES) {
+            delay = 0;
+            for (int i = 0; i < numberOfRoundTrips; i++) {
+                delay += Math.max(0, latency + jitter * sample(random));
+            }
+        } else {
+            // variance of uniform distribution on [-jitter, jitter] is jitter^2 / 3
+            double variance = networkChaos.getJitterDistribution() == NetworkChaos.JitterDistribution.UNIFORM ? 1. / 3 : 1.;
+            delay = (double) latency * numberOfRoundTrips + jitter * Math.sqrt(variance * numberOfRoundTrips) * random.nextGaussian();
+        }
+
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, Math.round(delay)));
+
+    }
+
+    private double sample(Random random) {
+        switch (networkChaos.getJitterDistribution()) {
+            case NORMAL:
+                return random.nextGaussian();
+            case UNIFORM:
+            default:
+                return 2 * random.nextDouble() - 1;
+        }
+    }
+
+    private Random getRandom() {
+        Random random = this.random;
+        if (null == random) {
+            this.random = random = new Random();
+        }
+        return random;
+    }
+
+    /**
+     * Takes given number of bytes from the token bucket
+     *
+     * @param sent  true for outgoing traffic and false for incoming
+     * @param bytes number of transferred bytes
+     * @return delay in milliseconds required to keep the bandwidth within limits
+     */
+    public int getThrottlingDelay(boolean sent, int bytes) {
+
+        long bandwidth = networkChaos.getBandwidth();
+
+        if (bandwidth <= 0 || bytes <= 0) return 0;
+
+        Direction direction = sent ? outgoing : incoming;
+        synchronized (direction) {
+
+            double capacity = Math.max(1, bandwidth / 10);
+            long now = System.nanoTime();
+
+            if (!direction.throttled) {
+                direction.throttled = true;
+                direction.tokens = capacity;
+            } else {
+                long elapsedNanos = Math.max(0, now - direction.lastRefillNanos);
+                direction.tokens = Math.min(capacity, direction.tokens + (double) elapsedNanos * bandwidth / NANOS_PER_SECOND);
+            }
+            direction.lastRefillNanos = now;
+
+            direction.tokens -= bytes;
+
+            return direction.tokens >= 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, Math.ceil(-direction.tokens * 1000 / bandwidth));
+
+        }
+
+    }
+
+    private static class Direction {
+
+        private int windowSize;
+
+        private boolean throttled;
+        private double tokens;
+        private long lastRefillNanos;
+
+        private Direction(NetworkChaos networkChaos) {
+            this.windowSize = networkChaos.getInitialWindowSize();
+        }
+
+    }
+
+}
@@ -62,19 +62,19 @@ public class JdbcInvocationHandler<T extends Wrapper> implements InvocationHandl
 
         if (CREATE_STATEMENT_METHOD.equals(methodName)) {
             return Proxy.newProxyInstance(
-                    ConnectionInvocationHandler.class.getClassLoader(),
+                    JdbcInvocationHandler.class.getClassLoader(),
                     new Class[]{Statement.class},
                     new JdbcInvocationHandler<Statement>(connectionProxy, (Statement) result)
             );
         } else if (PREPARE_STATEMENT_METHOD.equals(methodName)) {
             return Proxy.newProxyInstance(
-                    ConnectionInvocationHandler.class.getClassLoader(),
+                    JdbcInvocationHandler.class.getClassLoader(),
                     new Class[]{PreparedStatement.class},
                     new JdbcInvocationHandler<PreparedStatement>(connectionProxy, (PreparedStatement) result)
             );
         } else if (PREPARE_CALL_METHOD.equals(methodName)) {
             return Proxy.newProxyInstance(
-                    ConnectionInvocationHandler.class.getClassLoader(),
+                    JdbcInvocationHandler.class.getClassLoader(),
                     new Class[]{CallableStatement.class},
                     new JdbcInvocationHandler<CallableStatement>(connectionProxy, (CallableStatement) result)
             );
@@ -5,8 +5,8 @@ import io.sniffy.Sniffy;
 import javax.sql.PooledConnection;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
 
 class PooledConnectionInvocationHandler implements InvocationHandler {
 
@@ -32,7 +32,7 @@ class PooledConnectionInvocationHandler implements InvocationHandler {
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
 
         if ("getConnection".equals(method.getName())) {
-            long start = System.currentTimeMillis();
+            long start = System.nanoTime();
             try {
                 Sniffy.enterJdbcMethod();
 
@@ -43,13 +43,9 @@ class PooledConnectionInvocationHandler implements InvocationHandler {
 
                 SniffyDriver.checkConnectionAllowed(targetConnection, url, userName);
 
-                return Connection.class.cast(Proxy.newProxyInstance(
-                        PooledConnectionInvocationHandler.class.getClassLoader(),
-                        new Class[]{Connection.class},
-                        new ConnectionInvocationHandler(targetConnection, url, userName)
-                ));
+                return new SniffyConnection(targetConnection, url, userName);
             } finally {
-                Sniffy.exitJdbcMethod(GET_CONNECTION_METHOD, System.currentTimeMillis() - start);
+                Sniffy.exitJdbcMethod(GET_CONNECTION_METHOD, System.nanoTime() - start, TimeUnit.NANOSECONDS);
             }
         } else {
             return method.invoke(delegate, args);
@@ -0,0 +1,1263 @@
+package io.sniffy.sql;
+
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.*;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * {@link CallableStatement} created by {@link SniffyConnection}
+ *
+ * @since 3.1.14
+ */
+public class SniffyCallableStatement extends SniffyPreparedStatement<CallableStatement> implements CallableStatement {
+
+    SniffyCallableStatement(CallableStatement delegate, SniffyConnection connection, String url, String userName, String sql) {
+        super(delegate, connection, url, userName, sql);
+    }
+
+    @Override
+    public void registerOutParameter(int parameterIndex, int sqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterIndex, sqlType);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+    @Override
+    public void registerOutParameter(int parameterIndex, int sqlType, int scale) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterIndex, sqlType, scale);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+    @Override
+    public boolean wasNull() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.wasNull();
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "wasNull", start);
+        }
+    }
+
+    @Override
+    public String getString(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getString(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getString", start);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBoolean(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getBoolean", start);
+        }
+    }
+
+    @Override
+    public byte getByte(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getByte(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getByte", start);
+        }
+    }
+
+    @Override
+    public short getShort(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getShort(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getShort", start);
+        }
+    }
+
+    @Override
+    public int getInt(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getInt(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getInt", start);
+        }
+    }
+
+    @Override
+    public long getLong(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getLong(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getLong", start);
+        }
+    }
+
+    @Override
+    public float getFloat(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getFloat(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getFloat", start);
+        }
+    }
+
+    @Override
+    public double getDouble(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDouble(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getDouble", start);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(int parameterIndex, int scale) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBigDecimal(parameterIndex, scale);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getBigDecimal", start);
+        }
+    }
+
+    @Override
+    public byte[] getBytes(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBytes(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getBytes", start);
+        }
+    }
+
+    @Override
+    public Date getDate(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDate(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getDate", start);
+        }
+    }
+
+    @Override
+    public Time getTime(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTime(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getTime", start);
+        }
+    }
+
+    @Override
+    public Timestamp getTimestamp(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTimestamp(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getTimestamp", start);
+        }
+    }
+
+    @Override
+    public Object getObject(int parameterIndex) throws SQLException {
+        Object result;
+        long start = enterJdbcMethod();
+        try {
+            result = delegate.getObject(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getObject", start);
+        }
+        return wrapObject(result);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBigDecimal(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getBigDecimal", start);
+        }
+    }
+
+    @Override
+    public Object getObject(int parameterIndex, Map<String, Class<?>> map) throws SQLException {
+        Object result;
+        long start = enterJdbcMethod();
+        try {
+            result = delegate.getObject(parameterIndex, map);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getObject", start);
+        }
+        return wrapObject(result);
+    }
+
+    @Override
+    public Ref getRef(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getRef(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getRef", start);
+        }
+    }
+
+    @Override
+    public Blob getBlob(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBlob(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getBlob", start);
+        }
+    }
+
+    @Override
+    public Clob getClob(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getClob(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getClob", start);
+        }
+    }
+
+    @Override
+    public Array getArray(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getArray(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getArray", start);
+        }
+    }
+
+    @Override
+    public Date getDate(int parameterIndex, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDate(parameterIndex, cal);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getDate", start);
+        }
+    }
+
+    @Override
+    public Time getTime(int parameterIndex, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTime(parameterIndex, cal);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getTime", start);
+        }
+    }
+
+    @Override
+    public Timestamp getTimestamp(int parameterIndex, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTimestamp(parameterIndex, cal);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getTimestamp", start);
+        }
+    }
+
+    @Override
+    public void registerOutParameter(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterIndex, sqlType, typeName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+    @Override
+    public void registerOutParameter(String parameterName, int sqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterName, sqlType);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+    @Override
+    public void registerOutParameter(String parameterName, int sqlType, int scale) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterName, sqlType, scale);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+    @Override
+    public void registerOutParameter(String parameterName, int sqlType, String typeName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterName, sqlType, typeName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+    @Override
+    public URL getURL(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getURL(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getURL", start);
+        }
+    }
+
+    @Override
+    public void setURL(String parameterName, URL val) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setURL(parameterName, val);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setURL", start);
+        }
+    }
+
+    @Override
+    public void setNull(String parameterName, int sqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNull(parameterName, sqlType);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setNull", start);
+        }
+    }
+
+    @Override
+    public void setBoolean(String parameterName, boolean x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBoolean(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setBoolean", start);
+        }
+    }
+
+    @Override
+    public void setByte(String parameterName, byte x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setByte(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setByte", start);
+        }
+    }
+
+    @Override
+    public void setShort(String parameterName, short x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setShort(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setShort", start);
+        }
+    }
+
+    @Override
+    public void setInt(String parameterName, int x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setInt(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setInt", start);
+        }
+    }
+
+    @Override
+    public void setLong(String parameterName, long x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setLong(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setLong", start);
+        }
+    }
+
+    @Override
+    public void setFloat(String parameterName, float x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setFloat(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setFloat", start);
+        }
+    }
+
+    @Override
+    public void setDouble(String parameterName, double x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setDouble(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setDouble", start);
+        }
+    }
+
+    @Override
+    public void setBigDecimal(String parameterName, BigDecimal x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBigDecimal(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setBigDecimal", start);
+        }
+    }
+
+    @Override
+    public void setString(String parameterName, String x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setString(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setString", start);
+        }
+    }
+
+    @Override
+    public void setBytes(String parameterName, byte[] x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBytes(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setBytes", start);
+        }
+    }
+
+    @Override
+    public void setDate(String parameterName, Date x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setDate(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setDate", start);
+        }
+    }
+
+    @Override
+    public void setTime(String parameterName, Time x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setTime(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setTime", start);
+        }
+    }
+
+    @Override
+    public void setTimestamp(String parameterName, Timestamp x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setTimestamp(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setTimestamp", start);
+        }
+    }
+
+    @Override
+    public void setAsciiStream(String parameterName, InputStream x, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setAsciiStream(parameterName, x, length);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setAsciiStream", start);
+        }
+    }
+
+    @Override
+    public void setBinaryStream(String parameterName, InputStream x, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBinaryStream(parameterName, x, length);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void setObject(String parameterName, Object x, int targetSqlType, int scale) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setObject(parameterName, x, targetSqlType, scale);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setObject", start);
+        }
+    }
+
+    @Override
+    public void setObject(String parameterName, Object x, int targetSqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setObject(parameterName, x, targetSqlType);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setObject", start);
+        }
+    }
+
+    @Override
+    public void setObject(String parameterName, Object x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setObject(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setObject", start);
+        }
+    }
+
+    @Override
+    public void setCharacterStream(String parameterName, Reader reader, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setCharacterStream(parameterName, reader, length);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void setDate(String parameterName, Date x, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setDate(parameterName, x, cal);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setDate", start);
+        }
+    }
+
+    @Override
+    public void setTime(String parameterName, Time x, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setTime(parameterName, x, cal);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setTime", start);
+        }
+    }
+
+    @Override
+    public void setTimestamp(String parameterName, Timestamp x, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setTimestamp(parameterName, x, cal);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setTimestamp", start);
+        }
+    }
+
+    @Override
+    public void setNull(String parameterName, int sqlType, String typeName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNull(parameterName, sqlType, typeName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setNull", start);
+        }
+    }
+
+    @Override
+    public String getString(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getString(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getString", start);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBoolean(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getBoolean", start);
+        }
+    }
+
+    @Override
+    public byte getByte(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getByte(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getByte", start);
+        }
+    }
+
+    @Override
+    public short getShort(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getShort(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getShort", start);
+        }
+    }
+
+    @Override
+    public int getInt(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getInt(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getInt", start);
+        }
+    }
+
+    @Override
+    public long getLong(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getLong(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getLong", start);
+        }
+    }
+
+    @Override
+    public float getFloat(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getFloat(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getFloat", start);
+        }
+    }
+
+    @Override
+    public double getDouble(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDouble(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getDouble", start);
+        }
+    }
+
+    @Override
+    public byte[] getBytes(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBytes(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getBytes", start);
+        }
+    }
+
+    @Override
+    public Date getDate(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDate(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getDate", start);
+        }
+    }
+
+    @Override
+    public Time getTime(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTime(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getTime", start);
+        }
+    }
+
+    @Override
+    public Timestamp getTimestamp(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTimestamp(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getTimestamp", start);
+        }
+    }
+
+    @Override
+    public Object getObject(String parameterName) throws SQLException {
+        Object result;
+        long start = enterJdbcMethod();
+        try {
+            result = delegate.getObject(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getObject", start);
+        }
+        return wrapObject(result);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBigDecimal(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getBigDecimal", start);
+        }
+    }
+
+    @Override
+    public Object getObject(String parameterName, Map<String, Class<?>> map) throws SQLException {
+        Object result;
+        long start = enterJdbcMethod();
+        try {
+            result = delegate.getObject(parameterName, map);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getObject", start);
+        }
+        return wrapObject(result);
+    }
+
+    @Override
+    public Ref getRef(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getRef(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getRef", start);
+        }
+    }
+
+    @Override
+    public Blob getBlob(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBlob(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getBlob", start);
+        }
+    }
+
+    @Override
+    public Clob getClob(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getClob(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getClob", start);
+        }
+    }
+
+    @Override
+    public Array getArray(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getArray(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getArray", start);
+        }
+    }
+
+    @Override
+    public Date getDate(String parameterName, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDate(parameterName, cal);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getDate", start);
+        }
+    }
+
+    @Override
+    public Time getTime(String parameterName, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTime(parameterName, cal);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getTime", start);
+        }
+    }
+
+    @Override
+    public Timestamp getTimestamp(String parameterName, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTimestamp(parameterName, cal);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getTimestamp", start);
+        }
+    }
+
+    @Override
+    public URL getURL(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getURL(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getURL", start);
+        }
+    }
+
+    @Override
+    public RowId getRowId(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getRowId(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getRowId", start);
+        }
+    }
+
+    @Override
+    public RowId getRowId(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getRowId(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getRowId", start);
+        }
+    }
+
+    @Override
+    public void setRowId(String parameterName, RowId x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setRowId(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setRowId", start);
+        }
+    }
+
+    @Override
+    public void setNString(String parameterName, String value) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNString(parameterName, value);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setNString", start);
+        }
+    }
+
+    @Override
+    public void setNCharacterStream(String parameterName, Reader value, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNCharacterStream(parameterName, value, length);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void setNClob(String parameterName, NClob value) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNClob(parameterName, value);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setNClob", start);
+        }
+    }
+
+    @Override
+    public void setClob(String parameterName, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setClob(parameterName, reader, length);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setClob", start);
+        }
+    }
+
+    @Override
+    public void setBlob(String parameterName, InputStream inputStream, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBlob(parameterName, inputStream, length);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setBlob", start);
+        }
+    }
+
+    @Override
+    public void setNClob(String parameterName, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNClob(parameterName, reader, length);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setNClob", start);
+        }
+    }
+
+    @Override
+    public NClob getNClob(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNClob(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getNClob", start);
+        }
+    }
+
+    @Override
+    public NClob getNClob(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNClob(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getNClob", start);
+        }
+    }
+
+    @Override
+    public void setSQLXML(String parameterName, SQLXML xmlObject) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setSQLXML(parameterName, xmlObject);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setSQLXML", start);
+        }
+    }
+
+    @Override
+    public SQLXML getSQLXML(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getSQLXML(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getSQLXML", start);
+        }
+    }
+
+    @Override
+    public SQLXML getSQLXML(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getSQLXML(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getSQLXML", start);
+        }
+    }
+
+    @Override
+    public String getNString(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNString(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getNString", start);
+        }
+    }
+
+    @Override
+    public String getNString(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNString(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getNString", start);
+        }
+    }
+
+    @Override
+    public Reader getNCharacterStream(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNCharacterStream(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public Reader getNCharacterStream(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNCharacterStream(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public Reader getCharacterStream(int parameterIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getCharacterStream(parameterIndex);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getCharacterStream", start);
+        }
+    }
+
+    @Override
+    public Reader getCharacterStream(String parameterName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getCharacterStream(parameterName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void setBlob(String parameterName, Blob x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBlob(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setBlob", start);
+        }
+    }
+
+    @Override
+    public void setClob(String parameterName, Clob x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setClob(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setClob", start);
+        }
+    }
+
+    @Override
+    public void setAsciiStream(String parameterName, InputStream x, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setAsciiStream(parameterName, x, length);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setAsciiStream", start);
+        }
+    }
+
+    @Override
+    public void setBinaryStream(String parameterName, InputStream x, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBinaryStream(parameterName, x, length);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void setCharacterStream(String parameterName, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setCharacterStream(parameterName, reader, length);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void setAsciiStream(String parameterName, InputStream x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setAsciiStream(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setAsciiStream", start);
+        }
+    }
+
+    @Override
+    public void setBinaryStream(String parameterName, InputStream x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBinaryStream(parameterName, x);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void setCharacterStream(String parameterName, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setCharacterStream(parameterName, reader);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void setNCharacterStream(String parameterName, Reader value) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNCharacterStream(parameterName, value);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void setClob(String parameterName, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setClob(parameterName, reader);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setClob", start);
+        }
+    }
+
+    @Override
+    public void setBlob(String parameterName, InputStream inputStream) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBlob(parameterName, inputStream);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setBlob", start);
+        }
+    }
+
+    @Override
+    public void setNClob(String parameterName, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNClob(parameterName, reader);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setNClob", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public <T> T getObject(int parameterIndex, Class<T> type) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getObject(parameterIndex, type);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getObject", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public <T> T getObject(String parameterName, Class<T> type) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getObject(parameterName, type);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "getObject", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void setObject(String parameterName, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setObject(parameterName, x, targetSqlType, scaleOrLength);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setObject", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void setObject(String parameterName, Object x, SQLType targetSqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setObject(parameterName, x, targetSqlType);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "setObject", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void registerOutParameter(int parameterIndex, SQLType sqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterIndex, sqlType);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void registerOutParameter(int parameterIndex, SQLType sqlType, int scale) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterIndex, sqlType, scale);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void registerOutParameter(int parameterIndex, SQLType sqlType, String typeName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterIndex, sqlType, typeName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void registerOutParameter(String parameterName, SQLType sqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterName, sqlType);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void registerOutParameter(String parameterName, SQLType sqlType, int scale) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterName, sqlType, scale);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void registerOutParameter(String parameterName, SQLType sqlType, String typeName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.registerOutParameter(parameterName, sqlType, typeName);
+        } finally {
+            exitJdbcMethod(CallableStatement.class, "registerOutParameter", start);
+        }
+    }
+
+}
@@ -0,0 +1,671 @@
+package io.sniffy.sql;
+
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+import java.lang.reflect.Method;
+import java.sql.*;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link Connection} returned by {@link SniffyDriver} and {@link SniffyDataSource}.
+ * Checks if connection is allowed by {@link io.sniffy.registry.ConnectionsRegistry}, records the network traffic
+ * produced by JDBC calls and wraps created statements
+ *
+ * @since 3.1.14
+ */
+public class SniffyConnection extends SniffyWrapper<Connection> implements Connection {
+
+    /**
+     * JDBC 4.3 methods are called reflectively since {@link Connection} doesn't declare them before Java 9
+     */
+    private static final Class<?> SHARDING_KEY_CLASS = getClassIfAvailable("java.sql.ShardingKey");
+
+    private static final Method BEGIN_REQUEST_METHOD = getMethodIfAvailable(Connection.class, "beginRequest");
+    private static final Method END_REQUEST_METHOD = getMethodIfAvailable(Connection.class, "endRequest");
+    private static final Method SET_SHARDING_KEY_IF_VALID_METHOD = getMethodIfAvailable(Connection.class,
+            "setShardingKeyIfValid", SHARDING_KEY_CLASS, SHARDING_KEY_CLASS, Integer.TYPE);
+    private static final Method SET_SHARDING_KEY_IF_VALID_NO_SUPER_KEY_METHOD = getMethodIfAvailable(Connection.class,
+            "setShardingKeyIfValid", SHARDING_KEY_CLASS, Integer.TYPE);
+    private static final Method SET_SHARDING_KEY_METHOD = getMethodIfAvailable(Connection.class,
+            "setShardingKey", SHARDING_KEY_CLASS, SHARDING_KEY_CLASS);
+    private static final Method SET_SHARDING_KEY_NO_SUPER_KEY_METHOD = getMethodIfAvailable(Connection.class,
+            "setShardingKey", SHARDING_KEY_CLASS);
+
+    SniffyConnection(Connection delegate, String url, String userName) {
+        super(delegate, url, userName);
+    }
+
+    /**
+     * {@link SQLClientInfoException} is the only checked exception allowed in setClientInfo methods
+     */
+    private long enterSetClientInfoMethod() throws SQLClientInfoException {
+        try {
+            return enterJdbcMethod();
+        } catch (SQLClientInfoException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new SQLClientInfoException(e.getMessage(), e.getSQLState(), e.getErrorCode(), null, e);
+        }
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyStatement<Statement>(delegate.createStatement(), this, url, userName);
+        } finally {
+            exitJdbcMethod(Connection.class, "createStatement", start);
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyPreparedStatement<PreparedStatement>(delegate.prepareStatement(sql), this, url, userName, sql);
+        } finally {
+            exitJdbcMethod(Connection.class, "prepareStatement", start);
+        }
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyCallableStatement(delegate.prepareCall(sql), this, url, userName, sql);
+        } finally {
+            exitJdbcMethod(Connection.class, "prepareCall", start);
+        }
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.nativeSQL(sql);
+        } finally {
+            exitJdbcMethod(Connection.class, "nativeSQL", start);
+        }
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setAutoCommit(autoCommit);
+        } finally {
+            exitJdbcMethod(Connection.class, "setAutoCommit", start);
+        }
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getAutoCommit();
+        } finally {
+            exitJdbcMethod(Connection.class, "getAutoCommit", start);
+        }
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.commit();
+        } finally {
+            exitJdbcMethod(Connection.class, "commit", start);
+        }
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.rollback();
+        } finally {
+            exitJdbcMethod(Connection.class, "rollback", start);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.close();
+        } finally {
+            exitJdbcMethod(Connection.class, "close", start);
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isClosed();
+        } finally {
+            exitJdbcMethod(Connection.class, "isClosed", start);
+        }
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getMetaData();
+        } finally {
+            exitJdbcMethod(Connection.class, "getMetaData", start);
+        }
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setReadOnly(readOnly);
+        } finally {
+            exitJdbcMethod(Connection.class, "setReadOnly", start);
+        }
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isReadOnly();
+        } finally {
+            exitJdbcMethod(Connection.class, "isReadOnly", start);
+        }
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setCatalog(catalog);
+        } finally {
+            exitJdbcMethod(Connection.class, "setCatalog", start);
+        }
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getCatalog();
+        } finally {
+            exitJdbcMethod(Connection.class, "getCatalog", start);
+        }
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setTransactionIsolation(level);
+        } finally {
+            exitJdbcMethod(Connection.class, "setTransactionIsolation", start);
+        }
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTransactionIsolation();
+        } finally {
+            exitJdbcMethod(Connection.class, "getTransactionIsolation", start);
+        }
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getWarnings();
+        } finally {
+            exitJdbcMethod(Connection.class, "getWarnings", start);
+        }
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.clearWarnings();
+        } finally {
+            exitJdbcMethod(Connection.class, "clearWarnings", start);
+        }
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyStatement<Statement>(delegate.createStatement(resultSetType, resultSetConcurrency), this, url, userName);
+        } finally {
+            exitJdbcMethod(Connection.class, "createStatement", start);
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyPreparedStatement<PreparedStatement>(delegate.prepareStatement(sql, resultSetType, resultSetConcurrency), this, url, userName, sql);
+        } finally {
+            exitJdbcMethod(Connection.class, "prepareStatement", start);
+        }
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyCallableStatement(delegate.prepareCall(sql, resultSetType, resultSetConcurrency), this, url, userName, sql);
+        } finally {
+            exitJdbcMethod(Connection.class, "prepareCall", start);
+        }
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTypeMap();
+        } finally {
+            exitJdbcMethod(Connection.class, "getTypeMap", start);
+        }
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setTypeMap(map);
+        } finally {
+            exitJdbcMethod(Connection.class, "setTypeMap", start);
+        }
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setHoldability(holdability);
+        } finally {
+            exitJdbcMethod(Connection.class, "setHoldability", start);
+        }
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getHoldability();
+        } finally {
+            exitJdbcMethod(Connection.class, "getHoldability", start);
+        }
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.setSavepoint();
+        } finally {
+            exitJdbcMethod(Connection.class, "setSavepoint", start);
+        }
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.setSavepoint(name);
+        } finally {
+            exitJdbcMethod(Connection.class, "setSavepoint", start);
+        }
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.rollback(savepoint);
+        } finally {
+            exitJdbcMethod(Connection.class, "rollback", start);
+        }
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.releaseSavepoint(savepoint);
+        } finally {
+            exitJdbcMethod(Connection.class, "releaseSavepoint", start);
+        }
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyStatement<Statement>(delegate.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability), this, url, userName);
+        } finally {
+            exitJdbcMethod(Connection.class, "createStatement", start);
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyPreparedStatement<PreparedStatement>(delegate.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability), this, url, userName, sql);
+        } finally {
+            exitJdbcMethod(Connection.class, "prepareStatement", start);
+        }
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyCallableStatement(delegate.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability), this, url, userName, sql);
+        } finally {
+            exitJdbcMethod(Connection.class, "prepareCall", start);
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyPreparedStatement<PreparedStatement>(delegate.prepareStatement(sql, autoGeneratedKeys), this, url, userName, sql);
+        } finally {
+            exitJdbcMethod(Connection.class, "prepareStatement", start);
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyPreparedStatement<PreparedStatement>(delegate.prepareStatement(sql, columnIndexes), this, url, userName, sql);
+        } finally {
+            exitJdbcMethod(Connection.class, "prepareStatement", start);
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return new SniffyPreparedStatement<PreparedStatement>(delegate.prepareStatement(sql, columnNames), this, url, userName, sql);
+        } finally {
+            exitJdbcMethod(Connection.class, "prepareStatement", start);
+        }
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.createClob();
+        } finally {
+            exitJdbcMethod(Connection.class, "createClob", start);
+        }
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.createBlob();
+        } finally {
+            exitJdbcMethod(Connection.class, "createBlob", start);
+        }
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.createNClob();
+        } finally {
+            exitJdbcMethod(Connection.class, "createNClob", start);
+        }
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.createSQLXML();
+        } finally {
+            exitJdbcMethod(Connection.class, "createSQLXML", start);
+        }
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isValid(timeout);
+        } finally {
+            exitJdbcMethod(Connection.class, "isValid", start);
+        }
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        long start = enterSetClientInfoMethod();
+        try {
+            delegate.setClientInfo(name, value);
+        } finally {
+            exitJdbcMethod(Connection.class, "setClientInfo", start);
+        }
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        long start = enterSetClientInfoMethod();
+        try {
+            delegate.setClientInfo(properties);
+        } finally {
+            exitJdbcMethod(Connection.class, "setClientInfo", start);
+        }
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getClientInfo(name);
+        } finally {
+            exitJdbcMethod(Connection.class, "getClientInfo", start);
+        }
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getClientInfo();
+        } finally {
+            exitJdbcMethod(Connection.class, "getClientInfo", start);
+        }
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.createArrayOf(typeName, elements);
+        } finally {
+            exitJdbcMethod(Connection.class, "createArrayOf", start);
+        }
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.createStruct(typeName, attributes);
+        } finally {
+            exitJdbcMethod(Connection.class, "createStruct", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void setSchema(String schema) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setSchema(schema);
+        } finally {
+            exitJdbcMethod(Connection.class, "setSchema", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public String getSchema() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getSchema();
+        } finally {
+            exitJdbcMethod(Connection.class, "getSchema", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void abort(Executor executor) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.abort(executor);
+        } finally {
+            exitJdbcMethod(Connection.class, "abort", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNetworkTimeout(executor, milliseconds);
+        } finally {
+            exitJdbcMethod(Connection.class, "setNetworkTimeout", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public int getNetworkTimeout() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNetworkTimeout();
+        } finally {
+            exitJdbcMethod(Connection.class, "getNetworkTimeout", start);
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    @IgnoreJRERequirement
+    public void beginRequest() throws SQLException {
+        if (null == BEGIN_REQUEST_METHOD) return;
+        long start = enterJdbcMethod();
+        try {
+            invokeDelegate(BEGIN_REQUEST_METHOD);
+        } finally {
+            exitJdbcMethod(Connection.class, "beginRequest", start);
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    @IgnoreJRERequirement
+    public void endRequest() throws SQLException {
+        if (null == END_REQUEST_METHOD) return;
+        long start = enterJdbcMethod();
+        try {
+            invokeDelegate(END_REQUEST_METHOD);
+        } finally {
+            exitJdbcMethod(Connection.class, "endRequest", start);
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public boolean setShardingKeyIfValid(ShardingKey shardingKey, ShardingKey superShardingKey, int timeout) throws SQLException {
+        if (null == SET_SHARDING_KEY_IF_VALID_METHOD) throw new SQLFeatureNotSupportedException("setShardingKeyIfValid not implemented");
+        long start = enterJdbcMethod();
+        try {
+            return (Boolean) invokeDelegate(SET_SHARDING_KEY_IF_VALID_METHOD, shardingKey, superShardingKey, timeout);
+        } finally {
+            exitJdbcMethod(Connection.class, "setShardingKeyIfValid", start);
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public boolean setShardingKeyIfValid(ShardingKey shardingKey, int timeout) throws SQLException {
+        if (null == SET_SHARDING_KEY_IF_VALID_NO_SUPER_KEY_METHOD) throw new SQLFeatureNotSupportedException("setShardingKeyIfValid not implemented");
+        long start = enterJdbcMethod();
+        try {
+            return (Boolean) invokeDelegate(SET_SHARDING_KEY_IF_VALID_NO_SUPER_KEY_METHOD, shardingKey, timeout);
+        } finally {
+            exitJdbcMethod(Connection.class, "setShardingKeyIfValid", start);
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void setShardingKey(ShardingKey shardingKey, ShardingKey superShardingKey) throws SQLException {
+        if (null == SET_SHARDING_KEY_METHOD) throw new SQLFeatureNotSupportedException("setShardingKey not implemented");
+        long start = enterJdbcMethod();
+        try {
+            invokeDelegate(SET_SHARDING_KEY_METHOD, shardingKey, superShardingKey);
+        } finally {
+            exitJdbcMethod(Connection.class, "setShardingKey", start);
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void setShardingKey(ShardingKey shardingKey) throws SQLException {
+        if (null == SET_SHARDING_KEY_NO_SUPER_KEY_METHOD) throw new SQLFeatureNotSupportedException("setShardingKey not implemented");
+        long start = enterJdbcMethod();
+        try {
+            invokeDelegate(SET_SHARDING_KEY_NO_SUPER_KEY_METHOD, shardingKey);
+        } finally {
+            exitJdbcMethod(Connection.class, "setShardingKey", start);
+        }
+    }
+
+}
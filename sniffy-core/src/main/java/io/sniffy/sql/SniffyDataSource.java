@@ -11,6 +11,7 @@ import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -93,7 +94,7 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
         if (!SniffyConfiguration.INSTANCE.isMonitorJdbc()) return dataSource.getConnection();
 
         Connection delegateConnection;
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
 
         String url;
         String userName;
@@ -108,14 +109,10 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
 
             SniffyDriver.checkConnectionAllowed(url, userName);
         } finally {
-            Sniffy.exitJdbcMethod(GET_CONNECTION_METHOD, System.currentTimeMillis() - start, GET_CONNECTION_METHOD_IMPL);
+            Sniffy.exitJdbcMethod(GET_CONNECTION_METHOD, System.nanoTime() - start, TimeUnit.NANOSECONDS, GET_CONNECTION_METHOD_IMPL);
         }
 
-        return Connection.class.cast(Proxy.newProxyInstance(
-                SniffyDriver.class.getClassLoader(),
-                new Class[]{Connection.class},
-                new ConnectionInvocationHandler(delegateConnection, url, userName)
-        ));
+        return new SniffyConnection(delegateConnection, url, userName);
     }
 
     @Override
@@ -126,7 +123,7 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
         if (!SniffyConfiguration.INSTANCE.isMonitorJdbc()) return dataSource.getConnection(userName, password);
 
         Connection delegateConnection;
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
 
         String url;
 
@@ -138,14 +135,10 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
 
             SniffyDriver.checkConnectionAllowed(url, userName);
         } finally {
-            Sniffy.exitJdbcMethod(GET_CONNECTION_WITH_CREDENTIALS_METHOD, System.currentTimeMillis() - start, GET_CONNECTION_WITH_CREDENTIALS_METHOD_IMPL);
+            Sniffy.exitJdbcMethod(GET_CONNECTION_WITH_CREDENTIALS_METHOD, System.nanoTime() - start, TimeUnit.NANOSECONDS, GET_CONNECTION_WITH_CREDENTIALS_METHOD_IMPL);
         }
 
-        return Connection.class.cast(Proxy.newProxyInstance(
-                SniffyDriver.class.getClassLoader(),
-                new Class[]{Connection.class},
-                new ConnectionInvocationHandler(delegateConnection, url, userName)
-        ));
+        return new SniffyConnection(delegateConnection, url, userName);
     }
 
     @Override
@@ -155,7 +148,7 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
 
         if (!SniffyConfiguration.INSTANCE.isMonitorJdbc()) return xaDataSource.getXAConnection();
 
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
 
         try {
             Sniffy.enterJdbcMethod();
@@ -165,7 +158,7 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
                     new PooledConnectionInvocationHandler(xaDataSource.getXAConnection())
             ));
         } finally {
-            Sniffy.exitJdbcMethod(GET_XA_CONNECTION_METHOD, System.currentTimeMillis() - start, GET_XA_CONNECTION_METHOD_IMPL);
+            Sniffy.exitJdbcMethod(GET_XA_CONNECTION_METHOD, System.nanoTime() - start, TimeUnit.NANOSECONDS, GET_XA_CONNECTION_METHOD_IMPL);
         }
 
     }
@@ -177,7 +170,7 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
 
         if (!SniffyConfiguration.INSTANCE.isMonitorJdbc()) return xaDataSource.getXAConnection(user, password);
 
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
 
         try {
             Sniffy.enterJdbcMethod();
@@ -187,7 +180,7 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
                     new PooledConnectionInvocationHandler(xaDataSource.getXAConnection(user, password))
             ));
         } finally {
-            Sniffy.exitJdbcMethod(GET_XA_CONNECTION_WITH_CREDENTIALS_METHOD, System.currentTimeMillis() - start, GET_XA_CONNECTION_WITH_CREDENTIALS_METHOD_IMPL);
+            Sniffy.exitJdbcMethod(GET_XA_CONNECTION_WITH_CREDENTIALS_METHOD, System.nanoTime() - start, TimeUnit.NANOSECONDS, GET_XA_CONNECTION_WITH_CREDENTIALS_METHOD_IMPL);
         }
 
     }
@@ -199,7 +192,7 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
 
         if (!SniffyConfiguration.INSTANCE.isMonitorJdbc()) return connectionPoolDataSource.getPooledConnection();
 
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
 
         try {
             Sniffy.enterJdbcMethod();
@@ -209,7 +202,7 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
                     new PooledConnectionInvocationHandler(connectionPoolDataSource.getPooledConnection())
             ));
         } finally {
-            Sniffy.exitJdbcMethod(GET_POOLED_CONNECTION_METHOD, System.currentTimeMillis() - start, GET_POOLED_CONNECTION_METHOD_IMPL);
+            Sniffy.exitJdbcMethod(GET_POOLED_CONNECTION_METHOD, System.nanoTime() - start, TimeUnit.NANOSECONDS, GET_POOLED_CONNECTION_METHOD_IMPL);
         }
 
     }
@@ -221,7 +214,7 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
 
         if (!SniffyConfiguration.INSTANCE.isMonitorJdbc()) return connectionPoolDataSource.getPooledConnection(user, password);
 
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             Sniffy.enterJdbcMethod();
             return PooledConnection.class.cast(Proxy.newProxyInstance(
@@ -230,7 +223,7 @@ public class SniffyDataSource implements DataSource, XADataSource, ConnectionPoo
                     new PooledConnectionInvocationHandler(connectionPoolDataSource.getPooledConnection(user, password))
             ));
         } finally {
-            Sniffy.exitJdbcMethod(GET_POOLED_CONNECTION_WITH_CREDENTIALS_METHOD, System.currentTimeMillis() - start, GET_POOLED_CONNECTION_WITH_CREDENTIALS_METHOD_IMPL);
+            Sniffy.exitJdbcMethod(GET_POOLED_CONNECTION_WITH_CREDENTIALS_METHOD, System.nanoTime() - start, TimeUnit.NANOSECONDS, GET_POOLED_CONNECTION_WITH_CREDENTIALS_METHOD_IMPL);
         }
 
     }
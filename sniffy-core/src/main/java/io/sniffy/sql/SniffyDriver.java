@@ -7,13 +7,13 @@ import io.sniffy.registry.ConnectionsRegistry;
 import io.sniffy.util.ExceptionUtil;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.sql.*;
 import java.util.Iterator;
 import java.util.Properties;
 import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -131,17 +131,13 @@ public class SniffyDriver implements Driver, Constants {
 
         if (!SniffyConfiguration.INSTANCE.isMonitorJdbc()) return originDriver.connect(originUrl, info);
 
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             Sniffy.enterJdbcMethod();
             Connection delegateConnection = originDriver.connect(originUrl, info);
-            return Connection.class.cast(Proxy.newProxyInstance(
-                    SniffyDriver.class.getClassLoader(),
-                    new Class[]{Connection.class},
-                    new ConnectionInvocationHandler(delegateConnection, originUrl, userName)
-            ));
+            return new SniffyConnection(delegateConnection, originUrl, userName);
         } finally {
-            Sniffy.exitJdbcMethod(CONNECT_METHOD, System.currentTimeMillis() - start, CONNECT_METHOD_IMPL);
+            Sniffy.exitJdbcMethod(CONNECT_METHOD, System.nanoTime() - start, TimeUnit.NANOSECONDS, CONNECT_METHOD_IMPL);
         }
     }
 
@@ -0,0 +1,652 @@
+package io.sniffy.sql;
+
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.*;
+import java.util.Calendar;
+
+/**
+ * {@link PreparedStatement} created by {@link SniffyConnection}
+ *
+ * @since 3.1.14
+ */
+public class SniffyPreparedStatement<T extends PreparedStatement> extends SniffyStatement<T> implements PreparedStatement {
+
+    protected final String sql;
+
+    SniffyPreparedStatement(T delegate, SniffyConnection connection, String url, String userName, String sql) {
+        super(delegate, connection, url, userName);
+        this.sql = sql;
+    }
+
+    @Override
+    protected synchronized String getBatchedSql() {
+        String batchedSql = super.getBatchedSql();
+        return null == batchedSql ? sql : batchedSql;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        checkConnectionAllowed();
+        ResultSet resultSet;
+        long start = System.nanoTime();
+        try {
+            enterExecuteMethod();
+            resultSet = delegate.executeQuery();
+        } finally {
+            exitExecuteMethod(PreparedStatement.class, "executeQuery", sql, start, 0);
+        }
+        return wrapResultSet(resultSet);
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            int result = delegate.executeUpdate();
+            rowsUpdated = result;
+            return result;
+        } finally {
+            exitExecuteMethod(PreparedStatement.class, "executeUpdate", sql, start, rowsUpdated);
+        }
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNull(parameterIndex, sqlType);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setNull", start);
+        }
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBoolean(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setBoolean", start);
+        }
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setByte(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setByte", start);
+        }
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setShort(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setShort", start);
+        }
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setInt(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setInt", start);
+        }
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setLong(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setLong", start);
+        }
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setFloat(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setFloat", start);
+        }
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setDouble(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setDouble", start);
+        }
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBigDecimal(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setBigDecimal", start);
+        }
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setString(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setString", start);
+        }
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBytes(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setBytes", start);
+        }
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setDate(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setDate", start);
+        }
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setTime(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setTime", start);
+        }
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setTimestamp(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setTimestamp", start);
+        }
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setAsciiStream(parameterIndex, x, length);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setAsciiStream", start);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setUnicodeStream(parameterIndex, x, length);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setUnicodeStream", start);
+        }
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBinaryStream(parameterIndex, x, length);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.clearParameters();
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "clearParameters", start);
+        }
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setObject(parameterIndex, x, targetSqlType);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setObject", start);
+        }
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setObject(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setObject", start);
+        }
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        try {
+            enterExecuteMethod();
+            return delegate.execute();
+        } finally {
+            exitExecuteMethod(PreparedStatement.class, "execute", sql, start, 0);
+        }
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        checkConnectionAllowed();
+        addBatchedSql(sql);
+        long start = enterJdbcMethod();
+        try {
+            delegate.addBatch();
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "addBatch", start);
+        }
+    }
+
+    /**
+     * Batched statement is recorded with the SQL of this prepared statement as it was done by the proxy-based implementation
+     */
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        checkConnectionAllowed();
+        addBatchedSql(this.sql);
+        long start = enterJdbcMethod();
+        try {
+            delegate.addBatch(sql);
+        } finally {
+            exitJdbcMethod(Statement.class, "addBatch", start);
+        }
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setCharacterStream(parameterIndex, reader, length);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setRef(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setRef", start);
+        }
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBlob(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setBlob", start);
+        }
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setClob(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setClob", start);
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setArray(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setArray", start);
+        }
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getMetaData();
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "getMetaData", start);
+        }
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setDate(parameterIndex, x, cal);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setDate", start);
+        }
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setTime(parameterIndex, x, cal);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setTime", start);
+        }
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setTimestamp(parameterIndex, x, cal);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setTimestamp", start);
+        }
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNull(parameterIndex, sqlType, typeName);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setNull", start);
+        }
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setURL(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setURL", start);
+        }
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getParameterMetaData();
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "getParameterMetaData", start);
+        }
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setRowId(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setRowId", start);
+        }
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNString(parameterIndex, value);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setNString", start);
+        }
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNCharacterStream(parameterIndex, value, length);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob value) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNClob(parameterIndex, value);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setNClob", start);
+        }
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setClob(parameterIndex, reader, length);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setClob", start);
+        }
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBlob(parameterIndex, inputStream, length);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setBlob", start);
+        }
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNClob(parameterIndex, reader, length);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setNClob", start);
+        }
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setSQLXML(parameterIndex, xmlObject);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setSQLXML", start);
+        }
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setObject", start);
+        }
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setAsciiStream(parameterIndex, x, length);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setAsciiStream", start);
+        }
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBinaryStream(parameterIndex, x, length);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setCharacterStream(parameterIndex, reader, length);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setAsciiStream(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setAsciiStream", start);
+        }
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBinaryStream(parameterIndex, x);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setCharacterStream(parameterIndex, reader);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNCharacterStream(parameterIndex, value);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setClob(parameterIndex, reader);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setClob", start);
+        }
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setBlob(parameterIndex, inputStream);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setBlob", start);
+        }
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setNClob(parameterIndex, reader);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setNClob", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setObject", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setObject(parameterIndex, x, targetSqlType);
+        } finally {
+            exitJdbcMethod(PreparedStatement.class, "setObject", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public long executeLargeUpdate() throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            long result = delegate.executeLargeUpdate();
+            rowsUpdated = result;
+            return result;
+        } finally {
+            exitExecuteMethod(PreparedStatement.class, "executeLargeUpdate", sql, start, rowsUpdated);
+        }
+    }
+
+}
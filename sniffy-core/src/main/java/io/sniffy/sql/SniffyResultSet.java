@@ -0,0 +1,2038 @@
+package io.sniffy.sql;
+
+import io.sniffy.Sniffy;
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.*;
+import java.util.Calendar;
+import java.util.Map;
+
+// TODO: consider using fetch size for exact calculations
+/**
+ * {@link ResultSet} returned by {@link SniffyStatement}; records number of rows read from the database
+ *
+ * @since 3.1.14
+ */
+public class SniffyResultSet extends SniffyWrapper<ResultSet> implements ResultSet {
+
+    private final SniffyStatement<?> statement;
+    private final StatementMetaData statementMetaData;
+
+    SniffyResultSet(ResultSet delegate, SniffyStatement<?> statement, String url, String userName, StatementMetaData statementMetaData) {
+        super(delegate, url, userName);
+        this.statement = statement;
+        this.statementMetaData = statementMetaData;
+    }
+
+    private void readDatabaseRow(String methodName, long start) {
+        Sniffy.readDatabaseRow(ResultSet.class, methodName, System.nanoTime() - start, getClass(), statementMetaData);
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        checkConnectionAllowed();
+        if (!Sniffy.hasSpies()) {
+            return delegate.next();
+        }
+        long start = System.nanoTime();
+        try {
+            Sniffy.enterJdbcMethod();
+            boolean result = delegate.next();
+            if (result) {
+                readDatabaseRow("next", start);
+            }
+            return result;
+        } finally {
+            exitJdbcMethod(ResultSet.class, "next", start);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.close();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "close", start);
+        }
+    }
+
+    @Override
+    public boolean wasNull() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.wasNull();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "wasNull", start);
+        }
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getString(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getString", start);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBoolean(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBoolean", start);
+        }
+    }
+
+    @Override
+    public byte getByte(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getByte(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getByte", start);
+        }
+    }
+
+    @Override
+    public short getShort(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getShort(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getShort", start);
+        }
+    }
+
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getInt(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getInt", start);
+        }
+    }
+
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getLong(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getLong", start);
+        }
+    }
+
+    @Override
+    public float getFloat(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getFloat(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getFloat", start);
+        }
+    }
+
+    @Override
+    public double getDouble(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDouble(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getDouble", start);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBigDecimal(columnIndex, scale);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBigDecimal", start);
+        }
+    }
+
+    @Override
+    public byte[] getBytes(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBytes(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBytes", start);
+        }
+    }
+
+    @Override
+    public Date getDate(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDate(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getDate", start);
+        }
+    }
+
+    @Override
+    public Time getTime(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTime(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getTime", start);
+        }
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTimestamp(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getTimestamp", start);
+        }
+    }
+
+    @Override
+    public InputStream getAsciiStream(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getAsciiStream(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getAsciiStream", start);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getUnicodeStream(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getUnicodeStream", start);
+        }
+    }
+
+    @Override
+    public InputStream getBinaryStream(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBinaryStream(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBinaryStream", start);
+        }
+    }
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getString(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getString", start);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBoolean(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBoolean", start);
+        }
+    }
+
+    @Override
+    public byte getByte(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getByte(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getByte", start);
+        }
+    }
+
+    @Override
+    public short getShort(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getShort(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getShort", start);
+        }
+    }
+
+    @Override
+    public int getInt(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getInt(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getInt", start);
+        }
+    }
+
+    @Override
+    public long getLong(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getLong(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getLong", start);
+        }
+    }
+
+    @Override
+    public float getFloat(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getFloat(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getFloat", start);
+        }
+    }
+
+    @Override
+    public double getDouble(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDouble(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getDouble", start);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBigDecimal(columnLabel, scale);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBigDecimal", start);
+        }
+    }
+
+    @Override
+    public byte[] getBytes(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBytes(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBytes", start);
+        }
+    }
+
+    @Override
+    public Date getDate(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDate(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getDate", start);
+        }
+    }
+
+    @Override
+    public Time getTime(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTime(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getTime", start);
+        }
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTimestamp(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getTimestamp", start);
+        }
+    }
+
+    @Override
+    public InputStream getAsciiStream(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getAsciiStream(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getAsciiStream", start);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getUnicodeStream(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getUnicodeStream", start);
+        }
+    }
+
+    @Override
+    public InputStream getBinaryStream(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBinaryStream(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBinaryStream", start);
+        }
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getWarnings();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getWarnings", start);
+        }
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.clearWarnings();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "clearWarnings", start);
+        }
+    }
+
+    @Override
+    public String getCursorName() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getCursorName();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getCursorName", start);
+        }
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getMetaData();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getMetaData", start);
+        }
+    }
+
+    @Override
+    public Object getObject(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getObject(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getObject", start);
+        }
+    }
+
+    @Override
+    public Object getObject(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getObject(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getObject", start);
+        }
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.findColumn(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "findColumn", start);
+        }
+    }
+
+    @Override
+    public Reader getCharacterStream(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getCharacterStream(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getCharacterStream", start);
+        }
+    }
+
+    @Override
+    public Reader getCharacterStream(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getCharacterStream(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getCharacterStream", start);
+        }
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBigDecimal(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBigDecimal", start);
+        }
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBigDecimal(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBigDecimal", start);
+        }
+    }
+
+    @Override
+    public boolean isBeforeFirst() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isBeforeFirst();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "isBeforeFirst", start);
+        }
+    }
+
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isAfterLast();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "isAfterLast", start);
+        }
+    }
+
+    @Override
+    public boolean isFirst() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isFirst();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "isFirst", start);
+        }
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isLast();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "isLast", start);
+        }
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.beforeFirst();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "beforeFirst", start);
+        }
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.afterLast();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "afterLast", start);
+        }
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        checkConnectionAllowed();
+        if (!Sniffy.hasSpies()) {
+            return delegate.first();
+        }
+        long start = System.nanoTime();
+        try {
+            Sniffy.enterJdbcMethod();
+            boolean result = delegate.first();
+            if (result) {
+                readDatabaseRow("first", start);
+            }
+            return result;
+        } finally {
+            exitJdbcMethod(ResultSet.class, "first", start);
+        }
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        checkConnectionAllowed();
+        if (!Sniffy.hasSpies()) {
+            return delegate.last();
+        }
+        long start = System.nanoTime();
+        try {
+            Sniffy.enterJdbcMethod();
+            boolean result = delegate.last();
+            if (result) {
+                readDatabaseRow("last", start);
+            }
+            return result;
+        } finally {
+            exitJdbcMethod(ResultSet.class, "last", start);
+        }
+    }
+
+    @Override
+    public int getRow() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getRow();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getRow", start);
+        }
+    }
+
+    @Override
+    public boolean absolute(int row) throws SQLException {
+        checkConnectionAllowed();
+        if (!Sniffy.hasSpies()) {
+            return delegate.absolute(row);
+        }
+        long start = System.nanoTime();
+        try {
+            Sniffy.enterJdbcMethod();
+            boolean result = delegate.absolute(row);
+            if (result) {
+                readDatabaseRow("absolute", start);
+            }
+            return result;
+        } finally {
+            exitJdbcMethod(ResultSet.class, "absolute", start);
+        }
+    }
+
+    @Override
+    public boolean relative(int rows) throws SQLException {
+        checkConnectionAllowed();
+        if (!Sniffy.hasSpies()) {
+            return delegate.relative(rows);
+        }
+        long start = System.nanoTime();
+        try {
+            Sniffy.enterJdbcMethod();
+            boolean result = delegate.relative(rows);
+            if (result) {
+                readDatabaseRow("relative", start);
+            }
+            return result;
+        } finally {
+            exitJdbcMethod(ResultSet.class, "relative", start);
+        }
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        checkConnectionAllowed();
+        if (!Sniffy.hasSpies()) {
+            return delegate.previous();
+        }
+        long start = System.nanoTime();
+        try {
+            Sniffy.enterJdbcMethod();
+            boolean result = delegate.previous();
+            if (result) {
+                readDatabaseRow("previous", start);
+            }
+            return result;
+        } finally {
+            exitJdbcMethod(ResultSet.class, "previous", start);
+        }
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setFetchDirection(direction);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "setFetchDirection", start);
+        }
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getFetchDirection();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getFetchDirection", start);
+        }
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setFetchSize(rows);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "setFetchSize", start);
+        }
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getFetchSize();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getFetchSize", start);
+        }
+    }
+
+    @Override
+    public int getType() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getType();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getType", start);
+        }
+    }
+
+    @Override
+    public int getConcurrency() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getConcurrency();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getConcurrency", start);
+        }
+    }
+
+    @Override
+    public boolean rowUpdated() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.rowUpdated();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "rowUpdated", start);
+        }
+    }
+
+    @Override
+    public boolean rowInserted() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.rowInserted();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "rowInserted", start);
+        }
+    }
+
+    @Override
+    public boolean rowDeleted() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.rowDeleted();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "rowDeleted", start);
+        }
+    }
+
+    @Override
+    public void updateNull(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNull(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNull", start);
+        }
+    }
+
+    @Override
+    public void updateBoolean(int columnIndex, boolean x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBoolean(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBoolean", start);
+        }
+    }
+
+    @Override
+    public void updateByte(int columnIndex, byte x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateByte(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateByte", start);
+        }
+    }
+
+    @Override
+    public void updateShort(int columnIndex, short x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateShort(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateShort", start);
+        }
+    }
+
+    @Override
+    public void updateInt(int columnIndex, int x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateInt(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateInt", start);
+        }
+    }
+
+    @Override
+    public void updateLong(int columnIndex, long x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateLong(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateLong", start);
+        }
+    }
+
+    @Override
+    public void updateFloat(int columnIndex, float x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateFloat(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateFloat", start);
+        }
+    }
+
+    @Override
+    public void updateDouble(int columnIndex, double x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateDouble(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateDouble", start);
+        }
+    }
+
+    @Override
+    public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBigDecimal(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBigDecimal", start);
+        }
+    }
+
+    @Override
+    public void updateString(int columnIndex, String x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateString(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateString", start);
+        }
+    }
+
+    @Override
+    public void updateBytes(int columnIndex, byte[] x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBytes(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBytes", start);
+        }
+    }
+
+    @Override
+    public void updateDate(int columnIndex, Date x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateDate(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateDate", start);
+        }
+    }
+
+    @Override
+    public void updateTime(int columnIndex, Time x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateTime(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateTime", start);
+        }
+    }
+
+    @Override
+    public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateTimestamp(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateTimestamp", start);
+        }
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateAsciiStream(columnIndex, x, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateAsciiStream", start);
+        }
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBinaryStream(columnIndex, x, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateCharacterStream(columnIndex, x, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateObject(columnIndex, x, scaleOrLength);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateObject", start);
+        }
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateObject(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateObject", start);
+        }
+    }
+
+    @Override
+    public void updateNull(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNull(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNull", start);
+        }
+    }
+
+    @Override
+    public void updateBoolean(String columnLabel, boolean x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBoolean(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBoolean", start);
+        }
+    }
+
+    @Override
+    public void updateByte(String columnLabel, byte x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateByte(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateByte", start);
+        }
+    }
+
+    @Override
+    public void updateShort(String columnLabel, short x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateShort(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateShort", start);
+        }
+    }
+
+    @Override
+    public void updateInt(String columnLabel, int x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateInt(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateInt", start);
+        }
+    }
+
+    @Override
+    public void updateLong(String columnLabel, long x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateLong(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateLong", start);
+        }
+    }
+
+    @Override
+    public void updateFloat(String columnLabel, float x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateFloat(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateFloat", start);
+        }
+    }
+
+    @Override
+    public void updateDouble(String columnLabel, double x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateDouble(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateDouble", start);
+        }
+    }
+
+    @Override
+    public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBigDecimal(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBigDecimal", start);
+        }
+    }
+
+    @Override
+    public void updateString(String columnLabel, String x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateString(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateString", start);
+        }
+    }
+
+    @Override
+    public void updateBytes(String columnLabel, byte[] x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBytes(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBytes", start);
+        }
+    }
+
+    @Override
+    public void updateDate(String columnLabel, Date x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateDate(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateDate", start);
+        }
+    }
+
+    @Override
+    public void updateTime(String columnLabel, Time x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateTime(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateTime", start);
+        }
+    }
+
+    @Override
+    public void updateTimestamp(String columnLabel, Timestamp x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateTimestamp(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateTimestamp", start);
+        }
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateAsciiStream(columnLabel, x, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateAsciiStream", start);
+        }
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBinaryStream(columnLabel, x, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, int length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateCharacterStream(columnLabel, reader, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateObject(columnLabel, x, scaleOrLength);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateObject", start);
+        }
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateObject(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateObject", start);
+        }
+    }
+
+    @Override
+    public void insertRow() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.insertRow();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "insertRow", start);
+        }
+    }
+
+    @Override
+    public void updateRow() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateRow();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateRow", start);
+        }
+    }
+
+    @Override
+    public void deleteRow() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.deleteRow();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "deleteRow", start);
+        }
+    }
+
+    @Override
+    public void refreshRow() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.refreshRow();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "refreshRow", start);
+        }
+    }
+
+    @Override
+    public void cancelRowUpdates() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.cancelRowUpdates();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "cancelRowUpdates", start);
+        }
+    }
+
+    @Override
+    public void moveToInsertRow() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.moveToInsertRow();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "moveToInsertRow", start);
+        }
+    }
+
+    @Override
+    public void moveToCurrentRow() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.moveToCurrentRow();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "moveToCurrentRow", start);
+        }
+    }
+
+    @Override
+    public Statement getStatement() throws SQLException {
+        if (null != statement) {
+            return statement;
+        }
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getStatement();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getStatement", start);
+        }
+    }
+
+    @Override
+    public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getObject(columnIndex, map);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getObject", start);
+        }
+    }
+
+    @Override
+    public Ref getRef(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getRef(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getRef", start);
+        }
+    }
+
+    @Override
+    public Blob getBlob(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBlob(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBlob", start);
+        }
+    }
+
+    @Override
+    public Clob getClob(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getClob(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getClob", start);
+        }
+    }
+
+    @Override
+    public Array getArray(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getArray(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getArray", start);
+        }
+    }
+
+    @Override
+    public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getObject(columnLabel, map);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getObject", start);
+        }
+    }
+
+    @Override
+    public Ref getRef(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getRef(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getRef", start);
+        }
+    }
+
+    @Override
+    public Blob getBlob(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getBlob(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getBlob", start);
+        }
+    }
+
+    @Override
+    public Clob getClob(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getClob(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getClob", start);
+        }
+    }
+
+    @Override
+    public Array getArray(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getArray(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getArray", start);
+        }
+    }
+
+    @Override
+    public Date getDate(int columnIndex, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDate(columnIndex, cal);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getDate", start);
+        }
+    }
+
+    @Override
+    public Date getDate(String columnLabel, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getDate(columnLabel, cal);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getDate", start);
+        }
+    }
+
+    @Override
+    public Time getTime(int columnIndex, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTime(columnIndex, cal);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getTime", start);
+        }
+    }
+
+    @Override
+    public Time getTime(String columnLabel, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTime(columnLabel, cal);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getTime", start);
+        }
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTimestamp(columnIndex, cal);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getTimestamp", start);
+        }
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getTimestamp(columnLabel, cal);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getTimestamp", start);
+        }
+    }
+
+    @Override
+    public URL getURL(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getURL(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getURL", start);
+        }
+    }
+
+    @Override
+    public URL getURL(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getURL(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getURL", start);
+        }
+    }
+
+    @Override
+    public void updateRef(int columnIndex, Ref x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateRef(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateRef", start);
+        }
+    }
+
+    @Override
+    public void updateRef(String columnLabel, Ref x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateRef(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateRef", start);
+        }
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, Blob x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBlob(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBlob", start);
+        }
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, Blob x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBlob(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBlob", start);
+        }
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Clob x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateClob(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateClob", start);
+        }
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Clob x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateClob(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateClob", start);
+        }
+    }
+
+    @Override
+    public void updateArray(int columnIndex, Array x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateArray(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateArray", start);
+        }
+    }
+
+    @Override
+    public void updateArray(String columnLabel, Array x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateArray(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateArray", start);
+        }
+    }
+
+    @Override
+    public RowId getRowId(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getRowId(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getRowId", start);
+        }
+    }
+
+    @Override
+    public RowId getRowId(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getRowId(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getRowId", start);
+        }
+    }
+
+    @Override
+    public void updateRowId(int columnIndex, RowId x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateRowId(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateRowId", start);
+        }
+    }
+
+    @Override
+    public void updateRowId(String columnLabel, RowId x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateRowId(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateRowId", start);
+        }
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getHoldability();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getHoldability", start);
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isClosed();
+        } finally {
+            exitJdbcMethod(ResultSet.class, "isClosed", start);
+        }
+    }
+
+    @Override
+    public void updateNString(int columnIndex, String nString) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNString(columnIndex, nString);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNString", start);
+        }
+    }
+
+    @Override
+    public void updateNString(String columnLabel, String nString) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNString(columnLabel, nString);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNString", start);
+        }
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, NClob nClob) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNClob(columnIndex, nClob);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNClob", start);
+        }
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, NClob nClob) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNClob(columnLabel, nClob);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNClob", start);
+        }
+    }
+
+    @Override
+    public NClob getNClob(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNClob(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getNClob", start);
+        }
+    }
+
+    @Override
+    public NClob getNClob(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNClob(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getNClob", start);
+        }
+    }
+
+    @Override
+    public SQLXML getSQLXML(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getSQLXML(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getSQLXML", start);
+        }
+    }
+
+    @Override
+    public SQLXML getSQLXML(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getSQLXML(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getSQLXML", start);
+        }
+    }
+
+    @Override
+    public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateSQLXML(columnIndex, xmlObject);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateSQLXML", start);
+        }
+    }
+
+    @Override
+    public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateSQLXML(columnLabel, xmlObject);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateSQLXML", start);
+        }
+    }
+
+    @Override
+    public String getNString(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNString(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getNString", start);
+        }
+    }
+
+    @Override
+    public String getNString(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNString(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getNString", start);
+        }
+    }
+
+    @Override
+    public Reader getNCharacterStream(int columnIndex) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNCharacterStream(columnIndex);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public Reader getNCharacterStream(String columnLabel) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getNCharacterStream(columnLabel);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNCharacterStream(columnIndex, x, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNCharacterStream(columnLabel, reader, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateAsciiStream(columnIndex, x, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateAsciiStream", start);
+        }
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBinaryStream(columnIndex, x, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateCharacterStream(columnIndex, x, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateAsciiStream(columnLabel, x, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateAsciiStream", start);
+        }
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBinaryStream(columnLabel, x, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateCharacterStream(columnLabel, reader, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBlob(columnIndex, inputStream, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBlob", start);
+        }
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBlob(columnLabel, inputStream, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBlob", start);
+        }
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateClob(columnIndex, reader, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateClob", start);
+        }
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateClob(columnLabel, reader, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateClob", start);
+        }
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNClob(columnIndex, reader, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNClob", start);
+        }
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNClob(columnLabel, reader, length);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNClob", start);
+        }
+    }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNCharacterStream(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNCharacterStream(columnLabel, reader);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateAsciiStream(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateAsciiStream", start);
+        }
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBinaryStream(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateCharacterStream(columnIndex, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateAsciiStream(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateAsciiStream", start);
+        }
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBinaryStream(columnLabel, x);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBinaryStream", start);
+        }
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateCharacterStream(columnLabel, reader);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateCharacterStream", start);
+        }
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBlob(columnIndex, inputStream);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBlob", start);
+        }
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateBlob(columnLabel, inputStream);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateBlob", start);
+        }
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateClob(columnIndex, reader);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateClob", start);
+        }
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateClob(columnLabel, reader);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateClob", start);
+        }
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNClob(columnIndex, reader);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNClob", start);
+        }
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateNClob(columnLabel, reader);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateNClob", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getObject(columnIndex, type);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getObject", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getObject(columnLabel, type);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "getObject", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void updateObject(int columnIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateObject(columnIndex, x, targetSqlType, scaleOrLength);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateObject", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void updateObject(String columnLabel, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateObject(columnLabel, x, targetSqlType, scaleOrLength);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateObject", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void updateObject(int columnIndex, Object x, SQLType targetSqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateObject(columnIndex, x, targetSqlType);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateObject", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void updateObject(String columnLabel, Object x, SQLType targetSqlType) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.updateObject(columnLabel, x, targetSqlType);
+        } finally {
+            exitJdbcMethod(ResultSet.class, "updateObject", start);
+        }
+    }
+
+}
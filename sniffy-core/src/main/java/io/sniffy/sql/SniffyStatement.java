@@ -0,0 +1,779 @@
+package io.sniffy.sql;
+
+import io.sniffy.Sniffer;
+import io.sniffy.Sniffy;
+import io.sniffy.util.CapturedStackTrace;
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+import java.lang.reflect.Method;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.sniffy.util.StackTraceExtractor.captureTraceForImplementingMethod;
+
+/**
+ * {@link Statement} created by {@link SniffyConnection}; records executed queries and wraps returned result sets
+ *
+ * @since 3.1.14
+ */
+public class SniffyStatement<T extends Statement> extends SniffyWrapper<T> implements Statement {
+
+    /**
+     * JDBC 4.3 methods are called reflectively since {@link Statement} doesn't declare them before Java 9
+     */
+    private static final Method ENQUOTE_LITERAL_METHOD = getMethodIfAvailable(Statement.class,
+            "enquoteLiteral", String.class);
+    private static final Method ENQUOTE_IDENTIFIER_METHOD = getMethodIfAvailable(Statement.class,
+            "enquoteIdentifier", String.class, Boolean.TYPE);
+    private static final Method IS_SIMPLE_IDENTIFIER_METHOD = getMethodIfAvailable(Statement.class,
+            "isSimpleIdentifier", String.class);
+    private static final Method ENQUOTE_N_CHAR_LITERAL_METHOD = getMethodIfAvailable(Statement.class,
+            "enquoteNCharLiteral", String.class);
+
+    protected final SniffyConnection connection;
+
+    private Map<String, Integer> batchedSql;
+
+    StatementMetaData lastStatementMetaData;
+
+    SniffyStatement(T delegate, SniffyConnection connection, String url, String userName) {
+        super(delegate, url, userName);
+        this.connection = connection;
+    }
+
+    /**
+     * Should be called inside try block right before executing the query
+     */
+    protected void enterExecuteMethod() throws SQLException {
+        Sniffy.enterJdbcMethod();
+        checkConnectionAllowed(true);
+    }
+
+    /**
+     * Records executed query; should be called in finally block after executing the query
+     */
+    protected void exitExecuteMethod(Class<?> declaringClass, String methodName, String sql, long start, long rowsUpdated) {
+        long elapsedTime = System.nanoTime() - start;
+        Sniffy.logSqlTime(sql, elapsedTime, TimeUnit.NANOSECONDS);
+        Sniffy.SniffyMode sniffyMode = Sniffy.getSniffyMode();
+        if (sniffyMode.isEnabled()) {
+            CapturedStackTrace stackTrace = sniffyMode.isCaptureStackTraces() ?
+                    captureTraceForImplementingMethod(declaringClass, methodName, getClass()) :
+                    null;
+            lastStatementMetaData = Sniffy.executeStatement(sql, elapsedTime, TimeUnit.NANOSECONDS, stackTrace, rowsUpdated);
+        } else {
+            Sniffer.executedStatementsGlobalCounter.incrementAndGet();
+        }
+    }
+
+    protected ResultSet wrapResultSet(ResultSet resultSet) {
+        return null == resultSet ? null : new SniffyResultSet(resultSet, this, url, userName, lastStatementMetaData);
+    }
+
+    protected Object wrapObject(Object result) {
+        return result instanceof ResultSet ? wrapResultSet((ResultSet) result) : result;
+    }
+
+    private static long sumUpdatedRows(int[] updatedRows) {
+        long rowsUpdated = 0;
+        if (null != updatedRows) {
+            for (int i : updatedRows) {
+                if (i > 0) rowsUpdated += i;
+            }
+        }
+        return rowsUpdated;
+    }
+
+    private static long sumUpdatedRows(long[] updatedRows) {
+        long rowsUpdated = 0;
+        if (null != updatedRows) {
+            for (long i : updatedRows) {
+                if (i > 0) rowsUpdated += i;
+            }
+        }
+        return rowsUpdated;
+    }
+
+    protected synchronized void addBatchedSql(String sql) {
+
+        if (null == sql) return;
+
+        if (null == batchedSql) batchedSql = new HashMap<String, Integer>();
+
+        Integer count = batchedSql.get(sql);
+        if (null != count) {
+            batchedSql.put(sql, count + 1);
+        } else {
+            batchedSql.put(sql, 1);
+        }
+    }
+
+    protected synchronized void clearBatchedSql() {
+        batchedSql = null;
+    }
+
+    protected synchronized String getBatchedSql() {
+        if (null == batchedSql || batchedSql.isEmpty()) return null;
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : batchedSql.entrySet()) {
+            if (0 != sb.length()) sb.append("; ");
+            Integer times = entry.getValue();
+            sb.append(entry.getKey());
+            if (times > 1) sb.append(" /*").append(times).append(" times*/");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        checkConnectionAllowed();
+        ResultSet resultSet;
+        long start = System.nanoTime();
+        try {
+            enterExecuteMethod();
+            resultSet = delegate.executeQuery(sql);
+        } finally {
+            exitExecuteMethod(Statement.class, "executeQuery", sql, start, 0);
+        }
+        return wrapResultSet(resultSet);
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            int result = delegate.executeUpdate(sql);
+            rowsUpdated = result;
+            return result;
+        } finally {
+            exitExecuteMethod(Statement.class, "executeUpdate", sql, start, rowsUpdated);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.close();
+        } finally {
+            exitJdbcMethod(Statement.class, "close", start);
+        }
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getMaxFieldSize();
+        } finally {
+            exitJdbcMethod(Statement.class, "getMaxFieldSize", start);
+        }
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setMaxFieldSize(max);
+        } finally {
+            exitJdbcMethod(Statement.class, "setMaxFieldSize", start);
+        }
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getMaxRows();
+        } finally {
+            exitJdbcMethod(Statement.class, "getMaxRows", start);
+        }
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setMaxRows(max);
+        } finally {
+            exitJdbcMethod(Statement.class, "setMaxRows", start);
+        }
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setEscapeProcessing(enable);
+        } finally {
+            exitJdbcMethod(Statement.class, "setEscapeProcessing", start);
+        }
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getQueryTimeout();
+        } finally {
+            exitJdbcMethod(Statement.class, "getQueryTimeout", start);
+        }
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setQueryTimeout(seconds);
+        } finally {
+            exitJdbcMethod(Statement.class, "setQueryTimeout", start);
+        }
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.cancel();
+        } finally {
+            exitJdbcMethod(Statement.class, "cancel", start);
+        }
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getWarnings();
+        } finally {
+            exitJdbcMethod(Statement.class, "getWarnings", start);
+        }
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.clearWarnings();
+        } finally {
+            exitJdbcMethod(Statement.class, "clearWarnings", start);
+        }
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setCursorName(name);
+        } finally {
+            exitJdbcMethod(Statement.class, "setCursorName", start);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        try {
+            enterExecuteMethod();
+            return delegate.execute(sql);
+        } finally {
+            exitExecuteMethod(Statement.class, "execute", sql, start, 0);
+        }
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        ResultSet resultSet;
+        long start = enterJdbcMethod();
+        try {
+            resultSet = delegate.getResultSet();
+        } finally {
+            exitJdbcMethod(Statement.class, "getResultSet", start);
+        }
+        return wrapResultSet(resultSet);
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getUpdateCount();
+        } finally {
+            exitJdbcMethod(Statement.class, "getUpdateCount", start);
+        }
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getMoreResults();
+        } finally {
+            exitJdbcMethod(Statement.class, "getMoreResults", start);
+        }
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setFetchDirection(direction);
+        } finally {
+            exitJdbcMethod(Statement.class, "setFetchDirection", start);
+        }
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getFetchDirection();
+        } finally {
+            exitJdbcMethod(Statement.class, "getFetchDirection", start);
+        }
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setFetchSize(rows);
+        } finally {
+            exitJdbcMethod(Statement.class, "setFetchSize", start);
+        }
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getFetchSize();
+        } finally {
+            exitJdbcMethod(Statement.class, "getFetchSize", start);
+        }
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getResultSetConcurrency();
+        } finally {
+            exitJdbcMethod(Statement.class, "getResultSetConcurrency", start);
+        }
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getResultSetType();
+        } finally {
+            exitJdbcMethod(Statement.class, "getResultSetType", start);
+        }
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        checkConnectionAllowed();
+        addBatchedSql(sql);
+        long start = enterJdbcMethod();
+        try {
+            delegate.addBatch(sql);
+        } finally {
+            exitJdbcMethod(Statement.class, "addBatch", start);
+        }
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        long start = enterJdbcMethod();
+        clearBatchedSql();
+        try {
+            delegate.clearBatch();
+        } finally {
+            exitJdbcMethod(Statement.class, "clearBatch", start);
+        }
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        checkConnectionAllowed();
+        String sql = getBatchedSql();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            int[] result = delegate.executeBatch();
+            rowsUpdated = sumUpdatedRows(result);
+            return result;
+        } finally {
+            exitExecuteMethod(Statement.class, "executeBatch", sql, start, rowsUpdated);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (null != connection) {
+            return connection;
+        }
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getConnection();
+        } finally {
+            exitJdbcMethod(Statement.class, "getConnection", start);
+        }
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getMoreResults(current);
+        } finally {
+            exitJdbcMethod(Statement.class, "getMoreResults", start);
+        }
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        ResultSet resultSet;
+        long start = enterJdbcMethod();
+        try {
+            resultSet = delegate.getGeneratedKeys();
+        } finally {
+            exitJdbcMethod(Statement.class, "getGeneratedKeys", start);
+        }
+        return wrapResultSet(resultSet);
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            int result = delegate.executeUpdate(sql, autoGeneratedKeys);
+            rowsUpdated = result;
+            return result;
+        } finally {
+            exitExecuteMethod(Statement.class, "executeUpdate", sql, start, rowsUpdated);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            int result = delegate.executeUpdate(sql, columnIndexes);
+            rowsUpdated = result;
+            return result;
+        } finally {
+            exitExecuteMethod(Statement.class, "executeUpdate", sql, start, rowsUpdated);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            int result = delegate.executeUpdate(sql, columnNames);
+            rowsUpdated = result;
+            return result;
+        } finally {
+            exitExecuteMethod(Statement.class, "executeUpdate", sql, start, rowsUpdated);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        try {
+            enterExecuteMethod();
+            return delegate.execute(sql, autoGeneratedKeys);
+        } finally {
+            exitExecuteMethod(Statement.class, "execute", sql, start, 0);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        try {
+            enterExecuteMethod();
+            return delegate.execute(sql, columnIndexes);
+        } finally {
+            exitExecuteMethod(Statement.class, "execute", sql, start, 0);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        try {
+            enterExecuteMethod();
+            return delegate.execute(sql, columnNames);
+        } finally {
+            exitExecuteMethod(Statement.class, "execute", sql, start, 0);
+        }
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getResultSetHoldability();
+        } finally {
+            exitJdbcMethod(Statement.class, "getResultSetHoldability", start);
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isClosed();
+        } finally {
+            exitJdbcMethod(Statement.class, "isClosed", start);
+        }
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setPoolable(poolable);
+        } finally {
+            exitJdbcMethod(Statement.class, "setPoolable", start);
+        }
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isPoolable();
+        } finally {
+            exitJdbcMethod(Statement.class, "isPoolable", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void closeOnCompletion() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.closeOnCompletion();
+        } finally {
+            exitJdbcMethod(Statement.class, "closeOnCompletion", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public boolean isCloseOnCompletion() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isCloseOnCompletion();
+        } finally {
+            exitJdbcMethod(Statement.class, "isCloseOnCompletion", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public long getLargeUpdateCount() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getLargeUpdateCount();
+        } finally {
+            exitJdbcMethod(Statement.class, "getLargeUpdateCount", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public void setLargeMaxRows(long max) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            delegate.setLargeMaxRows(max);
+        } finally {
+            exitJdbcMethod(Statement.class, "setLargeMaxRows", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public long getLargeMaxRows() throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.getLargeMaxRows();
+        } finally {
+            exitJdbcMethod(Statement.class, "getLargeMaxRows", start);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public long[] executeLargeBatch() throws SQLException {
+        checkConnectionAllowed();
+        String sql = getBatchedSql();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            long[] result = delegate.executeLargeBatch();
+            rowsUpdated = sumUpdatedRows(result);
+            return result;
+        } finally {
+            exitExecuteMethod(Statement.class, "executeLargeBatch", sql, start, rowsUpdated);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public long executeLargeUpdate(String sql) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            long result = delegate.executeLargeUpdate(sql);
+            rowsUpdated = result;
+            return result;
+        } finally {
+            exitExecuteMethod(Statement.class, "executeLargeUpdate", sql, start, rowsUpdated);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            long result = delegate.executeLargeUpdate(sql, autoGeneratedKeys);
+            rowsUpdated = result;
+            return result;
+        } finally {
+            exitExecuteMethod(Statement.class, "executeLargeUpdate", sql, start, rowsUpdated);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            long result = delegate.executeLargeUpdate(sql, columnIndexes);
+            rowsUpdated = result;
+            return result;
+        } finally {
+            exitExecuteMethod(Statement.class, "executeLargeUpdate", sql, start, rowsUpdated);
+        }
+    }
+
+    @Override
+    @IgnoreJRERequirement
+    @SuppressWarnings("Since15")
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        long rowsUpdated = 0;
+        try {
+            enterExecuteMethod();
+            long result = delegate.executeLargeUpdate(sql, columnNames);
+            rowsUpdated = result;
+            return result;
+        } finally {
+            exitExecuteMethod(Statement.class, "executeLargeUpdate", sql, start, rowsUpdated);
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    @IgnoreJRERequirement
+    public String enquoteLiteral(String val) throws SQLException {
+        if (null == ENQUOTE_LITERAL_METHOD) throw new SQLFeatureNotSupportedException("enquoteLiteral not implemented");
+        long start = enterJdbcMethod();
+        try {
+            return (String) invokeDelegate(ENQUOTE_LITERAL_METHOD, val);
+        } finally {
+            exitJdbcMethod(Statement.class, "enquoteLiteral", start);
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    @IgnoreJRERequirement
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        if (null == ENQUOTE_IDENTIFIER_METHOD) throw new SQLFeatureNotSupportedException("enquoteIdentifier not implemented");
+        long start = enterJdbcMethod();
+        try {
+            return (String) invokeDelegate(ENQUOTE_IDENTIFIER_METHOD, identifier, alwaysQuote);
+        } finally {
+            exitJdbcMethod(Statement.class, "enquoteIdentifier", start);
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    @IgnoreJRERequirement
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        if (null == IS_SIMPLE_IDENTIFIER_METHOD) throw new SQLFeatureNotSupportedException("isSimpleIdentifier not implemented");
+        long start = enterJdbcMethod();
+        try {
+            return (Boolean) invokeDelegate(IS_SIMPLE_IDENTIFIER_METHOD, identifier);
+        } finally {
+            exitJdbcMethod(Statement.class, "isSimpleIdentifier", start);
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    @IgnoreJRERequirement
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        if (null == ENQUOTE_N_CHAR_LITERAL_METHOD) throw new SQLFeatureNotSupportedException("enquoteNCharLiteral not implemented");
+        long start = enterJdbcMethod();
+        try {
+            return (String) invokeDelegate(ENQUOTE_N_CHAR_LITERAL_METHOD, val);
+        } finally {
+            exitJdbcMethod(Statement.class, "enquoteNCharLiteral", start);
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package io.sniffy.sql;
+
+import io.sniffy.Sniffy;
+import io.sniffy.util.ExceptionUtil;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.sql.Wrapper;
+
+/**
+ * Base class for JDBC objects returned by {@link SniffyDriver} and {@link SniffyDataSource}.
+ * Unlike reflective {@link JdbcInvocationHandler} subclasses it calls the target object directly
+ * so that JIT is able to inline the calls and no argument arrays are allocated
+ *
+ * @since 3.1.14
+ */
+abstract class SniffyWrapper<T extends Wrapper> implements Wrapper {
+
+    protected final T delegate;
+
+    protected final String url;
+    protected final String userName;
+
+    SniffyWrapper(T delegate, String url, String userName) {
+        this.delegate = delegate;
+        this.url = url;
+        this.userName = userName;
+    }
+
+    protected void checkConnectionAllowed() throws SQLException {
+        checkConnectionAllowed(false);
+    }
+
+    protected void checkConnectionAllowed(boolean sleep) throws SQLException {
+        SniffyDriver.checkConnectionAllowed(url, userName, sleep);
+    }
+
+    /**
+     * Checks if connection is allowed and starts tracking the network traffic produced by JDBC method
+     *
+     * @return start time in nanoseconds which should be passed to {@link #exitJdbcMethod(Class, String, long)}
+     */
+    protected final long enterJdbcMethod() throws SQLException {
+        checkConnectionAllowed();
+        long start = System.nanoTime();
+        Sniffy.enterJdbcMethod();
+        return start;
+    }
+
+    protected final void exitJdbcMethod(Class<?> declaringClass, String methodName, long start) {
+        Sniffy.exitJdbcMethod(declaringClass, methodName, System.nanoTime() - start, getClass());
+    }
+
+    /**
+     * Calls given method of the delegate; used for JDBC methods which aren't available in all supported JREs
+     */
+    protected final Object invokeDelegate(Method method, Object... args) throws SQLException {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw ExceptionUtil.throwException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    /**
+     * @return class with given name or null if it isn't available in current JRE
+     */
+    static Class<?> getClassIfAvailable(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return public method with given signature or null if it isn't available in current JRE
+     */
+    static Method getMethodIfAvailable(Class<?> declaringClass, String methodName, Class<?>... parameterTypes) {
+        for (Class<?> parameterType : parameterTypes) {
+            if (null == parameterType) return null;
+        }
+        try {
+            return declaringClass.getMethod(methodName, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public <W> W unwrap(Class<W> iface) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.unwrap(iface);
+        } finally {
+            exitJdbcMethod(Wrapper.class, "unwrap", start);
+        }
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        long start = enterJdbcMethod();
+        try {
+            return delegate.isWrapperFor(iface);
+        } finally {
+            exitJdbcMethod(Wrapper.class, "isWrapperFor", start);
+        }
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        if (this == that) {
+            return true;
+        } else if (that instanceof SniffyWrapper) {
+            return delegate.equals(((SniffyWrapper<?>) that).delegate);
+        } else {
+            // delegate isn't aware of the wrapper, so comparing with it would make equals asymmetric
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+}
@@ -0,0 +1,228 @@
+package io.sniffy.sql;
+
+import java.util.Locale;
+
+/**
+ * Stable representation of SQL query which doesn't depend on literal values, formatting and number of
+ * elements in IN lists; computed in a single pass over the query.
+ * <p>
+ * String and numeric literals as well as named and positional bind parameters are replaced with {@code ?},
+ * {@code IN} lists of such values are collapsed into {@code in (?)}, comments are removed and whitespace is
+ * collapsed into single spaces. Keywords and identifiers are kept as is.
+ *
+ * @see SqlUtil#guessQueryType(String)
+ * @since 3.1.14
+ */
+public final class SqlFingerprint {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Common leading keywords of statements which are returned as a verb without allocating a new string
+     */
+    private static final String[] VERBS = {
+            "select", "insert", "update", "delete", "merge", "upsert", "replace", "values", "table",
+            "call", "exec", "execute",
+            "create", "alter", "drop", "truncate", "rename", "comment", "grant", "revoke",
+            "begin", "start", "commit", "rollback", "savepoint", "release", "set", "show", "explain", "lock"
+    };
+
+    private static final String[] UPPER_CASE_VERBS = new String[VERBS.length];
+
+    static {
+        for (int i = 0; i < VERBS.length; i++) {
+            UPPER_CASE_VERBS[i] = VERBS[i].toUpperCase(Locale.ENGLISH);
+        }
+    }
+
+    private final String fingerprint;
+    private final String verb;
+    private final long hash;
+
+    private SqlFingerprint(String fingerprint, String verb, long hash) {
+        this.fingerprint = fingerprint;
+        this.verb = verb;
+        this.hash = hash;
+    }
+
+    public static SqlFingerprint of(String sql) {
+
+        SqlLexer lexer = new SqlLexer(sql);
+        StringBuilder sb = new StringBuilder(sql.length());
+        VerbDetector verbDetector = new VerbDetector();
+
+        boolean pendingSpace = false;
+        int previousType = SqlLexer.END;
+        int previousEnd = -1;
+        int previousOutputStart = 0;
+
+        int type;
+        while (SqlLexer.END != (type = lexer.next())) {
+
+            if (SqlLexer.WHITESPACE == type) {
+                pendingSpace = sb.length() > 0;
+                previousType = type;
+                continue;
+            }
+
+            if (null == verbDetector.verb) {
+                verbDetector.accept(lexer, type);
+            }
+
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+
+            int outputStart = sb.length();
+
+            if (SqlLexer.WORD == type && lexer.isKeyword("in")) {
+                int inStart = lexer.start();
+                int mark = lexer.mark();
+                if (-1 != SqlUtil.inListEnd(lexer, true, 1)) {
+                    sb.append("in (?)");
+                } else {
+                    lexer.reset(mark);
+                    sb.append(sql, inStart, mark);
+                }
+            } else if (SqlLexer.STRING == type || SqlLexer.NUMBER == type || SqlLexer.PARAMETER == type) {
+                if (SqlLexer.STRING == type && SqlLexer.WORD == previousType && previousEnd == lexer.start() &&
+                        isStringPrefix(sb, previousOutputStart)) {
+                    // national, hexadecimal and escaped string literals like N'text'
+                    sb.setLength(previousOutputStart);
+                    outputStart = previousOutputStart;
+                }
+                sb.append('?');
+            } else {
+                sb.append(sql, lexer.start(), lexer.end());
+            }
+
+            previousType = type;
+            previousEnd = lexer.end();
+            previousOutputStart = outputStart;
+
+        }
+
+        // tokens following unterminated literal are unreliable, so only IN lists are collapsed
+        String fingerprint = lexer.isUnterminated() ? SqlUtil.normalizeInStatement(sql) : sb.toString();
+
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < fingerprint.length(); i++) {
+            hash = (hash ^ fingerprint.charAt(i)) * FNV_PRIME;
+        }
+
+        return new SqlFingerprint(fingerprint, verbDetector.verb, hash);
+    }
+
+    /**
+     * @return leading keyword of the statement in upper case or null if it cannot be determined;
+     * for common table expressions it is the keyword following {@code WITH} clause, e.g. {@code SELECT}
+     */
+    static String guessVerb(String sql) {
+        SqlLexer lexer = new SqlLexer(sql);
+        VerbDetector verbDetector = new VerbDetector();
+        int type;
+        while (SqlLexer.END != (type = lexer.next()) && !verbDetector.accept(lexer, type)) {
+            // keep scanning
+        }
+        return verbDetector.verb;
+    }
+
+    private static boolean isStringPrefix(StringBuilder sb, int outputStart) {
+        if (sb.length() - outputStart != 1) return false;
+        char c = sb.charAt(outputStart);
+        return 'N' == c || 'n' == c || 'X' == c || 'x' == c || 'E' == c || 'e' == c || 'B' == c || 'b' == c;
+    }
+
+    /**
+     * @return normalized query
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return leading keyword of the statement in upper case like {@code SELECT}, {@code CALL} or {@code CREATE};
+     * for common table expressions it is the keyword of the main statement; null if query doesn't start with a keyword
+     */
+    public String getVerb() {
+        return verb;
+    }
+
+    public SqlStatement getSqlStatement() {
+        return SqlUtil.toSqlStatement(verb);
+    }
+
+    /**
+     * @return 64-bit FNV-1a hash of the {@link #getFingerprint() fingerprint}
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        SqlFingerprint that = (SqlFingerprint) o;
+
+        return hash == that.hash && fingerprint.equals(that.fingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return fingerprint;
+    }
+
+    /**
+     * Finds leading keyword of the statement skipping opening parentheses, JDBC escape syntax like
+     * {@code {? = call ...}} and {@code WITH} clause of common table expressions
+     */
+    private static class VerbDetector {
+
+        private String verb;
+        private boolean with;
+        private int depth;
+
+        private boolean accept(SqlLexer lexer, int type) {
+            if (SqlLexer.SYMBOL == type) {
+                if (lexer.isSymbol('(')) {
+                    depth++;
+                } else if (lexer.isSymbol(')')) {
+                    depth--;
+                }
+            } else if (SqlLexer.WORD == type) {
+                if (with) {
+                    if (0 == depth && (lexer.isKeyword("select") || lexer.isKeyword("insert") ||
+                            lexer.isKeyword("update") || lexer.isKeyword("delete") || lexer.isKeyword("merge"))) {
+                        verb = toVerb(lexer);
+                    }
+                } else if (lexer.isKeyword("with")) {
+                    with = true;
+                    depth = 0;
+                } else {
+                    verb = toVerb(lexer);
+                }
+            }
+            return null != verb;
+        }
+
+        private static String toVerb(SqlLexer lexer) {
+            for (int i = 0; i < VERBS.length; i++) {
+                if (lexer.isKeyword(VERBS[i])) {
+                    return UPPER_CASE_VERBS[i];
+                }
+            }
+            return lexer.text().toUpperCase(Locale.ENGLISH);
+        }
+
+    }
+
+}
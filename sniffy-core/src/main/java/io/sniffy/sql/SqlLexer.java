@@ -0,0 +1,248 @@
+package io.sniffy.sql;
+
+/**
+ * Splits SQL query into tokens without allocating any objects; only positions of current token are tracked.
+ * <p>
+ * Comments are returned as {@link #WHITESPACE}; unterminated literals and comments span till the end of query,
+ * callers should check {@link #isUnterminated()} before relying on tokens of such query
+ *
+ * @see SqlUtil
+ * @see SqlFingerprint
+ * @since 3.1.14
+ */
+final class SqlLexer {
+
+    static final int END = 0;
+    static final int WHITESPACE = 1;
+    /**
+     * Keyword or unquoted identifier
+     */
+    static final int WORD = 2;
+    static final int QUOTED_IDENTIFIER = 3;
+    static final int STRING = 4;
+    static final int NUMBER = 5;
+    /**
+     * Bind parameter like {@code ?}, {@code :name} or {@code $1}
+     */
+    static final int PARAMETER = 6;
+    /**
+     * Operator or punctuation
+     */
+    static final int SYMBOL = 7;
+
+    private final String sql;
+    private final int length;
+
+    private int start;
+    private int end;
+
+    private boolean unterminated;
+
+    SqlLexer(String sql) {
+        this.sql = sql;
+        this.length = sql.length();
+    }
+
+    int next() {
+        start = end;
+        if (start >= length) {
+            return END;
+        }
+
+        char c = sql.charAt(start);
+
+        if (Character.isWhitespace(c)) {
+            end = start + 1;
+            while (end < length && Character.isWhitespace(sql.charAt(end))) end++;
+            return WHITESPACE;
+        } else if ('-' == c && charAt(start + 1) == '-') {
+            end = start + 2;
+            while (end < length && sql.charAt(end) != '\n' && sql.charAt(end) != '\r') end++;
+            return WHITESPACE;
+        } else if ('/' == c && charAt(start + 1) == '*') {
+            int commentEnd = sql.indexOf("*/", start + 2);
+            end = -1 == commentEnd ? length : commentEnd + 2;
+            return WHITESPACE;
+        } else if ('\'' == c) {
+            end = quotedEnd(start, '\'');
+            return STRING;
+        } else if ('"' == c) {
+            end = quotedEnd(start, '"');
+            return QUOTED_IDENTIFIER;
+        } else if ('`' == c) {
+            end = quotedEnd(start, '`');
+            return QUOTED_IDENTIFIER;
+        } else if ('[' == c && isWordStart(charAt(start + 1))) {
+            int closing = sql.indexOf(']', start + 1);
+            end = -1 == closing ? unterminated() : closing + 1;
+            return QUOTED_IDENTIFIER;
+        } else if (isDigit(c) && '.' == charAt(start - 1) && isQualifier(charAt(start - 2))) {
+            // part of qualified name like t.1st_column
+            end = start + 1;
+            while (end < length && isWordPart(sql.charAt(end))) end++;
+            return WORD;
+        } else if (isDigit(c) || ('.' == c && isDigit(charAt(start + 1)) && !isQualifier(charAt(start - 1)))) {
+            end = start + 1;
+            while (end < length) {
+                char n = sql.charAt(end);
+                if (isWordPart(n) || '.' == n) {
+                    end++;
+                } else if (('+' == n || '-' == n) && isExponent(sql.charAt(end - 1)) && isDigit(charAt(end + 1))) {
+                    end++;
+                } else {
+                    break;
+                }
+            }
+            return NUMBER;
+        } else if (isWordStart(c)) {
+            end = start + 1;
+            while (end < length && isWordPart(sql.charAt(end))) end++;
+            return WORD;
+        } else if ('?' == c) {
+            end = start + 1;
+            return PARAMETER;
+        } else if (':' == c && isWordStart(charAt(start + 1)) && charAt(start - 1) != ':') {
+            end = start + 2;
+            while (end < length && isWordPart(sql.charAt(end))) end++;
+            return PARAMETER;
+        } else if (':' == c && charAt(start + 1) == ':') {
+            end = start + 2;
+            return SYMBOL;
+        } else if ('$' == c) {
+            return dollar();
+        } else {
+            end = start + 1;
+            return SYMBOL;
+        }
+    }
+
+    int start() {
+        return start;
+    }
+
+    int end() {
+        return end;
+    }
+
+    /**
+     * @return position right after current token to continue tokenizing from after {@link #reset(int)}
+     */
+    int mark() {
+        return end;
+    }
+
+    /**
+     * Current token is undefined after reset till {@link #next()} is called
+     */
+    void reset(int mark) {
+        this.start = mark;
+        this.end = mark;
+    }
+
+    /**
+     * @return true if a literal or quoted identifier without closing quote was found so far
+     */
+    boolean isUnterminated() {
+        return unterminated;
+    }
+
+    String text() {
+        return sql.substring(start, end);
+    }
+
+    boolean isSymbol(char symbol) {
+        return end - start == 1 && sql.charAt(start) == symbol;
+    }
+
+    /**
+     * @param lowerCaseKeyword keyword in lower case
+     * @return true if current token is given keyword ignoring case
+     */
+    boolean isKeyword(String lowerCaseKeyword) {
+        int keywordLength = lowerCaseKeyword.length();
+        if (end - start != keywordLength) return false;
+        for (int i = 0; i < keywordLength; i++) {
+            char c = sql.charAt(start + i);
+            if (c >= 'A' && c <= 'Z') c = (char) (c + ('a' - 'A'));
+            if (c != lowerCaseKeyword.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Handles PostgreSQL positional parameters like {@code $1} and dollar-quoted strings like {@code $tag$text$tag$}
+     */
+    private int dollar() {
+        if (isDigit(charAt(start + 1))) {
+            end = start + 2;
+            while (end < length && isDigit(sql.charAt(end))) end++;
+            return PARAMETER;
+        }
+        int tagEnd = start + 1;
+        while (tagEnd < length && isWordPart(sql.charAt(tagEnd)) && '$' != sql.charAt(tagEnd)) tagEnd++;
+        if (charAt(tagEnd) == '$') {
+            String tag = sql.substring(start, tagEnd + 1);
+            int closing = sql.indexOf(tag, tagEnd + 1);
+            end = -1 == closing ? unterminated() : closing + tag.length();
+            return STRING;
+        }
+        end = start + 1;
+        return SYMBOL;
+    }
+
+    /**
+     * Quote character inside quoted text is escaped by doubling it; backslash escapes the next character of string
+     * literals as in MySQL and PostgreSQL {@code E'...'} strings
+     */
+    private int quotedEnd(int start, char quote) {
+        int position = start + 1;
+        while (position < length) {
+            if ('\\' == sql.charAt(position) && '\'' == quote) {
+                position += 2;
+            } else if (sql.charAt(position) == quote) {
+                if (charAt(position + 1) == quote) {
+                    position += 2;
+                } else {
+                    return position + 1;
+                }
+            } else {
+                position++;
+            }
+        }
+        return unterminated();
+    }
+
+    private int unterminated() {
+        unterminated = true;
+        return length;
+    }
+
+    private char charAt(int position) {
+        return position >= 0 && position < length ? sql.charAt(position) : 0;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return true if given character can end a name followed by {@code .} in qualified name
+     */
+    private static boolean isQualifier(char c) {
+        return isWordPart(c) || '"' == c || '`' == c || ']' == c;
+    }
+
+    private static boolean isExponent(char c) {
+        return 'e' == c || 'E' == c;
+    }
+
+    private static boolean isWordStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || '_' == c || '@' == c || '#' == c ||
+                (c > 127 && Character.isLetter(c));
+    }
+
+    private static boolean isWordPart(char c) {
+        return isWordStart(c) || isDigit(c) || '$' == c || (c > 127 && Character.isLetterOrDigit(c));
+    }
+
+}
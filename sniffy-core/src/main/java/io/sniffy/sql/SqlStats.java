@@ -2,6 +2,7 @@ package io.sniffy.sql;
 
 import io.sniffy.socket.SocketStats;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -18,23 +19,37 @@ public class SqlStats extends SocketStats {
     public final AtomicInteger queries = new AtomicInteger();
 
     public SqlStats(SqlStats that) {
-        this(that.elapsedTime.longValue(), that.bytesDown.longValue(), that.bytesUp.longValue(), that.rows.intValue(), that.queries.intValue());
+        this(that.elapsedTimeNanos.longValue(), TimeUnit.NANOSECONDS, that.bytesDown.longValue(), that.bytesUp.longValue(), that.rows.intValue(), that.queries.intValue());
     }
 
     public SqlStats(long elapsedTime, long bytesDown, long bytesUp, long rows, int queries) {
-        super(elapsedTime, bytesDown, bytesUp);
+        this(elapsedTime, TimeUnit.MILLISECONDS, bytesDown, bytesUp, rows, queries);
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public SqlStats(long elapsedTime, TimeUnit timeUnit, long bytesDown, long bytesUp, long rows, int queries) {
+        super(elapsedTime, timeUnit, bytesDown, bytesUp);
         this.rows.set(rows);
         this.queries.set(queries);
     }
 
     public void accumulate(long elapsedTime, long bytesDown, long bytesUp, long rows, int queries) {
-        super.accumulate(elapsedTime, bytesDown, bytesUp);
+        accumulate(elapsedTime, TimeUnit.MILLISECONDS, bytesDown, bytesUp, rows, queries);
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void accumulate(long elapsedTime, TimeUnit timeUnit, long bytesDown, long bytesUp, long rows, int queries) {
+        super.accumulate(elapsedTime, timeUnit, bytesDown, bytesUp);
         this.rows.addAndGet(rows);
         this.queries.addAndGet(queries);
     }
 
     public void accumulate(SqlStats that) {
-        accumulate(that.elapsedTime.longValue(), that.bytesDown.intValue(), that.bytesUp.intValue(), that.rows.intValue(), that.queries.intValue());
+        accumulate(that.elapsedTimeNanos.longValue(), TimeUnit.NANOSECONDS, that.bytesDown.intValue(), that.bytesUp.intValue(), that.rows.intValue(), that.queries.intValue());
     }
 
 }
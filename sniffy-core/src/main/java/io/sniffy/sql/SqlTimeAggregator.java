@@ -0,0 +1,174 @@
+package io.sniffy.sql;
+
+import com.codahale.metrics.Timer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects SQL query execution times in striped buffers and merges them into timers in batches.
+ * <p>
+ * Application threads only append raw query and its execution time to the buffer of their stripe, so that they
+ * rarely contend with each other. Normalizing SQL and updating timers is done for the whole batch once the buffer
+ * is full or when {@link #flush()} is called; each distinct query is normalized once per batch while timers are
+ * still looked up for every query in the order they were executed
+ *
+ * @see SqlTimer
+ * @since 3.1.14
+ */
+public abstract class SqlTimeAggregator {
+
+    private static final int MAX_STRIPES = 64;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final Stripe[] stripes;
+    private final int batchSize;
+
+    public SqlTimeAggregator() {
+        this(2 * Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param stripes   number of stripes; rounded up to the power of two
+     * @param batchSize number of queries buffered by each stripe before they are merged into timers
+     */
+    public SqlTimeAggregator(int stripes, int batchSize) {
+        int stripesCount = 1;
+        while (stripesCount < Math.min(stripes, MAX_STRIPES)) {
+            stripesCount <<= 1;
+        }
+        this.stripes = new Stripe[stripesCount];
+        for (int i = 0; i < stripesCount; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * @param sql              executed SQL query as is
+     * @param elapsedTimeNanos query execution time in nanoseconds
+     */
+    public void record(String sql, long elapsedTimeNanos) {
+        if (null == sql) return;
+        long timestamp = System.currentTimeMillis();
+        Stripe stripe = stripes[stripeIndex(Thread.currentThread().getId())];
+        Batch fullBatch = null;
+        synchronized (stripe) {
+            Batch batch = stripe.batch;
+            if (null == batch) {
+                stripe.batch = batch = new Batch(batchSize);
+            }
+            batch.add(sql, elapsedTimeNanos, timestamp);
+            if (batch.size == batchSize) {
+                fullBatch = batch;
+                stripe.batch = null;
+            }
+        }
+        if (null != fullBatch) {
+            merge(fullBatch);
+        }
+    }
+
+    /**
+     * Merges all buffered queries into timers; queries buffered by different stripes are merged in the order of
+     * their execution timestamps
+     */
+    public void flush() {
+        List<Batch> batches = new ArrayList<Batch>();
+        for (Stripe stripe : stripes) {
+            Batch batch;
+            synchronized (stripe) {
+                batch = stripe.batch;
+                stripe.batch = null;
+            }
+            if (null != batch) {
+                batches.add(batch);
+            }
+        }
+        merge(batches);
+    }
+
+    /**
+     * @param normalizedSql SQL query as returned by {@link SqlUtil#normalizeInStatement(String)}
+     * @return timer for given query or null if it shouldn't be recorded
+     */
+    protected abstract Timer getTimer(String normalizedSql);
+
+    private void merge(Batch batch) {
+        merge(Collections.singletonList(batch));
+    }
+
+    private void merge(List<Batch> batches) {
+        Map<String, String> normalizedSqls = new HashMap<String, String>();
+        int[] positions = new int[batches.size()];
+        while (true) {
+            int next = -1;
+            for (int i = 0; i < positions.length; i++) {
+                Batch batch = batches.get(i);
+                if (positions[i] < batch.size && (-1 == next ||
+                        batch.timestamps[positions[i]] < batches.get(next).timestamps[positions[next]])) {
+                    next = i;
+                }
+            }
+            if (-1 == next) {
+                break;
+            }
+            Batch batch = batches.get(next);
+            int position = positions[next]++;
+
+            String sql = batch.sqls[position];
+            String normalizedSql = normalizedSqls.get(sql);
+            if (null == normalizedSql) {
+                normalizedSql = SqlUtil.normalizeInStatement(sql);
+                normalizedSqls.put(sql, normalizedSql);
+            }
+
+            // timer is looked up for each query so that recency of LRU maps matches the one of executed queries
+            Timer timer = getTimer(normalizedSql);
+            if (timer instanceof SqlTimer) {
+                ((SqlTimer) timer).update(batch.elapsedTimeNanos[position], batch.timestamps[position]);
+            } else if (null != timer) {
+                timer.update(batch.elapsedTimeNanos[position], TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private int stripeIndex(long threadId) {
+        long hash = threadId * 0x9e3779b97f4a7c15L;
+        return (int) (hash ^ (hash >>> 32)) & (stripes.length - 1);
+    }
+
+    private static class Stripe {
+
+        private Batch batch;
+
+    }
+
+    private static class Batch {
+
+        private final String[] sqls;
+        private final long[] elapsedTimeNanos;
+        private final long[] timestamps;
+
+        private int size;
+
+        private Batch(int capacity) {
+            sqls = new String[capacity];
+            elapsedTimeNanos = new long[capacity];
+            timestamps = new long[capacity];
+        }
+
+        private void add(String sql, long elapsedTimeNanos, long timestamp) {
+            this.sqls[size] = sql;
+            this.elapsedTimeNanos[size] = elapsedTimeNanos;
+            this.timestamps[size] = timestamp;
+            size++;
+        }
+
+    }
+
+}
@@ -0,0 +1,181 @@
+package io.sniffy.sql;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative values with bounded relative error in the spirit of HdrHistogram.
+ * <p>
+ * Values below {@value #SUB_BUCKET_COUNT} are counted exactly; larger values are counted in buckets which are
+ * 1/{@value #SUB_BUCKET_HALF_COUNT} of their magnitude wide, so percentiles are accurate within ~1.6%.
+ * Buckets are allocated lazily by orders of magnitude, hence histogram of typical query times takes a few kilobytes.
+ * <p>
+ * Not thread safe
+ *
+ * @see SqlTimer
+ * @since 3.1.14
+ */
+public class SqlTimeHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+    /**
+     * Row 0 holds values below {@link #SUB_BUCKET_COUNT}; row {@code r > 0} holds values from
+     * {@code SUB_BUCKET_HALF_COUNT << r} inclusive to {@code SUB_BUCKET_COUNT << r} exclusive
+     */
+    private static final int ROWS = 64 - SUB_BUCKET_BITS;
+
+    private final long[][] counts = new long[ROWS][];
+
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private double sum;
+    private double sumOfSquares;
+
+    public SqlTimeHistogram() {
+    }
+
+    public SqlTimeHistogram(SqlTimeHistogram that) {
+        add(that);
+    }
+
+    /**
+     * @param value non-negative value; negative values are ignored
+     */
+    public void recordValue(long value) {
+        if (value < 0) return;
+        int row = row(value);
+        long[] rowCounts = counts[row];
+        if (null == rowCounts) {
+            counts[row] = rowCounts = new long[0 == row ? SUB_BUCKET_COUNT : SUB_BUCKET_HALF_COUNT];
+        }
+        rowCounts[index(value, row)]++;
+        count++;
+        if (value < min) min = value;
+        if (value > max) max = value;
+        sum += value;
+        sumOfSquares += (double) value * value;
+    }
+
+    public void add(SqlTimeHistogram that) {
+        if (0 == that.count) return;
+        for (int row = 0; row < ROWS; row++) {
+            long[] thatRowCounts = that.counts[row];
+            if (null == thatRowCounts) continue;
+            long[] rowCounts = counts[row];
+            if (null == rowCounts) {
+                counts[row] = thatRowCounts.clone();
+            } else {
+                for (int i = 0; i < rowCounts.length; i++) {
+                    rowCounts[i] += thatRowCounts[i];
+                }
+            }
+        }
+        count += that.count;
+        min = Math.min(min, that.min);
+        max = Math.max(max, that.max);
+        sum += that.sum;
+        sumOfSquares += that.sumOfSquares;
+    }
+
+    /**
+     * Removes all values keeping allocated buckets for reuse
+     */
+    public void reset() {
+        for (long[] rowCounts : counts) {
+            if (null != rowCounts) {
+                Arrays.fill(rowCounts, 0);
+            }
+        }
+        count = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+        sum = 0;
+        sumOfSquares = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return 0 == count ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return 0 == count ? 0 : sum / count;
+    }
+
+    public double getStdDev() {
+        if (count <= 1) return 0;
+        double mean = sum / count;
+        return Math.sqrt(Math.max(0, (sumOfSquares - mean * sum) / (count - 1)));
+    }
+
+    /**
+     * @param quantile quantile from 0 to 1
+     * @return highest value equivalent to the value at given quantile within the precision of histogram
+     */
+    public long getValueAtQuantile(double quantile) {
+        if (0 == count) return 0;
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, quantile)) * count));
+        long cumulativeCount = 0;
+        for (int row = 0; row < ROWS; row++) {
+            long[] rowCounts = counts[row];
+            if (null == rowCounts) continue;
+            for (int i = 0; i < rowCounts.length; i++) {
+                cumulativeCount += rowCounts[i];
+                if (cumulativeCount >= rank) {
+                    return Math.max(min, Math.min(max, highestEquivalentValue(row, i)));
+                }
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return highest equivalent values of non-empty buckets in ascending order
+     */
+    public long[] getBucketValues() {
+        int buckets = 0;
+        for (long[] rowCounts : counts) {
+            if (null == rowCounts) continue;
+            for (long rowCount : rowCounts) {
+                if (rowCount > 0) buckets++;
+            }
+        }
+        long[] values = new long[buckets];
+        int position = 0;
+        for (int row = 0; row < ROWS; row++) {
+            long[] rowCounts = counts[row];
+            if (null == rowCounts) continue;
+            for (int i = 0; i < rowCounts.length; i++) {
+                if (rowCounts[i] > 0) {
+                    values[position++] = Math.min(max, highestEquivalentValue(row, i));
+                }
+            }
+        }
+        return values;
+    }
+
+    private static int row(long value) {
+        return value < SUB_BUCKET_COUNT ? 0 : 64 - SUB_BUCKET_BITS - Long.numberOfLeadingZeros(value);
+    }
+
+    private static int index(long value, int row) {
+        return 0 == row ? (int) value : (int) (value >>> row) - SUB_BUCKET_HALF_COUNT;
+    }
+
+    private static long highestEquivalentValue(int row, int index) {
+        if (0 == row) return index;
+        long lowestEquivalentValue = (long) (SUB_BUCKET_HALF_COUNT + index) << row;
+        return lowestEquivalentValue + (1L << row) - 1;
+    }
+
+}
@@ -0,0 +1,230 @@
+package io.sniffy.sql;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Timer} of SQL query execution times backed by {@link SqlTimeHistogram} instead of sampling reservoir,
+ * so that percentiles reflect all executed queries.
+ * <p>
+ * Besides the totals it keeps histograms for the given sliding time windows (say last minute and last hour).
+ * Each window is split into {@value #SLOTS_PER_WINDOW} slots, hence window snapshot covers a period from the window
+ * length up to one slot longer
+ *
+ * @see io.sniffy.Sniffy#getGlobalSqlStats()
+ * @since 3.1.14
+ */
+public class SqlTimer extends Timer {
+
+    private static final int SLOTS_PER_WINDOW = 4;
+
+    private static final Reservoir NOOP_RESERVOIR = new Reservoir() {
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public void update(long value) {
+        }
+
+        @Override
+        public Snapshot getSnapshot() {
+            return new HistogramSnapshot(new SqlTimeHistogram());
+        }
+
+    };
+
+    private final SqlTimeHistogram histogram = new SqlTimeHistogram();
+    private final Window[] windows;
+
+    public SqlTimer(long... windowsMillis) {
+        super(NOOP_RESERVOIR);
+        this.windows = new Window[windowsMillis.length];
+        for (int i = 0; i < windowsMillis.length; i++) {
+            this.windows[i] = new Window(windowsMillis[i]);
+        }
+    }
+
+    @Override
+    public void update(long duration, TimeUnit unit) {
+        update(unit.toNanos(duration), System.currentTimeMillis());
+    }
+
+    /**
+     * @param elapsedTimeNanos query execution time in nanoseconds
+     * @param timestamp        time when query was executed in milliseconds as returned by {@link System#currentTimeMillis()}
+     */
+    public void update(long elapsedTimeNanos, long timestamp) {
+        if (elapsedTimeNanos < 0) return;
+        synchronized (this) {
+            histogram.recordValue(elapsedTimeNanos);
+            for (Window window : windows) {
+                window.recordValue(elapsedTimeNanos, timestamp);
+            }
+        }
+        super.update(elapsedTimeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return snapshot of all recorded query execution times in nanoseconds
+     */
+    @Override
+    public Snapshot getSnapshot() {
+        synchronized (this) {
+            return new HistogramSnapshot(new SqlTimeHistogram(histogram));
+        }
+    }
+
+    /**
+     * @return lengths of time windows in milliseconds
+     */
+    public long[] getWindowsMillis() {
+        long[] windowsMillis = new long[windows.length];
+        for (int i = 0; i < windows.length; i++) {
+            windowsMillis[i] = windows[i].windowMillis;
+        }
+        return windowsMillis;
+    }
+
+    /**
+     * @param windowMillis length of time window as returned by {@link #getWindowsMillis()}
+     * @return snapshot of query execution times in nanoseconds recorded during given time window
+     * or null if there's no such window
+     */
+    public Snapshot getSnapshot(long windowMillis) {
+        return getSnapshot(windowMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * @param timestamp current time in milliseconds as returned by {@link System#currentTimeMillis()}
+     * @return value which changes whenever snapshots of time windows can change even if no queries are recorded
+     */
+    public long getWindowsEpoch(long timestamp) {
+        long epoch = 0;
+        for (Window window : windows) {
+            epoch = 31 * epoch + timestamp / window.slotMillis;
+        }
+        return epoch;
+    }
+
+    Snapshot getSnapshot(long windowMillis, long timestamp) {
+        for (Window window : windows) {
+            if (window.windowMillis == windowMillis) {
+                synchronized (this) {
+                    return new HistogramSnapshot(window.getHistogram(timestamp));
+                }
+            }
+        }
+        return null;
+    }
+
+    private static class Window {
+
+        private final long windowMillis;
+        private final long slotMillis;
+
+        private final SqlTimeHistogram[] slots = new SqlTimeHistogram[SLOTS_PER_WINDOW + 1];
+        private final long[] slotIds = new long[SLOTS_PER_WINDOW + 1];
+
+        private Window(long windowMillis) {
+            this.windowMillis = windowMillis;
+            this.slotMillis = Math.max(1, windowMillis / SLOTS_PER_WINDOW);
+        }
+
+        private void recordValue(long value, long timestamp) {
+            long slotId = timestamp / slotMillis;
+            int index = (int) (slotId % slots.length);
+            SqlTimeHistogram slot = slots[index];
+            if (null == slot) {
+                slots[index] = slot = new SqlTimeHistogram();
+            } else if (slotIds[index] > slotId) {
+                // value is too old; slot has been reused already
+                return;
+            } else if (slotIds[index] < slotId) {
+                slot.reset();
+            }
+            slotIds[index] = slotId;
+            slot.recordValue(value);
+        }
+
+        private SqlTimeHistogram getHistogram(long timestamp) {
+            long slotId = timestamp / slotMillis;
+            SqlTimeHistogram histogram = new SqlTimeHistogram();
+            for (int i = 0; i < slots.length; i++) {
+                if (null != slots[i] && slotIds[i] > slotId - slots.length && slotIds[i] <= slotId) {
+                    histogram.add(slots[i]);
+                }
+            }
+            return histogram;
+        }
+
+    }
+
+    private static class HistogramSnapshot extends Snapshot {
+
+        private final SqlTimeHistogram histogram;
+
+        private HistogramSnapshot(SqlTimeHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            return histogram.getValueAtQuantile(quantile);
+        }
+
+        /**
+         * @return highest values of non-empty histogram buckets; individual values aren't stored
+         */
+        @Override
+        public long[] getValues() {
+            return histogram.getBucketValues();
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, histogram.getCount());
+        }
+
+        @Override
+        public long getMax() {
+            return histogram.getMax();
+        }
+
+        @Override
+        public double getMean() {
+            return histogram.getMean();
+        }
+
+        @Override
+        public long getMin() {
+            return histogram.getMin();
+        }
+
+        @Override
+        public double getStdDev() {
+            return histogram.getStdDev();
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            PrintWriter printWriter = new PrintWriter(output);
+            try {
+                for (long value : getValues()) {
+                    printWriter.printf("%d%n", value);
+                }
+            } finally {
+                printWriter.close();
+            }
+        }
+
+    }
+
+}
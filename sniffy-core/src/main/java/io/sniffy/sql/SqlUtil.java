@@ -7,40 +7,124 @@ import static java.util.regex.Pattern.MULTILINE;
 
 public class SqlUtil {
 
+    /**
+     * @deprecated queries are normalized using {@link SqlLexer} now; this pattern is only used for queries with
+     * unterminated literals which cannot be tokenized reliably
+     */
+    @Deprecated
     public static final Pattern NORMALIZE_IN_STATEMENT_PATTERN = Pattern.compile(
             "\\sin\\s*\\((\\s*\\?\\s*,\\s*)++\\?\\s*\\)", CASE_INSENSITIVE | MULTILINE
     );
 
+    /**
+     * Collapses {@code IN} lists of two or more bind parameters like {@code in (?, ?, ?)} into {@code in (?)}
+     * leaving the rest of query intact; lists inside string literals and comments are ignored.
+     * Queries with unterminated literals are normalized using {@link #NORMALIZE_IN_STATEMENT_PATTERN}
+     *
+     * @return same string instance if query doesn't contain such lists
+     * @see SqlFingerprint
+     */
     public static String normalizeInStatement(String sql) {
-        return null == sql ? null :
-                NORMALIZE_IN_STATEMENT_PATTERN.matcher(sql).replaceAll(" in (?)").intern();
-    }
+        if (null == sql) return null;
 
-    public static SqlStatement guessQueryType(String sql) {
-        // TODO: some queries can start with "WITH" statement
-        // TODO: move to StatementInvocationHandler
-
-        for (int i = 0; i < sql.length(); i++) {
-            if (!Character.isWhitespace(sql.charAt(i))) {
-                String normalized;
-                if (sql.length() > (i + 7)) {
-                    normalized = sql.substring(i, i + 7).toLowerCase();
-                    if ("select ".equals(normalized)) {
-                        return SqlStatement.SELECT;
-                    } else if ("insert ".equals(normalized)) {
-                        return SqlStatement.INSERT;
-                    } else if ("update ".equals(normalized)) {
-                        return SqlStatement.UPDATE;
-                    } else if ("delete ".equals(normalized)) {
-                        return SqlStatement.DELETE;
+        SqlLexer lexer = new SqlLexer(sql);
+        StringBuilder sb = null;
+        int copied = 0;
+
+        int type;
+        while (SqlLexer.END != (type = lexer.next())) {
+            if (SqlLexer.WORD == type && lexer.isKeyword("in") &&
+                    lexer.start() > 0 && Character.isWhitespace(sql.charAt(lexer.start() - 1))) {
+                int inStart = lexer.start();
+                int mark = lexer.mark();
+                int inListEnd = inListEnd(lexer, false, 2);
+                if (-1 == inListEnd) {
+                    lexer.reset(mark);
+                } else {
+                    if (null == sb) {
+                        sb = new StringBuilder(sql.length());
                     }
-                }
-                if (sql.length() > (i + 6) && sql.substring(i, i + 6).equalsIgnoreCase("merge ")) {
-                    return SqlStatement.MERGE;
+                    sb.append(sql, copied, inStart - 1).append(" in (?)");
+                    copied = inListEnd;
                 }
             }
         }
 
-        return SqlStatement.OTHER;
+        if (lexer.isUnterminated()) {
+            return NORMALIZE_IN_STATEMENT_PATTERN.matcher(sql).replaceAll(" in (?)");
+        }
+
+        return null == sb ? sql : sb.append(sql, copied, sql.length()).toString();
     }
+
+    /**
+     * Guesses query type by its leading keyword; common table expressions ({@code WITH ... SELECT}),
+     * queries in parentheses and JDBC escape syntax are supported
+     *
+     * @see SqlFingerprint#getVerb()
+     */
+    public static SqlStatement guessQueryType(String sql) {
+        return null == sql ? SqlStatement.OTHER : toSqlStatement(SqlFingerprint.guessVerb(sql));
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    static SqlStatement toSqlStatement(String verb) {
+        if ("SELECT".equals(verb)) {
+            return SqlStatement.SELECT;
+        } else if ("INSERT".equals(verb)) {
+            return SqlStatement.INSERT;
+        } else if ("UPDATE".equals(verb)) {
+            return SqlStatement.UPDATE;
+        } else if ("DELETE".equals(verb)) {
+            return SqlStatement.DELETE;
+        } else if ("MERGE".equals(verb)) {
+            return SqlStatement.MERGE;
+        } else {
+            return SqlStatement.OTHER;
+        }
+    }
+
+    /**
+     * Parses list of values following {@code IN} keyword which is the current token of given lexer
+     *
+     * @param literals  if true, string and numeric literals and named bind parameters are treated as values;
+     *                  otherwise only {@code ?} is
+     * @param minValues minimum number of values in the list
+     * @return position after closing parenthesis or -1 if there's no list of values
+     * @since 3.1.14
+     */
+    static int inListEnd(SqlLexer lexer, boolean literals, int minValues) {
+        int type = nextNonWhitespace(lexer);
+        if (SqlLexer.SYMBOL != type || !lexer.isSymbol('(')) {
+            return -1;
+        }
+        int values = 0;
+        while (true) {
+            type = nextNonWhitespace(lexer);
+            if (!(SqlLexer.PARAMETER == type && (literals || lexer.isSymbol('?'))) &&
+                    !(literals && (SqlLexer.STRING == type || SqlLexer.NUMBER == type))) {
+                return -1;
+            }
+            values++;
+            type = nextNonWhitespace(lexer);
+            if (SqlLexer.SYMBOL != type) {
+                return -1;
+            } else if (lexer.isSymbol(')')) {
+                return values >= minValues ? lexer.end() : -1;
+            } else if (!lexer.isSymbol(',')) {
+                return -1;
+            }
+        }
+    }
+
+    private static int nextNonWhitespace(SqlLexer lexer) {
+        int type;
+        do {
+            type = lexer.next();
+        } while (SqlLexer.WHITESPACE == type);
+        return type;
+    }
+
 }
@@ -1,6 +1,8 @@
 package io.sniffy.sql;
 
 import io.sniffy.ThreadMetaData;
+import io.sniffy.util.CapturedStackTrace;
+import io.sniffy.util.StackTraceExtractor;
 
 /**
  * Represents an executed query - actual SQL, query type (SELECT, INSERT, e.t.c.) and the calling thread
@@ -12,8 +14,14 @@ public class StatementMetaData {
     public final String sql;
     @Deprecated
     public final SqlStatement query;
+    /**
+     * If statement was created with {@link CapturedStackTrace}, this field is only populated once {@link #getStackTrace()}
+     * is called for the first time and is null before that
+     *
+     * @deprecated use {@link #getStackTrace()} which renders captured stack trace on demand
+     */
     @Deprecated
-    public final String stackTrace;
+    public String stackTrace;
     @Deprecated
     public final long ownerThreadId;
 
@@ -21,6 +29,8 @@ public class StatementMetaData {
 
     private final ThreadMetaData threadMetaData;
 
+    private final CapturedStackTrace capturedStackTrace;
+
 
     private final int hashCode;
 
@@ -29,9 +39,23 @@ public class StatementMetaData {
     }
 
     public StatementMetaData(String sql, SqlStatement query, String stackTrace, ThreadMetaData threadMetaData) {
+        this(sql, query, null == stackTrace ? null : stackTrace.intern(), null, threadMetaData);
+    }
+
+    /**
+     * Captured stack trace is only rendered once {@link #getStackTrace()} is called
+     *
+     * @since 3.1.14
+     */
+    public StatementMetaData(String sql, SqlStatement query, ThreadMetaData threadMetaData, CapturedStackTrace capturedStackTrace) {
+        this(sql, query, null, capturedStackTrace, threadMetaData);
+    }
+
+    private StatementMetaData(String sql, SqlStatement query, String stackTrace, CapturedStackTrace capturedStackTrace, ThreadMetaData threadMetaData) {
         this.sql = null == sql ? null : sql.intern();
         this.query = query;
-        this.stackTrace = null == stackTrace ? null : stackTrace.intern();
+        this.stackTrace = stackTrace;
+        this.capturedStackTrace = capturedStackTrace;
         this.threadMetaData = threadMetaData;
         this.ownerThreadId = threadMetaData.getThreadId();
 
@@ -41,7 +65,7 @@ public class StatementMetaData {
     private int computeHashCode() {
         int result = System.identityHashCode(sql);
         result = 31 * result + query.hashCode();
-        result = 31 * result + System.identityHashCode(stackTrace);
+        result = 31 * result + (null == capturedStackTrace ? System.identityHashCode(stackTrace) : capturedStackTrace.hashCode());
         result = 31 * result + threadMetaData.hashCode();
         return result;
     }
@@ -57,6 +81,10 @@ public class StatementMetaData {
         //noinspection StringEquality
         if (sql != that.sql) return false;
         if (query != that.query) return false;
+        if (null != capturedStackTrace || null != that.capturedStackTrace) {
+            // stackTrace field of captured stack traces is populated lazily
+            return null != capturedStackTrace && capturedStackTrace.equals(that.capturedStackTrace);
+        }
         //noinspection StringEquality
         return stackTrace == that.stackTrace;
 
@@ -70,4 +98,27 @@ public class StatementMetaData {
     public ThreadMetaData getThreadMetaData() {
         return threadMetaData;
     }
+
+    /**
+     * @return stack trace of the statement or null if it wasn't captured
+     * @since 3.1.14
+     */
+    public String getStackTrace() {
+        String stackTrace = this.stackTrace;
+        if (null == stackTrace && null != capturedStackTrace) {
+            // keep deprecated field populated for existing readers
+            this.stackTrace = stackTrace = StackTraceExtractor.renderStackTrace(capturedStackTrace);
+        }
+        return stackTrace;
+    }
+
+    /**
+     * @return stack trace of the statement if it was captured with {@link CapturedStackTrace} or null otherwise;
+     * unlike {@link #getStackTrace()} it doesn't render the stack trace
+     * @since 3.1.14
+     */
+    public CapturedStackTrace getCapturedStackTrace() {
+        return capturedStackTrace;
+    }
+
 }
@@ -0,0 +1,120 @@
+package io.sniffy.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stack trace stored as a sequence of frame ids from {@link StackFrameTable}.
+ * It is cheap to compare and hash; string representation is only built when requested.
+ * Stack traces captured with different tables are equal if they consist of equal frames
+ *
+ * @since 3.1.14
+ */
+public final class CapturedStackTrace {
+
+    private final StackFrameTable stackFrameTable;
+    private final int[] frameIds;
+    private final int hashCode;
+
+    /**
+     * @param frameIds ids of frames in given {@link StackFrameTable}
+     */
+    public CapturedStackTrace(StackFrameTable stackFrameTable, int[] frameIds) {
+        this.stackFrameTable = stackFrameTable;
+        this.frameIds = frameIds;
+        this.hashCode = computeHashCode();
+    }
+
+    /**
+     * Hash code depends on frames rather than on their ids so that it's consistent across frame tables
+     */
+    private int computeHashCode() {
+        int result = 1;
+        for (int frameId : frameIds) {
+            result = 31 * result + stackFrameTable.getFrame(frameId).hashCode();
+        }
+        return result;
+    }
+
+    public static CapturedStackTrace of(List<StackTraceElement> stackTraceElements) {
+        StackFrameTable stackFrameTable = StackFrameTable.current();
+        CapturedStackTrace capturedStackTrace = of(stackFrameTable, stackTraceElements);
+        if (null == capturedStackTrace) {
+            // table is full - start over with a new one
+            capturedStackTrace = of(StackFrameTable.retire(stackFrameTable), stackTraceElements);
+        }
+        if (null == capturedStackTrace) {
+            // new table was filled concurrently already; don't share frames with other stack traces
+            capturedStackTrace = of(new StackFrameTable(stackTraceElements.size()), stackTraceElements);
+        }
+        return capturedStackTrace;
+    }
+
+    /**
+     * @return captured stack trace or null if given table is full
+     */
+    private static CapturedStackTrace of(StackFrameTable stackFrameTable, List<StackTraceElement> stackTraceElements) {
+        int[] frameIds = new int[stackTraceElements.size()];
+        int i = 0;
+        for (StackTraceElement stackTraceElement : stackTraceElements) {
+            int frameId = stackFrameTable.intern(stackTraceElement);
+            if (-1 == frameId) {
+                return null;
+            }
+            frameIds[i++] = frameId;
+        }
+        return new CapturedStackTrace(stackFrameTable, frameIds);
+    }
+
+    public int size() {
+        return frameIds.length;
+    }
+
+    public StackTraceElement getFrame(int index) {
+        return stackFrameTable.getFrame(frameIds[index]);
+    }
+
+    public List<StackTraceElement> getFrames() {
+        List<StackTraceElement> frames = new ArrayList<StackTraceElement>(frameIds.length);
+        for (int frameId : frameIds) {
+            frames.add(stackFrameTable.getFrame(frameId));
+        }
+        return frames;
+    }
+
+    /**
+     * @return stack trace rendered in the same format as {@link StackTraceExtractor#printStackTrace(List)}
+     */
+    public String render() {
+        return StackTraceExtractor.printStackTrace(getFrames());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CapturedStackTrace that = (CapturedStackTrace) o;
+
+        if (hashCode != that.hashCode) return false;
+        if (stackFrameTable == that.stackFrameTable) return Arrays.equals(frameIds, that.frameIds);
+
+        if (frameIds.length != that.frameIds.length) return false;
+        for (int i = 0; i < frameIds.length; i++) {
+            if (!getFrame(i).equals(that.getFrame(i))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+
+}
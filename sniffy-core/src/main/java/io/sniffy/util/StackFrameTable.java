@@ -0,0 +1,89 @@
+package io.sniffy.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Deduplicated table of stack frames shared by captured stack traces.
+ * Each distinct {@link StackTraceElement} is stored once and referenced by an int id afterwards.
+ * <p>
+ * Table has a fixed capacity; once it is full, {@link #current()} table is replaced with a new one. Previous table is
+ * only referenced by {@link CapturedStackTrace} instances created with it and is garbage collected together with them,
+ * so frames of unloaded classes and of rarely seen stack traces aren't retained forever
+ *
+ * @since 3.1.14
+ */
+public final class StackFrameTable {
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static volatile StackFrameTable current = new StackFrameTable(DEFAULT_CAPACITY);
+
+    private final ConcurrentMap<StackTraceElement, Integer> frameIds = new ConcurrentHashMap<StackTraceElement, Integer>();
+    private final int capacity;
+
+    private volatile StackTraceElement[] frames;
+    private int size;
+
+    StackFrameTable(int capacity) {
+        this.capacity = capacity;
+        this.frames = new StackTraceElement[Math.min(1024, capacity)];
+    }
+
+    /**
+     * @return table which should be used for new stack traces
+     */
+    public static StackFrameTable current() {
+        return current;
+    }
+
+    /**
+     * Replaces given table with a new one unless it was replaced already
+     *
+     * @return table which should be used for new stack traces
+     */
+    static synchronized StackFrameTable retire(StackFrameTable table) {
+        if (current == table) {
+            current = new StackFrameTable(table.capacity);
+        }
+        return current;
+    }
+
+    /**
+     * @return id of given frame or -1 if table is full
+     */
+    public int intern(StackTraceElement frame) {
+        Integer frameId = frameIds.get(frame);
+        if (null == frameId) {
+            synchronized (this) {
+                frameId = frameIds.get(frame);
+                if (null == frameId) {
+                    if (size == capacity) {
+                        return -1;
+                    }
+                    StackTraceElement[] frames = this.frames;
+                    if (size == frames.length) {
+                        StackTraceElement[] newFrames = new StackTraceElement[Math.min(frames.length * 2, capacity)];
+                        System.arraycopy(frames, 0, newFrames, 0, frames.length);
+                        frames = newFrames;
+                    }
+                    frameId = size;
+                    frames[size++] = frame;
+                    // publish new frame before making its id visible
+                    this.frames = frames;
+                    frameIds.put(frame, frameId);
+                }
+            }
+        }
+        return frameId;
+    }
+
+    public StackTraceElement getFrame(int frameId) {
+        return frames[frameId];
+    }
+
+    public int size() {
+        return frameIds.size();
+    }
+
+}
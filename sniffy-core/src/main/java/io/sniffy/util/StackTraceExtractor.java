@@ -1,13 +1,32 @@
 package io.sniffy.util;
 
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
 import java.lang.reflect.Method;
 import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class StackTraceExtractor {
-    
+
+    /**
+     * Rendered and interned representations of recently seen stack traces
+     *
+     * @since 3.1.14
+     */
+    private static final ConcurrentMap<CapturedStackTrace, String> RENDERED_STACK_TRACES =
+            new ConcurrentLinkedHashMap.Builder<CapturedStackTrace, String>().
+                    maximumWeightedCapacity(4096).
+                    build();
+
+    private static final boolean STACK_WALKER_AVAILABLE = JVMUtil.getVersion() >= 9;
+
     private StackTraceExtractor() {
     }
 
@@ -106,25 +125,70 @@ public class StackTraceExtractor {
         }
     }
 
-    // TODO: refactor this method
+    /**
+     * Same as {@link #getTraceForImplementingMethod(Method, Method)} but doesn't require reflective {@link Method} instances.
+     * Frame of method with given name declared in {@code implClass} or any of its superclasses is replaced with
+     * the frame of the method declared in {@code declaringClass}
+     *
+     * @since 3.1.14
+     */
+    public static List<StackTraceElement> getTraceForImplementingMethod(Class<?> declaringClass, String methodName, Class<?> implClass) {
+        StackTraceElement[] stackTraceElements = Thread.currentThread().getStackTrace();
+
+        // skip all elements until impl call
+        int startIndex = 0;
+        StackTraceElement baseMethodTrace = null;
+        for (int i = 0; i < stackTraceElements.length; i++) {
+            StackTraceElement traceElement = stackTraceElements[i];
+            if (isImplementingMethodFrame(traceElement.getClassName(), traceElement.getMethodName(), methodName, implClass)) {
+                baseMethodTrace = createTraceElement(declaringClass, methodName, traceElement);
+                startIndex = i + 1;
+                break;
+            }
+        }
+        if (startIndex == 0) {
+            // no wrapper, return entire collection
+            return Arrays.asList(stackTraceElements);
+        } else {
+            return replaceStackTraceElements(stackTraceElements, startIndex, baseMethodTrace);
+        }
+    }
+
+    /**
+     * Same as {@link #getTraceForImplementingMethod(Class, String, Class)} but returns frame ids instead of
+     * {@link StackTraceElement} list. Uses {@code StackWalker} on Java 9+ so that frames on top of the implementing
+     * method are skipped by their class and method names without materializing them
+     *
+     * @since 3.1.14
+     */
+    public static CapturedStackTrace captureTraceForImplementingMethod(Class<?> declaringClass, String methodName, Class<?> implClass) {
+        if (STACK_WALKER_AVAILABLE) {
+            CapturedStackTrace capturedStackTrace =
+                    StackWalkerImplementingMethodCollector.captureTraceForImplementingMethod(declaringClass, methodName, implClass);
+            if (null != capturedStackTrace) {
+                return capturedStackTrace;
+            }
+        }
+        return CapturedStackTrace.of(getTraceForImplementingMethod(declaringClass, methodName, implClass));
+    }
+
+    private static boolean isImplementingMethodFrame(String className, String frameMethodName, String methodName, Class<?> implClass) {
+        if (frameMethodName.equals(methodName)) {
+            for (Class<?> clazz = implClass; null != clazz && Object.class != clazz; clazz = clazz.getSuperclass()) {
+                if (className.equals(clazz.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     public static List<StackTraceElement> getTraceTillPackage(String packageName) {
         StackTraceElement[] stackTraceElements = Thread.currentThread().getStackTrace();
         // skip all elements until proxied call
         int startIndex = 0;
         for (int i = 1; i < stackTraceElements.length; i++) {
-            StackTraceElement traceElement = stackTraceElements[i];
-            String traceElementClassName = traceElement.getClassName();
-            if (!traceElementClassName.startsWith(packageName) &&
-                    !traceElementClassName.startsWith("java") &&
-                    !traceElementClassName.startsWith("com.sun") &&
-                    !traceElementClassName.startsWith("sun") &&
-                    !"io.sniffy.Sniffy".equals(traceElementClassName) &&
-                    !"io.sniffy.socket.SnifferSocketImpl".equals(traceElementClassName) &&
-                    !"io.sniffy.socket.CompatSnifferSocketImpl".equals(traceElementClassName) &&
-                    !"io.sniffy.socket.SnifferInputStream".equals(traceElementClassName) &&
-                    !"io.sniffy.socket.SnifferOutputStream".equals(traceElementClassName) &&
-                    !"io.sniffy.util.StackTraceExtractor".equals(traceElementClassName)
-                    ) {
+            if (!isSkippedFrame(stackTraceElements[i].getClassName(), packageName)) {
                 startIndex = i > 1 ? i - 1 : i;
                 break;
             }
@@ -138,6 +202,68 @@ public class StackTraceExtractor {
         }
     }
 
+    private static boolean isSkippedFrame(String className, String packageName) {
+        return className.startsWith(packageName) ||
+                className.startsWith("java") ||
+                className.startsWith("jdk.") ||
+                className.startsWith("com.sun") ||
+                className.startsWith("sun") ||
+                "io.sniffy.Sniffy".equals(className) ||
+                "io.sniffy.socket.SnifferSocketImpl".equals(className) ||
+                "io.sniffy.socket.CompatSnifferSocketImpl".equals(className) ||
+                "io.sniffy.socket.SnifferInputStream".equals(className) ||
+                "io.sniffy.socket.SnifferOutputStream".equals(className) ||
+                className.startsWith("io.sniffy.util.StackTraceExtractor");
+    }
+
+    /**
+     * Same as {@link #getTraceTillPackage(String)} but returns frame ids instead of {@link StackTraceElement} list.
+     * Uses {@code StackWalker} on Java 9+ so that Sniffy and JDK frames on top of the stack are skipped without
+     * materializing them
+     *
+     * @since 3.1.14
+     */
+    public static CapturedStackTrace captureTraceTillPackage(String packageName) {
+        if (STACK_WALKER_AVAILABLE) {
+            CapturedStackTrace capturedStackTrace = StackWalkerFrameCollector.captureTraceTillPackage(packageName);
+            if (null != capturedStackTrace) {
+                return capturedStackTrace;
+            }
+        }
+        return CapturedStackTrace.of(getTraceTillPackage(packageName));
+    }
+
+    /**
+     * Equivalent of {@code printStackTrace(getTraceTillPackage(packageName))} which renders each distinct stack trace only once
+     *
+     * @since 3.1.14
+     */
+    public static String getTraceTillPackageAsString(String packageName) {
+        return renderStackTrace(captureTraceTillPackage(packageName));
+    }
+
+    /**
+     * Equivalent of {@code printStackTrace(getTraceForProxiedMethod(method))} which renders each distinct stack trace only once
+     *
+     * @since 3.1.14
+     */
+    public static String getTraceForProxiedMethodAsString(Method method) throws ClassNotFoundException {
+        return renderStackTrace(CapturedStackTrace.of(getTraceForProxiedMethod(method)));
+    }
+
+    /**
+     * @return interned string representation of given stack trace; it is rendered only once for recently seen stack traces
+     * @since 3.1.14
+     */
+    public static String renderStackTrace(CapturedStackTrace capturedStackTrace) {
+        String stackTrace = RENDERED_STACK_TRACES.get(capturedStackTrace);
+        if (null == stackTrace) {
+            stackTrace = capturedStackTrace.render().intern();
+            RENDERED_STACK_TRACES.put(capturedStackTrace, stackTrace);
+        }
+        return stackTrace;
+    }
+
     public static String printStackTrace(List<StackTraceElement> stackTraceElements) {
         if (stackTraceElements == null) {
             return "";
@@ -155,9 +281,13 @@ public class StackTraceExtractor {
     }
 
     private static StackTraceElement createTraceElement(Method method, StackTraceElement baseTraceElement) {
+        return createTraceElement(method.getDeclaringClass(), method.getName(), baseTraceElement);
+    }
+
+    private static StackTraceElement createTraceElement(Class<?> declaringClass, String methodName, StackTraceElement baseTraceElement) {
         return new StackTraceElement(
-                method.getDeclaringClass().getCanonicalName(),
-                method.getName(),
+                declaringClass.getCanonicalName(),
+                methodName,
                 baseTraceElement.getFileName(),
                 baseTraceElement.getLineNumber());
     }
@@ -166,26 +296,259 @@ public class StackTraceExtractor {
      * @since 3.1.7
      */
     public static boolean hasClassInStackTrace(String className) {
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        for (StackTraceElement ste : stackTrace) {
-            if (ste.getClassName().startsWith(className)) {
+        return hasClassAndMethodInStackTrace(className, "");
+    }
+
+    /**
+     * Stops walking the stack as soon as matching frame is found
+     *
+     * @since 3.1.7
+     */
+    public static boolean hasClassAndMethodInStackTrace(final String className, final String methodName) {
+        final boolean[] found = new boolean[1];
+        //noinspection Convert2Lambda
+        walkStackTrace(new StackFrameVisitor() {
+            @Override
+            public boolean visitFrame(String frameClassName, String frameMethodName) {
+                if (frameClassName.startsWith(className) && frameMethodName.startsWith(methodName)) {
+                    found[0] = true;
+                    return false;
+                }
                 return true;
             }
-        }
-        return false;
+        });
+        return found[0];
     }
 
     /**
-     * @since 3.1.7
+     * Callback for {@link #walkStackTrace(StackFrameVisitor)}
+     *
+     * @since 3.1.14
+     */
+    public interface StackFrameVisitor {
+
+        /**
+         * @return false in order to stop walking the stack
+         */
+        boolean visitFrame(String className, String methodName);
+
+    }
+
+    /**
+     * Visits frames of current thread starting from the top of the stack till visitor returns false.
+     * Uses {@code StackWalker} on Java 9+ so that frames below the last visited one are not even materialized
+     *
+     * @since 3.1.14
      */
-    public static boolean hasClassAndMethodInStackTrace(String className, String methodName) {
+    public static void walkStackTrace(StackFrameVisitor visitor) {
+        if (STACK_WALKER_AVAILABLE) {
+            StackWalkerFrameVisitor.walk(visitor);
+            return;
+        }
         StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
         for (StackTraceElement ste : stackTrace) {
-            if (ste.getClassName().startsWith(className) && ste.getMethodName().startsWith(methodName)) {
-                return true;
+            if (!visitor.visitFrame(ste.getClassName(), ste.getMethodName())) {
+                return;
             }
         }
-        return false;
+    }
+
+    /**
+     * Base class for collectors of frame ids using {@code java.lang.StackWalker} available since Java 9; only loaded if it is available.
+     * On JDK 8 Sniffy core is compiled against the {@code StackWalker} stub from {@code src/main/java-compat}
+     */
+    @IgnoreJRERequirement
+    private abstract static class StackWalkerFrameIdsCollector implements Function<Stream<StackWalker.StackFrame>, int[]> {
+
+        /**
+         * Reflection frames are shown in order to be consistent with {@link Thread#getStackTrace()}
+         */
+        protected static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.SHOW_REFLECT_FRAMES);
+
+        protected final StackFrameTable stackFrameTable;
+
+        protected StackWalkerFrameIdsCollector(StackFrameTable stackFrameTable) {
+            this.stackFrameTable = stackFrameTable;
+        }
+
+        /**
+         * Interns given pending frame and all remaining frames but the last one in order to be consistent with
+         * {@link #getTraceTillPackage(String)} and {@link #getTraceForImplementingMethod(Class, String, Class)};
+         * each frame is converted only once the next one is known to exist
+         *
+         * @param frameIds ids of already interned frames
+         * @param size number of already interned frames
+         * @param pendingFrame frame following already interned ones or null if it should be taken from iterator
+         * @return frame ids or null if there're no frames or frame table is full
+         */
+        protected int[] collectFramesButLast(int[] frameIds, int size, StackWalker.StackFrame pendingFrame, Iterator<StackWalker.StackFrame> iterator) {
+            while (iterator.hasNext()) {
+                StackWalker.StackFrame frame = iterator.next();
+                if (null != pendingFrame) {
+                    if (size == frameIds.length) {
+                        frameIds = Arrays.copyOf(frameIds, size * 2);
+                    }
+                    if (-1 == (frameIds[size++] = intern(pendingFrame.toStackTraceElement()))) {
+                        return null;
+                    }
+                }
+                pendingFrame = frame;
+            }
+            return 0 == size ? null : Arrays.copyOf(frameIds, size);
+        }
+
+        /**
+         * @return frame id or -1 if frame table is full; in the latter case table is replaced with a new one
+         */
+        protected int intern(StackTraceElement frame) {
+            int frameId = stackFrameTable.intern(frame);
+            if (-1 == frameId) {
+                StackFrameTable.retire(stackFrameTable);
+            }
+            return frameId;
+        }
+
+    }
+
+    /**
+     * Collects frames below the ones from skipped packages
+     */
+    @IgnoreJRERequirement
+    private static class StackWalkerFrameCollector extends StackWalkerFrameIdsCollector {
+
+        private final String packageName;
+
+        private StackWalkerFrameCollector(String packageName, StackFrameTable stackFrameTable) {
+            super(stackFrameTable);
+            this.packageName = packageName;
+        }
+
+        /**
+         * @return captured stack trace or null if there're no frames outside of skipped packages or frame table is full
+         */
+        private static CapturedStackTrace captureTraceTillPackage(String packageName) {
+            StackFrameTable stackFrameTable = StackFrameTable.current();
+            int[] frameIds = STACK_WALKER.walk(new StackWalkerFrameCollector(packageName, stackFrameTable));
+            return null == frameIds ? null : new CapturedStackTrace(stackFrameTable, frameIds);
+        }
+
+        /**
+         * Only class names of skipped frames on top of the stack are inspected; frames are converted to
+         * {@link StackTraceElement} starting from the last skipped one. Walk is stopped as soon as frame table is full
+         *
+         * @return frame ids or null if there're no frames outside of skipped packages or frame table is full
+         */
+        @Override
+        public int[] apply(Stream<StackWalker.StackFrame> frames) {
+            Iterator<StackWalker.StackFrame> iterator = frames.iterator();
+
+            StackWalker.StackFrame lastSkippedFrame = null;
+            StackWalker.StackFrame pendingFrame = null;
+            while (iterator.hasNext()) {
+                StackWalker.StackFrame frame = iterator.next();
+                if (!isSkippedFrame(frame.getClassName(), packageName)) {
+                    pendingFrame = frame;
+                    break;
+                }
+                lastSkippedFrame = frame;
+            }
+            if (null == pendingFrame) {
+                return null;
+            }
+
+            int[] frameIds = new int[64];
+            int size = 0;
+            // last skipped frame is kept in order to be consistent with getTraceTillPackage
+            if (null != lastSkippedFrame) {
+                if (-1 == (frameIds[size++] = intern(lastSkippedFrame.toStackTraceElement()))) {
+                    return null;
+                }
+            }
+            return collectFramesButLast(frameIds, size, pendingFrame, iterator);
+        }
+
+    }
+
+    /**
+     * Collects frames starting from the implementing method which is replaced with the frame of declaring class
+     */
+    @IgnoreJRERequirement
+    private static class StackWalkerImplementingMethodCollector extends StackWalkerFrameIdsCollector {
+
+        private final Class<?> declaringClass;
+        private final String methodName;
+        private final Class<?> implClass;
+
+        private StackWalkerImplementingMethodCollector(Class<?> declaringClass, String methodName, Class<?> implClass, StackFrameTable stackFrameTable) {
+            super(stackFrameTable);
+            this.declaringClass = declaringClass;
+            this.methodName = methodName;
+            this.implClass = implClass;
+        }
+
+        /**
+         * @return captured stack trace or null if implementing method isn't on the stack or frame table is full
+         */
+        private static CapturedStackTrace captureTraceForImplementingMethod(Class<?> declaringClass, String methodName, Class<?> implClass) {
+            StackFrameTable stackFrameTable = StackFrameTable.current();
+            int[] frameIds = STACK_WALKER.walk(
+                    new StackWalkerImplementingMethodCollector(declaringClass, methodName, implClass, stackFrameTable)
+            );
+            return null == frameIds ? null : new CapturedStackTrace(stackFrameTable, frameIds);
+        }
+
+        /**
+         * Only class and method names of frames on top of the implementing method are inspected
+         *
+         * @return frame ids or null if implementing method isn't on the stack or frame table is full
+         */
+        @Override
+        public int[] apply(Stream<StackWalker.StackFrame> frames) {
+            Iterator<StackWalker.StackFrame> iterator = frames.iterator();
+            while (iterator.hasNext()) {
+                StackWalker.StackFrame frame = iterator.next();
+                if (isImplementingMethodFrame(frame.getClassName(), frame.getMethodName(), methodName, implClass)) {
+                    int[] frameIds = new int[64];
+                    if (-1 == (frameIds[0] = intern(createTraceElement(declaringClass, methodName, frame.toStackTraceElement())))) {
+                        return null;
+                    }
+                    return collectFramesButLast(frameIds, 1, null, iterator);
+                }
+            }
+            return null;
+        }
+
+    }
+
+    /**
+     * Passes {@code java.lang.StackWalker} frames to {@link StackFrameVisitor} and stops the walk as soon as visitor
+     * returns false
+     */
+    @IgnoreJRERequirement
+    private static class StackWalkerFrameVisitor implements Function<Stream<StackWalker.StackFrame>, Void> {
+
+        private final StackFrameVisitor visitor;
+
+        private StackWalkerFrameVisitor(StackFrameVisitor visitor) {
+            this.visitor = visitor;
+        }
+
+        private static void walk(StackFrameVisitor visitor) {
+            StackWalker.getInstance().walk(new StackWalkerFrameVisitor(visitor));
+        }
+
+        @Override
+        public Void apply(Stream<StackWalker.StackFrame> frames) {
+            Iterator<StackWalker.StackFrame> iterator = frames.iterator();
+            while (iterator.hasNext()) {
+                StackWalker.StackFrame frame = iterator.next();
+                if (!visitor.visitFrame(frame.getClassName(), frame.getMethodName())) {
+                    break;
+                }
+            }
+            return null;
+        }
+
     }
 
 }
@@ -2,6 +2,7 @@ package io.sniffy.util;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.util.concurrent.TimeUnit;
 
 public class StringUtil {
 
@@ -78,4 +79,27 @@ public class StringUtil {
         return URLDecoder.decode(URLDecoder.decode(string, "UTF-8"), "UTF-8");
     }
 
+    /**
+     * Formats given duration as milliseconds with microsecond precision; trailing zeros in fraction are omitted
+     *
+     * @since 3.1.14
+     */
+    public static String formatMillis(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        long millis = micros / 1000;
+        int fraction = (int) Math.abs(micros % 1000);
+        if (0 == fraction) {
+            return Long.toString(millis);
+        }
+        StringBuilder sb = new StringBuilder(24);
+        if (millis == 0 && micros < 0) {
+            sb.append('-');
+        }
+        sb.append(millis).append('.');
+        if (fraction < 100) sb.append('0');
+        if (fraction < 10) sb.append('0');
+        while (fraction % 10 == 0) fraction /= 10;
+        return sb.append(fraction).toString();
+    }
+
 }
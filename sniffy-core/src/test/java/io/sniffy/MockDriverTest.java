@@ -1,9 +1,9 @@
 package io.sniffy;
 
+import io.sniffy.sql.SniffyConnection;
 import org.junit.Test;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Proxy;
 import java.sql.*;
 import java.util.Enumeration;
 import java.util.Properties;
@@ -33,7 +33,7 @@ public class MockDriverTest extends BaseTest {
     public void testGetMockConnection() throws ClassNotFoundException, SQLException {
         try (Connection connection = DriverManager.getConnection("sniffer:jdbc:h2:mem:", "sa", "sa")) {
             assertNotNull(connection);
-            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertTrue(connection instanceof SniffyConnection);
         }
     }
 
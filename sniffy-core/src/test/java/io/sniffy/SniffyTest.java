@@ -19,8 +19,7 @@ public class SniffyTest extends BaseTest {
 
     @Before
     public void clearSpies() {
-        Sniffy.registeredSpies.clear();
-        Sniffy.currentThreadSpies.clear();
+        Sniffy.clearSpies();
     }
 
     @Test
@@ -45,6 +44,54 @@ public class SniffyTest extends BaseTest {
         }
     }
 
+    @Test
+    public void testEffectiveSpyConfigurationIsCachedUntilSpiesChange() throws Exception {
+        SpyConfiguration noSpiesConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        assertFalse(noSpiesConfiguration.isCaptureJdbc());
+        assertSame(noSpiesConfiguration, Sniffy.getEffectiveSpyConfiguration());
+
+        try (@SuppressWarnings("unused") Spy spy = Sniffy.spy(SpyConfiguration.builder().captureJdbc(true).captureNetwork(false).build())) {
+            SpyConfiguration globalSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+            assertTrue(globalSpyConfiguration.isCaptureJdbc());
+            assertFalse(globalSpyConfiguration.isCaptureNetwork());
+            assertSame(globalSpyConfiguration, Sniffy.getEffectiveSpyConfiguration());
+
+            try (@SuppressWarnings("unused") CurrentThreadSpy currentThreadSpy = new CurrentThreadSpy(
+                    SpyConfiguration.builder().captureJdbc(false).captureNetwork(true).build())
+            ) {
+                SpyConfiguration currentThreadConfiguration = Sniffy.getEffectiveSpyConfiguration();
+                assertTrue(currentThreadConfiguration.isCaptureJdbc());
+                assertTrue(currentThreadConfiguration.isCaptureNetwork());
+                assertSame(currentThreadConfiguration, Sniffy.getEffectiveSpyConfiguration());
+
+                AtomicBoolean otherThreadCapturesNetwork = new AtomicBoolean(true);
+                Thread thread = new Thread(() -> otherThreadCapturesNetwork.set(Sniffy.getEffectiveSpyConfiguration().isCaptureNetwork()));
+                thread.start();
+                thread.join();
+                assertFalse(otherThreadCapturesNetwork.get());
+            }
+
+            assertFalse(Sniffy.getEffectiveSpyConfiguration().isCaptureNetwork());
+            // thread local spies don't republish the snapshot of global spies
+            assertSame(globalSpyConfiguration, Sniffy.getEffectiveSpyConfiguration());
+        }
+
+        assertFalse(Sniffy.getEffectiveSpyConfiguration().isCaptureJdbc());
+    }
+
+    @Test
+    public void testAsyncEventProcessing() throws Exception {
+        SniffyConfiguration.INSTANCE.setAsyncEventProcessing(true);
+        try (Spy<?> spy = Sniffy.spy(); CurrentThreadSpy currentThreadSpy = Sniffy.spyCurrentThread()) {
+            executeStatements(2);
+            executeStatementsInOtherThread(3);
+            assertEquals(5, spy.executedStatements(Threads.ANY));
+            assertEquals(2, currentThreadSpy.executedStatements());
+        } finally {
+            SniffyConfiguration.INSTANCE.setAsyncEventProcessing(false);
+        }
+    }
+
     @Test
     public void testCurrentThreadSpy() throws Exception {
         CurrentThreadSpy spy = Sniffy.spyCurrentThread();
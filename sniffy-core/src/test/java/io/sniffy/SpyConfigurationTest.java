@@ -0,0 +1,52 @@
+package io.sniffy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpyConfigurationTest {
+
+    @Test
+    public void testOrKeepsCaptureNetwork() {
+
+        // captureNetworkTraffic() sets captureNetwork flag as well hence it goes first
+        SpyConfiguration captureNetwork = SpyConfiguration.builder().
+                captureNetworkTraffic(false).
+                captureNetwork(true).
+                build();
+        SpyConfiguration captureNothing = SpyConfiguration.builder().
+                captureNetworkTraffic(false).
+                build();
+
+        assertTrue(captureNetwork.isCaptureNetwork());
+        assertFalse(captureNothing.isCaptureNetwork());
+
+        SpyConfiguration combined = SpyConfiguration.builder().
+                captureNetworkTraffic(false).
+                or(captureNetwork).
+                or(captureNothing).
+                build();
+
+        assertTrue(combined.isCaptureNetwork());
+        assertFalse(combined.isCaptureNetworkTraffic());
+
+    }
+
+    @Test
+    public void testOrWithCaptureNetworkTrafficEnablesCaptureNetwork() {
+
+        SpyConfiguration captureNetworkTraffic = SpyConfiguration.builder().
+                captureNetworkTraffic(true).
+                build();
+
+        SpyConfiguration combined = SpyConfiguration.builder().
+                captureNetworkTraffic(false).
+                or(captureNetworkTraffic).
+                build();
+
+        assertTrue(combined.isCaptureNetwork());
+        assertTrue(combined.isCaptureNetworkTraffic());
+
+    }
+
+}
@@ -0,0 +1,113 @@
+package io.sniffy;
+
+import io.sniffy.sql.SqlStatement;
+import io.sniffy.sql.StatementMetaData;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SpyEventDispatcherTest {
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testShutdownDrainsEventsPublishedConcurrently() throws Exception {
+
+        try (Spy<?> spy = Sniffy.spy()) {
+
+            final SpyRegistrySnapshot snapshot = new SpyRegistrySnapshot(
+                    0, Collections.<WeakReference<Spy>>singletonList(new WeakReference<Spy>(spy)), spy.getSpyConfiguration()
+            );
+            final StatementMetaData statementMetaData = new StatementMetaData("SELECT 1 FROM DUAL", SqlStatement.SELECT, null, Thread.currentThread());
+
+            final SpyEventDispatcher spyEventDispatcher = new SpyEventDispatcher(4);
+            spyEventDispatcher.start();
+
+            final AtomicInteger published = new AtomicInteger();
+            final CountDownLatch started = new CountDownLatch(4);
+
+            Thread[] producers = new Thread[4];
+            for (int i = 0; i < producers.length; i++) {
+                producers[i] = new Thread(() -> {
+                    started.countDown();
+                    while (spyEventDispatcher.publishExecutedStatement(snapshot, null, statementMetaData, 0, 0, 0, 0)) {
+                        published.incrementAndGet();
+                    }
+                });
+                producers[i].start();
+            }
+
+            started.await();
+            Thread.sleep(10);
+            spyEventDispatcher.shutdown();
+
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            assertTrue(published.get() > 0);
+            assertEquals(published.get(), spy.executedStatements(Threads.ANY));
+            assertFalse(spyEventDispatcher.publishSqlTime("SELECT 1 FROM DUAL", 0));
+        }
+
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testFlushWaitsForPublishedEvents() throws Exception {
+
+        try (Spy<?> spy = Sniffy.spy()) {
+
+            SpyRegistrySnapshot snapshot = new SpyRegistrySnapshot(
+                    0, Collections.<WeakReference<Spy>>singletonList(new WeakReference<Spy>(spy)), spy.getSpyConfiguration()
+            );
+            StatementMetaData statementMetaData = new StatementMetaData("SELECT 1 FROM DUAL", SqlStatement.SELECT, null, Thread.currentThread());
+
+            SpyEventDispatcher spyEventDispatcher = new SpyEventDispatcher(16);
+            spyEventDispatcher.start();
+
+            try {
+                for (int i = 0; i < 100; i++) {
+                    assertTrue(spyEventDispatcher.publishExecutedStatement(snapshot, null, statementMetaData, 0, 0, 0, 0));
+                }
+                spyEventDispatcher.flush();
+                assertEquals(100, spy.executedStatements(Threads.ANY));
+            } finally {
+                spyEventDispatcher.shutdown();
+            }
+        }
+
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testFlushWaitsForEventsOfCurrentThreadSpy() throws Exception {
+
+        try (CurrentThreadSpy spy = new CurrentThreadSpy(SpyConfiguration.builder().build())) {
+
+            SpyRegistrySnapshot snapshot = new SpyRegistrySnapshot(
+                    0, Collections.<WeakReference<Spy>>emptyList(), spy.getSpyConfiguration()
+            );
+            StatementMetaData statementMetaData = new StatementMetaData("SELECT 1 FROM DUAL", SqlStatement.SELECT, null, Thread.currentThread());
+
+            SpyEventDispatcher spyEventDispatcher = new SpyEventDispatcher(16);
+            spyEventDispatcher.start();
+
+            try {
+                for (int i = 0; i < 100; i++) {
+                    assertTrue(spyEventDispatcher.publishExecutedStatement(snapshot, spy, statementMetaData, 0, 0, 0, 0));
+                }
+                spyEventDispatcher.flush(99);
+                assertEquals(100, spy.executedStatements());
+            } finally {
+                spyEventDispatcher.shutdown();
+            }
+        }
+
+    }
+
+}
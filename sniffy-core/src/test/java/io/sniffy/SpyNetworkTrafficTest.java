@@ -13,6 +13,8 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class SpyNetworkTrafficTest {
 
@@ -57,4 +59,140 @@ public class SpyNetworkTrafficTest {
 
     }
 
+    @Test
+    public void testNetworkTrafficBudget() throws Exception {
+
+        Spy<?> spy = new Spy<>(SpyConfiguration.builder().networkTrafficBudget(1000).build());
+
+        try {
+
+            SocketMetaData firstConnection = new SocketMetaData(Protocol.TCP, InetSocketAddress.createUnresolved("host", 1234), 1);
+            SocketMetaData secondConnection = new SocketMetaData(Protocol.TCP, InetSocketAddress.createUnresolved("host", 1234), 2);
+
+            for (int i = 0; i < 30; i++) {
+                spy.addNetworkTraffic(
+                        i < 15 ? firstConnection : secondConnection,
+                        i % 2 == 0,
+                        i * 1000,
+                        null,
+                        ThreadMetaData.create(Thread.currentThread()),
+                        new byte[100], 0, 100
+                );
+            }
+
+            assertTrue(spy.getNetworkTrafficBytes() <= 1000);
+            assertEquals(3000, spy.getNetworkTrafficBytes() + spy.getEvictedNetworkTrafficBytes());
+            assertEquals(30, spy.getNetworkTrafficBytes() / 100 + spy.getEvictedNetworkPackets());
+
+            Map<SocketMetaData, List<NetworkPacket>> networkTraffic = spy.getNetworkTraffic(
+                    Threads.ANY,
+                    AddressMatchers.exactAddressMatcher("host"),
+                    GroupingOptions.builder().groupByConnection(true).build()
+            );
+
+            long capturedBytes = 0;
+            for (List<NetworkPacket> networkPackets : networkTraffic.values()) {
+                for (NetworkPacket networkPacket : networkPackets) {
+                    capturedBytes += networkPacket.getLength();
+                }
+            }
+            assertEquals(spy.getNetworkTrafficBytes(), capturedBytes);
+
+            // oldest packets are evicted first
+            List<NetworkPacket> secondConnectionPackets = networkTraffic.get(secondConnection);
+            assertEquals(29 * 1000, secondConnectionPackets.get(secondConnectionPackets.size() - 1).getTimestamp());
+            assertFalse(networkTraffic.containsKey(firstConnection));
+
+        } finally {
+            spy.close();
+        }
+
+    }
+
+    @Test
+    public void testResetRestoresNetworkTrafficBudget() throws Exception {
+
+        Spy<?> spy = new Spy<>(SpyConfiguration.builder().networkTrafficBudget(1000).build());
+
+        try {
+
+            SocketMetaData connection = new SocketMetaData(Protocol.TCP, InetSocketAddress.createUnresolved("host", 1234), 1);
+
+            for (int i = 0; i < 30; i++) {
+                spy.addNetworkTraffic(connection, i % 2 == 0, i * 1000, null, ThreadMetaData.create(Thread.currentThread()), new byte[100], 0, 100);
+            }
+
+            assertTrue(spy.getEvictedNetworkPackets() > 0);
+
+            spy.reset();
+
+            assertEquals(0, spy.getNetworkTrafficBytes());
+            assertEquals(0, spy.getEvictedNetworkTrafficBytes());
+            assertEquals(0, spy.getEvictedNetworkPackets());
+            assertTrue(spy.getNetworkTraffic(Threads.ANY, AddressMatchers.anyAddressMatcher()).isEmpty());
+
+            for (int i = 0; i < 5; i++) {
+                spy.addNetworkTraffic(connection, i % 2 == 0, i * 1000, null, ThreadMetaData.create(Thread.currentThread()), new byte[100], 0, 100);
+            }
+
+            // traffic captured after reset fits into the budget and isn't evicted
+            assertEquals(500, spy.getNetworkTrafficBytes());
+            assertEquals(0, spy.getEvictedNetworkPackets());
+            assertEquals(5, spy.getNetworkTraffic(Threads.ANY, AddressMatchers.anyAddressMatcher(), GroupingOptions.builder().groupByConnection(true).build()).get(connection).size());
+
+        } finally {
+            spy.close();
+        }
+
+    }
+
+    @Test
+    public void testNetworkTrafficBudgetRemovesEvictedConnections() throws Exception {
+
+        Spy<?> spy = new Spy<>(SpyConfiguration.builder().networkTrafficBudget(1000).build());
+
+        try {
+
+            for (int i = 0; i < 100; i++) {
+                spy.addNetworkTraffic(
+                        new SocketMetaData(Protocol.TCP, InetSocketAddress.createUnresolved("host", 1234), i),
+                        true,
+                        i * 1000,
+                        null,
+                        ThreadMetaData.create(Thread.currentThread()),
+                        new byte[100], 0, 100
+                );
+            }
+
+            assertTrue(spy.getNetworkTrafficBytes() <= 1000);
+            assertEquals(spy.getNetworkTrafficBytes() / 100, spy.networkTraffic.size());
+
+        } finally {
+            spy.close();
+        }
+
+    }
+
+    @Test
+    public void testNetworkTrafficBudgetLimitsCombinedPackets() throws Exception {
+
+        Spy<?> spy = new Spy<>(SpyConfiguration.builder().networkTrafficBudget(1000).build());
+
+        try {
+
+            SocketMetaData connection = new SocketMetaData(Protocol.TCP, InetSocketAddress.createUnresolved("host", 1234), 1);
+
+            for (int i = 0; i < 100; i++) {
+                spy.addNetworkTraffic(connection, true, 0, null, ThreadMetaData.create(Thread.currentThread()), new byte[10], 0, 10);
+            }
+
+            assertTrue(spy.getNetworkTrafficBytes() <= 1000);
+            assertEquals(1000, spy.getNetworkTrafficBytes() + spy.getEvictedNetworkTrafficBytes());
+
+        } finally {
+            spy.close();
+        }
+
+    }
+
 }
@@ -0,0 +1,51 @@
+package io.sniffy;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ThreadMetaDataTest {
+
+    @Test
+    public void testCurrentThreadMetaDataIsCached() {
+        ThreadMetaData threadMetaData = ThreadMetaData.create(Thread.currentThread());
+        assertSame(threadMetaData, ThreadMetaData.create(Thread.currentThread()));
+        assertEquals(Thread.currentThread().getId(), threadMetaData.getThreadId());
+        assertEquals(Thread.currentThread().getName(), threadMetaData.getThreadName());
+        assertSame(Thread.currentThread(), threadMetaData.getThreadReference().get());
+    }
+
+    @Test
+    public void testOtherThreadMetaData() throws Exception {
+        AtomicReference<ThreadMetaData> threadMetaDataReference = new AtomicReference<>();
+        Thread thread = new Thread(() -> threadMetaDataReference.set(ThreadMetaData.create(Thread.currentThread())), "sniffy-test-thread");
+        thread.start();
+        thread.join();
+
+        ThreadMetaData threadMetaData = ThreadMetaData.create(thread);
+        assertEquals("sniffy-test-thread", threadMetaData.getThreadName());
+        assertEquals(threadMetaDataReference.get(), threadMetaData);
+        assertSame(threadMetaData, ThreadMetaData.create(thread));
+        assertNull(ThreadMetaData.create(null));
+    }
+
+    @Test
+    public void testCacheIsCleanedUpWhenThreadsAreCollected() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            Thread thread = new Thread(() -> {});
+            thread.start();
+            thread.join();
+            ThreadMetaData.create(thread);
+        }
+
+        for (int i = 0; i < 10 && ThreadMetaData.cacheSize() > 10; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        assertTrue(ThreadMetaData.cacheSize() <= 10);
+    }
+
+}
@@ -2,6 +2,7 @@ package io.sniffy.configuration;
 
 import io.qameta.allure.Feature;
 import io.sniffy.Sniffy;
+import io.sniffy.log.PolyglogBackend;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -143,6 +144,60 @@ public class SniffyConfigurationTest {
 
     }
 
+    @Test
+    public void testRequestStatsCache() {
+
+        SniffyConfiguration sniffyConfiguration = SniffyConfiguration.INSTANCE;
+
+        System.setProperty("io.sniffy.requestStatsCacheMaxBytes", "1048576");
+        System.setProperty("io.sniffy.requestStatsCacheExpireAfterMillis", "60000");
+        sniffyConfiguration.loadSniffyConfiguration();
+        assertEquals(1048576, sniffyConfiguration.getRequestStatsCacheMaxBytes());
+        assertEquals(60000, sniffyConfiguration.getRequestStatsCacheExpireAfterMillis());
+
+        // incorrect value
+        System.setProperty("io.sniffy.requestStatsCacheMaxBytes", "bla");
+        System.setProperty("io.sniffy.requestStatsCacheExpireAfterMillis", "bla");
+        sniffyConfiguration.loadSniffyConfiguration();
+        assertEquals(32 * 1024 * 1024, sniffyConfiguration.getRequestStatsCacheMaxBytes());
+        assertEquals(0, sniffyConfiguration.getRequestStatsCacheExpireAfterMillis());
+
+        // default value
+        System.getProperties().remove("io.sniffy.requestStatsCacheMaxBytes");
+        System.getProperties().remove("io.sniffy.requestStatsCacheExpireAfterMillis");
+        sniffyConfiguration.loadSniffyConfiguration();
+        assertEquals(32 * 1024 * 1024, sniffyConfiguration.getRequestStatsCacheMaxBytes());
+        assertEquals(0, sniffyConfiguration.getRequestStatsCacheExpireAfterMillis());
+
+    }
+
+    @Test
+    public void testClientHelloCache() {
+
+        SniffyConfiguration sniffyConfiguration = SniffyConfiguration.INSTANCE;
+
+        System.setProperty("io.sniffy.clientHelloCacheSize", "1024");
+        System.setProperty("io.sniffy.clientHelloCacheExpireAfterMillis", "1000");
+        sniffyConfiguration.loadSniffyConfiguration();
+        assertEquals(1024, sniffyConfiguration.getClientHelloCacheSize());
+        assertEquals(1000, sniffyConfiguration.getClientHelloCacheExpireAfterMillis());
+
+        // incorrect value
+        System.setProperty("io.sniffy.clientHelloCacheSize", "bla");
+        System.setProperty("io.sniffy.clientHelloCacheExpireAfterMillis", "bla");
+        sniffyConfiguration.loadSniffyConfiguration();
+        assertEquals(4096, sniffyConfiguration.getClientHelloCacheSize());
+        assertEquals(60000, sniffyConfiguration.getClientHelloCacheExpireAfterMillis());
+
+        // default value
+        System.getProperties().remove("io.sniffy.clientHelloCacheSize");
+        System.getProperties().remove("io.sniffy.clientHelloCacheExpireAfterMillis");
+        sniffyConfiguration.loadSniffyConfiguration();
+        assertEquals(4096, sniffyConfiguration.getClientHelloCacheSize());
+        assertEquals(60000, sniffyConfiguration.getClientHelloCacheExpireAfterMillis());
+
+    }
+
     @Test
     public void testFilterEnabled() {
 
@@ -246,4 +301,32 @@ public class SniffyConfigurationTest {
 
     }
 
+    @Test
+    public void testLogBackend() {
+
+        SniffyConfiguration sniffyConfiguration = SniffyConfiguration.INSTANCE;
+
+        System.setProperty("io.sniffy.logBackend", "jul");
+        System.setProperty("io.sniffy.logAsync", "true");
+        sniffyConfiguration.loadSniffyConfiguration();
+        assertEquals(PolyglogBackend.JUL, sniffyConfiguration.getLogBackend());
+        assertTrue(sniffyConfiguration.isLogAsync());
+
+        // default value
+        System.getProperties().remove("io.sniffy.logBackend");
+        System.getProperties().remove("io.sniffy.logAsync");
+        sniffyConfiguration.loadSniffyConfiguration();
+        assertEquals(PolyglogBackend.STDOUT, sniffyConfiguration.getLogBackend());
+        assertFalse(sniffyConfiguration.isLogAsync());
+
+        // invalid value
+        System.setProperty("io.sniffy.logBackend", "log4j");
+        sniffyConfiguration.loadSniffyConfiguration();
+        assertEquals(PolyglogBackend.STDOUT, sniffyConfiguration.getLogBackend());
+
+        System.getProperties().remove("io.sniffy.logBackend");
+        sniffyConfiguration.loadSniffyConfiguration();
+
+    }
+
 }
@@ -0,0 +1,186 @@
+package io.sniffy.log;
+
+import io.sniffy.configuration.SniffyConfiguration;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PolyglogTest {
+
+    @Test
+    public void testMessageFormatter() {
+        assertEquals("sent = true; len = 42", PolyglogMessageFormatter.format("sent = {}; len = {}", true, 42));
+        assertEquals("value = null", PolyglogMessageFormatter.format("value = {}", (Object) null));
+        assertEquals("no placeholders", PolyglogMessageFormatter.format("no placeholders", 1));
+        assertEquals("a = 1; b = {}", PolyglogMessageFormatter.format("a = {}; b = {}", 1));
+        assertEquals("a = 1", PolyglogMessageFormatter.format("a = {}", 1, 2, 3));
+        assertNull(PolyglogMessageFormatter.format(null, 1));
+    }
+
+    @Test
+    public void testMessageIsNotBuiltIfLevelIsDisabled() {
+
+        PolyglogLevel logLevel = SniffyConfiguration.INSTANCE.getLogLevel();
+
+        try {
+            SniffyConfiguration.INSTANCE.setLogLevel(PolyglogLevel.INFO);
+
+            final AtomicInteger invocations = new AtomicInteger();
+            Object argument = new Object() {
+                @Override
+                public String toString() {
+                    invocations.incrementAndGet();
+                    return "argument";
+                }
+            };
+
+            Polyglog log = new PolyglogSystemOutImpl(PolyglogTest.class);
+            log.trace("argument = {}", argument);
+            log.trace("arguments = {}, {}, {}", argument, argument, argument);
+            log.debug("argument = {}", argument);
+            log.trace(new PolyglogMessage() {
+                @Override
+                public String getMessage() {
+                    invocations.incrementAndGet();
+                    return "message";
+                }
+            });
+
+            assertEquals(0, invocations.get());
+        } finally {
+            SniffyConfiguration.INSTANCE.setLogLevel(logLevel);
+        }
+
+    }
+
+    @Test
+    public void testAsyncAppenderWritesBatchesAndReportsDroppedLines() {
+
+        PrintStream soutBackup = System.out;
+
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            System.setOut(new PrintStream(baos));
+
+            AsyncPolyglogAppender appender = new AsyncPolyglogAppender(2, 2);
+            assertTrue(appender.offer("first"));
+            assertTrue(appender.offer("second"));
+            assertFalse(appender.offer("third"));
+
+            appender.flush();
+
+            String output = new String(baos.toByteArray());
+            assertTrue(output.contains("1 log messages were dropped"));
+            assertTrue(output.indexOf("first") < output.indexOf("second"));
+            assertFalse(output.contains("third"));
+        } finally {
+            System.setOut(soutBackup);
+        }
+
+    }
+
+    @Test
+    public void testAsyncAppenderWritesErrorsIfQueueIsFull() {
+
+        PrintStream soutBackup = System.out;
+
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            System.setOut(new PrintStream(baos));
+
+            AsyncPolyglogAppender appender = new AsyncPolyglogAppender(1, 1);
+            assertTrue(appender.offer("first"));
+            appender.appendOrWrite("error");
+
+            appender.flush();
+
+            String output = new String(baos.toByteArray());
+            assertTrue(output.contains("first"));
+            assertTrue(output.contains("error"));
+            assertFalse(output.contains("dropped"));
+        } finally {
+            System.setOut(soutBackup);
+        }
+
+    }
+
+    @Test
+    public void testAsyncAppenderWritesFromBackgroundThread() throws InterruptedException {
+
+        PrintStream soutBackup = System.out;
+
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            System.setOut(new PrintStream(baos));
+
+            AsyncPolyglogAppender appender = new AsyncPolyglogAppender(16, 4);
+            assertTrue(appender.append("line"));
+
+            for (int i = 0; i < 100 && !new String(baos.toByteArray()).contains("line"); i++) {
+                Thread.sleep(10);
+            }
+
+            assertTrue(new String(baos.toByteArray()).contains("line"));
+        } finally {
+            System.setOut(soutBackup);
+        }
+
+    }
+
+    @Test
+    public void testAsyncAppenderFlushKeepsOrder() {
+
+        PrintStream soutBackup = System.out;
+
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            System.setOut(new PrintStream(baos));
+
+            AsyncPolyglogAppender appender = new AsyncPolyglogAppender(1024, 4);
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(appender.append("line " + i));
+            }
+
+            appender.flush();
+
+            String output = new String(baos.toByteArray());
+            for (int i = 1; i < 1000; i++) {
+                assertTrue(output.indexOf("line " + (i - 1) + System.lineSeparator()) < output.indexOf("line " + i + System.lineSeparator()));
+            }
+        } finally {
+            System.setOut(soutBackup);
+        }
+
+    }
+
+    @Test
+    public void testFactoryUsesConfiguredBackend() {
+
+        PolyglogBackend logBackend = SniffyConfiguration.INSTANCE.getLogBackend();
+
+        try {
+            SniffyConfiguration.INSTANCE.setLogBackend(PolyglogBackend.JUL);
+            assertTrue(PolyglogFactory.log(PolyglogTest.class) instanceof PolyglogJulImpl);
+
+            SniffyConfiguration.INSTANCE.setLogBackend(PolyglogBackend.STDOUT);
+            assertTrue(PolyglogFactory.log(PolyglogTest.class) instanceof PolyglogSystemOutImpl);
+
+            SniffyConfiguration.INSTANCE.setLogBackend(null);
+            assertTrue(PolyglogFactory.log(PolyglogTest.class) instanceof PolyglogSystemOutImpl);
+
+            SniffyConfiguration.INSTANCE.setLogBackend(PolyglogBackend.SLF4J);
+            assertEquals(
+                    PolyglogSlf4jImpl.isAvailable(),
+                    PolyglogFactory.log(PolyglogTest.class) instanceof PolyglogSlf4jImpl
+            );
+        } finally {
+            SniffyConfiguration.INSTANCE.setLogBackend(logBackend);
+        }
+
+    }
+
+}
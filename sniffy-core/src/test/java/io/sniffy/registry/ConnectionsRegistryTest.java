@@ -7,6 +7,8 @@ import io.sniffy.socket.BaseSocketTest;
 import io.sniffy.socket.Protocol;
 import io.sniffy.socket.SnifferSocketImplFactory;
 import io.sniffy.socket.SniffyNetworkConnection;
+import io.sniffy.socket.TrafficCapture;
+import io.sniffy.socket.TrafficShaper;
 import org.junit.After;
 import org.junit.Test;
 
@@ -14,9 +16,11 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.lang.ref.Reference;
 import java.net.*;
+import java.nio.ByteBuffer;
 import java.util.AbstractMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -151,6 +155,141 @@ public class ConnectionsRegistryTest extends BaseSocketTest {
 
     }
 
+    @Test
+    public void testResolveSocketAddressStatusUsesIndexedRules() throws Exception {
+
+        InetAddress loopback = InetAddress.getByAddress(new byte[]{127, 0, 0, 1});
+
+        ConnectionsRegistry.INSTANCE.setSocketAddressStatus("127.0.0.1", 5555, -1);
+        ConnectionsRegistry.INSTANCE.setSocketAddressStatus("127.0.0.1", null, 10);
+        ConnectionsRegistry.INSTANCE.setSocketAddressStatus(null, 7777, -2);
+
+        assertEquals(-1, ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(new InetSocketAddress(loopback, 5555), null));
+        assertEquals(10, ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(new InetSocketAddress(loopback, 6666), null));
+        assertEquals(-2, ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(
+                new InetSocketAddress(InetAddress.getByAddress(new byte[]{10, 0, 0, 1}), 7777), null)
+        );
+        assertEquals(0, ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(
+                new InetSocketAddress(InetAddress.getByAddress(new byte[]{10, 0, 0, 1}), 8888), null)
+        );
+
+        assertEquals(0, ConnectionsRegistry.INSTANCE.getDiscoveredAddresses().get(new AbstractMap.SimpleEntry<>("10.0.0.1", 8888)).intValue());
+
+        ConnectionsRegistry.INSTANCE.setSocketAddressStatus("127.0.0.1", 5555, 0);
+
+        assertEquals(10, ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(new InetSocketAddress(loopback, 5555), null));
+
+    }
+
+    @Test
+    public void testResolveSocketAddressStatusByHostName() throws Exception {
+
+        ConnectionsRegistry.INSTANCE.setSocketAddressStatus("sniffy.test", 5555, -1);
+
+        InetAddress inetAddress = InetAddress.getByAddress("sniffy.test", new byte[]{10, 0, 0, 1});
+
+        assertEquals(-1, ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(new InetSocketAddress(inetAddress, 5555), null));
+        assertEquals(0, ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(
+                new InetSocketAddress(InetAddress.getByAddress(new byte[]{10, 0, 0, 1}), 5555), null)
+        );
+
+    }
+
+    @Test
+    public void testResolveDataSourceStatus() {
+
+        ConnectionsRegistry.INSTANCE.setDataSourceStatus("jdbc:h2:mem:first", "sa", -1);
+        ConnectionsRegistry.INSTANCE.setDataSourceStatus("jdbc:h2:mem:second", "sa", 0);
+
+        assertEquals(-1, ConnectionsRegistry.INSTANCE.resolveDataSourceStatus("jdbc:h2:mem:first", "sa").intValue());
+        assertEquals(0, ConnectionsRegistry.INSTANCE.resolveDataSourceStatus("jdbc:h2:mem:first", "admin").intValue());
+        assertEquals(0, ConnectionsRegistry.INSTANCE.resolveDataSourceStatus("jdbc:h2:mem:second", "sa").intValue());
+        assertEquals(-1, ConnectionsRegistry.INSTANCE.resolveDataSourceStatus("jdbc:h2:mem:first", null).intValue());
+        assertEquals(-1, ConnectionsRegistry.INSTANCE.resolveDataSourceStatus(null, "sa").intValue());
+        assertEquals(-1, ConnectionsRegistry.INSTANCE.resolveDataSourceStatus(null, null).intValue());
+
+        assertEquals(0, ConnectionsRegistry.INSTANCE.getDiscoveredDataSources().get(
+                new AbstractMap.SimpleEntry<>("jdbc:h2:mem:first", "admin")).intValue()
+        );
+        assertEquals(3, ConnectionsRegistry.INSTANCE.getDiscoveredDataSources().size());
+
+    }
+
+    @Test
+    public void testDiscoveredDataSourcesAreModifiable() {
+
+        ConnectionsRegistry.INSTANCE.setDataSourceStatus("jdbc:h2:mem:first", "sa", 0);
+
+        ConnectionsRegistry.INSTANCE.getDiscoveredDataSources().put(new AbstractMap.SimpleEntry<>("jdbc:h2:mem:first", "sa"), -1);
+        assertEquals(-1, ConnectionsRegistry.INSTANCE.resolveDataSourceStatus("jdbc:h2:mem:first", "sa").intValue());
+
+        for (Map.Entry<Map.Entry<String, String>, Integer> entry : ConnectionsRegistry.INSTANCE.getDiscoveredDataSources().entrySet()) {
+            entry.setValue(-2);
+        }
+        assertEquals(-2, ConnectionsRegistry.INSTANCE.resolveDataSourceStatus("jdbc:h2:mem:first", "sa").intValue());
+
+        ConnectionsRegistry.INSTANCE.getDiscoveredDataSources().clear();
+        assertEquals(0, ConnectionsRegistry.INSTANCE.resolveDataSourceStatus("jdbc:h2:mem:first", "sa").intValue());
+
+    }
+
+    @Test
+    public void testHostNameRuleIsResolvedByAddress() throws Exception {
+
+        ConnectionsRegistry.INSTANCE.setSocketAddressStatus("localhost", 5555, -1);
+
+        // address without host name is matched using addresses of host names from rules
+        InetAddress loopback = InetAddress.getByAddress(InetAddress.getByName("localhost").getAddress());
+        assertEquals(-1, ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(new InetSocketAddress(loopback, 5555), null));
+
+    }
+
+    @Test
+    public void testHostNamesAreResolvedWhenRulesAreCompiled() throws Exception {
+
+        final InetAddress inetAddress = InetAddress.getByAddress(new byte[]{10, 0, 0, 1});
+        final AtomicInteger lookups = new AtomicInteger();
+
+        SocketAddressRules.HostNameCache hostNameCache = new SocketAddressRules.HostNameCache() {
+
+            @Override
+            protected InetAddress[] lookup(String hostName) {
+                lookups.incrementAndGet();
+                return new InetAddress[]{inetAddress};
+            }
+
+        };
+
+        Map<Map.Entry<String, Integer>, Integer> discoveredAddresses = new HashMap<>();
+        discoveredAddresses.put(new AbstractMap.SimpleEntry<>("sniffy.test", 5555), -1);
+
+        SocketAddressRules socketAddressRules = SocketAddressRules.compile(discoveredAddresses, hostNameCache);
+        assertEquals(1, lookups.get());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(-1, socketAddressRules.resolve(inetAddress, 5555));
+            assertEquals(0, socketAddressRules.resolve(inetAddress, 6666));
+        }
+        assertEquals(1, lookups.get());
+
+        socketAddressRules.refresh(System.nanoTime());
+        assertEquals(1, lookups.get());
+
+        socketAddressRules.refresh(System.nanoTime() + SocketAddressRules.HostNameCache.TTL_NANOS + TimeUnit.SECONDS.toNanos(1));
+        assertEquals(2, lookups.get());
+        assertEquals(-1, socketAddressRules.resolve(inetAddress, 5555));
+
+    }
+
+    @Test
+    public void testParseLiteral() {
+        assertNotNull(SocketAddressRules.parseLiteral("127.0.0.1"));
+        assertNotNull(SocketAddressRules.parseLiteral("::1"));
+        assertNull(SocketAddressRules.parseLiteral("localhost"));
+        assertNull(SocketAddressRules.parseLiteral("10.0.0"));
+        assertNull(SocketAddressRules.parseLiteral("sniffy.test"));
+    }
+
     @Test
     public void testLoadFromReader() throws Exception {
 
@@ -303,6 +442,16 @@ public class ConnectionsRegistryTest extends BaseSocketTest {
 
                 }
 
+                @Override
+                public void logSocket(long elapsedTime, TimeUnit timeUnit) {
+
+                }
+
+                @Override
+                public void logSocket(long elapsedTime, TimeUnit timeUnit, int bytesDown, int bytesUp) {
+
+                }
+
                 @Override
                 public void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
 
@@ -313,6 +462,16 @@ public class ConnectionsRegistryTest extends BaseSocketTest {
 
                 }
 
+                @Override
+                public void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+
+                }
+
+                @Override
+                public void logDecryptedTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+
+                }
+
                 @Override
                 public void checkConnectionAllowed() throws ConnectException {
 
@@ -332,6 +491,16 @@ public class ConnectionsRegistryTest extends BaseSocketTest {
                 public void checkConnectionAllowed(InetSocketAddress inetSocketAddress, int numberOfSleepCycles) throws ConnectException {
 
                 }
+
+                @Override
+                public TrafficShaper getTrafficShaper() {
+                    return null;
+                }
+
+                @Override
+                public TrafficCapture getTrafficCapture() {
+                    return null;
+                }
             };
 
             ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(new InetSocketAddress(InetAddress.getByAddress(new byte[]{127, 0, 0, 1}), 5555), sniffyNetworkConnection);
@@ -436,6 +605,16 @@ public class ConnectionsRegistryTest extends BaseSocketTest {
 
                 }
 
+                @Override
+                public void logSocket(long elapsedTime, TimeUnit timeUnit) {
+
+                }
+
+                @Override
+                public void logSocket(long elapsedTime, TimeUnit timeUnit, int bytesDown, int bytesUp) {
+
+                }
+
                 @Override
                 public void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
 
@@ -446,6 +625,16 @@ public class ConnectionsRegistryTest extends BaseSocketTest {
 
                 }
 
+                @Override
+                public void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+
+                }
+
+                @Override
+                public void logDecryptedTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+
+                }
+
                 @Override
                 public void checkConnectionAllowed() throws ConnectException {
 
@@ -465,6 +654,16 @@ public class ConnectionsRegistryTest extends BaseSocketTest {
                 public void checkConnectionAllowed(InetSocketAddress inetSocketAddress, int numberOfSleepCycles) throws ConnectException {
 
                 }
+
+                @Override
+                public TrafficShaper getTrafficShaper() {
+                    return null;
+                }
+
+                @Override
+                public TrafficCapture getTrafficCapture() {
+                    return null;
+                }
             };
 
             ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(inetSocketAddress, sniffyNetworkConnection);
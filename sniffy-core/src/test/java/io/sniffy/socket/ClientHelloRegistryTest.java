@@ -0,0 +1,191 @@
+package io.sniffy.socket;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ClientHelloRegistryTest {
+
+    private static final Random RANDOM = new Random();
+
+    private static byte[] clientHello(int sessionIdLength) {
+        byte[] record = new byte[512];
+        RANDOM.nextBytes(record);
+        record[0] = 22; // handshake
+        record[1] = 3;
+        record[2] = 1;
+        record[5] = 1; // client hello
+        record[43] = (byte) sessionIdLength;
+        return record;
+    }
+
+    private static class TestSSLNetworkConnection implements SniffySSLNetworkConnection {
+
+        private SniffyNetworkConnection sniffyNetworkConnection;
+
+        @Override
+        public SniffyNetworkConnection getSniffyNetworkConnection() {
+            return sniffyNetworkConnection;
+        }
+
+        @Override
+        public void setSniffyNetworkConnection(SniffyNetworkConnection sniffyNetworkConnection) {
+            this.sniffyNetworkConnection = sniffyNetworkConnection;
+        }
+
+    }
+
+    @Test
+    public void testGetHelloPrefixLength() {
+        byte[] record = clientHello(32);
+        assertEquals(ClientHelloRegistry.MIN_HELLO_PREFIX_LENGTH, ClientHelloRegistry.getHelloPrefixLength(record, 0, 10));
+        assertEquals(ClientHelloRegistry.MAX_HELLO_PREFIX_LENGTH, ClientHelloRegistry.getHelloPrefixLength(record, 0, record.length));
+        assertEquals(-1, ClientHelloRegistry.getHelloPrefixLength("GET / HTTP/1.1".getBytes(), 0, 14));
+
+        record[5] = 20; // finished
+        assertEquals(-1, ClientHelloRegistry.getHelloPrefixLength(record, 0, record.length));
+    }
+
+    @Test
+    public void testLookupRemovesMatchedConnection() {
+        ClientHelloRegistry registry = new ClientHelloRegistry(16, 0);
+        TestSSLNetworkConnection connection = new TestSSLNetworkConnection();
+
+        byte[] record = clientHello(0);
+        registry.register(ByteBuffer.wrap(record), 0, record.length, connection);
+
+        byte[] sent = Arrays.copyOf(record, record.length);
+        sent[100]++; // bytes after session id aren't a part of fingerprint
+        assertSame(connection, registry.lookup(sent, 0, sent.length));
+        assertNull(registry.lookup(sent, 0, sent.length));
+
+        assertEquals(1, registry.getHitCount());
+        assertEquals(1, registry.getMissCount());
+        assertEquals(0.5, registry.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void testMapView() {
+        ClientHelloRegistry registry = new ClientHelloRegistry(16, 0);
+        TestSSLNetworkConnection connection = new TestSSLNetworkConnection();
+
+        byte[] record = clientHello(32);
+        registry.asMap().put(ByteBuffer.wrap(record), connection);
+
+        assertTrue(registry.asMap().isEmpty());
+        assertSame(connection, registry.asMap().get(ByteBuffer.wrap(record)));
+        assertNull(registry.asMap().get(ByteBuffer.wrap(record)));
+    }
+
+    @Test
+    public void testDifferentSessionIdIsNotMatched() {
+        ClientHelloRegistry registry = new ClientHelloRegistry(16, 0);
+
+        byte[] record = clientHello(32);
+        registry.register(record, 0, record.length, new TestSSLNetworkConnection());
+
+        byte[] sent = Arrays.copyOf(record, record.length);
+        sent[70]++;
+        assertNull(registry.lookup(sent, 0, sent.length));
+    }
+
+    @Test
+    public void testExpiredConnectionIsNotMatched() throws InterruptedException {
+        ClientHelloRegistry registry = new ClientHelloRegistry(16, 1);
+
+        byte[] record = clientHello(0);
+        registry.register(record, 0, record.length, new TestSSLNetworkConnection());
+
+        Thread.sleep(10);
+
+        assertNull(registry.lookup(record, 0, record.length));
+        assertEquals(1, registry.getMissCount());
+    }
+
+    @Test
+    public void testLongExpiryDoesNotOverflow() {
+        ClientHelloRegistry registry = new ClientHelloRegistry(16, Long.MAX_VALUE);
+        TestSSLNetworkConnection connection = new TestSSLNetworkConnection();
+
+        byte[] record = clientHello(0);
+        registry.register(record, 0, record.length, connection);
+
+        assertSame(connection, registry.lookup(record, 0, record.length));
+    }
+
+    @Test
+    public void testCollectedConnectionIsNotRetained() throws InterruptedException {
+        ClientHelloRegistry registry = new ClientHelloRegistry(16, 0);
+
+        byte[] record = clientHello(0);
+        TestSSLNetworkConnection connection = new TestSSLNetworkConnection();
+        WeakReference<TestSSLNetworkConnection> connectionReference = new WeakReference<>(connection);
+        registry.register(record, 0, record.length, connection);
+        //noinspection UnusedAssignment
+        connection = null;
+
+        for (int i = 0; i < 10 && null != connectionReference.get(); i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        assertNull(connectionReference.get());
+        assertNull(registry.lookup(record, 0, record.length));
+        assertEquals(1, registry.getMissCount());
+    }
+
+    @Test
+    public void testOverflowEvictsEntries() {
+        ClientHelloRegistry registry = new ClientHelloRegistry(4, 0);
+
+        byte[][] records = new byte[100][];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = clientHello(0);
+            registry.register(records[i], 0, records[i].length, new TestSSLNetworkConnection());
+        }
+
+        assertEquals(96, registry.getEvictionCount());
+
+        int matched = 0;
+        for (byte[] record : records) {
+            if (null != registry.lookup(record, 0, record.length)) {
+                matched++;
+            }
+        }
+        assertEquals(4, matched);
+    }
+
+    @Test
+    public void testReaderHandlesFragmentedRecord() {
+        ClientHelloRegistry registry = new ClientHelloRegistry(16, 0);
+        TestSSLNetworkConnection connection = new TestSSLNetworkConnection();
+
+        byte[] record = clientHello(32);
+        registry.register(record, 0, record.length, connection);
+
+        ClientHelloReader reader = new ClientHelloReader(registry);
+        assertNull(reader.read(record, 0, 3));
+        assertNull(reader.read(ByteBuffer.allocateDirect(64).put(record, 3, 50), 0, 50));
+        assertFalse(reader.isDone());
+        assertSame(connection, reader.read(record, 53, record.length - 53));
+        assertTrue(reader.isDone());
+        assertNull(reader.read(record, 0, record.length));
+    }
+
+    @Test
+    public void testReaderSkipsPlainTraffic() {
+        ClientHelloRegistry registry = new ClientHelloRegistry(16, 0);
+
+        ClientHelloReader reader = new ClientHelloReader(registry);
+        assertNull(reader.read("GET / HTTP/1.1".getBytes(), 0, 14));
+        assertTrue(reader.isDone());
+
+        assertEquals(0, registry.getMissCount());
+    }
+
+}
@@ -0,0 +1,196 @@
+package io.sniffy.socket;
+
+import io.sniffy.util.CapturedStackTrace;
+import io.sniffy.util.StackTraceExtractor;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class NetworkPacketTest {
+
+    @Test
+    public void testCombineSharesArena() {
+        ByteArena arena = new ByteArena(false);
+
+        NetworkPacket networkPacket = new NetworkPacket(true, 0, null, null, arena, new byte[]{1, 2, 3}, 0, 3);
+        assertTrue(networkPacket.combine(true, 1, null, null, new byte[]{0, 4, 5, 0}, 1, 2, 10));
+        assertFalse(networkPacket.combine(false, 1, null, null, new byte[]{6}, 0, 1, 10));
+
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, networkPacket.getBytes());
+        assertEquals(5, networkPacket.getLength());
+
+        // adjacent regions of the same chunk are merged into a single view
+        ByteBuffer[] byteBuffers = networkPacket.getByteBuffers();
+        assertEquals(1, byteBuffers.length);
+        assertTrue(byteBuffers[0].isReadOnly());
+        assertEquals(5, byteBuffers[0].remaining());
+    }
+
+    @Test
+    public void testPacketSpanningMultipleChunks() {
+        ByteArena arena = new ByteArena(true);
+
+        byte[] traffic = new byte[ByteArena.CHUNK_SIZE + 10];
+        Arrays.fill(traffic, (byte) 42);
+
+        NetworkPacket networkPacket = new NetworkPacket(true, 0, null, null, arena, traffic, 0, traffic.length);
+        assertEquals(2, networkPacket.getByteBuffers().length);
+        assertArrayEquals(traffic, networkPacket.getBytes());
+
+        ByteBuffer byteBuffer = networkPacket.getByteBuffer();
+        assertTrue(byteBuffer.isReadOnly());
+        assertEquals(traffic.length, byteBuffer.remaining());
+    }
+
+    @Test
+    public void testByteBuffersAreViewsOfArena() {
+        ByteArena arena = new ByteArena(true);
+
+        NetworkPacket networkPacket = new NetworkPacket(true, 0, null, null, arena, new byte[]{1, 2, 3}, 0, 3);
+        assertTrue(networkPacket.combine(true, 1, null, null, new byte[]{4}, 0, 1, 10));
+
+        ByteBuffer byteBuffer = networkPacket.getByteBuffer();
+        assertTrue(byteBuffer.isDirect());
+        assertTrue(byteBuffer.isReadOnly());
+        assertEquals(0, byteBuffer.position());
+        assertEquals(4, byteBuffer.remaining());
+        assertEquals(4, byteBuffer.capacity());
+        assertEquals(4, byteBuffer.get(3));
+
+        ByteBuffer[] byteBuffers = networkPacket.getByteBuffers();
+        assertEquals(1, byteBuffers.length);
+        assertTrue(byteBuffers[0].isDirect());
+        assertEquals(byteBuffer, byteBuffers[0]);
+    }
+
+    @Test
+    public void testPacketWithoutArena() {
+        NetworkPacket networkPacket = new NetworkPacket(true, 0, null, null, new byte[]{0, 1, 2, 3}, 1, 2);
+        assertTrue(networkPacket.combine(true, 1, null, null, new byte[]{3}, 0, 1, 10));
+
+        assertArrayEquals(new byte[]{1, 2, 3}, networkPacket.getBytes());
+        ByteBuffer[] byteBuffers = networkPacket.getByteBuffers();
+        assertEquals(2, byteBuffers.length);
+        assertEquals(2, byteBuffers[0].capacity());
+        assertEquals(1, byteBuffers[1].capacity());
+    }
+
+    @Test
+    public void testCaptureFromDirectByteBuffer() {
+        ByteArena arena = new ByteArena(false, 4);
+
+        ByteBuffer traffic = ByteBuffer.allocateDirect(8);
+        traffic.put(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        NetworkPacket networkPacket = new NetworkPacket(true, 0, null, null, arena, traffic, 1, 5);
+        assertTrue(networkPacket.combine(true, 1, null, null, traffic, 7, 1, 10));
+
+        assertArrayEquals(new byte[]{2, 3, 4, 5, 6, 8}, networkPacket.getBytes());
+        assertEquals(2, networkPacket.getByteBuffers().length);
+
+        // position and limit of the source buffer are kept intact
+        assertEquals(8, traffic.position());
+        assertEquals(8, traffic.limit());
+    }
+
+    @Test
+    public void testWithMetaDataDoesNotModifyOriginalPacket() {
+        NetworkPacket networkPacket = new NetworkPacket(true, 0, "stackTrace", null, new byte[]{1, 2}, 0, 2);
+        NetworkPacket copy = networkPacket.withMetaData(null, null);
+        assertNull(copy.getStackTrace());
+        assertTrue(copy.combine(new NetworkPacket(true, 0, null, null, new byte[]{3}, 0, 1), 10));
+
+        assertArrayEquals(new byte[]{1, 2, 3}, copy.getBytes());
+        assertArrayEquals(new byte[]{1, 2}, networkPacket.getBytes());
+    }
+
+    @Test
+    public void testCombineWithCapturedStackTrace() {
+        CapturedStackTrace capturedStackTrace = StackTraceExtractor.captureTraceTillPackage("io.sniffy.socket");
+        NetworkPacket networkPacket = NetworkPacket.of(true, 0, capturedStackTrace, null, new ByteArena(false), ByteBuffer.wrap(new byte[]{1, 2}), 0, 2);
+        assertSame(capturedStackTrace, networkPacket.getCapturedStackTrace());
+        assertTrue(networkPacket.combineCaptured(true, 1, CapturedStackTrace.of(capturedStackTrace.getFrames()), null, ByteBuffer.wrap(new byte[]{3}), 0, 1, 10));
+        assertFalse(networkPacket.combineCaptured(true, 1, null, null, ByteBuffer.wrap(new byte[]{4}), 0, 1, 10));
+        assertTrue(networkPacket.combine(new NetworkPacket(true, 1, StackTraceExtractor.renderStackTrace(capturedStackTrace), null, new byte[]{5}, 0, 1), 10));
+
+        assertArrayEquals(new byte[]{1, 2, 3, 5}, networkPacket.getBytes());
+        assertSame(StackTraceExtractor.renderStackTrace(capturedStackTrace), networkPacket.getStackTrace());
+    }
+
+    @Test
+    public void testCompactCopiesBytesToChunkBeingWritten() {
+        ByteArena arena = new ByteArena(false, 16);
+
+        NetworkPacket networkPacket = new NetworkPacket(true, 0, null, null, arena, new byte[]{1, 2, 3, 4, 5, 6}, 0, 6);
+        NetworkPacket otherNetworkPacket = new NetworkPacket(true, 0, null, null, arena, new byte[8], 0, 8);
+        assertTrue(networkPacket.combine(true, 1, null, null, new byte[]{7, 8, 9, 10}, 0, 4, 10));
+        assertEquals(3, networkPacket.getByteBuffers().length);
+
+        networkPacket.compact();
+
+        assertEquals(1, networkPacket.getByteBuffers().length);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, networkPacket.getBytes());
+        assertEquals(8, otherNetworkPacket.getLength());
+
+        assertTrue(networkPacket.combine(true, 2, null, null, new byte[]{11}, 0, 1, 10));
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}, networkPacket.getBytes());
+    }
+
+    @Test
+    public void testChunksAreReturnedToPool() throws Exception {
+        int pooledChunks = ByteArena.pooledChunks(false);
+
+        for (int i = 0; i < 4; i++) {
+            new NetworkPacket(true, 0, null, null, new ByteArena(false), new byte[ByteArena.CHUNK_SIZE], 0, ByteArena.CHUNK_SIZE);
+        }
+
+        for (int i = 0; i < 10 && ByteArena.pooledChunks(false) <= pooledChunks; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        assertTrue(ByteArena.pooledChunks(false) > pooledChunks);
+    }
+
+    @Test
+    public void testSmallTrafficDoesNotTakePooledChunk() {
+        ByteArena arena = new ByteArena(false);
+
+        byte[] traffic = new byte[ByteArena.INITIAL_CHUNK_SIZE + 1];
+        NetworkPacket networkPacket = new NetworkPacket(true, 0, null, null, arena, traffic, 0, ByteArena.INITIAL_CHUNK_SIZE);
+        assertTrue(networkPacket.combine(true, 0, null, null, traffic, 0, traffic.length, 10));
+
+        // first write fits the initial chunk, next one goes to a pooled chunk
+        assertEquals(2, networkPacket.getByteBuffers().length);
+        assertEquals(ByteArena.INITIAL_CHUNK_SIZE + traffic.length, networkPacket.getLength());
+    }
+
+    @Test
+    public void testByteBuffersSurviveChunkReuse() throws Exception {
+        byte[] traffic = new byte[ByteArena.CHUNK_SIZE];
+        Arrays.fill(traffic, (byte) 1);
+
+        ByteBuffer byteBuffer = new NetworkPacket(true, 0, null, null, new ByteArena(false), traffic, 0, traffic.length).getByteBuffer();
+        ByteBuffer[] byteBuffers = new NetworkPacket(true, 0, null, null, new ByteArena(false), traffic, 0, traffic.length).getByteBuffers();
+
+        Arrays.fill(traffic, (byte) 2);
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(100);
+            // overwrite chunks of collected packets once they're back in the pool
+            new NetworkPacket(true, 0, null, null, new ByteArena(false), traffic, 0, traffic.length);
+            new NetworkPacket(true, 0, null, null, new ByteArena(false), traffic, 0, traffic.length);
+        }
+
+        assertEquals(traffic.length, byteBuffer.remaining());
+        assertEquals(1, byteBuffers.length);
+        for (int i = 0; i < traffic.length; i++) {
+            assertEquals(1, byteBuffer.get(i));
+            assertEquals(1, byteBuffers[0].get(i));
+        }
+    }
+
+}
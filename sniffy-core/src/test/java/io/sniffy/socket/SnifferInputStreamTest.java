@@ -9,6 +9,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -35,8 +36,8 @@ public class SnifferInputStreamTest {
             baos.write(read);
         }
 
-        verify(snifferSocket, times(4)).logSocket(anyLong(), eq(1), eq(0));
-        verify(snifferSocket).logSocket(anyLong(), eq(0), eq(0));
+        verify(snifferSocket, times(4)).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS), eq(1), eq(0));
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS), eq(0), eq(0));
 
     }
 
@@ -52,8 +53,8 @@ public class SnifferInputStreamTest {
 
         assertEquals(0, sis.available());
 
-        verify(snifferSocket).logSocket(anyLong(), eq(4), eq(0));
-        verify(snifferSocket).logSocket(anyLong());
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS), eq(4), eq(0));
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS));
     }
 
     @Test
@@ -71,8 +72,8 @@ public class SnifferInputStreamTest {
 
         assertEquals(2, sis.available());
 
-        verify(snifferSocket).logSocket(anyLong(), eq(2), eq(0));
-        verify(snifferSocket).logSocket(anyLong());
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS), eq(2), eq(0));
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS));
     }
 
     @Test
@@ -89,8 +90,8 @@ public class SnifferInputStreamTest {
 
         assertEquals(0, sis.available());
 
-        verify(snifferSocket, times(2)).logSocket(anyLong()); // skip() and available() calls
-        verify(snifferSocket).logSocket(anyLong(), eq(3), eq(0));
+        verify(snifferSocket, times(2)).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS)); // skip() and available() calls
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS), eq(3), eq(0));
     }
 
     @Test
@@ -100,7 +101,7 @@ public class SnifferInputStreamTest {
         SnifferInputStream sis = new SnifferInputStream(snifferSocket, bais);
 
         sis.close();
-        verify(snifferSocket).logSocket(anyLong());
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS));
 
     }
 
@@ -113,7 +114,7 @@ public class SnifferInputStreamTest {
         sis.mark(1);
 
         verify(inputStream).mark(eq(1));
-        verify(snifferSocket).logSocket(anyLong());
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS));
     }
 
     @Test
@@ -124,7 +125,7 @@ public class SnifferInputStreamTest {
 
         sis.reset();
 
-        verify(snifferSocket).logSocket(anyLong());
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS));
     }
 
 
@@ -138,7 +139,7 @@ public class SnifferInputStreamTest {
 
         assertEquals(true, sis.markSupported());
 
-        verify(snifferSocket).logSocket(anyLong());
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS));
     }
 
 }
@@ -11,6 +11,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -35,7 +36,7 @@ public class SnifferOutputStreamTest {
             sos.write(b);
         }
 
-        verify(snifferSocket, times(4)).logSocket(anyLong(), eq(0), eq(1));
+        verify(snifferSocket, times(4)).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS), eq(0), eq(1));
 
     }
 
@@ -47,7 +48,7 @@ public class SnifferOutputStreamTest {
 
         sos.write(DATA);
 
-        verify(snifferSocket).logSocket(anyLong(), eq(0), eq(DATA.length));
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS), eq(0), eq(DATA.length));
 
     }
 
@@ -78,14 +79,14 @@ public class SnifferOutputStreamTest {
 
         inOrder.verify(snifferSocket).checkConnectionAllowed(eq(0));
         inOrder.verify(snifferSocket).checkConnectionAllowed(eq(1));
-        inOrder.verify(snifferSocket).logSocket(anyLong(), eq(0), eq(THREE_BYTES_CHUNK.length));
+        inOrder.verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS), eq(0), eq(THREE_BYTES_CHUNK.length));
 
         inOrder.verify(snifferSocket).checkConnectionAllowed(eq(0));
         inOrder.verify(snifferSocket).checkConnectionAllowed(eq(2));
-        inOrder.verify(snifferSocket).logSocket(anyLong(), eq(0), eq(DATA_FOR_TWO_TCP_WINDOWS.length));
+        inOrder.verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS), eq(0), eq(DATA_FOR_TWO_TCP_WINDOWS.length));
 
         inOrder.verify(snifferSocket, times(0)).checkConnectionAllowed(anyInt());
-        inOrder.verify(snifferSocket, times(0)).logSocket(anyLong(), anyInt(), anyInt());
+        inOrder.verify(snifferSocket, times(0)).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS), anyInt(), anyInt());
 
         assertArrayEquals(ALL_DATA, baos.toByteArray());
 
@@ -99,7 +100,7 @@ public class SnifferOutputStreamTest {
 
         sos.write(DATA, 1, 2);
 
-        verify(snifferSocket).logSocket(anyLong(), eq(0), eq(2));
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS), eq(0), eq(2));
 
     }
 
@@ -111,7 +112,7 @@ public class SnifferOutputStreamTest {
 
         sos.flush();
 
-        verify(snifferSocket).logSocket(anyLong());
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS));
 
     }
 
@@ -123,7 +124,7 @@ public class SnifferOutputStreamTest {
 
         sos.close();
 
-        verify(snifferSocket).logSocket(anyLong());
+        verify(snifferSocket).logSocket(anyLong(), eq(TimeUnit.NANOSECONDS));
 
     }
 
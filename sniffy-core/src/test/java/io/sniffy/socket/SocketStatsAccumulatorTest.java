@@ -0,0 +1,148 @@
+package io.sniffy.socket;
+
+import io.sniffy.Sniffy;
+import io.sniffy.Spy;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.sniffy.Threads.CURRENT;
+
+import static org.junit.Assert.*;
+
+public class SocketStatsAccumulatorTest {
+
+    private static final InetSocketAddress ADDRESS = InetSocketAddress.createUnresolved("localhost", 8080);
+
+    @Test
+    public void testOperationsOfSameThreadAreAccumulated() {
+
+        SocketStatsAccumulator accumulator = new SocketStatsAccumulator(42);
+        Thread thread = Thread.currentThread();
+
+        assertFalse(accumulator.accumulate(thread.getId(), ADDRESS, 10, 1, 2));
+        assertNull(accumulator.start(new SocketMetaData(ADDRESS, 42, null, thread), thread.getId(), 10, 1, 2));
+
+        assertTrue(accumulator.accumulate(thread.getId(), ADDRESS, 20, 3, 4));
+        assertTrue(accumulator.accumulate(thread.getId(), ADDRESS, 30, 5, 6));
+
+        SocketStatsAccumulator.Burst burst = accumulator.drain();
+        assertNotNull(burst);
+        assertEquals(42, burst.getSocketMetaData().getConnectionId());
+        assertEquals(thread.getId(), burst.getOwnerThreadId());
+        assertEquals(60, burst.getElapsedTimeNanos());
+        assertEquals(9, burst.getBytesDown());
+        assertEquals(12, burst.getBytesUp());
+
+        assertNull(accumulator.drain());
+        assertFalse(accumulator.accumulate(thread.getId(), ADDRESS, 10, 1, 2));
+
+    }
+
+    @Test
+    public void testBurstEndsWhenConnectionIsUsedByAnotherThread() {
+
+        SocketStatsAccumulator accumulator = new SocketStatsAccumulator(42);
+        Thread thread = Thread.currentThread();
+        Thread anotherThread = new Thread();
+
+        accumulator.start(new SocketMetaData(ADDRESS, 42, null, thread), thread.getId(), 10, 1, 2);
+        assertFalse(accumulator.accumulate(anotherThread.getId(), ADDRESS, 20, 3, 4));
+
+        SocketStatsAccumulator.Burst burst =
+                accumulator.start(new SocketMetaData(ADDRESS, 42, null, anotherThread), anotherThread.getId(), 20, 3, 4);
+        assertNotNull(burst);
+        assertEquals(thread.getId(), burst.getOwnerThreadId());
+        assertEquals(10, burst.getElapsedTimeNanos());
+
+        burst = accumulator.drain();
+        assertNotNull(burst);
+        assertEquals(anotherThread.getId(), burst.getOwnerThreadId());
+        assertEquals(3, burst.getBytesDown());
+
+    }
+
+    @Test
+    public void testBurstEndsBeforeOverflow() {
+
+        SocketStatsAccumulator accumulator = new SocketStatsAccumulator(42);
+        Thread thread = Thread.currentThread();
+
+        accumulator.start(new SocketMetaData(ADDRESS, 42, null, thread), thread.getId(), 10, Integer.MAX_VALUE - 1, 0);
+        assertTrue(accumulator.accumulate(thread.getId(), ADDRESS, 10, 1, 0));
+        assertFalse(accumulator.accumulate(thread.getId(), ADDRESS, 10, 1, 0));
+
+    }
+
+    @Test
+    public void testAccumulatorIsEnqueuedOnceTillDrained() {
+
+        SocketStatsAccumulator accumulator = new SocketStatsAccumulator(42);
+
+        assertTrue(accumulator.enqueue());
+        assertFalse(accumulator.enqueue());
+
+        accumulator.drain();
+
+        assertTrue(accumulator.enqueue());
+
+    }
+
+    @Test
+    public void testEndOfStreamIsNotSubtracted() {
+
+        SocketStatsAccumulator accumulator = new SocketStatsAccumulator(42);
+        Thread thread = Thread.currentThread();
+
+        accumulator.start(new SocketMetaData(ADDRESS, 42, null, thread), thread.getId(), 10, 1, 0);
+        assertTrue(accumulator.accumulate(thread.getId(), ADDRESS, 10, -1, 0));
+
+        assertEquals(1, accumulator.drain().getBytesDown());
+
+        accumulator.start(new SocketMetaData(ADDRESS, 42, null, thread), thread.getId(), 10, -1, 0);
+        assertEquals(0, accumulator.drain().getBytesDown());
+
+    }
+
+    @Test
+    public void testAccumulatedTotalsMatchNotAccumulatedOnes() throws Exception {
+
+        long[][] operations = {
+                {100, 0, 0}, {200, 0, 4}, {300, 1, 0}, {400, 1, 0}, {500, 3, 0}, {600, -1, 0}, {700, 0, 0}, {0, 0, 2}
+        };
+
+        SocketStatsAccumulator accumulator = new SocketStatsAccumulator(Integer.MAX_VALUE - 1);
+
+        try (Spy<?> spy = Sniffy.spy()) {
+
+            for (long[] operation : operations) {
+                Sniffy.logSocket(Integer.MAX_VALUE - 2, ADDRESS, operation[0], TimeUnit.NANOSECONDS, (int) operation[1], (int) operation[2], false);
+                Sniffy.logSocket(accumulator, ADDRESS, operation[0], (int) operation[1], (int) operation[2], false);
+            }
+
+            SocketStats notAccumulated = null;
+            SocketStats accumulated = null;
+
+            for (Map.Entry<SocketMetaData, SocketStats> entry : spy.getSocketOperations(CURRENT, true).entrySet()) {
+                if (Integer.MAX_VALUE - 2 == entry.getKey().getConnectionId()) {
+                    notAccumulated = entry.getValue();
+                } else if (Integer.MAX_VALUE - 1 == entry.getKey().getConnectionId()) {
+                    accumulated = entry.getValue();
+                }
+            }
+
+            assertNotNull(notAccumulated);
+            assertNotNull(accumulated);
+
+            assertEquals(5, notAccumulated.bytesDown.intValue());
+            assertEquals(notAccumulated.bytesDown.intValue(), accumulated.bytesDown.intValue());
+            assertEquals(notAccumulated.bytesUp.intValue(), accumulated.bytesUp.intValue());
+            assertEquals(notAccumulated.getElapsedTime(TimeUnit.NANOSECONDS), accumulated.getElapsedTime(TimeUnit.NANOSECONDS));
+
+        }
+
+    }
+
+}
@@ -0,0 +1,35 @@
+package io.sniffy.socket;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class SocketStatsTest {
+
+    @Test
+    public void testSubMillisecondOperationsAreAccumulated() {
+        SocketStats socketStats = new SocketStats(600, TimeUnit.MICROSECONDS, 1, 2);
+
+        assertEquals(0, socketStats.elapsedTime.longValue());
+        assertEquals(600, socketStats.getElapsedTime(TimeUnit.MICROSECONDS));
+
+        socketStats.accumulate(600, TimeUnit.MICROSECONDS, 1, 2);
+
+        assertEquals(1, socketStats.elapsedTime.longValue());
+        assertEquals(1200, socketStats.getElapsedTime(TimeUnit.MICROSECONDS));
+        assertEquals(2, socketStats.bytesDown.longValue());
+        assertEquals(4, socketStats.bytesUp.longValue());
+    }
+
+    @Test
+    public void testMillisecondConstructorIsCompatible() {
+        SocketStats socketStats = new SocketStats(42, 1, 2);
+        socketStats.accumulate(new SocketStats(8, 0, 0));
+
+        assertEquals(50, socketStats.elapsedTime.longValue());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), socketStats.elapsedTimeNanos.longValue());
+    }
+
+}
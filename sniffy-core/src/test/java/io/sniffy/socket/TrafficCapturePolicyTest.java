@@ -0,0 +1,122 @@
+package io.sniffy.socket;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+
+import static org.junit.Assert.*;
+
+public class TrafficCapturePolicyTest {
+
+    @Test
+    public void testDefaultPolicyCapturesEverything() {
+
+        TrafficCapture trafficCapture = TrafficCapturePolicy.DEFAULT.createTrafficCapture(
+                InetSocketAddress.createUnresolved("localhost", 8080)
+        );
+
+        assertSame(TrafficCapture.ALL, trafficCapture);
+        assertTrue(trafficCapture.isEnabled());
+        assertEquals(Integer.MAX_VALUE, trafficCapture.acquire(Integer.MAX_VALUE));
+        assertTrue(trafficCapture.isEnabled());
+
+        assertSame(TrafficCapture.ALL, TrafficCapturePolicy.DEFAULT.createTrafficCapture(null));
+
+    }
+
+    @Test
+    public void testAddressMatcher() {
+
+        TrafficCapturePolicy trafficCapturePolicy = TrafficCapturePolicy.builder().
+                addressMatcher(AddressMatchers.anyOfAddressMatcher(
+                        AddressMatchers.exactAddressMatcher("localhost:8080"),
+                        AddressMatchers.exactAddressMatcher("example.com")
+                )).
+                build();
+
+        assertTrue(trafficCapturePolicy.createTrafficCapture(
+                InetSocketAddress.createUnresolved("localhost", 8080)
+        ).isEnabled());
+        assertTrue(trafficCapturePolicy.createTrafficCapture(
+                InetSocketAddress.createUnresolved("example.com", 443)
+        ).isEnabled());
+
+        assertSame(TrafficCapture.NONE, trafficCapturePolicy.createTrafficCapture(
+                InetSocketAddress.createUnresolved("localhost", 8081)
+        ));
+        assertSame(TrafficCapture.NONE, trafficCapturePolicy.createTrafficCapture(null));
+
+    }
+
+    @Test
+    public void testAddressMatcherDoesNotResolveHostName() throws UnknownHostException {
+
+        TrafficCapturePolicy trafficCapturePolicy = TrafficCapturePolicy.builder().
+                addressMatcher(AddressMatchers.anyOfAddressMatcher(
+                        AddressMatchers.exactAddressMatcher("localhost:8080"),
+                        AddressMatchers.exactAddressMatcher("127.0.0.2:8080")
+                )).
+                build();
+
+        assertTrue(trafficCapturePolicy.createTrafficCapture(new InetSocketAddress(
+                InetAddress.getByAddress("localhost", new byte[]{127, 0, 0, 1}), 8080
+        )).isEnabled());
+        assertTrue(trafficCapturePolicy.createTrafficCapture(new InetSocketAddress(
+                InetAddress.getByAddress(new byte[]{127, 0, 0, 2}), 8080
+        )).isEnabled());
+
+        // address created from IP literal doesn't match host name even if reverse lookup would give it
+        assertSame(TrafficCapture.NONE, trafficCapturePolicy.createTrafficCapture(new InetSocketAddress(
+                InetAddress.getByAddress(new byte[]{127, 0, 0, 1}), 8080
+        )));
+
+    }
+
+    @Test
+    public void testSampleRate() {
+
+        TrafficCapturePolicy none = TrafficCapturePolicy.builder().sampleRate(0).build();
+        TrafficCapturePolicy all = TrafficCapturePolicy.builder().sampleRate(2).build();
+        TrafficCapturePolicy half = TrafficCapturePolicy.builder().sampleRate(0.5).build();
+
+        assertEquals(1, all.getSampleRate(), 0);
+        assertEquals(1, TrafficCapturePolicy.builder().sampleRate(Double.NaN).build().getSampleRate(), 0);
+
+        int captured = 0;
+
+        for (int i = 0; i < 1000; i++) {
+            assertSame(TrafficCapture.NONE, none.createTrafficCapture(null));
+            assertSame(TrafficCapture.ALL, all.createTrafficCapture(null));
+            if (half.createTrafficCapture(null).isEnabled()) captured++;
+        }
+
+        assertTrue(captured > 0);
+        assertTrue(captured < 1000);
+
+    }
+
+    @Test
+    public void testMaximumBytesPerConnection() {
+
+        TrafficCapturePolicy trafficCapturePolicy = TrafficCapturePolicy.builder().
+                maximumBytesPerConnection(100).
+                build();
+
+        TrafficCapture trafficCapture = trafficCapturePolicy.createTrafficCapture(null);
+
+        assertTrue(trafficCapture.isEnabled());
+        assertEquals(60, trafficCapture.acquire(60));
+        assertEquals(0, trafficCapture.acquire(0));
+        assertTrue(trafficCapture.isEnabled());
+        assertEquals(40, trafficCapture.acquire(60));
+        assertFalse(trafficCapture.isEnabled());
+        assertEquals(0, trafficCapture.acquire(60));
+
+        assertNotSame(trafficCapture, trafficCapturePolicy.createTrafficCapture(null));
+        assertTrue(trafficCapturePolicy.createTrafficCapture(null).isEnabled());
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.sniffy.socket;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TrafficShaperTest {
+
+    @Test
+    public void testDefaultProfileUsesFixedWindow() {
+
+        TrafficShaper trafficShaper = NetworkChaos.DEFAULT.createTrafficShaper();
+
+        int windowSize = SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
+
+        assertEquals(1, trafficShaper.getNumberOfRoundTrips(false, 1));
+        assertEquals(1, trafficShaper.getNumberOfRoundTrips(false, windowSize - 1));
+        assertEquals(2, trafficShaper.getNumberOfRoundTrips(false, windowSize));
+        assertEquals(3, trafficShaper.getNumberOfRoundTrips(true, 2 * windowSize + 1));
+
+        assertEquals(windowSize, trafficShaper.getWindowSize(false));
+        assertEquals(windowSize, trafficShaper.getWindowSize(true));
+
+        assertEquals(30, trafficShaper.getDelay(10, 3));
+        assertEquals(0, trafficShaper.getDelay(0, 3));
+        assertEquals(0, trafficShaper.getThrottlingDelay(true, Integer.MAX_VALUE));
+
+        assertSame(trafficShaper, NetworkChaos.DEFAULT.createTrafficShaper());
+
+    }
+
+    @Test
+    public void testWindowGrowsAfterEachRoundTrip() {
+
+        TrafficShaper trafficShaper = NetworkChaos.builder().
+                initialWindowSize(1000).
+                maximumWindowSize(8000).
+                build().
+                createTrafficShaper();
+
+        // 1000 + 2000 + 4000 bytes are transferred in 3 round trips
+        assertEquals(3, trafficShaper.getNumberOfRoundTrips(false, 6999));
+        assertEquals(8000, trafficShaper.getWindowSize(false));
+        assertEquals(1000, trafficShaper.getWindowSize(true));
+
+        // window doesn't grow above maximum
+        assertEquals(2, trafficShaper.getNumberOfRoundTrips(false, 8000));
+        assertEquals(8000, trafficShaper.getWindowSize(false));
+
+    }
+
+    @Test
+    public void testThrottling() {
+
+        TrafficShaper trafficShaper = NetworkChaos.builder().
+                bandwidth(10000).
+                build().
+                createTrafficShaper();
+
+        // bursts of up to 100 milliseconds of traffic are allowed
+        assertEquals(0, trafficShaper.getThrottlingDelay(true, 1000));
+
+        int throttlingDelay = trafficShaper.getThrottlingDelay(true, 10000);
+        assertTrue(throttlingDelay > 900 && throttlingDelay <= 1000);
+
+        // directions are throttled independently
+        assertEquals(0, trafficShaper.getThrottlingDelay(false, 1000));
+
+    }
+
+    @Test
+    public void testUniformJitter() {
+
+        TrafficShaper trafficShaper = NetworkChaos.builder().
+                jitter(5).
+                jitterDistribution(NetworkChaos.JitterDistribution.UNIFORM).
+                build().
+                createTrafficShaper();
+
+        for (int i = 0; i < 1000; i++) {
+            int delay = trafficShaper.getDelay(10, 2);
+            assertTrue(delay >= 10 && delay <= 30);
+        }
+
+    }
+
+    @Test
+    public void testNormalJitterIsNeverNegative() {
+
+        TrafficShaper trafficShaper = NetworkChaos.builder().
+                jitter(100).
+                jitterDistribution(NetworkChaos.JitterDistribution.NORMAL).
+                build().
+                createTrafficShaper();
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(trafficShaper.getDelay(1, 1) >= 0);
+            assertTrue(trafficShaper.getDelay(1, 100) >= 0);
+        }
+
+    }
+
+}
@@ -5,7 +5,6 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -27,7 +26,7 @@ public class DataSourceRegistryTest {
 
         try (Connection connection = DriverManager.getConnection("sniffy:jdbc:h2:mem:", "sa", "sa")) {
             assertNotNull(connection);
-            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertTrue(connection instanceof SniffyConnection);
         }
 
         Map<Map.Entry<String, String>, Integer> discoveredDataSources =
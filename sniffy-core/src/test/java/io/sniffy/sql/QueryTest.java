@@ -31,4 +31,15 @@ public class QueryTest {
                 "LONG_W REAL);"));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testParseCommonTableExpressionsAndCalls() throws Exception {
+        Assert.assertEquals(SqlStatement.SELECT, SqlUtil.guessQueryType("WITH RECURSIVE t(n) AS (VALUES (1) UNION ALL SELECT n + 1 FROM t) SELECT SUM(n) FROM t"));
+        Assert.assertEquals(SqlStatement.DELETE, SqlUtil.guessQueryType("with old as (select id from orders where created < ?), \"x\" as (select 1)\ndelete from orders where id in (select id from old)"));
+        Assert.assertEquals(SqlStatement.SELECT, SqlUtil.guessQueryType("/* comment */ -- select\n(SELECT 1) UNION (SELECT 2)"));
+        Assert.assertEquals(SqlStatement.SELECT, SqlUtil.guessQueryType("select\n*\nfrom dual"));
+        Assert.assertEquals(SqlStatement.OTHER, SqlUtil.guessQueryType("{? = call get_order_count(?)}"));
+        Assert.assertEquals(SqlStatement.OTHER, SqlUtil.guessQueryType("  "));
+        Assert.assertEquals(SqlStatement.OTHER, SqlUtil.guessQueryType("'SELECT'"));
+    }
+
+}
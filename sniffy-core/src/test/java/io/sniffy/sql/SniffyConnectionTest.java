@@ -0,0 +1,83 @@
+package io.sniffy.sql;
+
+import io.sniffy.BaseTest;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.*;
+
+public class SniffyConnectionTest extends BaseTest {
+
+    /**
+     * JDBC 4.3 methods are accessed reflectively since tests are compiled on Java 8 as well
+     */
+    @Test
+    public void testJdbc43ConnectionMethodsAreDelegated() throws Exception {
+
+        Class<?> shardingKeyClass = SniffyWrapper.getClassIfAvailable("java.sql.ShardingKey");
+        assumeTrue(null != shardingKeyClass);
+
+        Connection target = mock(Connection.class);
+        Connection sniffyConnection = new SniffyConnection(target, "jdbc:test:connection:url", "sa");
+
+        Object shardingKey = mock(shardingKeyClass);
+        Object superShardingKey = mock(shardingKeyClass);
+
+        Method beginRequest = Connection.class.getMethod("beginRequest");
+        Method endRequest = Connection.class.getMethod("endRequest");
+        Method setShardingKey = Connection.class.getMethod("setShardingKey", shardingKeyClass);
+        Method setShardingKeyWithSuperKey = Connection.class.getMethod("setShardingKey", shardingKeyClass, shardingKeyClass);
+        Method setShardingKeyIfValid = Connection.class.getMethod("setShardingKeyIfValid", shardingKeyClass, int.class);
+        Method setShardingKeyIfValidWithSuperKey = Connection.class.getMethod("setShardingKeyIfValid", shardingKeyClass, shardingKeyClass, int.class);
+
+        setShardingKeyIfValid.invoke(doReturn(true).when(target), shardingKey, 5);
+        setShardingKeyIfValidWithSuperKey.invoke(doReturn(true).when(target), shardingKey, superShardingKey, 5);
+
+        beginRequest.invoke(sniffyConnection);
+        setShardingKey.invoke(sniffyConnection, shardingKey);
+        setShardingKeyWithSuperKey.invoke(sniffyConnection, shardingKey, superShardingKey);
+        assertTrue((Boolean) setShardingKeyIfValid.invoke(sniffyConnection, shardingKey, 5));
+        assertTrue((Boolean) setShardingKeyIfValidWithSuperKey.invoke(sniffyConnection, shardingKey, superShardingKey, 5));
+        endRequest.invoke(sniffyConnection);
+
+        beginRequest.invoke(verify(target));
+        setShardingKey.invoke(verify(target), shardingKey);
+        setShardingKeyWithSuperKey.invoke(verify(target), shardingKey, superShardingKey);
+        setShardingKeyIfValid.invoke(verify(target), shardingKey, 5);
+        setShardingKeyIfValidWithSuperKey.invoke(verify(target), shardingKey, superShardingKey, 5);
+        endRequest.invoke(verify(target));
+
+    }
+
+    @Test
+    public void testJdbc43StatementMethodsAreDelegated() throws Exception {
+
+        Method enquoteLiteral = SniffyWrapper.getMethodIfAvailable(Statement.class, "enquoteLiteral", String.class);
+        assumeTrue(null != enquoteLiteral);
+
+        Method enquoteIdentifier = Statement.class.getMethod("enquoteIdentifier", String.class, boolean.class);
+        Method isSimpleIdentifier = Statement.class.getMethod("isSimpleIdentifier", String.class);
+        Method enquoteNCharLiteral = Statement.class.getMethod("enquoteNCharLiteral", String.class);
+
+        Statement target = mock(Statement.class);
+        Statement sniffyStatement = new SniffyStatement<Statement>(target, null, "jdbc:test:connection:url", "sa");
+
+        enquoteLiteral.invoke(doReturn("[literal]").when(target), "literal");
+        enquoteIdentifier.invoke(doReturn("[identifier]").when(target), "identifier", true);
+        isSimpleIdentifier.invoke(doReturn(true).when(target), "identifier");
+        enquoteNCharLiteral.invoke(doReturn("N[literal]").when(target), "literal");
+
+        assertEquals("[literal]", enquoteLiteral.invoke(sniffyStatement, "literal"));
+        assertEquals("[identifier]", enquoteIdentifier.invoke(sniffyStatement, "identifier", true));
+        assertEquals(true, isSimpleIdentifier.invoke(sniffyStatement, "identifier"));
+        assertEquals("N[literal]", enquoteNCharLiteral.invoke(sniffyStatement, "literal"));
+
+    }
+
+}
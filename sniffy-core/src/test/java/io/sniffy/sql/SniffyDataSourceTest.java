@@ -78,7 +78,7 @@ public class SniffyDataSourceTest extends BaseTest {
 
         try (Connection connection = sniffyDataSource.getConnection()) {
             assertNotNull(connection);
-            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertTrue(connection instanceof SniffyConnection);
             try (Spy spy = Sniffy.expect(SqlQueries.exactQueries(1));
                  Statement statement = connection.createStatement()) {
                 statement.execute("SELECT 1 FROM DUAL");
@@ -108,7 +108,7 @@ public class SniffyDataSourceTest extends BaseTest {
         try (Spy spy = Sniffy.expect(SqlQueries.exactQueries(1)).expect(TcpConnections.none());
              Connection connection = sniffyDataSource.getConnection()) {
             assertNotNull(connection);
-            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertTrue(connection instanceof SniffyConnection);
             try (Statement statement = connection.createStatement()) {
                 statement.execute("SELECT 1 FROM DUAL");
                 statement.getResultSet().next();
@@ -138,7 +138,7 @@ public class SniffyDataSourceTest extends BaseTest {
         try (Spy spy = Sniffy.expect(SqlQueries.exactQueries(1)).expect(TcpConnections.none());
              Connection connection = sniffyDataSource.getConnection("sa","sa")) {
             assertNotNull(connection);
-            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertTrue(connection instanceof SniffyConnection);
             try (Statement statement = connection.createStatement()) {
                 statement.execute("SELECT 1 FROM DUAL");
                 statement.getResultSet().next();
@@ -168,7 +168,7 @@ public class SniffyDataSourceTest extends BaseTest {
         try (Spy spy = Sniffy.expect(SqlQueries.exactQueries(1)).expect(TcpConnections.none());
              Connection connection = sniffyDataSource.getXAConnection().getConnection()) {
             assertNotNull(connection);
-            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertTrue(connection instanceof SniffyConnection);
             try (Statement statement = connection.createStatement()) {
                 statement.execute("SELECT 1 FROM DUAL");
                 statement.getResultSet().next();
@@ -198,7 +198,7 @@ public class SniffyDataSourceTest extends BaseTest {
         try (Spy spy = Sniffy.expect(SqlQueries.exactQueries(1)).expect(TcpConnections.none());
              Connection connection = sniffyDataSource.getXAConnection("sa","sa").getConnection()) {
             assertNotNull(connection);
-            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertTrue(connection instanceof SniffyConnection);
             try (Statement statement = connection.createStatement()) {
                 statement.execute("SELECT 1 FROM DUAL");
                 statement.getResultSet().next();
@@ -228,7 +228,7 @@ public class SniffyDataSourceTest extends BaseTest {
         try (Spy spy = Sniffy.expect(SqlQueries.exactQueries(1)).expect(TcpConnections.none());
              Connection connection = sniffyDataSource.getPooledConnection().getConnection()) {
             assertNotNull(connection);
-            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertTrue(connection instanceof SniffyConnection);
             try (Statement statement = connection.createStatement()) {
                 statement.execute("SELECT 1 FROM DUAL");
                 statement.getResultSet().next();
@@ -307,7 +307,7 @@ public class SniffyDataSourceTest extends BaseTest {
         try (Spy spy = Sniffy.expect(SqlQueries.exactQueries(1)).expect(TcpConnections.none());
              Connection connection = sniffyDataSource.getPooledConnection("sa","sa").getConnection()) {
             assertNotNull(connection);
-            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertTrue(connection instanceof SniffyConnection);
             try (Statement statement = connection.createStatement()) {
                 statement.execute("SELECT 1 FROM DUAL");
                 statement.getResultSet().next();
@@ -11,7 +11,6 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Proxy;
 import java.net.InetSocketAddress;
 import java.sql.*;
 import java.util.Enumeration;
@@ -51,7 +50,7 @@ public class SniffyDriverTest extends BaseTest {
     public void testGetMockConnection() throws ClassNotFoundException, SQLException {
         try (Connection connection = DriverManager.getConnection("sniffy:jdbc:h2:mem:", "sa", "sa")) {
             assertNotNull(connection);
-            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertTrue(connection instanceof SniffyConnection);
         }
     }
 
@@ -66,7 +65,7 @@ public class SniffyDriverTest extends BaseTest {
         Thread thread = new Thread(() -> {
             try (Connection connection = DriverManager.getConnection("sniffy:jdbc:h2:mem:", "sa", "sa")) {
                 assertNotNull(connection);
-                assertTrue(Proxy.isProxyClass(connection.getClass()));
+                assertTrue(connection instanceof SniffyConnection);
             } catch (Exception e) {
                 exceptionReference.set(e);
             }
@@ -94,7 +93,7 @@ public class SniffyDriverTest extends BaseTest {
         Thread thread = new Thread(() -> {
             try (Connection connection = DriverManager.getConnection("sniffy:jdbc:h2:mem:", "sa", "sa")) {
                 assertNotNull(connection);
-                assertTrue(Proxy.isProxyClass(connection.getClass()));
+                assertTrue(connection instanceof SniffyConnection);
             } catch (Exception e) {
                 exceptionReference.set(e);
             }
@@ -122,7 +121,7 @@ public class SniffyDriverTest extends BaseTest {
         Thread thread = new Thread(() -> {
             try (Connection connection = DriverManager.getConnection("sniffy:jdbc:h2:mem:", "sa", "sa")) {
                 assertNotNull(connection);
-                assertTrue(Proxy.isProxyClass(connection.getClass()));
+                assertTrue(connection instanceof SniffyConnection);
             } catch (Exception e) {
                 exceptionReference.set(e);
             }
@@ -151,7 +150,7 @@ public class SniffyDriverTest extends BaseTest {
         Thread thread = new Thread(() -> {
             try (Connection connection = DriverManager.getConnection("sniffy:jdbc:h2:mem:", "sa", "sa")) {
                 assertNotNull(connection);
-                assertTrue(Proxy.isProxyClass(connection.getClass()));
+                assertTrue(connection instanceof SniffyConnection);
             } catch (Exception e) {
                 exceptionReference.set(e);
             }
@@ -183,7 +182,7 @@ public class SniffyDriverTest extends BaseTest {
 
             try (Connection connection = DriverManager.getConnection("sniffy:jdbc:h2spy:mem:", "sa", "sa")) {
                 assertNotNull(connection);
-                assertTrue(Proxy.isProxyClass(connection.getClass()));
+                assertTrue(connection instanceof SniffyConnection);
             }
         } finally {
             Mockito.reset(testDriver);
@@ -191,7 +190,7 @@ public class SniffyDriverTest extends BaseTest {
 
         try (Connection connection = DriverManager.getConnection("sniffy:jdbc:h2spy:mem:", "sa", "sa")) {
             assertNotNull(connection);
-            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertTrue(connection instanceof SniffyConnection);
         }
 
     }
@@ -0,0 +1,238 @@
+package io.sniffy.sql;
+
+import io.qameta.allure.Issue;
+import io.sniffy.BaseTest;
+import io.sniffy.CurrentThreadSpy;
+import io.sniffy.Sniffy;
+import io.sniffy.Spy;
+import org.junit.Test;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SniffyPreparedStatementTest extends BaseTest {
+
+    @Test
+    @Issue("issues/337")
+    public void testExecuteBatchSuccessNoInfo() throws Exception {
+
+        PreparedStatement target = mock(PreparedStatement.class);
+        when(target.executeBatch()).thenReturn(new int[]{Statement.SUCCESS_NO_INFO, Statement.EXECUTE_FAILED});
+
+        PreparedStatement sniffyPreparedStatement = new SniffyPreparedStatement<PreparedStatement>(
+                target, null, "jdbc:test:connection:url", "sa", "UPDATE TAB SET FOO = ?"
+        );
+
+        try (CurrentThreadSpy spy = Sniffy.spyCurrentThread()) {
+
+            sniffyPreparedStatement.executeBatch();
+
+            List<SqlStats> sqlStatsList = new ArrayList<>(spy.getExecutedStatements().values());
+            assertEquals(1, sqlStatsList.size());
+
+            SqlStats sqlStats = sqlStatsList.get(0);
+
+            assertEquals(1, sqlStats.queries.intValue());
+            assertEquals(0, sqlStats.rows.intValue());
+
+        }
+
+    }
+
+    @Test
+    public void testExecuteLargeUpdate() throws Exception {
+
+        PreparedStatement target = mock(PreparedStatement.class);
+        when(target.executeLargeUpdate()).thenReturn(3L);
+
+        PreparedStatement sniffyPreparedStatement = new SniffyPreparedStatement<PreparedStatement>(
+                target, null, "jdbc:test:connection:url", "sa", "UPDATE TAB SET FOO = ?"
+        );
+
+        try (CurrentThreadSpy spy = Sniffy.spyCurrentThread()) {
+
+            assertEquals(3L, sniffyPreparedStatement.executeLargeUpdate());
+
+            List<StatementMetaData> statements = new ArrayList<>(spy.getExecutedStatements().keySet());
+            assertEquals(1, statements.size());
+            assertEquals("UPDATE TAB SET FOO = ?", statements.get(0).sql);
+            assertEquals(3, spy.getExecutedStatements().get(statements.get(0)).rows.intValue());
+
+        }
+
+    }
+
+    @Test
+    public void testExecuteQueryStackTraceAndReturnedRows() throws Exception {
+        try (CurrentThreadSpy spy = Sniffy.spyCurrentThread();
+             Connection connection = DriverManager.getConnection("sniffy:jdbc:h2:mem:", "sa", "sa");
+             PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM DUAL")) {
+
+            assertTrue(statement instanceof SniffyPreparedStatement);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertTrue(resultSet instanceof SniffyResultSet);
+                assertSame(statement, resultSet.getStatement());
+                assertTrue(resultSet.next());
+                assertFalse(resultSet.next());
+            }
+
+            List<StatementMetaData> statements = new ArrayList<>(spy.getExecutedStatements().keySet());
+            assertEquals(1, statements.size());
+
+            StatementMetaData statementMetaData = statements.get(0);
+            assertNotNull(statementMetaData.getStackTrace());
+            assertTrue(statementMetaData.getStackTrace().startsWith("java.sql.PreparedStatement.executeQuery"));
+            assertTrue(statementMetaData.getStackTrace().contains(SniffyPreparedStatementTest.class.getName()));
+            assertEquals(1, spy.getExecutedStatements().get(statementMetaData).rows.intValue());
+        }
+    }
+
+    @Test
+    public void testAddBatchWithSqlRecordsPreparedSql() throws Exception {
+
+        PreparedStatement target = mock(PreparedStatement.class);
+        when(target.executeBatch()).thenReturn(new int[]{1, 1});
+
+        PreparedStatement sniffyPreparedStatement = new SniffyPreparedStatement<PreparedStatement>(
+                target, null, "jdbc:test:connection:url", "sa", "UPDATE TAB SET FOO = ?"
+        );
+
+        try (CurrentThreadSpy spy = Sniffy.spyCurrentThread()) {
+
+            sniffyPreparedStatement.addBatch();
+            sniffyPreparedStatement.addBatch("UPDATE TAB SET BAR = 1");
+            sniffyPreparedStatement.executeBatch();
+
+            verify(target).addBatch("UPDATE TAB SET BAR = 1");
+
+            List<StatementMetaData> statements = new ArrayList<>(spy.getExecutedStatements().keySet());
+            assertEquals(1, statements.size());
+            assertEquals("UPDATE TAB SET FOO = ? /*2 times*/", statements.get(0).sql);
+
+        }
+
+    }
+
+    @Test
+    public void testEqualsIsSymmetric() throws SQLException {
+
+        PreparedStatement target = mock(PreparedStatement.class);
+
+        PreparedStatement sniffyPreparedStatement = new SniffyPreparedStatement<PreparedStatement>(
+                target, null, "jdbc:test:connection:url", "sa", "UPDATE TAB SET FOO = ?"
+        );
+        PreparedStatement otherSniffyPreparedStatement = new SniffyPreparedStatement<PreparedStatement>(
+                target, null, "jdbc:test:connection:url", "sa", "UPDATE TAB SET FOO = ?"
+        );
+
+        assertEquals(sniffyPreparedStatement, otherSniffyPreparedStatement);
+        assertEquals(otherSniffyPreparedStatement, sniffyPreparedStatement);
+        assertEquals(target.equals(sniffyPreparedStatement), sniffyPreparedStatement.equals(target));
+        assertNotEquals(sniffyPreparedStatement, null);
+
+    }
+
+    @Test
+    public void testCreateStatementReturnsWrapper() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("sniffy:jdbc:h2:mem:", "sa", "sa");
+             Statement statement = connection.createStatement();
+             CallableStatement callableStatement = connection.prepareCall("CALL 1")) {
+            assertTrue(statement instanceof SniffyStatement);
+            assertTrue(callableStatement instanceof SniffyCallableStatement);
+            assertSame(connection, statement.getConnection());
+            assertEquals(statement, statement);
+            assertEquals(statement.hashCode(), statement.hashCode());
+        }
+    }
+
+    @Test
+    @Issue("issues/337")
+    public void testExecuteLongBatchSuccessNoInfo() throws Exception {
+
+        PreparedStatement target = mock(PreparedStatement.class);
+        when(target.executeLargeBatch()).thenReturn(new long[]{Statement.SUCCESS_NO_INFO, Statement.EXECUTE_FAILED});
+
+        PreparedStatement sniffyPreparedStatement = new SniffyPreparedStatement<PreparedStatement>(
+                target, null, "jdbc:test:connection:url", "sa", "UPDATE TAB SET FOO = ?"
+        );
+
+        try (CurrentThreadSpy spy = Sniffy.spyCurrentThread()) {
+
+            sniffyPreparedStatement.executeLargeBatch();
+
+            List<SqlStats> sqlStatsList = new ArrayList<>(spy.getExecutedStatements().values());
+            assertEquals(1, sqlStatsList.size());
+
+            SqlStats sqlStats = sqlStatsList.get(0);
+
+            assertEquals(1, sqlStats.queries.intValue());
+            assertEquals(0, sqlStats.rows.intValue());
+
+        }
+
+    }
+
+    @Test
+    public void testExecuteBatch() throws Exception {
+        try (Connection connection = openConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(INSERT_PREPARED_STATEMENT)) {
+            preparedStatement.setString(1, "foo");
+            preparedStatement.addBatch();
+            int[] result = preparedStatement.executeBatch();
+            assertEquals(1, result.length);
+        }
+    }
+
+    @Test
+    public void testExecuteBatchCountUpdatedRows() throws Exception {
+        try (@SuppressWarnings("unused") Spy $= Sniffy.expect(SqlQueries.exactRows(2));
+             Connection connection = openConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(INSERT_PREPARED_STATEMENT)) {
+            preparedStatement.setString(1, "foo");
+            preparedStatement.addBatch();
+            preparedStatement.setString(1, "bar");
+            preparedStatement.addBatch();
+            int[] result = preparedStatement.executeBatch();
+            OptionalInt rowsAffected = Arrays.stream(result).filter(i -> i != -1).reduce((a, b) -> a + b);
+            assertTrue(rowsAffected.isPresent());
+            assertEquals(2, rowsAffected.getAsInt());
+        }
+    }
+
+    @Test
+    public void testExecuteEmptyBatch() throws Exception {
+        try (Connection connection = openConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(INSERT_PREPARED_STATEMENT)) {
+            int[] result = preparedStatement.executeBatch();
+            assertEquals(0, result.length);
+        }
+    }
+
+    @Test
+    public void testExecuteInsertPreparedStatement() throws Exception {
+        try (Connection connection = openConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(INSERT_PREPARED_STATEMENT)) {
+            preparedStatement.setString(1, "foo");
+            int result = preparedStatement.executeUpdate();
+            assertEquals(1, result);
+        }
+    }
+
+    @Test
+    public void getConnectionFromPreparedStatement() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("sniffy:jdbc:h2:mem:", "sa", "sa");
+             PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM DUAL")) {
+            assertEquals(connection, statement.getConnection());
+        }
+    }
+
+}
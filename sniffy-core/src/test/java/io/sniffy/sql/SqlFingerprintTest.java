@@ -0,0 +1,71 @@
+package io.sniffy.sql;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SqlFingerprintTest {
+
+    @Test
+    public void testLiteralsAndWhitespace() {
+        SqlFingerprint sqlFingerprint = SqlFingerprint.of(
+                "  SELECT /* hint */ NAME,\n\t'it''s' FROM PERSON -- comment\nWHERE ID = 42 AND CODE = N'x' AND RATE > -1.5e-3 AND K = :key AND T = $1  "
+        );
+        assertEquals("SELECT NAME, ? FROM PERSON WHERE ID = ? AND CODE = ? AND RATE > -? AND K = ? AND T = ?", sqlFingerprint.getFingerprint());
+        assertEquals("SELECT", sqlFingerprint.getVerb());
+        assertEquals(SqlStatement.SELECT, sqlFingerprint.getSqlStatement());
+    }
+
+    @Test
+    public void testInListsAreCollapsed() {
+        SqlFingerprint sqlFingerprint = SqlFingerprint.of("DELETE FROM T WHERE ID IN (1, 2, 3) OR ID NOT IN (?) OR ID IN (SELECT ID FROM S WHERE X IN ('a'))");
+        assertEquals("DELETE FROM T WHERE ID in (?) OR ID NOT in (?) OR ID IN (SELECT ID FROM S WHERE X in (?))", sqlFingerprint.getFingerprint());
+
+        SqlFingerprint other = SqlFingerprint.of("DELETE  FROM T WHERE ID in (?,?) OR ID NOT IN (5) OR ID IN (SELECT ID FROM S WHERE X IN ('b', 'c'))");
+        assertEquals(sqlFingerprint, other);
+        assertEquals(sqlFingerprint.getHash(), other.getHash());
+        assertNotEquals(sqlFingerprint.getHash(), SqlFingerprint.of("DELETE FROM T").getHash());
+    }
+
+    @Test
+    public void testIdentifiersAreKept() {
+        assertEquals(
+                "SELECT \"col 1\", t1.c2, `c3`, [c4], x::text FROM t1",
+                SqlFingerprint.of("SELECT \"col 1\", t1.c2, `c3`, [c4], x::text FROM t1").getFingerprint()
+        );
+        assertEquals("SELECT ?", SqlFingerprint.of("SELECT $tag$it's $1$tag$").getFingerprint());
+    }
+
+    @Test
+    public void testBackslashEscapedLiterals() {
+        SqlFingerprint sqlFingerprint = SqlFingerprint.of("select * from t where name = 'O\\'Brien' and id in (?, ?)");
+        assertEquals("select * from t where name = ? and id in (?)", sqlFingerprint.getFingerprint());
+        assertEquals(sqlFingerprint, SqlFingerprint.of("select * from t where name = 'it''s' and id in (1)"));
+    }
+
+    @Test
+    public void testUnterminatedLiteral() {
+        assertEquals(
+                "select * from t where id in (?) and name = 'O",
+                SqlFingerprint.of("select * from t where id in (?, ?) and name = 'O").getFingerprint()
+        );
+    }
+
+    @Test
+    public void testNumbersAfterQualifierAreKept() {
+        assertEquals("SELECT x.5, \"t\".1c, ? FROM x", SqlFingerprint.of("SELECT x.5, \"t\".1c, .5 FROM x").getFingerprint());
+    }
+
+    @Test
+    public void testVerbs() {
+        assertEquals("INSERT", SqlFingerprint.of("WITH x AS (SELECT 1) INSERT INTO T SELECT * FROM x").getVerb());
+        assertEquals("CALL", SqlFingerprint.of("{call update_stats(?)}").getVerb());
+        assertEquals("CALL", SqlFingerprint.of("{? = CALL get_count()}").getVerb());
+        assertEquals("EXEC", SqlFingerprint.of("exec sp_who").getVerb());
+        assertEquals("CREATE", SqlFingerprint.of("create index IDX on T(ID)").getVerb());
+        assertEquals(SqlStatement.OTHER, SqlFingerprint.of("ALTER TABLE T ADD C INT").getSqlStatement());
+        assertEquals("PRAGMA", SqlFingerprint.of("pragma foreign_keys").getVerb());
+        assertNull(SqlFingerprint.of("-- nothing").getVerb());
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.sniffy.sql;
+
+import com.codahale.metrics.Timer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SqlTimeAggregatorTest {
+
+    private static class RecordingSqlTimeAggregator extends SqlTimeAggregator {
+
+        private final List<String> lookups = new ArrayList<String>();
+
+        private RecordingSqlTimeAggregator() {
+            super(64, 256);
+        }
+
+        @Override
+        protected synchronized Timer getTimer(String normalizedSql) {
+            lookups.add(normalizedSql);
+            return null;
+        }
+
+    }
+
+    @Test
+    public void testTimerIsLookedUpForEachQuery() {
+        RecordingSqlTimeAggregator aggregator = new RecordingSqlTimeAggregator();
+        aggregator.record("SELECT 1 FROM DUAL", 1);
+        aggregator.record("SELECT 1 FROM DUAL", 1);
+        aggregator.record("SELECT 2 FROM DUAL", 1);
+        aggregator.record("SELECT 1 FROM DUAL", 1);
+        aggregator.flush();
+        assertEquals(
+                Arrays.asList("SELECT 1 FROM DUAL", "SELECT 1 FROM DUAL", "SELECT 2 FROM DUAL", "SELECT 1 FROM DUAL"),
+                aggregator.lookups
+        );
+    }
+
+    @Test
+    public void testQueriesFromDifferentThreadsAreMergedInExecutionOrder() throws Exception {
+        final RecordingSqlTimeAggregator aggregator = new RecordingSqlTimeAggregator();
+        for (int i = 0; i < 4; i++) {
+            final String sql = "SELECT " + i + " FROM DUAL";
+            Thread thread = new Thread(() -> aggregator.record(sql, 1));
+            thread.start();
+            thread.join();
+            Thread.sleep(2);
+        }
+        aggregator.flush();
+        assertEquals(
+                Arrays.asList("SELECT 0 FROM DUAL", "SELECT 1 FROM DUAL", "SELECT 2 FROM DUAL", "SELECT 3 FROM DUAL"),
+                aggregator.lookups
+        );
+    }
+
+}
@@ -0,0 +1,114 @@
+package io.sniffy.sql;
+
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SqlTimerTest {
+
+    @Test
+    public void testHistogramPercentiles() {
+        SqlTimeHistogram histogram = new SqlTimeHistogram();
+        for (long i = 1; i <= 100000; i++) {
+            histogram.recordValue(i * 1000);
+        }
+
+        assertEquals(100000, histogram.getCount());
+        assertEquals(1000, histogram.getMin());
+        assertEquals(100000000, histogram.getMax());
+        assertEquals(50000500, histogram.getMean(), 1);
+
+        assertEquals(50000000, histogram.getValueAtQuantile(0.5), 50000000 / 64);
+        assertEquals(99000000, histogram.getValueAtQuantile(0.99), 99000000 / 64);
+        assertEquals(99900000, histogram.getValueAtQuantile(0.999), 99900000 / 64);
+        assertEquals(100000000, histogram.getValueAtQuantile(1));
+        assertEquals(1000, histogram.getValueAtQuantile(0), 1000 / 64);
+    }
+
+    @Test
+    public void testHistogramSmallValuesAreExact() {
+        SqlTimeHistogram histogram = new SqlTimeHistogram();
+        for (long i = 0; i < 100; i++) {
+            histogram.recordValue(i);
+        }
+        assertEquals(49, histogram.getValueAtQuantile(0.5));
+        assertEquals(98, histogram.getValueAtQuantile(0.99));
+
+        SqlTimeHistogram copy = new SqlTimeHistogram(histogram);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtQuantile(0.5));
+        assertEquals(100, copy.getCount());
+        assertEquals(100, copy.getBucketValues().length);
+    }
+
+    @Test
+    public void testTimeWindows() {
+        SqlTimer sqlTimer = new SqlTimer(TimeUnit.MINUTES.toMillis(1), TimeUnit.HOURS.toMillis(1));
+        assertArrayEquals(new long[]{TimeUnit.MINUTES.toMillis(1), TimeUnit.HOURS.toMillis(1)}, sqlTimer.getWindowsMillis());
+
+        long now = TimeUnit.DAYS.toMillis(1);
+
+        sqlTimer.update(TimeUnit.MILLISECONDS.toNanos(100), now - TimeUnit.MINUTES.toMillis(30));
+        sqlTimer.update(TimeUnit.MILLISECONDS.toNanos(1), now - TimeUnit.SECONDS.toMillis(10));
+        sqlTimer.update(TimeUnit.MILLISECONDS.toNanos(2), now);
+
+        assertEquals(3, sqlTimer.getCount());
+        assertEquals(3, sqlTimer.getSnapshot().size());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), sqlTimer.getSnapshot().getMax());
+
+        Snapshot lastMinute = sqlTimer.getSnapshot(TimeUnit.MINUTES.toMillis(1), now);
+        assertEquals(2, lastMinute.size());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2), lastMinute.getMax());
+
+        Snapshot lastHour = sqlTimer.getSnapshot(TimeUnit.HOURS.toMillis(1), now);
+        assertEquals(3, lastHour.size());
+
+        assertEquals(0, sqlTimer.getSnapshot(TimeUnit.MINUTES.toMillis(1), now + TimeUnit.MINUTES.toMillis(2)).size());
+        assertNull(sqlTimer.getSnapshot(TimeUnit.MINUTES.toMillis(5), now));
+
+        // slot reused for the new time period
+        sqlTimer.update(TimeUnit.MILLISECONDS.toNanos(3), now + TimeUnit.MINUTES.toMillis(5));
+        assertEquals(1, sqlTimer.getSnapshot(TimeUnit.MINUTES.toMillis(1), now + TimeUnit.MINUTES.toMillis(5)).size());
+    }
+
+    @Test
+    public void testAggregatorMergesInOrder() {
+        final Map<String, Timer> timers = new LinkedHashMap<String, Timer>();
+
+        SqlTimeAggregator sqlTimeAggregator = new SqlTimeAggregator(4, 3) {
+
+            @Override
+            protected Timer getTimer(String normalizedSql) {
+                Timer timer = timers.get(normalizedSql);
+                if (null == timer) {
+                    timers.put(normalizedSql, timer = new SqlTimer());
+                }
+                return timer;
+            }
+
+        };
+
+        sqlTimeAggregator.record("SELECT * FROM T WHERE ID IN (?, ?)", 1);
+        sqlTimeAggregator.record("SELECT 1", 2);
+        assertTrue(timers.isEmpty());
+
+        sqlTimeAggregator.record("SELECT * FROM T WHERE ID IN (?, ?, ?)", 3);
+        assertEquals(2, timers.size());
+        assertEquals(2, timers.get("SELECT * FROM T WHERE ID in (?)").getCount());
+
+        sqlTimeAggregator.record("SELECT 2", 4);
+        assertEquals(2, timers.size());
+
+        sqlTimeAggregator.flush();
+        assertEquals(3, timers.size());
+        assertEquals(4, timers.get("SELECT 2").getSnapshot().getMax());
+    }
+
+}
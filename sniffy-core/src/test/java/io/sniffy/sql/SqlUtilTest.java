@@ -5,6 +5,7 @@ import org.junit.Test;
 
 import static io.sniffy.sql.SqlUtil.normalizeInStatement;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class SqlUtilTest {
 
@@ -47,4 +48,31 @@ public class SqlUtilTest {
         );
     }
 
+    @Test
+    public void testNormalizeInStatementIgnoresLiteralsAndSingleParameter() {
+        String sql = "SELECT ' in (?, ?)' FROM T WHERE ID IN (?) AND NAME IN ('A', 'B') -- in (?, ?)";
+        assertSame(sql, normalizeInStatement(sql));
+        assertEquals("SELECT * FROM T WHERE ID in (?) AND CODE IN (?, 'A')", normalizeInStatement("SELECT * FROM T WHERE ID IN(?,?) AND CODE IN (?, 'A')"));
+    }
+
+    @Test
+    public void testNormalizeInStatementWithBackslashEscapedLiteral() {
+        assertEquals(
+                "select * from t where name = 'O\\'Brien' and id in (?)",
+                normalizeInStatement("select * from t where name = 'O\\'Brien' and id in (?, ?)")
+        );
+        assertEquals(
+                "select * from t where name = '\\\\' and id in (?)",
+                normalizeInStatement("select * from t where name = '\\\\' and id in (?, ?)")
+        );
+    }
+
+    @Test
+    public void testNormalizeInStatementWithUnterminatedLiteral() {
+        assertEquals(
+                "select * from t where id in (?) and name = 'O",
+                normalizeInStatement("select * from t where id in (?, ?) and name = 'O")
+        );
+    }
+
 }
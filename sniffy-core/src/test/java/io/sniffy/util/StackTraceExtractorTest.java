@@ -1,11 +1,15 @@
 package io.sniffy.util;
 
+import io.sniffy.ThreadMetaData;
+import io.sniffy.sql.SqlStatement;
+import io.sniffy.sql.StatementMetaData;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -54,4 +58,122 @@ public class StackTraceExtractorTest {
         Assert.assertEquals("", StackTraceExtractor.printStackTrace(null));
         Assert.assertEquals("", StackTraceExtractor.printStackTrace(Collections.EMPTY_LIST));
     }
+
+    private static String[] getTraceTillPackageBothWays() {
+        return new String[]{StackTraceExtractor.getTraceTillPackageAsString("io.sniffy.util"), StackTraceExtractor.printStackTrace(StackTraceExtractor.getTraceTillPackage("io.sniffy.util"))};
+    }
+
+    @Test
+    public void testGetTraceTillPackageAsString() {
+        String[] stackTraces = getTraceTillPackageBothWays();
+        String[] lines = stackTraces[0].split(System.getProperty("line.separator"));
+        String[] legacyLines = stackTraces[1].split(System.getProperty("line.separator"));
+        Assert.assertEquals(legacyLines.length, lines.length);
+        // first frame is the last skipped one; rest should be exactly the same
+        for (int i = 1; i < lines.length; i++) {
+            Assert.assertEquals(legacyLines[i], lines[i]);
+        }
+        // test class itself is skipped as well, so JUnit is the first frame outside of skipped packages
+        Assert.assertTrue(lines[1].startsWith("org.junit."));
+    }
+
+    @Test
+    public void testGetTraceTillPackageAsStringRenderedOnce() {
+        String stackTrace = null;
+        for (int i = 0; i < 2; i++) {
+            String newStackTrace = getTraceTillPackageBothWays()[0];
+            if (null != stackTrace) {
+                Assert.assertSame(stackTrace, newStackTrace);
+            }
+            stackTrace = newStackTrace;
+        }
+    }
+
+    @Test
+    public void testWalkStackTraceStopsAtFirstRejectedFrame() {
+        final List<String> visitedMethods = new ArrayList<String>();
+        StackTraceExtractor.walkStackTrace(new StackTraceExtractor.StackFrameVisitor() {
+            @Override
+            public boolean visitFrame(String className, String methodName) {
+                visitedMethods.add(methodName);
+                return !StackTraceExtractorTest.class.getName().equals(className);
+            }
+        });
+        Assert.assertEquals("testWalkStackTraceStopsAtFirstRejectedFrame", visitedMethods.get(visitedMethods.size() - 1));
+        Assert.assertEquals(1, Collections.frequency(visitedMethods, "testWalkStackTraceStopsAtFirstRejectedFrame"));
+    }
+
+    static class TestImplementingMethod {
+
+        Object[] testBaseMethod() {
+            return new Object[]{
+                    StackTraceExtractor.captureTraceForImplementingMethod(TestBase.class, "testBaseMethod", TestImplementingMethod.class),
+                    StackTraceExtractor.getTraceForImplementingMethod(TestBase.class, "testBaseMethod", TestImplementingMethod.class)
+            };
+        }
+
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCaptureTraceForImplementingMethod() {
+        Object[] stackTraces = new TestImplementingMethod().testBaseMethod();
+        List<StackTraceElement> frames = ((CapturedStackTrace) stackTraces[0]).getFrames();
+        List<StackTraceElement> legacyFrames = (List<StackTraceElement>) stackTraces[1];
+        Assert.assertEquals(legacyFrames.size(), frames.size());
+        Assert.assertEquals(TestBase.class.getCanonicalName(), frames.get(0).getClassName());
+        Assert.assertEquals("testBaseMethod", frames.get(0).getMethodName());
+        Assert.assertEquals("testCaptureTraceForImplementingMethod", frames.get(1).getMethodName());
+        // frame of implementing method has different line numbers; rest should be exactly the same
+        Assert.assertEquals(legacyFrames.subList(1, legacyFrames.size()), frames.subList(1, frames.size()));
+    }
+
+    @Test
+    public void testCapturedStackTraceEquality() {
+        List<StackTraceElement> frames = StackTraceExtractor.getTraceTillPackage("io.sniffy.util");
+        CapturedStackTrace capturedStackTrace = CapturedStackTrace.of(frames);
+        Assert.assertEquals(capturedStackTrace, CapturedStackTrace.of(frames));
+        Assert.assertEquals(capturedStackTrace.hashCode(), CapturedStackTrace.of(frames).hashCode());
+        Assert.assertEquals(frames, capturedStackTrace.getFrames());
+        Assert.assertEquals(StackTraceExtractor.printStackTrace(frames), capturedStackTrace.render());
+    }
+
+    @Test
+    public void testStackFrameTableIsBounded() {
+        StackFrameTable stackFrameTable = new StackFrameTable(2);
+        StackTraceElement[] frames = new Throwable().getStackTrace();
+        Assert.assertEquals(0, stackFrameTable.intern(frames[0]));
+        Assert.assertEquals(1, stackFrameTable.intern(frames[1]));
+        Assert.assertEquals(0, stackFrameTable.intern(frames[0]));
+        Assert.assertEquals(-1, stackFrameTable.intern(frames[2]));
+        Assert.assertEquals(2, stackFrameTable.size());
+    }
+
+    @Test
+    public void testCapturedStackTraceSurvivesTableReplacement() {
+        List<StackTraceElement> frames = StackTraceExtractor.getTraceTillPackage("io.sniffy.util");
+        CapturedStackTrace capturedStackTrace = CapturedStackTrace.of(frames);
+        StackFrameTable previousStackFrameTable = StackFrameTable.current();
+        StackFrameTable stackFrameTable = StackFrameTable.retire(previousStackFrameTable);
+        Assert.assertNotSame(previousStackFrameTable, stackFrameTable);
+        Assert.assertSame(stackFrameTable, StackFrameTable.current());
+        Assert.assertEquals(frames, capturedStackTrace.getFrames());
+        Assert.assertEquals(frames, CapturedStackTrace.of(frames).getFrames());
+        Assert.assertEquals(capturedStackTrace, CapturedStackTrace.of(frames));
+        Assert.assertEquals(capturedStackTrace.hashCode(), CapturedStackTrace.of(frames).hashCode());
+    }
+
+    @Test
+    public void testStatementMetaDataRendersCapturedStackTraceLazily() {
+        CapturedStackTrace capturedStackTrace = StackTraceExtractor.captureTraceTillPackage("io.sniffy.util");
+        ThreadMetaData threadMetaData = ThreadMetaData.create(Thread.currentThread());
+        StatementMetaData statementMetaData = new StatementMetaData("SELECT 1 FROM DUAL", SqlStatement.SELECT, threadMetaData, capturedStackTrace);
+        Assert.assertNull(statementMetaData.stackTrace);
+        Assert.assertEquals(new StatementMetaData("SELECT 1 FROM DUAL", SqlStatement.SELECT, threadMetaData, capturedStackTrace), statementMetaData);
+        Assert.assertSame(StackTraceExtractor.renderStackTrace(capturedStackTrace), statementMetaData.getStackTrace());
+        // deprecated field is populated once stack trace is rendered
+        Assert.assertSame(statementMetaData.getStackTrace(), statementMetaData.stackTrace);
+        Assert.assertEquals(new StatementMetaData("SELECT 1 FROM DUAL", SqlStatement.SELECT, threadMetaData, capturedStackTrace), statementMetaData);
+    }
+
 }
@@ -12,4 +12,14 @@ public class StringUtilTest {
         assertEquals("\"\"", StringUtil.escapeJsonString(null));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testFormatMillis() throws Exception {
+        assertEquals("0", StringUtil.formatMillis(0));
+        assertEquals("0", StringUtil.formatMillis(999));
+        assertEquals("0.001", StringUtil.formatMillis(1000));
+        assertEquals("0.25", StringUtil.formatMillis(250000));
+        assertEquals("42", StringUtil.formatMillis(42000000));
+        assertEquals("42.05", StringUtil.formatMillis(42050000));
+    }
+
+}
@@ -6,9 +6,13 @@ import io.sniffy.configuration.SniffyConfiguration;
 import io.sniffy.log.Polyglog;
 import io.sniffy.log.PolyglogFactory;
 import io.sniffy.registry.ConnectionsRegistry;
+import io.sniffy.socket.ClientHelloReader;
 import io.sniffy.socket.Protocol;
 import io.sniffy.socket.SniffyNetworkConnection;
 import io.sniffy.socket.SniffySSLNetworkConnection;
+import io.sniffy.socket.SocketStatsAccumulator;
+import io.sniffy.socket.TrafficCapture;
+import io.sniffy.socket.TrafficShaper;
 import io.sniffy.util.ExceptionUtil;
 
 import java.io.IOException;
@@ -24,6 +28,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 // TODO: this functionality is available in java 1.7+ only - make sure it is safe
 /**
@@ -37,6 +42,8 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
 
     private final int id = Sniffy.CONNECTION_ID_SEQUENCE.getAndIncrement();
 
+    private final SocketStatsAccumulator socketStatsAccumulator = new SocketStatsAccumulator(id);
+
     // fields related to injecting latency fault
     private volatile int potentiallyBufferedInputBytes = 0;
     private volatile int potentiallyBufferedOutputBytes = 0;
@@ -46,7 +53,11 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
 
     private volatile Integer connectionStatus;
 
-    private boolean firstChunk = true;
+    private final TrafficShaper trafficShaper = SniffyConfiguration.INSTANCE.getNetworkChaos().createTrafficShaper();
+
+    private final AtomicReference<TrafficCapture> trafficCapture = new AtomicReference<TrafficCapture>();
+
+    private final ClientHelloReader clientHelloReader = new ClientHelloReader();
 
     public CompatSniffyAsynchronousSocketChannel(AsynchronousChannelProvider provider, AsynchronousSocketChannel delegate) {
         super(provider);
@@ -157,51 +168,112 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
     @Deprecated
     @Override
     public void logSocket(long millis) {
-        logSocket(millis, 0, 0);
+        logSocket(millis, TimeUnit.MILLISECONDS, 0, 0);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit) {
+        logSocket(elapsedTime, timeUnit, 0, 0);
     }
 
     @Deprecated
     @Override
     public void logSocket(long millis, int bytesDown, int bytesUp) {
+        logSocket(millis, TimeUnit.MILLISECONDS, bytesDown, bytesUp);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit, int bytesDown, int bytesUp) {
+
+        long elapsedTimeNanos = timeUnit.toNanos(elapsedTime);
 
         if (!SniffyConfiguration.INSTANCE.getSocketCaptureEnabled()) return;
 
         Sniffy.SniffyMode sniffyMode = Sniffy.getSniffyMode();
-        if (sniffyMode.isEnabled() && null != getInetSocketAddress() && (millis > 0 || bytesDown > 0 || bytesUp > 0)) {
-            Sniffy.logSocket(id, getInetSocketAddress(), millis, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces());
+        if (sniffyMode.isEnabled() && null != getInetSocketAddress() && (elapsedTimeNanos > 0 || bytesDown > 0 || bytesUp > 0)) {
+            Sniffy.logSocket(socketStatsAccumulator, getInetSocketAddress(), elapsedTimeNanos, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces());
         }
     }
 
     public void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("SniffyAsynchronousSocketChannel.logTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + id);
-            Sniffy.logTraffic(
-                    id, getInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
-            if (sent && firstChunk) {
-                SniffySSLNetworkConnection sniffySSLNetworkConnection = Sniffy.CLIENT_HELLO_CACHE.get(ByteBuffer.wrap(traffic, off, len));
-                if (null != sniffySSLNetworkConnection) {
-                    sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffyAsynchronousSocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                    if (null != sniffySSLNetworkConnection) {
+                        sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                    }
                 }
             }
-            firstChunk = false;
         }
     }
 
     public void logDecryptedTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("SniffyAsynchronousSocketChannel.logDecryptedTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + id);
-            Sniffy.logDecryptedTraffic(
-                    id, getInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffyAsynchronousSocketChannel.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logDecryptedTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffyAsynchronousSocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                    if (null != sniffySSLNetworkConnection) {
+                        sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logDecryptedTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffyAsynchronousSocketChannel.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logDecryptedTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
         }
     }
 
@@ -282,14 +354,14 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
 
     @Override
     public Future<Void> connect(SocketAddress remote) {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             checkConnectionAllowed(1);
             return delegate.connect(remote);
         } catch (Exception e) {
             throw ExceptionUtil.processException(e);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -301,7 +373,7 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
     @Override
     public Future<Integer> read(ByteBuffer dst) {
 
-        final long start = System.currentTimeMillis();
+        final long start = System.nanoTime();
 
         final Future<Integer> integerFuture = delegate.read(dst);
 
@@ -331,7 +403,7 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
                 } catch (ConnectException e) {
                     throw new ExecutionException(new AsynchronousCloseException()); // TODO: this is all wrong
                 }
-                logSocket(System.currentTimeMillis() - start, bytesDown, 0);
+                logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, bytesDown, 0);
                 return bytesDown;
             }
 
@@ -344,7 +416,7 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
                 } catch (ConnectException e) {
                     throw new ExecutionException(new AsynchronousCloseException()); // TODO: this is all wrong
                 }
-                logSocket(System.currentTimeMillis() - start, bytesDown, 0);
+                logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, bytesDown, 0);
                 return bytesDown;
             }
 
@@ -365,7 +437,7 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
     @Override
     public Future<Integer> write(ByteBuffer src) {
 
-        final long start = System.currentTimeMillis();
+        final long start = System.nanoTime();
 
         final Future<Integer> integerFuture = delegate.write(src);
 
@@ -395,7 +467,7 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
                 } catch (ConnectException e) {
                     throw new ExecutionException(new AsynchronousCloseException()); // TODO: this is all wrong
                 }
-                logSocket(System.currentTimeMillis() - start, 0, bytesUp);
+                logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, bytesUp);
                 return bytesUp;
             }
 
@@ -408,7 +480,7 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
                 } catch (ConnectException e) {
                     throw new ExecutionException(new AsynchronousCloseException()); // TODO: this is all wrong
                 }
-                logSocket(System.currentTimeMillis() - start, 0, bytesUp);
+                logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, bytesUp);
                 return bytesUp;
             }
 
@@ -427,7 +499,11 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
 
     @Override
     public void close() throws IOException {
-        delegate.close();
+        try {
+            delegate.close();
+        } finally {
+            Sniffy.flushSocketStats(socketStatsAccumulator);
+        }
     }
 
     @Override
@@ -447,6 +523,25 @@ public class CompatSniffyAsynchronousSocketChannel extends AsynchronousSocketCha
 
     //
 
+    @Override
+    public TrafficShaper getTrafficShaper() {
+        return trafficShaper;
+    }
+
+    @Override
+    public TrafficCapture getTrafficCapture() {
+        TrafficCapture trafficCapture = this.trafficCapture.get();
+        if (null == trafficCapture) {
+            trafficCapture = SniffyConfiguration.INSTANCE.getTrafficCapturePolicy().createTrafficCapture(
+                    null == proxiedAddress ? getInetSocketAddress() : proxiedAddress
+            );
+            if (!this.trafficCapture.compareAndSet(null, trafficCapture)) {
+                trafficCapture = this.trafficCapture.get();
+            }
+        }
+        return trafficCapture;
+    }
+
     @Override
     public int getPotentiallyBufferedInputBytes() {
         return potentiallyBufferedInputBytes;
@@ -15,6 +15,8 @@ import java.net.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @since 3.1.7
@@ -25,8 +27,14 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
 
     private final int connectionId = Sniffy.CONNECTION_ID_SEQUENCE.getAndIncrement();
 
+    private final SocketStatsAccumulator socketStatsAccumulator = new SocketStatsAccumulator(connectionId);
+
     private volatile Integer connectionStatus;
 
+    private final TrafficShaper trafficShaper = SniffyConfiguration.INSTANCE.getNetworkChaos().createTrafficShaper();
+
+    private final AtomicReference<TrafficCapture> trafficCapture = new AtomicReference<TrafficCapture>();
+
     // fields related to injecting latency fault
     private volatile int potentiallyBufferedInputBytes = 0;
     private volatile int potentiallyBufferedOutputBytes = 0;
@@ -34,11 +42,11 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
     private volatile long lastReadThreadId;
     private volatile long lastWriteThreadId;
 
-    private boolean firstChunk = true;
+    private final ClientHelloReader clientHelloReader = new ClientHelloReader();
 
     protected CompatSniffySocketChannel(SelectorProvider provider, SocketChannel delegate) {
         super(provider, delegate);
-        LOG.trace("Created new CompatSniffySocketChannel(" + provider + ", " + delegate + ") = " + this);
+        LOG.trace("Created new CompatSniffySocketChannel({}, {}) = {}", provider, delegate, this);
     }
 
     @Override
@@ -151,19 +159,40 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
     @Deprecated
     @Override
     public void logSocket(long millis) {
-        logSocket(millis, 0, 0);
+        logSocket(millis, TimeUnit.MILLISECONDS, 0, 0);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit) {
+        logSocket(elapsedTime, timeUnit, 0, 0);
+    }
+
+    @Override
+    public void implCloseSelectableChannel() {
+        try {
+            super.implCloseSelectableChannel();
+        } finally {
+            Sniffy.flushSocketStats(socketStatsAccumulator);
+        }
     }
 
     @Deprecated
     @Override
     public void logSocket(long millis, int bytesDown, int bytesUp) {
+        logSocket(millis, TimeUnit.MILLISECONDS, bytesDown, bytesUp);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit, int bytesDown, int bytesUp) {
+
+        long elapsedTimeNanos = timeUnit.toNanos(elapsedTime);
 
         if (!SniffyConfiguration.INSTANCE.getSocketCaptureEnabled()) return;
 
-        if (null != getInetSocketAddress() && (millis > 0 || bytesDown > 0 || bytesUp > 0)) {
+        if (null != getInetSocketAddress() && (elapsedTimeNanos > 0 || bytesDown > 0 || bytesUp > 0)) {
             Sniffy.SniffyMode sniffyMode = Sniffy.getSniffyMode();
             if (sniffyMode.isEnabled()) {
-                Sniffy.logSocket(connectionId, getInetSocketAddress(), millis, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces()); // TODO: stack trace here should be calculated till another package
+                Sniffy.logSocket(socketStatsAccumulator, getInetSocketAddress(), elapsedTimeNanos, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces()); // TODO: stack trace here should be calculated till another package
             }
         }
     }
@@ -171,19 +200,21 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
     public void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("CompatSniffySocketChannel.logTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + connectionId);
-            Sniffy.logTraffic(
-                    connectionId, getInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
-            if (sent && firstChunk) {
-                SniffySSLNetworkConnection sniffySSLNetworkConnection = Sniffy.CLIENT_HELLO_CACHE.get(ByteBuffer.wrap(traffic, off, len));
-                if (null != sniffySSLNetworkConnection) {
-                    sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("CompatSniffySocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logTraffic(
+                        connectionId, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                    if (null != sniffySSLNetworkConnection) {
+                        sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                    }
                 }
-                firstChunk = false;
             }
         }
     }
@@ -191,35 +222,111 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
     public void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len, boolean isConnectPacket) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("CompatSniffySocketChannel.logTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + connectionId);
-            Sniffy.logTraffic(
-                    connectionId, getInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
-            if (!isConnectPacket) {
-                if (sent && firstChunk) {
-                    SniffySSLNetworkConnection sniffySSLNetworkConnection = Sniffy.CLIENT_HELLO_CACHE.get(ByteBuffer.wrap(traffic, off, len));
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("CompatSniffySocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logTraffic(
+                        connectionId, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (!isConnectPacket) {
+                    if (sent) {
+                        SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                        if (null != sniffySSLNetworkConnection) {
+                            sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public void logDecryptedTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("CompatSniffySocketChannel.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logDecryptedTraffic(
+                        connectionId, null == getProxiedInetSocketAddress() ? getInetSocketAddress() : getProxiedInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("CompatSniffySocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logTraffic(
+                        connectionId, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
                     if (null != sniffySSLNetworkConnection) {
                         sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
                     }
                 }
-                firstChunk = false;
             }
         }
     }
 
-    public void logDecryptedTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
+    /**
+     * @since 3.1.14
+     */
+    public void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len, boolean isConnectPacket) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("CompatSniffySocketChannel.logDecryptedTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + connectionId);
-            Sniffy.logDecryptedTraffic(
-                    connectionId, null == getProxiedInetSocketAddress() ? getInetSocketAddress() : getProxiedInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("CompatSniffySocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logTraffic(
+                        connectionId, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (!isConnectPacket) {
+                    if (sent) {
+                        SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                        if (null != sniffySSLNetworkConnection) {
+                            sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logDecryptedTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("CompatSniffySocketChannel.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logDecryptedTraffic(
+                        connectionId, null == getProxiedInetSocketAddress() ? getInetSocketAddress() : getProxiedInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
         }
     }
 
@@ -266,12 +373,12 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
 
     @Override
     public boolean connect(SocketAddress remote) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             checkConnectionAllowed((InetSocketAddress) remote, 1);
             return super.connect(remote);
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -279,7 +386,7 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
     public int read(ByteBuffer dst) throws IOException {
         // TODO: honor SpyConfiguration.isBufferIncomingTraffic() and SniffyConfiguration.INSTANCE.getIncomingTrafficBufferSize() settings
         checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         int bytesDown = 0;
         int position = dst.position();
         try {
@@ -287,14 +394,10 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
         } finally {
             if (bytesDown >= 0) { // TODO: implement same check in other places
                 sleepIfRequired(bytesDown);
-                logSocket(System.currentTimeMillis() - start, bytesDown, 0);
+                logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, bytesDown, 0);
                 SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
-                if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-                    dst.position(position);
-                    byte[] buff = new byte[bytesDown];
-                    dst.get(buff, 0, bytesDown);
-
-                    logTraffic(false, Protocol.TCP, buff, 0, buff.length);
+                if (effectiveSpyConfiguration.isCaptureNetworkTraffic() && getTrafficCapture().isEnabled()) {
+                    logTraffic(false, Protocol.TCP, dst, position, bytesDown);
                 }
             }
         }
@@ -304,7 +407,7 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
     public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
         // TODO: honor SpyConfiguration.isBufferIncomingTraffic() and SniffyConfiguration.INSTANCE.getIncomingTrafficBufferSize() settings
         checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         long bytesDown = 0;
 
         int[] positions = new int[length];
@@ -319,20 +422,16 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
         } finally {
             while (bytesDown > Integer.MAX_VALUE) {
                 sleepIfRequiredForWrite(Integer.MAX_VALUE);
-                logSocket(System.currentTimeMillis() - start, Integer.MAX_VALUE, 0);
+                logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, Integer.MAX_VALUE, 0);
                 bytesDown -= Integer.MAX_VALUE;
             }
-            logSocket(System.currentTimeMillis() - start, (int) bytesDown, 0);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, (int) bytesDown, 0);
 
             SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
-            if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            if (effectiveSpyConfiguration.isCaptureNetworkTraffic() && getTrafficCapture().isEnabled()) {
                 for (int i = 0; i < length; i++) {
                     //TODO: cover by unit test
-                    int newPosition = dsts[offset + i].position();
-                    dsts[offset + i].position(positions[i]);
-                    byte[] buff = new byte[newPosition - positions[i]];
-                    dsts[offset + i].get(buff, 0, newPosition - positions[i]);
-                    logTraffic(false, Protocol.TCP, buff, 0, buff.length);
+                    logTraffic(false, Protocol.TCP, dsts[offset + i], positions[i], dsts[offset + i].position() - positions[i]);
                 }
 
             }
@@ -342,7 +441,7 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
     @Override
     public int write(ByteBuffer src) throws IOException {
         checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         int length = 0;
 
         int position = src.position();
@@ -352,17 +451,18 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
             return length;
         } finally {
             sleepIfRequiredForWrite(length);
-            logSocket(System.currentTimeMillis() - start, 0, length);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, length);
             SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
             if (effectiveSpyConfiguration.isCaptureNetworkTraffic() || isFirstPacketSent()) {
-                src.position(position);
-                byte[] buff = new byte[length];
-                src.get(buff, 0, length);
 
                 boolean isConnectPacket = false;
 
                 if (!isFirstPacketSent()) {
 
+                    src.position(position);
+                    byte[] buff = new byte[length];
+                    src.get(buff, 0, length);
+
                     try {
                         SniffyPacketAnalyzer sniffyPacketAnalyzer = new SniffyPacketAnalyzer(this);
                         sniffyPacketAnalyzer.analyze(buff, 0, buff.length);
@@ -376,8 +476,8 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
 
                 }
 
-                if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-                    logTraffic(true, Protocol.TCP, buff, 0, buff.length, isConnectPacket);
+                if (effectiveSpyConfiguration.isCaptureNetworkTraffic() && getTrafficCapture().isEnabled()) {
+                    logTraffic(true, Protocol.TCP, src, position, length, isConnectPacket);
                 }
 
             }
@@ -387,7 +487,7 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
     @Override
     public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
         checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         long bytesUp = 0;
 
         int[] positions = new int[length];
@@ -404,20 +504,21 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
         } finally {
             while (bytesUp > Integer.MAX_VALUE) {
                 sleepIfRequiredForWrite(Integer.MAX_VALUE);
-                logSocket(System.currentTimeMillis() - start, 0, Integer.MAX_VALUE);
+                logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, Integer.MAX_VALUE);
                 bytesUp -= Integer.MAX_VALUE;
             }
             sleepIfRequiredForWrite((int) bytesUp);
-            logSocket(System.currentTimeMillis() - start, 0, (int) bytesUp);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, (int) bytesUp);
             SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
 
             boolean isConnectPacket = false;
 
             if (!isFirstPacketSent()) {
 
-                srcs[offset].position(positions[0]);
+                ByteBuffer firstBuffer = srcs[offset].duplicate();
+                firstBuffer.position(positions[0]);
                 byte[] buff = new byte[remainings[0]];
-                srcs[offset].get(buff, 0, remainings[0]);
+                firstBuffer.get(buff, 0, remainings[0]);
 
                 try {
                     SniffyPacketAnalyzer sniffyPacketAnalyzer = new SniffyPacketAnalyzer(this);
@@ -432,12 +533,9 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
 
             }
 
-            if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            if (effectiveSpyConfiguration.isCaptureNetworkTraffic() && getTrafficCapture().isEnabled()) {
                 for (int i = 0; i < length; i++) {
-                    srcs[offset + i].position(positions[i]);
-                    byte[] buff = new byte[remainings[i]]; // TODO: here in other places avoid wrapping ByteBuffer to byte[]
-                    srcs[offset + i].get(buff, 0, remainings[i]);
-                    logTraffic(true, Protocol.TCP, buff, 0, buff.length, isConnectPacket);
+                    logTraffic(true, Protocol.TCP, srcs[offset + i], positions[i], srcs[offset + i].position() - positions[i], isConnectPacket);
                 }
 
             }
@@ -449,7 +547,7 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
         try {
             SniffySocket sniffySocket = new SniffySocket(super.socket(), this, connectionId,
                 JVMUtil.getVersion() > 6 ? getInetSocketAddress() : null);
-            LOG.trace("Getting SniffySocket " + sniffySocket + " from CompatSniffySocketChannel " + this);
+            LOG.trace("Getting SniffySocket {} from CompatSniffySocketChannel {}", sniffySocket, this);
             return sniffySocket;
         } catch (SocketException e) {
             e.printStackTrace();
@@ -459,6 +557,25 @@ public class CompatSniffySocketChannel extends CompatSniffySocketChannelAdapter
 
     //
 
+    @Override
+    public TrafficShaper getTrafficShaper() {
+        return trafficShaper;
+    }
+
+    @Override
+    public TrafficCapture getTrafficCapture() {
+        TrafficCapture trafficCapture = this.trafficCapture.get();
+        if (null == trafficCapture) {
+            trafficCapture = SniffyConfiguration.INSTANCE.getTrafficCapturePolicy().createTrafficCapture(
+                    null == proxiedAddress ? getInetSocketAddress() : proxiedAddress
+            );
+            if (!this.trafficCapture.compareAndSet(null, trafficCapture)) {
+                trafficCapture = this.trafficCapture.get();
+            }
+        }
+        return trafficCapture;
+    }
+
     @Override
     public int getPotentiallyBufferedInputBytes() {
         return potentiallyBufferedInputBytes;
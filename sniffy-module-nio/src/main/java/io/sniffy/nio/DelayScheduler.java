@@ -0,0 +1,82 @@
+package io.sniffy.nio;
+
+import io.sniffy.log.Polyglog;
+import io.sniffy.log.PolyglogFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared timer used for injecting latency without blocking the thread which performs IO;
+ * instead of sleeping, the continuation of an operation (for example a {@link java.nio.channels.CompletionHandler} callback)
+ * is scheduled to run after the delay.
+ * <p>
+ * Threading: a single "Sniffy Delay Scheduler" daemon thread only waits out the delays; once a delay expires the
+ * continuation is handed over to a cached pool of "Sniffy Delayed Callback" daemon threads, so a slow or blocking
+ * callback doesn't hold back continuations of other channels. Like with {@link java.nio.channels.AsynchronousChannelGroup}
+ * callbacks, continuations should not assume they are invoked in any particular thread.
+ * The executor of the channel group itself is not exposed by the NIO API, hence the separate pool
+ *
+ * @since 3.1.14
+ */
+final class DelayScheduler {
+
+    private static final Polyglog LOG = PolyglogFactory.log(DelayScheduler.class);
+
+    private DelayScheduler() {
+    }
+
+    /**
+     * Runs given task in current thread if delay is not positive or in a callback pool thread after the delay otherwise
+     */
+    static void schedule(final Runnable task, long delayMillis) {
+        if (delayMillis <= 0) {
+            task.run();
+        } else {
+            final Runnable callback = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } catch (Throwable e) {
+                        LOG.error(e);
+                    }
+                }
+            };
+            Holder.TIMER.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    Holder.CALLBACKS.execute(callback);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static class Holder {
+
+        private static final ScheduledExecutorService TIMER = new ScheduledThreadPoolExecutor(1, daemonThreadFactory("Sniffy Delay Scheduler"));
+
+        private static final ExecutorService CALLBACKS = new ThreadPoolExecutor(
+                0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                daemonThreadFactory("Sniffy Delayed Callback")
+        );
+
+        private static ThreadFactory daemonThreadFactory(final String name) {
+            return new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, name);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+        }
+
+    }
+
+}
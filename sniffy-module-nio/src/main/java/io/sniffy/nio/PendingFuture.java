@@ -0,0 +1,100 @@
+package io.sniffy.nio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link Future} completed by {@link CompletionHandler} callbacks; allows implementing {@code Future} returning
+ * methods of asynchronous channels on top of their {@code CompletionHandler} counterparts so that both of them
+ * are instrumented the same way.
+ * <p>
+ * Similar to futures returned by JDK asynchronous channels, cancelling with {@code mayInterruptIfRunning = true}
+ * closes the channel
+ *
+ * @since 3.1.14
+ */
+final class PendingFuture<V> implements Future<V>, CompletionHandler<V, Object> {
+
+    private final Closeable channel;
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private volatile V result;
+    private volatile Throwable exception;
+    private volatile boolean cancelled;
+
+    PendingFuture(Closeable channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void completed(V result, Object attachment) {
+        if (done.compareAndSet(false, true)) {
+            this.result = result;
+            latch.countDown();
+        }
+    }
+
+    @Override
+    public void failed(Throwable exception, Object attachment) {
+        if (done.compareAndSet(false, true)) {
+            this.exception = exception;
+            latch.countDown();
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!done.compareAndSet(false, true)) {
+            return false;
+        }
+        cancelled = true;
+        latch.countDown();
+        if (mayInterruptIfRunning) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return 0 == latch.getCount();
+    }
+
+    @Override
+    public V get() throws InterruptedException, ExecutionException {
+        latch.await();
+        return getResult();
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!latch.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return getResult();
+    }
+
+    private V getResult() throws ExecutionException {
+        if (cancelled) {
+            throw new CancellationException();
+        } else if (null != exception) {
+            throw new ExecutionException(exception);
+        } else {
+            return result;
+        }
+    }
+
+}
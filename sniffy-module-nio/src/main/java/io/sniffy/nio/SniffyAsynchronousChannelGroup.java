@@ -0,0 +1,51 @@
+package io.sniffy.nio;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes {@link java.nio.channels.AsynchronousSocketChannel#open(AsynchronousChannelGroup)} use
+ * {@link SniffyAsynchronousChannelProvider} since it takes provider from the group
+ *
+ * @since 3.1.14
+ */
+class SniffyAsynchronousChannelGroup extends AsynchronousChannelGroup {
+
+    private final AsynchronousChannelGroup delegate;
+
+    SniffyAsynchronousChannelGroup(SniffyAsynchronousChannelProvider provider, AsynchronousChannelGroup delegate) {
+        super(provider);
+        this.delegate = delegate;
+    }
+
+    static AsynchronousChannelGroup unwrap(AsynchronousChannelGroup group) {
+        return group instanceof SniffyAsynchronousChannelGroup ? ((SniffyAsynchronousChannelGroup) group).delegate : group;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public void shutdownNow() throws IOException {
+        delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+}
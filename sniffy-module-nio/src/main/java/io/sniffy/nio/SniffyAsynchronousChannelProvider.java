@@ -1,127 +1,96 @@
 package io.sniffy.nio;
 
+import io.sniffy.log.Polyglog;
+import io.sniffy.log.PolyglogFactory;
 import io.sniffy.util.ReflectionUtil;
-import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.nio.channels.AsynchronousChannelGroup;
 import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.spi.AsynchronousChannelProvider;
-import java.nio.channels.spi.SelectorProvider;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 
 // TODO: this functionality is available in java 1.7+ only - make sure it is safe
-// TODO: integrate with Sniffy; currently it is not used
 /**
+ * Installed by {@link SniffySelectorProviderModule} together with {@link SniffySelectorProvider}
+ *
  * @since 3.1.7
  */
 public class SniffyAsynchronousChannelProvider extends AsynchronousChannelProvider {
 
+    private static final Polyglog LOG = PolyglogFactory.log(SniffyAsynchronousChannelProvider.class);
+
+    private static volatile AsynchronousChannelProvider previousAsynchronousChannelProvider;
+
     private final AsynchronousChannelProvider delegate;
 
     public SniffyAsynchronousChannelProvider(AsynchronousChannelProvider delegate) {
         this.delegate = delegate;
     }
 
-    public static void install() {
-        AsynchronousChannelProvider delegate = AsynchronousChannelProvider.provider();
-
-        if (null != delegate && SniffyAsynchronousChannelProvider.class.equals(delegate.getClass())) {
-            return;
-        }
-
-        try {
-            Class<?> holderClass = Class.forName("java.nio.channels.spi.AsynchronousChannelProvider$ProviderHolder");
+    public static synchronized boolean install() {
 
-            Field instanceField = holderClass.getDeclaredField("provider");
-            //instanceField.setAccessible(true);
-            ReflectionUtil.setAccessible(instanceField);
+        AsynchronousChannelProvider delegate = AsynchronousChannelProvider.provider();
 
-            Field modifiersField = getModifiersField();
-            //modifiersField.setAccessible(true);
-            ReflectionUtil.setAccessible(modifiersField);
-            modifiersField.setInt(instanceField, instanceField.getModifiers() & ~Modifier.FINAL);
+        LOG.info("Original AsynchronousChannelProvider was " + delegate);
 
-            instanceField.set(null, new SniffyAsynchronousChannelProvider(delegate));
+        if (null == delegate) {
+            return false;
+        }
 
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-        } catch (NoSuchFieldException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
+        if (null == previousAsynchronousChannelProvider && !SniffyAsynchronousChannelProvider.class.equals(delegate.getClass())) {
+            previousAsynchronousChannelProvider = delegate;
         }
-    }
 
-    public static void uninstall() {
+        if (SniffyAsynchronousChannelProvider.class.equals(delegate.getClass())) {
+            return true;
+        }
 
-        // TODO: save default to static field and restore here
+        AsynchronousChannelProvider sniffyAsynchronousChannelProvider = new SniffyAsynchronousChannelProvider(delegate);
 
-        /*try {
-            Class<?> holderClass = Class.forName("java.nio.channels.spi.AsynchronousChannelProvider$ProviderHolder");
+        LOG.info("Setting AsynchronousChannelProvider to " + sniffyAsynchronousChannelProvider);
 
-            Field instanceField = holderClass.getDeclaredField("provider");
-            instanceField.setAccessible(true);
+        return ReflectionUtil.setField(
+                "java.nio.channels.spi.AsynchronousChannelProvider$ProviderHolder", null, "provider", sniffyAsynchronousChannelProvider
+        );
 
-            Field modifiersField = getModifiersField();
-            modifiersField.setAccessible(true);
-            modifiersField.setInt(instanceField, instanceField.getModifiers() & ~Modifier.FINAL);
+    }
 
-            instanceField.set(null, delegate);
+    public static synchronized boolean uninstall() {
 
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-        } catch (NoSuchFieldException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        }*/
-    }
+        LOG.info("Restoring original AsynchronousChannelProvider " + previousAsynchronousChannelProvider);
 
-    @IgnoreJRERequirement
-    private static Field getModifiersField() throws NoSuchFieldException {
-        try {
-            return Field.class.getDeclaredField("modifiers");
-        } catch (NoSuchFieldException e) {
-            try {
-                Method getDeclaredFields0 = Class.class.getDeclaredMethod("getDeclaredFields0", boolean.class);
-                //getDeclaredFields0.setAccessible(true);
-                ReflectionUtil.setAccessible(getDeclaredFields0);
-                Field[] fields = (Field[]) getDeclaredFields0.invoke(Field.class, false);
-                for (Field field : fields) {
-                    if ("modifiers".equals(field.getName())) {
-                        return field;
-                    }
-                }
-            } catch (ReflectiveOperationException ex) {
-                e.addSuppressed(ex);
-            }
-            throw e;
+        if (null == previousAsynchronousChannelProvider) {
+            return false;
         }
+
+        return ReflectionUtil.setField(
+                "java.nio.channels.spi.AsynchronousChannelProvider$ProviderHolder", null, "provider", previousAsynchronousChannelProvider
+        );
+
     }
 
     @Override
     public AsynchronousChannelGroup openAsynchronousChannelGroup(int nThreads, ThreadFactory threadFactory) throws IOException {
-        return delegate.openAsynchronousChannelGroup(nThreads, threadFactory);
+        return new SniffyAsynchronousChannelGroup(this, delegate.openAsynchronousChannelGroup(nThreads, threadFactory));
     }
 
     @Override
     public AsynchronousChannelGroup openAsynchronousChannelGroup(ExecutorService executor, int initialSize) throws IOException {
-        return delegate.openAsynchronousChannelGroup(executor, initialSize);
+        return new SniffyAsynchronousChannelGroup(this, delegate.openAsynchronousChannelGroup(executor, initialSize));
     }
 
     @Override
     public AsynchronousServerSocketChannel openAsynchronousServerSocketChannel(AsynchronousChannelGroup group) throws IOException {
-        return delegate.openAsynchronousServerSocketChannel(group);
+        return delegate.openAsynchronousServerSocketChannel(SniffyAsynchronousChannelGroup.unwrap(group));
     }
 
     @Override
     public AsynchronousSocketChannel openAsynchronousSocketChannel(AsynchronousChannelGroup group) throws IOException {
-        return new SniffyAsynchronousSocketChannel(this, delegate.openAsynchronousSocketChannel(group));
+        return new SniffyAsynchronousSocketChannel(this, delegate.openAsynchronousSocketChannel(SniffyAsynchronousChannelGroup.unwrap(group)));
     }
+
 }
+
@@ -6,24 +6,28 @@ import io.sniffy.configuration.SniffyConfiguration;
 import io.sniffy.log.Polyglog;
 import io.sniffy.log.PolyglogFactory;
 import io.sniffy.registry.ConnectionsRegistry;
+import io.sniffy.socket.ClientHelloReader;
 import io.sniffy.socket.Protocol;
 import io.sniffy.socket.SniffyNetworkConnection;
 import io.sniffy.socket.SniffySSLNetworkConnection;
+import io.sniffy.socket.SocketStatsAccumulator;
+import io.sniffy.socket.TrafficCapture;
+import io.sniffy.socket.TrafficShaper;
+import io.sniffy.util.CapturedStackTrace;
 import io.sniffy.util.ExceptionUtil;
+import io.sniffy.util.StackTraceExtractor;
 
 import java.io.IOException;
 import java.net.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousChannelGroup;
-import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.CompletionHandler;
 import java.nio.channels.spi.AsynchronousChannelProvider;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 // TODO: this functionality is available in java 1.7+ only - make sure it is safe
 
@@ -38,6 +42,8 @@ public class SniffyAsynchronousSocketChannel extends AsynchronousSocketChannel i
 
     private final int id = Sniffy.CONNECTION_ID_SEQUENCE.getAndIncrement();
 
+    private final SocketStatsAccumulator socketStatsAccumulator = new SocketStatsAccumulator(id);
+
     // fields related to injecting latency fault
     private volatile int potentiallyBufferedInputBytes = 0;
     private volatile int potentiallyBufferedOutputBytes = 0;
@@ -47,7 +53,16 @@ public class SniffyAsynchronousSocketChannel extends AsynchronousSocketChannel i
 
     private volatile Integer connectionStatus;
 
-    private boolean firstChunk = true;
+    private final TrafficShaper trafficShaper = SniffyConfiguration.INSTANCE.getNetworkChaos().createTrafficShaper();
+
+    private final AtomicReference<TrafficCapture> trafficCapture = new AtomicReference<TrafficCapture>();
+
+    /**
+     * Remote address passed to connect method; allows logging socket operations without querying delegate
+     */
+    private volatile InetSocketAddress inetSocketAddress;
+
+    private final ClientHelloReader clientHelloReader = new ClientHelloReader();
 
     public SniffyAsynchronousSocketChannel(AsynchronousChannelProvider provider, AsynchronousSocketChannel delegate) {
         super(provider);
@@ -61,6 +76,10 @@ public class SniffyAsynchronousSocketChannel extends AsynchronousSocketChannel i
 
     @Override
     public InetSocketAddress getInetSocketAddress() {
+        InetSocketAddress inetSocketAddress = this.inetSocketAddress;
+        if (null != inetSocketAddress) {
+            return inetSocketAddress;
+        }
         try {
             return (InetSocketAddress) delegate.getRemoteAddress();
         } catch (Exception e) {
@@ -93,17 +112,18 @@ public class SniffyAsynchronousSocketChannel extends AsynchronousSocketChannel i
 
 
     /**
-     * Adds a delay as defined for current {@link SniffyAsynchronousSocketChannel} in {@link ConnectionsRegistry#discoveredDataSources}
+     * Estimates number of delays defined for current {@link SniffyAsynchronousSocketChannel} in {@link ConnectionsRegistry#discoveredDataSources}
+     * which should be added after reading given number of bytes
      * <p>
-     * Delay is added for each <b>N</b> bytes received where <b>N</b> is the value of {@link SocketOptions#SO_RCVBUF}
+     * Delay is added for each <b>N</b> bytes received where <b>N</b> is the current TCP Window size as defined by {@link io.sniffy.socket.NetworkChaos}
      * <p>
      * If application reads <b>M</b> bytes where (k-1) * N &lt; M  &lt; k * N exactly <b>k</b> delays will be added
      *
      * @param bytesDown number of bytes received from socket
-     * @throws ConnectException on underlying socket exception
+     * @return number of delays to be added
      */
     @SuppressWarnings("JavadocReference")
-    private void sleepIfRequired(int bytesDown) throws ConnectException {
+    private int getNumberOfSleepCyclesForRead(long bytesDown) {
 
         lastReadThreadId = Thread.currentThread().getId();
 
@@ -111,28 +131,32 @@ public class SniffyAsynchronousSocketChannel extends AsynchronousSocketChannel i
             potentiallyBufferedOutputBytes = 0;
         }
 
-        int potentiallyBufferedInputBytes = this.potentiallyBufferedInputBytes -= bytesDown;
+        long potentiallyBufferedInputBytes = this.potentiallyBufferedInputBytes - bytesDown;
 
         if (potentiallyBufferedInputBytes < 0) {
-            int estimatedNumberOfTcpPackets = 1 + (-1 * potentiallyBufferedInputBytes) / SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
-            checkConnectionAllowed(estimatedNumberOfTcpPackets);
-            this.potentiallyBufferedInputBytes = SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
+            int numberOfSleepCycles = trafficShaper.getNumberOfRoundTrips(false, (int) Math.min(Integer.MAX_VALUE, -1 * potentiallyBufferedInputBytes));
+            this.potentiallyBufferedInputBytes = trafficShaper.getWindowSize(false);
+            return numberOfSleepCycles;
         }
 
+        this.potentiallyBufferedInputBytes = (int) potentiallyBufferedInputBytes;
+        return 0;
+
     }
 
     /**
-     * Adds a delay as defined for current {@link SniffyAsynchronousSocketChannel} in {@link ConnectionsRegistry#discoveredDataSources}
+     * Estimates number of delays defined for current {@link SniffyAsynchronousSocketChannel} in {@link ConnectionsRegistry#discoveredDataSources}
+     * which should be added after writing given number of bytes
      * <p>
-     * Delay is added for each <b>N</b> bytes sent where <b>N</b> is the value of {@link SocketOptions#SO_SNDBUF}
+     * Delay is added for each <b>N</b> bytes sent where <b>N</b> is the current TCP Window size as defined by {@link io.sniffy.socket.NetworkChaos}
      * <p>
      * If application writes <b>M</b> bytes where (k-1) * N &lt; M  &lt; k * N exactly <b>k</b> delays will be added
      *
      * @param bytesUp number of bytes sent to socket
-     * @throws ConnectException on underlying socket exception
+     * @return number of delays to be added
      */
     @SuppressWarnings("JavadocReference")
-    private void sleepIfRequiredForWrite(int bytesUp) throws ConnectException {
+    private int getNumberOfSleepCyclesForWrite(long bytesUp) {
 
         lastWriteThreadId = Thread.currentThread().getId();
 
@@ -140,14 +164,17 @@ public class SniffyAsynchronousSocketChannel extends AsynchronousSocketChannel i
             potentiallyBufferedInputBytes = 0;
         }
 
-        int potentiallyBufferedOutputBytes = this.potentiallyBufferedOutputBytes -= bytesUp;
+        long potentiallyBufferedOutputBytes = this.potentiallyBufferedOutputBytes - bytesUp;
 
         if (potentiallyBufferedOutputBytes < 0) {
-            int estimatedNumberOfTcpPackets = 1 + (-1 * potentiallyBufferedOutputBytes) / SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
-            checkConnectionAllowed(estimatedNumberOfTcpPackets);
-            this.potentiallyBufferedOutputBytes = SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
+            int numberOfSleepCycles = trafficShaper.getNumberOfRoundTrips(true, (int) Math.min(Integer.MAX_VALUE, -1 * potentiallyBufferedOutputBytes));
+            this.potentiallyBufferedOutputBytes = trafficShaper.getWindowSize(true);
+            return numberOfSleepCycles;
         }
 
+        this.potentiallyBufferedOutputBytes = (int) potentiallyBufferedOutputBytes;
+        return 0;
+
     }
 
     private static void sleepImpl(int millis) throws InterruptedException {
@@ -157,51 +184,112 @@ public class SniffyAsynchronousSocketChannel extends AsynchronousSocketChannel i
     @Deprecated
     @Override
     public void logSocket(long millis) {
-        logSocket(millis, 0, 0);
+        logSocket(millis, TimeUnit.MILLISECONDS, 0, 0);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit) {
+        logSocket(elapsedTime, timeUnit, 0, 0);
     }
 
     @Deprecated
     @Override
     public void logSocket(long millis, int bytesDown, int bytesUp) {
+        logSocket(millis, TimeUnit.MILLISECONDS, bytesDown, bytesUp);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit, int bytesDown, int bytesUp) {
+
+        long elapsedTimeNanos = timeUnit.toNanos(elapsedTime);
 
         if (!SniffyConfiguration.INSTANCE.getSocketCaptureEnabled()) return;
 
         Sniffy.SniffyMode sniffyMode = Sniffy.getSniffyMode();
-        if (sniffyMode.isEnabled() && null != getInetSocketAddress() && (millis > 0 || bytesDown > 0 || bytesUp > 0)) {
-            Sniffy.logSocket(id, getInetSocketAddress(), millis, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces());
+        if (sniffyMode.isEnabled() && null != getInetSocketAddress() && (elapsedTimeNanos > 0 || bytesDown > 0 || bytesUp > 0)) {
+            Sniffy.logSocket(socketStatsAccumulator, getInetSocketAddress(), elapsedTimeNanos, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces());
         }
     }
 
     public void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("SniffyAsynchronousSocketChannel.logTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + id);
-            Sniffy.logTraffic(
-                    id, getInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
-            if (sent && firstChunk) {
-                SniffySSLNetworkConnection sniffySSLNetworkConnection = Sniffy.CLIENT_HELLO_CACHE.get(ByteBuffer.wrap(traffic, off, len));
-                if (null != sniffySSLNetworkConnection) {
-                    sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffyAsynchronousSocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                    if (null != sniffySSLNetworkConnection) {
+                        sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                    }
                 }
             }
-            firstChunk = false;
         }
     }
 
     public void logDecryptedTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("SniffyAsynchronousSocketChannel.logDecryptedTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + id);
-            Sniffy.logDecryptedTraffic(
-                    id, getInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffyAsynchronousSocketChannel.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logDecryptedTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffyAsynchronousSocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                    if (null != sniffySSLNetworkConnection) {
+                        sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logDecryptedTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffyAsynchronousSocketChannel.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+                Sniffy.logDecryptedTraffic(
+                        id, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
         }
     }
 
@@ -218,28 +306,222 @@ public class SniffyAsynchronousSocketChannel extends AsynchronousSocketChannel i
     }
 
     public void checkConnectionAllowed(InetSocketAddress inetSocketAddress, int numberOfSleepCycles) throws ConnectException {
+        int connectionStatus = resolveConnectionStatus(inetSocketAddress);
+        int delay = getDelay(connectionStatus, numberOfSleepCycles);
+        if (delay > 0) try {
+            sleepImpl(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (connectionStatus < 0) {
+            throw connectionRefused(inetSocketAddress);
+        }
+    }
 
-        if (!SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled()) return;
+    /**
+     * @return connection status from {@link ConnectionsRegistry} or 0 if fault injection is disabled
+     */
+    private int resolveConnectionStatus(InetSocketAddress inetSocketAddress) {
 
-        if (null != inetSocketAddress) {
-            if (null == this.connectionStatus || ConnectionsRegistry.INSTANCE.isThreadLocal()) {
-                this.connectionStatus = ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(inetSocketAddress, this);
+        if (!SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled()) return 0;
+
+        if (null == inetSocketAddress) return 0;
+
+        Integer connectionStatus = this.connectionStatus;
+        if (null == connectionStatus || ConnectionsRegistry.INSTANCE.isThreadLocal()) {
+            this.connectionStatus = connectionStatus = ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(inetSocketAddress, this);
+        }
+        return connectionStatus;
+
+    }
+
+    /**
+     * @return delay in milliseconds for given connection status; refused connections are delayed unless status is -1
+     */
+    private int getDelay(int connectionStatus, int numberOfSleepCycles) {
+        if (connectionStatus < 0) {
+            return -1 == connectionStatus ? 0 : -1 * connectionStatus * numberOfSleepCycles;
+        } else {
+            return trafficShaper.getDelay(connectionStatus, numberOfSleepCycles);
+        }
+    }
+
+    private static ConnectException connectionRefused(InetSocketAddress inetSocketAddress) {
+        return new ConnectException(String.format("Connection to %s refused by Sniffy", inetSocketAddress));
+    }
+
+    private static int[] getPositions(ByteBuffer[] buffers, int offset, int length) {
+        int[] positions = new int[length];
+        for (int i = 0; i < length; i++) {
+            positions[i] = buffers[offset + i].position();
+        }
+        return positions;
+    }
+
+    /**
+     * Fails the operation if connection is refused by Sniffy; the handler is notified either in current thread
+     * or after a delay by {@link DelayScheduler} if delay is configured for refused connection
+     *
+     * @return true if operation is refused and handler was (or will be) notified
+     */
+    private <V, A> boolean failIfConnectionRefused(final A attachment, final CompletionHandler<V, ? super A> handler) {
+        final InetSocketAddress inetSocketAddress = getInetSocketAddress();
+        int connectionStatus = resolveConnectionStatus(inetSocketAddress);
+        if (connectionStatus < 0) {
+            DelayScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    handler.failed(connectionRefused(inetSocketAddress), attachment);
+                }
+            }, getDelay(connectionStatus, 1));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Wraps {@link CompletionHandler} passed by application: logs socket operation and traffic once the operation completes
+     * and injects faults defined in {@link ConnectionsRegistry} without blocking the threads of channel group -
+     * delayed callbacks are scheduled using {@link DelayScheduler}.
+     * <p>
+     * Since handlers are usually invoked on a thread from channel group, spy configuration and stack trace are captured
+     * when operation is initiated and operation is attributed to the initiating thread
+     */
+    private abstract class SniffyCompletionHandler<V, A> implements CompletionHandler<V, A> {
+
+        private final CompletionHandler<V, ? super A> handler;
+
+        private final long start = System.nanoTime();
+
+        private final Thread ownerThread = Thread.currentThread();
+        private final SpyConfiguration spyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        private final CapturedStackTrace stackTrace;
+
+        private int throttlingDelay;
+
+        private SniffyCompletionHandler(CompletionHandler<V, ? super A> handler) {
+            this.handler = handler;
+            this.stackTrace = spyConfiguration.isCaptureStackTraces() &&
+                    (spyConfiguration.isCaptureNetwork() || spyConfiguration.isCaptureNetworkTraffic()) ?
+                    StackTraceExtractor.captureTraceTillPackage("java.net") : null;
+        }
+
+        protected void logSocket(long elapsedTimeNanos, int bytesDown, int bytesUp) {
+            if (!SniffyConfiguration.INSTANCE.getSocketCaptureEnabled()) return;
+            if ((spyConfiguration.isCaptureJdbc() || spyConfiguration.isCaptureNetwork()) &&
+                    (elapsedTimeNanos > 0 || bytesDown > 0 || bytesUp > 0)) {
+                Sniffy.logSocket(socketStatsAccumulator, getInetSocketAddress(), elapsedTimeNanos, bytesDown, bytesUp, stackTrace, ownerThread);
             }
-            if (connectionStatus < 0) {
-                if (numberOfSleepCycles > 0 && -1 != connectionStatus) try {
-                    sleepImpl(-1 * connectionStatus * numberOfSleepCycles);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+        }
+
+        protected boolean isCaptureNetworkTraffic() {
+            return spyConfiguration.isCaptureNetworkTraffic() && getTrafficCapture().isEnabled();
+        }
+
+        /**
+         * @return number of delays which should be added after reading given number of bytes
+         */
+        protected int onRead(long bytesDown) {
+            throttle(false, bytesDown);
+            return getNumberOfSleepCyclesForRead(bytesDown);
+        }
+
+        /**
+         * @return number of delays which should be added after writing given number of bytes
+         */
+        protected int onWrite(long bytesUp) {
+            throttle(true, bytesUp);
+            return getNumberOfSleepCyclesForWrite(bytesUp);
+        }
+
+        private void throttle(boolean sent, long bytes) {
+            if (SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled()) {
+                throttlingDelay = trafficShaper.getThrottlingDelay(sent, (int) Math.min(Integer.MAX_VALUE, bytes));
+            }
+        }
+
+        /**
+         * Logs bytes between given position and current position of the buffer; bytes are copied directly from
+         * the buffer to the storage of spies
+         */
+        protected void logTraffic(boolean sent, ByteBuffer buffer, int position) {
+            int length = buffer.position() - position;
+            if (length <= 0) return;
+            length = getTrafficCapture().acquire(length);
+            if (length <= 0) return;
+            logTraffic(sent, buffer, position, length);
+        }
+
+        protected void logTraffic(boolean sent, ByteBuffer[] buffers, int offset, int[] positions) {
+            for (int i = 0; i < positions.length; i++) {
+                logTraffic(sent, buffers[offset + i], positions[i]);
+            }
+        }
+
+        private void logTraffic(boolean sent, ByteBuffer traffic, int off, int len) {
+            LOG.trace("SniffyAsynchronousSocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+            Sniffy.logTraffic(id, getInetSocketAddress(), sent, Protocol.TCP, traffic, off, len, stackTrace, ownerThread);
+            if (sent) {
+                SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                if (null != sniffySSLNetworkConnection) {
+                    sniffySSLNetworkConnection.setSniffyNetworkConnection(SniffyAsynchronousSocketChannel.this);
                 }
-                throw new ConnectException(String.format("Connection to %s refused by Sniffy", inetSocketAddress));
-            } else if (numberOfSleepCycles > 0 && connectionStatus > 0) {
-                try {
-                    sleepImpl(connectionStatus * numberOfSleepCycles);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Logs completed operation
+         *
+         * @return number of delays which should be added before notifying the handler
+         */
+        protected abstract int onCompleted(V result, long elapsedTimeNanos);
+
+        @Override
+        public void completed(final V result, final A attachment) {
+
+            int numberOfSleepCycles = 0;
+            try {
+                numberOfSleepCycles = onCompleted(result, System.nanoTime() - start);
+            } catch (Exception e) {
+                LOG.error(e);
+            }
+
+            int connectionStatus = numberOfSleepCycles > 0 ? resolveConnectionStatus(getInetSocketAddress()) : 0;
+
+            if (connectionStatus < 0) {
+                final InetSocketAddress inetSocketAddress = getInetSocketAddress();
+                DelayScheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        handler.failed(connectionRefused(inetSocketAddress), attachment);
+                    }
+                }, getDelay(connectionStatus, numberOfSleepCycles));
+            } else {
+                int delay = getDelay(connectionStatus, numberOfSleepCycles) + throttlingDelay;
+                if (delay > 0) {
+                    DelayScheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            handler.completed(result, attachment);
+                        }
+                    }, delay);
+                } else {
+                    handler.completed(result, attachment);
                 }
             }
+
         }
+
+        @Override
+        public void failed(Throwable exc, A attachment) {
+            try {
+                logSocket(System.nanoTime() - start, 0, 0);
+            } catch (Exception e) {
+                LOG.error(e);
+            }
+            handler.failed(exc, attachment);
+        }
+
     }
 
     public static AsynchronousSocketChannel open(AsynchronousChannelGroup group) throws IOException {
@@ -276,150 +558,155 @@ public class SniffyAsynchronousSocketChannel extends AsynchronousSocketChannel i
     }
 
     @Override
-    public <A> void connect(SocketAddress remote, A attachment, CompletionHandler<Void, ? super A> handler) {
-        delegate.connect(remote, attachment, handler);
-    }
+    public <A> void connect(final SocketAddress remote, final A attachment, final CompletionHandler<Void, ? super A> handler) {
 
-    @Override
-    public Future<Void> connect(SocketAddress remote) {
-        long start = System.currentTimeMillis();
-        try {
-            checkConnectionAllowed(1);
-            return delegate.connect(remote);
-        } catch (Exception e) {
-            throw ExceptionUtil.processException(e);
-        } finally {
-            logSocket(System.currentTimeMillis() - start);
+        if (remote instanceof InetSocketAddress) {
+            inetSocketAddress = (InetSocketAddress) remote;
         }
-    }
 
-    @Override
-    public <A> void read(ByteBuffer dst, long timeout, TimeUnit unit, A attachment, CompletionHandler<Integer, ? super A> handler) {
-        delegate.read(dst, timeout, unit, attachment, handler);
-    }
+        final CompletionHandler<Void, A> sniffyHandler = new SniffyCompletionHandler<Void, A>(handler) {
+            @Override
+            protected int onCompleted(Void result, long elapsedTimeNanos) {
+                logSocket(elapsedTimeNanos, 0, 0);
+                return 0;
+            }
+        };
 
-    @Override
-    public Future<Integer> read(ByteBuffer dst) {
+        final InetSocketAddress inetSocketAddress = this.inetSocketAddress;
+        int connectionStatus = resolveConnectionStatus(inetSocketAddress);
 
-        final long start = System.currentTimeMillis();
+        if (connectionStatus < 0) {
+            DelayScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    sniffyHandler.failed(connectionRefused(inetSocketAddress), attachment);
+                }
+            }, getDelay(connectionStatus, 1));
+        } else if (connectionStatus > 0) {
+            DelayScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        delegate.connect(remote, attachment, sniffyHandler);
+                    } catch (RuntimeException e) {
+                        sniffyHandler.failed(e, attachment);
+                    }
+                }
+            }, getDelay(connectionStatus, 1));
+        } else {
+            delegate.connect(remote, attachment, sniffyHandler);
+        }
 
-        final Future<Integer> integerFuture = delegate.read(dst);
+    }
 
-        return new Future<Integer>() {
+    @Override
+    public Future<Void> connect(SocketAddress remote) {
+        PendingFuture<Void> future = new PendingFuture<Void>(this);
+        connect(remote, null, future);
+        return future;
+    }
 
-            @Override
-            public boolean cancel(boolean mayInterruptIfRunning) {
-                return integerFuture.cancel(mayInterruptIfRunning);
-            }
+    @Override
+    public <A> void read(final ByteBuffer dst, long timeout, TimeUnit unit, A attachment, CompletionHandler<Integer, ? super A> handler) {
 
-            @Override
-            public boolean isCancelled() {
-                return integerFuture.isCancelled();
-            }
+        if (failIfConnectionRefused(attachment, handler)) return;
 
-            @Override
-            public boolean isDone() {
-                return integerFuture.isDone();
-            }
+        final int position = dst.position();
 
+        delegate.read(dst, timeout, unit, attachment, new SniffyCompletionHandler<Integer, A>(handler) {
             @Override
-            public Integer get() throws InterruptedException, ExecutionException {
-                Integer bytesDown = integerFuture.get();
-                try {
-                    checkConnectionAllowed(0);
-                    sleepIfRequired(bytesDown);
-                } catch (ConnectException e) {
-                    throw new ExecutionException(new AsynchronousCloseException()); // TODO: this is all wrong
+            protected int onCompleted(Integer bytesDown, long elapsedTimeNanos) {
+                if (bytesDown < 0) {
+                    logSocket(elapsedTimeNanos, 0, 0);
+                    return 0;
                 }
-                logSocket(System.currentTimeMillis() - start, bytesDown, 0);
-                return bytesDown;
-            }
-
-            @Override
-            public Integer get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-                Integer bytesDown = integerFuture.get(timeout, unit);
-                try {
-                    checkConnectionAllowed(0);
-                    sleepIfRequired(bytesDown);
-                } catch (ConnectException e) {
-                    throw new ExecutionException(new AsynchronousCloseException()); // TODO: this is all wrong
+                logSocket(elapsedTimeNanos, bytesDown, 0);
+                if (isCaptureNetworkTraffic()) {
+                    logTraffic(false, dst, position);
                 }
-                logSocket(System.currentTimeMillis() - start, bytesDown, 0);
-                return bytesDown;
+                return onRead(bytesDown);
             }
+        });
 
-        };
-
-    }
-
-    @Override
-    public <A> void read(ByteBuffer[] dsts, int offset, int length, long timeout, TimeUnit unit, A attachment, CompletionHandler<Long, ? super A> handler) {
-        delegate.read(dsts, offset, length, timeout, unit, attachment, handler);
     }
 
     @Override
-    public <A> void write(ByteBuffer src, long timeout, TimeUnit unit, A attachment, CompletionHandler<Integer, ? super A> handler) {
-        delegate.write(src, timeout, unit, attachment, handler);
+    public Future<Integer> read(ByteBuffer dst) {
+        PendingFuture<Integer> future = new PendingFuture<Integer>(this);
+        read(dst, 0L, TimeUnit.MILLISECONDS, null, future);
+        return future;
     }
 
     @Override
-    public Future<Integer> write(ByteBuffer src) {
+    public <A> void read(final ByteBuffer[] dsts, final int offset, int length, long timeout, TimeUnit unit, A attachment, CompletionHandler<Long, ? super A> handler) {
 
-        final long start = System.currentTimeMillis();
+        if (failIfConnectionRefused(attachment, handler)) return;
 
-        final Future<Integer> integerFuture = delegate.write(src);
-
-        return new Future<Integer>() {
+        final int[] positions = getPositions(dsts, offset, length);
 
+        delegate.read(dsts, offset, length, timeout, unit, attachment, new SniffyCompletionHandler<Long, A>(handler) {
             @Override
-            public boolean cancel(boolean mayInterruptIfRunning) {
-                return integerFuture.cancel(mayInterruptIfRunning);
+            protected int onCompleted(Long bytesDown, long elapsedTimeNanos) {
+                if (bytesDown < 0) {
+                    logSocket(elapsedTimeNanos, 0, 0);
+                    return 0;
+                }
+                logSocket(elapsedTimeNanos, (int) Math.min(bytesDown, Integer.MAX_VALUE), 0);
+                if (isCaptureNetworkTraffic()) {
+                    logTraffic(false, dsts, offset, positions);
+                }
+                return onRead(bytesDown);
             }
+        });
 
-            @Override
-            public boolean isCancelled() {
-                return integerFuture.isCancelled();
-            }
+    }
 
-            @Override
-            public boolean isDone() {
-                return integerFuture.isDone();
-            }
+    @Override
+    public <A> void write(final ByteBuffer src, long timeout, TimeUnit unit, A attachment, CompletionHandler<Integer, ? super A> handler) {
 
-            @Override
-            public Integer get() throws InterruptedException, ExecutionException {
-                Integer bytesUp = integerFuture.get();
-                try {
-                    checkConnectionAllowed(0);
-                    sleepIfRequiredForWrite(bytesUp);
-                } catch (ConnectException e) {
-                    throw new ExecutionException(new AsynchronousCloseException()); // TODO: this is all wrong
-                }
-                logSocket(System.currentTimeMillis() - start, 0, bytesUp);
-                return bytesUp;
-            }
+        if (failIfConnectionRefused(attachment, handler)) return;
 
+        final int position = src.position();
+
+        delegate.write(src, timeout, unit, attachment, new SniffyCompletionHandler<Integer, A>(handler) {
             @Override
-            public Integer get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-                Integer bytesUp = integerFuture.get(timeout, unit);
-                try {
-                    checkConnectionAllowed(0);
-                    sleepIfRequiredForWrite(bytesUp);
-                } catch (ConnectException e) {
-                    throw new ExecutionException(new AsynchronousCloseException()); // TODO: this is all wrong
+            protected int onCompleted(Integer bytesUp, long elapsedTimeNanos) {
+                logSocket(elapsedTimeNanos, 0, bytesUp);
+                if (isCaptureNetworkTraffic()) {
+                    logTraffic(true, src, position);
                 }
-                logSocket(System.currentTimeMillis() - start, 0, bytesUp);
-                return bytesUp;
+                return onWrite(bytesUp);
             }
+        });
 
-        };
     }
 
     @Override
-    public <A> void write(ByteBuffer[] srcs, int offset, int length, long timeout, TimeUnit unit, A attachment, CompletionHandler<Long, ? super A> handler) {
-        delegate.write(srcs, offset, length, timeout, unit, attachment, handler);
+    public Future<Integer> write(ByteBuffer src) {
+        PendingFuture<Integer> future = new PendingFuture<Integer>(this);
+        write(src, 0L, TimeUnit.MILLISECONDS, null, future);
+        return future;
     }
 
+    @Override
+    public <A> void write(final ByteBuffer[] srcs, final int offset, int length, long timeout, TimeUnit unit, A attachment, CompletionHandler<Long, ? super A> handler) {
+
+        if (failIfConnectionRefused(attachment, handler)) return;
+
+        final int[] positions = getPositions(srcs, offset, length);
+
+        delegate.write(srcs, offset, length, timeout, unit, attachment, new SniffyCompletionHandler<Long, A>(handler) {
+            @Override
+            protected int onCompleted(Long bytesUp, long elapsedTimeNanos) {
+                logSocket(elapsedTimeNanos, 0, (int) Math.min(bytesUp, Integer.MAX_VALUE));
+                if (isCaptureNetworkTraffic()) {
+                    logTraffic(true, srcs, offset, positions);
+                }
+                return onWrite(bytesUp);
+            }
+        });
+
+    }
     @Override
     public SocketAddress getLocalAddress() throws IOException {
         return delegate.getLocalAddress();
@@ -427,7 +714,11 @@ public class SniffyAsynchronousSocketChannel extends AsynchronousSocketChannel i
 
     @Override
     public void close() throws IOException {
-        delegate.close();
+        try {
+            delegate.close();
+        } finally {
+            Sniffy.flushSocketStats(socketStatsAccumulator);
+        }
     }
 
     @Override
@@ -447,6 +738,25 @@ public class SniffyAsynchronousSocketChannel extends AsynchronousSocketChannel i
 
     //
 
+    @Override
+    public TrafficShaper getTrafficShaper() {
+        return trafficShaper;
+    }
+
+    @Override
+    public TrafficCapture getTrafficCapture() {
+        TrafficCapture trafficCapture = this.trafficCapture.get();
+        if (null == trafficCapture) {
+            trafficCapture = SniffyConfiguration.INSTANCE.getTrafficCapturePolicy().createTrafficCapture(
+                    null == proxiedAddress ? getInetSocketAddress() : proxiedAddress
+            );
+            if (!this.trafficCapture.compareAndSet(null, trafficCapture)) {
+                trafficCapture = this.trafficCapture.get();
+            }
+        }
+        return trafficCapture;
+    }
+
     @Override
     public int getPotentiallyBufferedInputBytes() {
         return potentiallyBufferedInputBytes;
@@ -1,18 +1,20 @@
 package io.sniffy.nio;
 
-import io.sniffy.util.ExceptionUtil;
 import io.sniffy.util.ObjectWrapper;
 import io.sniffy.util.StackTraceExtractor;
 
+import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.nio.channels.spi.AbstractSelectableChannel;
 
-import static io.sniffy.util.ReflectionUtil.invokeMethod;
-
 /**
+ * Operations held back by {@link SniffySocketChannel} in order to inject latency are removed from the interest set of
+ * the delegate key, so that the selector doesn't report them as ready, and restored once the delay elapses;
+ * {@link #interestOps()} still returns the interest set requested by the application
+ *
  * @since 3.1.7
  */
 public class SniffySelectionKey extends SelectionKey implements ObjectWrapper<SelectionKey> {
@@ -21,6 +23,8 @@ public class SniffySelectionKey extends SelectionKey implements ObjectWrapper<Se
     private final SniffySelector sniffySelector;
     private final SelectableChannel sniffyChannel;
 
+    private volatile int heldBackOps;
+
     protected SniffySelectionKey(SelectionKey delegate, SniffySelector sniffySelector, SelectableChannel sniffyChannel) {
         this.delegate = delegate;
 
@@ -80,15 +84,51 @@ public class SniffySelectionKey extends SelectionKey implements ObjectWrapper<Se
 
     @Override
     public int interestOps() {
-        return delegate.interestOps();
+        return delegate.interestOps() | heldBackOps;
     }
 
     @Override
-    public SelectionKey interestOps(int ops) {
-        delegate.interestOps(ops);
+    public synchronized SelectionKey interestOps(int ops) {
+        int heldBackOps = ops & getChannelHeldBackOps();
+        delegate.interestOps(ops & ~heldBackOps);
+        this.heldBackOps = heldBackOps;
         return this;
     }
 
+    private int getChannelHeldBackOps() {
+        return sniffyChannel instanceof SniffySocketChannel ? ((SniffySocketChannel) sniffyChannel).getHeldBackOps() : 0;
+    }
+
+    /**
+     * Removes operations held back by the channel from the interest set of delegate key
+     */
+    synchronized void holdBack() {
+        try {
+            int interestOps = delegate.interestOps();
+            int heldBackOps = interestOps & getChannelHeldBackOps();
+            if (0 != heldBackOps) {
+                delegate.interestOps(interestOps & ~heldBackOps);
+                this.heldBackOps |= heldBackOps;
+            }
+        } catch (CancelledKeyException ignored) {
+        }
+    }
+
+    /**
+     * Restores operations which are no longer held back by the channel and wakes up the selector
+     */
+    synchronized void release() {
+        int releasedOps = heldBackOps & ~getChannelHeldBackOps();
+        if (0 != releasedOps) {
+            heldBackOps &= ~releasedOps;
+            try {
+                delegate.interestOps(delegate.interestOps() | releasedOps);
+                sniffySelector.wakeup();
+            } catch (CancelledKeyException ignored) {
+            }
+        }
+    }
+
     @Override
     public int readyOps() {
         return delegate.readyOps();
@@ -97,23 +137,19 @@ public class SniffySelectionKey extends SelectionKey implements ObjectWrapper<Se
     // No @Override annotation here because this method is available in Java 11+ only
     //@Override
     @SuppressWarnings("Since15")
-    public int interestOpsOr(int ops) {
-        try {
-            return invokeMethod(SelectionKey.class, delegate, "interestOpsOr", Integer.TYPE, ops, Integer.TYPE);
-        } catch (Exception e) {
-            throw ExceptionUtil.processException(e);
-        }
+    public synchronized int interestOpsOr(int ops) {
+        int oldVal = interestOps();
+        interestOps(oldVal | ops);
+        return oldVal;
     }
 
     // No @Override annotation here because this method is available in Java 11+ only
     //@Override
     @SuppressWarnings("Since15")
-    public int interestOpsAnd(int ops) {
-        try {
-            return invokeMethod(SelectionKey.class, delegate, "interestOpsAnd", Integer.TYPE, ops, Integer.TYPE);
-        } catch (Exception e) {
-            throw ExceptionUtil.processException(e);
-        }
+    public synchronized int interestOpsAnd(int ops) {
+        int oldVal = interestOps();
+        interestOps(oldVal & ops);
+        return oldVal;
     }
 
 }
@@ -152,7 +152,13 @@ public class SniffySelector extends AbstractSelector {
                 }
             }
 
-            return wrap(selectionKeyDelegate, this, ch);
+            SniffySelectionKey sniffySelectionKey = wrap(selectionKeyDelegate, this, ch);
+
+            if (ch instanceof SniffySocketChannel) {
+                ((SniffySocketChannel) ch).addSelectionKey(sniffySelectionKey);
+            }
+
+            return sniffySelectionKey;
 
         } catch (Exception e) {
             throw ExceptionUtil.processException(e);
@@ -39,6 +39,12 @@ public class SniffySelectorProviderModule {
         } catch (Exception e) {
             e.printStackTrace();
         }
+
+        try {
+            SniffyAsynchronousChannelProvider.install();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
     }
 
 }
@@ -12,10 +12,19 @@ import io.sniffy.util.ExceptionUtil;
 import java.io.IOException;
 import java.net.*;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
+ * In non-blocking mode latency is injected without sleeping in the thread which performs IO (typically a selector thread):
+ * instead the readiness of delayed operations is held back in {@link SniffySelectionKey} and read or write calls return 0
+ * until the delay elapses, so that other channels multiplexed on the same selector are not affected
+ *
  * @since 3.1.7
  */
 public class SniffySocketChannel extends SniffySocketChannelAdapter implements SniffyNetworkConnection {
@@ -24,6 +33,8 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
 
     private final int connectionId = Sniffy.CONNECTION_ID_SEQUENCE.getAndIncrement();
 
+    private final SocketStatsAccumulator socketStatsAccumulator = new SocketStatsAccumulator(connectionId);
+
     private volatile Integer connectionStatus;
 
     // fields related to injecting latency fault
@@ -33,11 +44,24 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
     private volatile long lastReadThreadId;
     private volatile long lastWriteThreadId;
 
-    private boolean firstChunk = true;
+    private final ClientHelloReader clientHelloReader = new ClientHelloReader();
+
+    // fields related to injecting latency fault in non-blocking mode
+    private final Object heldBackOpsLock = new Object();
+    private volatile int heldBackOps;
+
+    private volatile boolean readDelayed;
+    private volatile boolean writeDelayed;
+
+    private final Collection<SniffySelectionKey> selectionKeys = new CopyOnWriteArrayList<SniffySelectionKey>();
+
+    private final TrafficShaper trafficShaper = SniffyConfiguration.INSTANCE.getNetworkChaos().createTrafficShaper();
+
+    private final AtomicReference<TrafficCapture> trafficCapture = new AtomicReference<TrafficCapture>();
 
     protected SniffySocketChannel(SelectorProvider provider, SocketChannel delegate) {
         super(provider, delegate);
-        LOG.trace("Created new SniffySocketChannel(" + provider + ", " + delegate + ") = " + this);
+        LOG.trace("Created new SniffySocketChannel({}, {}) = {}", provider, delegate, this);
     }
 
     @Override
@@ -87,12 +111,19 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
 
         int potentiallyBufferedInputBytes = this.potentiallyBufferedInputBytes -= bytesDown;
 
+        int numberOfSleepCycles = 0;
+
         if (potentiallyBufferedInputBytes < 0) {
-            int estimatedNumberOfTcpPackets = 1 + (-1 * potentiallyBufferedInputBytes) / SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
-            checkConnectionAllowed(estimatedNumberOfTcpPackets);
-            this.potentiallyBufferedInputBytes = SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
+            int estimatedNumberOfTcpPackets = trafficShaper.getNumberOfRoundTrips(false, -1 * potentiallyBufferedInputBytes);
+            // first packet was already delayed by holding back the read readiness
+            numberOfSleepCycles = readDelayed ? estimatedNumberOfTcpPackets - 1 : estimatedNumberOfTcpPackets;
+            this.potentiallyBufferedInputBytes = trafficShaper.getWindowSize(false);
         }
 
+        readDelayed = false;
+
+        injectDelay(numberOfSleepCycles, getThrottlingDelay(false, bytesDown), SelectionKey.OP_READ);
+
     }
 
     private void sleepIfRequiredForWrite(int bytesUp) throws ConnectException {
@@ -105,30 +136,193 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
 
         int potentiallyBufferedOutputBytes = this.potentiallyBufferedOutputBytes -= bytesUp;
 
+        int numberOfSleepCycles = 0;
+
         if (potentiallyBufferedOutputBytes < 0) {
-            int estimatedNumberOfTcpPackets = 1 + (-1 * potentiallyBufferedOutputBytes) / SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
-            checkConnectionAllowed(estimatedNumberOfTcpPackets);
-            this.potentiallyBufferedOutputBytes = SniffyNetworkConnection.DEFAULT_TCP_WINDOW_SIZE;
+            int estimatedNumberOfTcpPackets = trafficShaper.getNumberOfRoundTrips(true, -1 * potentiallyBufferedOutputBytes);
+            // first packet was already delayed by holding back the write readiness
+            numberOfSleepCycles = writeDelayed ? estimatedNumberOfTcpPackets - 1 : estimatedNumberOfTcpPackets;
+            this.potentiallyBufferedOutputBytes = trafficShaper.getWindowSize(true);
+        }
+
+        writeDelayed = false;
+
+        injectDelay(numberOfSleepCycles, getThrottlingDelay(true, bytesUp), SelectionKey.OP_WRITE);
+
+    }
+
+    /**
+     * @return delay in milliseconds required to keep the bandwidth within limits defined by {@link NetworkChaos}
+     */
+    private int getThrottlingDelay(boolean sent, int bytes) {
+        return SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled() ? trafficShaper.getThrottlingDelay(sent, bytes) : 0;
+    }
+
+    /**
+     * Sleeps in blocking mode or holds back given operations in non-blocking mode
+     */
+    private void injectDelay(int numberOfSleepCycles, int throttlingDelay, int ops) throws ConnectException {
+
+        if (numberOfSleepCycles <= 0 && throttlingDelay <= 0) return;
+
+        if (isBlocking()) {
+            if (numberOfSleepCycles > 0) {
+                checkConnectionAllowed(numberOfSleepCycles);
+            }
+            if (throttlingDelay > 0) try {
+                sleepImpl(throttlingDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            InetSocketAddress inetSocketAddress = getInetSocketAddress();
+            int connectionStatus = numberOfSleepCycles > 0 ? resolveConnectionStatus(inetSocketAddress) : 0;
+            if (connectionStatus < 0) {
+                throw connectionRefused(inetSocketAddress);
+            }
+            holdBack(ops, trafficShaper.getDelay(connectionStatus, numberOfSleepCycles) + throttlingDelay);
+        }
+
+    }
+
+    /**
+     * @return true if read should return 0 since the incoming data is delayed in non-blocking mode
+     */
+    private boolean isReadHeldBack() {
+
+        if (isBlocking() || !SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled()) return false;
+
+        if (0 != (heldBackOps & SelectionKey.OP_READ)) return true;
+
+        if (!readDelayed && potentiallyBufferedInputBytes <= 0) {
+            int connectionStatus = resolveConnectionStatus(getInetSocketAddress());
+            if (connectionStatus > 0) {
+                readDelayed = true;
+                holdBack(SelectionKey.OP_READ, trafficShaper.getDelay(connectionStatus, 1));
+                return true;
+            }
+        }
+
+        return false;
+
+    }
+
+    /**
+     * @return true if write should return 0 since the outgoing data is delayed in non-blocking mode
+     */
+    private boolean isWriteHeldBack() {
+
+        if (isBlocking() || !SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled()) return false;
+
+        if (0 != (heldBackOps & SelectionKey.OP_WRITE)) return true;
+
+        if (!writeDelayed && potentiallyBufferedOutputBytes <= 0) {
+            int connectionStatus = resolveConnectionStatus(getInetSocketAddress());
+            if (connectionStatus > 0) {
+                writeDelayed = true;
+                holdBack(SelectionKey.OP_WRITE, trafficShaper.getDelay(connectionStatus, 1));
+                return true;
+            }
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Removes given operations from the interest set of selection keys associated with this channel and restores
+     * them after given delay using {@link DelayScheduler}
+     */
+    private void holdBack(final int ops, long delayMillis) {
+
+        if (delayMillis <= 0) return;
+
+        synchronized (heldBackOpsLock) {
+            heldBackOps |= ops;
         }
 
+        for (SniffySelectionKey selectionKey : selectionKeys) {
+            if (selectionKey.isValid()) {
+                selectionKey.holdBack();
+            } else {
+                selectionKeys.remove(selectionKey);
+            }
+        }
+
+        DelayScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                release(ops);
+            }
+        }, delayMillis);
+
+    }
+
+    private void release(int ops) {
+
+        synchronized (heldBackOpsLock) {
+            heldBackOps &= ~ops;
+        }
+
+        for (SniffySelectionKey selectionKey : selectionKeys) {
+            if (selectionKey.isValid()) {
+                selectionKey.release();
+            } else {
+                selectionKeys.remove(selectionKey);
+            }
+        }
+
+    }
+
+    /**
+     * @return operations which are currently held back in non-blocking mode due to injected latency
+     */
+    int getHeldBackOps() {
+        return heldBackOps;
+    }
+
+    void addSelectionKey(SniffySelectionKey selectionKey) {
+        selectionKeys.add(selectionKey);
+        selectionKey.holdBack();
     }
 
     @Deprecated
     @Override
     public void logSocket(long millis) {
-        logSocket(millis, 0, 0);
+        logSocket(millis, TimeUnit.MILLISECONDS, 0, 0);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit) {
+        logSocket(elapsedTime, timeUnit, 0, 0);
+    }
+
+    @Override
+    public void implCloseSelectableChannel() {
+        try {
+            super.implCloseSelectableChannel();
+        } finally {
+            Sniffy.flushSocketStats(socketStatsAccumulator);
+        }
     }
 
     @Deprecated
     @Override
     public void logSocket(long millis, int bytesDown, int bytesUp) {
+        logSocket(millis, TimeUnit.MILLISECONDS, bytesDown, bytesUp);
+    }
+
+    @Override
+    public void logSocket(long elapsedTime, TimeUnit timeUnit, int bytesDown, int bytesUp) {
+
+        long elapsedTimeNanos = timeUnit.toNanos(elapsedTime);
 
         if (!SniffyConfiguration.INSTANCE.getSocketCaptureEnabled()) return;
 
-        if (null != getInetSocketAddress() && (millis > 0 || bytesDown > 0 || bytesUp > 0)) {
+        if (null != getInetSocketAddress() && (elapsedTimeNanos > 0 || bytesDown > 0 || bytesUp > 0)) {
             Sniffy.SniffyMode sniffyMode = Sniffy.getSniffyMode();
             if (sniffyMode.isEnabled()) {
-                Sniffy.logSocket(connectionId, getInetSocketAddress(), millis, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces()); // TODO: stack trace here should be calculated till another package
+                Sniffy.logSocket(socketStatsAccumulator, getInetSocketAddress(), elapsedTimeNanos, bytesDown, bytesUp, sniffyMode.isCaptureStackTraces()); // TODO: stack trace here should be calculated till another package
             }
         }
     }
@@ -136,19 +330,21 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
     public void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("SniffySocketChannel.logTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + connectionId);
-            Sniffy.logTraffic(
-                    connectionId, getInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
-            if (sent && firstChunk) {
-                SniffySSLNetworkConnection sniffySSLNetworkConnection = Sniffy.CLIENT_HELLO_CACHE.get(ByteBuffer.wrap(traffic, off, len));
-                if (null != sniffySSLNetworkConnection) {
-                    sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffySocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logTraffic(
+                        connectionId, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                    if (null != sniffySSLNetworkConnection) {
+                        sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                    }
                 }
-                firstChunk = false;
             }
         }
     }
@@ -156,35 +352,111 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
     public void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len, boolean isConnectPacket) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("SniffySocketChannel.logTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + connectionId);
-            Sniffy.logTraffic(
-                    connectionId, getInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
-            if (!isConnectPacket) {
-                if (sent && firstChunk) {
-                    SniffySSLNetworkConnection sniffySSLNetworkConnection = Sniffy.CLIENT_HELLO_CACHE.get(ByteBuffer.wrap(traffic, off, len));
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffySocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logTraffic(
+                        connectionId, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (!isConnectPacket) {
+                    if (sent) {
+                        SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                        if (null != sniffySSLNetworkConnection) {
+                            sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public void logDecryptedTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffySocketChannel.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logDecryptedTraffic(
+                        connectionId, null == getProxiedInetSocketAddress() ? getInetSocketAddress() : getProxiedInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffySocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logTraffic(
+                        connectionId, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (sent) {
+                    SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
                     if (null != sniffySSLNetworkConnection) {
                         sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
                     }
                 }
-                firstChunk = false;
             }
         }
     }
 
-    public void logDecryptedTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
+    /**
+     * @since 3.1.14
+     */
+    public void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len, boolean isConnectPacket) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("SniffySocketChannel.logDecryptedTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + connectionId);
-            Sniffy.logDecryptedTraffic(
-                    connectionId, null == getProxiedInetSocketAddress() ? getInetSocketAddress() : getProxiedInetSocketAddress(),
-                    sent, protocol,
-                    traffic, off, len,
-                    effectiveSpyConfiguration.isCaptureStackTraces()
-            );
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffySocketChannel.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logTraffic(
+                        connectionId, getInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+                if (!isConnectPacket) {
+                    if (sent) {
+                        SniffySSLNetworkConnection sniffySSLNetworkConnection = clientHelloReader.read(traffic, off, len);
+                        if (null != sniffySSLNetworkConnection) {
+                            sniffySSLNetworkConnection.setSniffyNetworkConnection(this);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @since 3.1.14
+     */
+    public void logDecryptedTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            int capturedLength = getTrafficCapture().acquire(len);
+            if (capturedLength > 0) {
+                LOG.trace("SniffySocketChannel.logDecryptedTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, connectionId);
+                Sniffy.logDecryptedTraffic(
+                        connectionId, null == getProxiedInetSocketAddress() ? getInetSocketAddress() : getProxiedInetSocketAddress(),
+                        sent, protocol,
+                        traffic, off, capturedLength,
+                        effectiveSpyConfiguration.isCaptureStackTraces()
+                );
+            }
         }
     }
 
@@ -202,49 +474,83 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
 
     public void checkConnectionAllowed(InetSocketAddress inetSocketAddress, int numberOfSleepCycles) throws ConnectException {
 
-        if (!SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled()) return;
+        int connectionStatus = resolveConnectionStatus(inetSocketAddress);
 
-        if (null != inetSocketAddress) {
-            if (null == this.connectionStatus || ConnectionsRegistry.INSTANCE.isThreadLocal()) {
-                this.connectionStatus = ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(inetSocketAddress, this);
+        if (connectionStatus < 0) {
+            if (numberOfSleepCycles > 0 && -1 != connectionStatus) try {
+                sleepImpl(-1 * connectionStatus * numberOfSleepCycles);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            if (connectionStatus < 0) {
-                if (numberOfSleepCycles > 0 && -1 != connectionStatus) try {
-                    sleepImpl(-1 * connectionStatus * numberOfSleepCycles);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                throw new ConnectException(String.format("Connection to %s refused by Sniffy", inetSocketAddress));
-            } else if (numberOfSleepCycles > 0 && connectionStatus > 0) {
-                try {
-                    sleepImpl(connectionStatus * numberOfSleepCycles);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+            throw connectionRefused(inetSocketAddress);
+        } else if (numberOfSleepCycles > 0 && connectionStatus > 0) {
+            try {
+                sleepImpl(trafficShaper.getDelay(connectionStatus, numberOfSleepCycles));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
     }
 
+    /**
+     * @return connection status from {@link ConnectionsRegistry} or 0 if fault injection is disabled
+     */
+    private int resolveConnectionStatus(InetSocketAddress inetSocketAddress) {
+
+        if (!SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled() || null == inetSocketAddress) return 0;
+
+        Integer connectionStatus = this.connectionStatus;
+        if (null == connectionStatus || ConnectionsRegistry.INSTANCE.isThreadLocal()) {
+            this.connectionStatus = connectionStatus = ConnectionsRegistry.INSTANCE.resolveSocketAddressStatus(inetSocketAddress, this);
+        }
+        return connectionStatus;
+
+    }
+
+    private static ConnectException connectionRefused(InetSocketAddress inetSocketAddress) {
+        return new ConnectException(String.format("Connection to %s refused by Sniffy", inetSocketAddress));
+    }
+
     private static void sleepImpl(int millis) throws InterruptedException {
         Thread.sleep(millis);
     }
 
     @Override
     public boolean connect(SocketAddress remote) throws IOException {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
-            checkConnectionAllowed((InetSocketAddress) remote, 1);
-            return super.connect(remote);
+            if (isBlocking()) {
+                checkConnectionAllowed((InetSocketAddress) remote, 1);
+                return super.connect(remote);
+            } else {
+                checkConnectionAllowed((InetSocketAddress) remote, 0);
+                boolean connected = super.connect(remote);
+                int connectionStatus = resolveConnectionStatus((InetSocketAddress) remote);
+                if (connectionStatus > 0) {
+                    // if connection was established immediately, delay the IO operations instead of OP_CONNECT readiness
+                    holdBack(connected ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_CONNECT, trafficShaper.getDelay(connectionStatus, 1));
+                }
+                return connected;
+            }
         } finally {
-            logSocket(System.currentTimeMillis() - start);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
+    @Override
+    public boolean finishConnect() throws IOException {
+        if (0 != (heldBackOps & SelectionKey.OP_CONNECT) && !isBlocking()) {
+            return false;
+        }
+        return super.finishConnect();
+    }
+
     @Override
     public int read(ByteBuffer dst) throws IOException {
         // TODO: honor SpyConfiguration.isBufferIncomingTraffic() and SniffyConfiguration.INSTANCE.getIncomingTrafficBufferSize() settings
         checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        if (isReadHeldBack()) return 0;
+        long start = System.nanoTime();
         int bytesDown = 0;
         int position = dst.position();
         try {
@@ -252,14 +558,10 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
         } finally {
             if (bytesDown >= 0) { // TODO: implement same check in other places
                 sleepIfRequired(bytesDown);
-                logSocket(System.currentTimeMillis() - start, bytesDown, 0);
+                logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, bytesDown, 0);
                 SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
-                if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-                    dst.position(position);
-                    byte[] buff = new byte[bytesDown];
-                    dst.get(buff, 0, bytesDown);
-
-                    logTraffic(false, Protocol.TCP, buff, 0, buff.length);
+                if (effectiveSpyConfiguration.isCaptureNetworkTraffic() && getTrafficCapture().isEnabled()) {
+                    logTraffic(false, Protocol.TCP, dst, position, bytesDown);
                 }
             }
         }
@@ -269,7 +571,8 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
     public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
         // TODO: honor SpyConfiguration.isBufferIncomingTraffic() and SniffyConfiguration.INSTANCE.getIncomingTrafficBufferSize() settings
         checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        if (isReadHeldBack()) return 0;
+        long start = System.nanoTime();
         long bytesDown = 0;
 
         int[] positions = new int[length];
@@ -283,21 +586,20 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
             return bytesDown;
         } finally {
             while (bytesDown > Integer.MAX_VALUE) {
-                sleepIfRequiredForWrite(Integer.MAX_VALUE);
-                logSocket(System.currentTimeMillis() - start, Integer.MAX_VALUE, 0);
+                sleepIfRequired(Integer.MAX_VALUE);
+                logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, Integer.MAX_VALUE, 0);
                 bytesDown -= Integer.MAX_VALUE;
             }
-            logSocket(System.currentTimeMillis() - start, (int) bytesDown, 0);
+            if (bytesDown >= 0) {
+                sleepIfRequired((int) bytesDown);
+            }
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, (int) bytesDown, 0);
 
             SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
-            if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            if (effectiveSpyConfiguration.isCaptureNetworkTraffic() && getTrafficCapture().isEnabled()) {
                 for (int i = 0; i < length; i++) {
                     //TODO: cover by unit test
-                    int newPosition = dsts[offset + i].position();
-                    dsts[offset + i].position(positions[i]);
-                    byte[] buff = new byte[newPosition - positions[i]];
-                    dsts[offset + i].get(buff, 0, newPosition - positions[i]);
-                    logTraffic(false, Protocol.TCP, buff, 0, buff.length);
+                    logTraffic(false, Protocol.TCP, dsts[offset + i], positions[i], dsts[offset + i].position() - positions[i]);
                 }
 
             }
@@ -307,7 +609,8 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
     @Override
     public int write(ByteBuffer src) throws IOException {
         checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        if (isWriteHeldBack()) return 0;
+        long start = System.nanoTime();
         int length = 0;
 
         int position = src.position();
@@ -317,17 +620,18 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
             return length;
         } finally {
             sleepIfRequiredForWrite(length);
-            logSocket(System.currentTimeMillis() - start, 0, length);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, length);
             SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
             if (effectiveSpyConfiguration.isCaptureNetworkTraffic() || isFirstPacketSent()) {
-                src.position(position);
-                byte[] buff = new byte[length];
-                src.get(buff, 0, length);
 
                 boolean isConnectPacket = false;
 
                 if (!isFirstPacketSent()) {
 
+                    src.position(position);
+                    byte[] buff = new byte[length];
+                    src.get(buff, 0, length);
+
                     try {
                         SniffyPacketAnalyzer sniffyPacketAnalyzer = new SniffyPacketAnalyzer(this);
                         sniffyPacketAnalyzer.analyze(buff, 0, buff.length);
@@ -341,8 +645,8 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
 
                 }
 
-                if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-                    logTraffic(true, Protocol.TCP, buff, 0, buff.length, isConnectPacket);
+                if (effectiveSpyConfiguration.isCaptureNetworkTraffic() && getTrafficCapture().isEnabled()) {
+                    logTraffic(true, Protocol.TCP, src, position, length, isConnectPacket);
                 }
 
             }
@@ -352,7 +656,8 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
     @Override
     public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
         checkConnectionAllowed(0);
-        long start = System.currentTimeMillis();
+        if (isWriteHeldBack()) return 0;
+        long start = System.nanoTime();
         long bytesUp = 0;
 
         int[] positions = new int[length];
@@ -369,20 +674,21 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
         } finally {
             while (bytesUp > Integer.MAX_VALUE) {
                 sleepIfRequiredForWrite(Integer.MAX_VALUE);
-                logSocket(System.currentTimeMillis() - start, 0, Integer.MAX_VALUE);
+                logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, Integer.MAX_VALUE);
                 bytesUp -= Integer.MAX_VALUE;
             }
             sleepIfRequiredForWrite((int) bytesUp);
-            logSocket(System.currentTimeMillis() - start, 0, (int) bytesUp);
+            logSocket(System.nanoTime() - start, TimeUnit.NANOSECONDS, 0, (int) bytesUp);
             SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
 
             boolean isConnectPacket = false;
 
             if (!isFirstPacketSent()) {
 
-                srcs[offset].position(positions[0]);
+                ByteBuffer firstBuffer = srcs[offset].duplicate();
+                firstBuffer.position(positions[0]);
                 byte[] buff = new byte[remainings[0]];
-                srcs[offset].get(buff, 0, remainings[0]);
+                firstBuffer.get(buff, 0, remainings[0]);
 
                 try {
                     SniffyPacketAnalyzer sniffyPacketAnalyzer = new SniffyPacketAnalyzer(this);
@@ -397,12 +703,9 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
 
             }
 
-            if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            if (effectiveSpyConfiguration.isCaptureNetworkTraffic() && getTrafficCapture().isEnabled()) {
                 for (int i = 0; i < length; i++) {
-                    srcs[offset + i].position(positions[i]);
-                    byte[] buff = new byte[remainings[i]]; // TODO: here in other places avoid wrapping ByteBuffer to byte[]
-                    srcs[offset + i].get(buff, 0, remainings[i]);
-                    logTraffic(true, Protocol.TCP, buff, 0, buff.length, isConnectPacket);
+                    logTraffic(true, Protocol.TCP, srcs[offset + i], positions[i], srcs[offset + i].position() - positions[i], isConnectPacket);
                 }
 
             }
@@ -413,7 +716,7 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
     public Socket socket() {
         try {
             SniffySocket sniffySocket = new SniffySocket(super.socket(), this, connectionId, getInetSocketAddress());
-            LOG.trace("Getting SniffySocket " + sniffySocket + " from SniffySocketChannel " + this);
+            LOG.trace("Getting SniffySocket {} from SniffySocketChannel {}", sniffySocket, this);
             return sniffySocket;
         } catch (SocketException e) {
             e.printStackTrace();
@@ -423,6 +726,25 @@ public class SniffySocketChannel extends SniffySocketChannelAdapter implements S
 
     //
 
+    @Override
+    public TrafficShaper getTrafficShaper() {
+        return trafficShaper;
+    }
+
+    @Override
+    public TrafficCapture getTrafficCapture() {
+        TrafficCapture trafficCapture = this.trafficCapture.get();
+        if (null == trafficCapture) {
+            trafficCapture = SniffyConfiguration.INSTANCE.getTrafficCapturePolicy().createTrafficCapture(
+                    null == proxiedAddress ? getInetSocketAddress() : proxiedAddress
+            );
+            if (!this.trafficCapture.compareAndSet(null, trafficCapture)) {
+                trafficCapture = this.trafficCapture.get();
+            }
+        }
+        return trafficCapture;
+    }
+
     @Override
     public int getPotentiallyBufferedInputBytes() {
         return potentiallyBufferedInputBytes;
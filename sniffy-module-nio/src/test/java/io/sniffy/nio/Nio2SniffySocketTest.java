@@ -2,20 +2,35 @@ package io.sniffy.nio;
 
 import io.sniffy.Sniffy;
 import io.sniffy.Spy;
+import io.sniffy.SpyConfiguration;
+import io.sniffy.configuration.SniffyConfiguration;
+import io.sniffy.registry.ConnectionsRegistry;
+import io.sniffy.socket.AddressMatchers;
 import io.sniffy.socket.BaseSocketTest;
+import io.sniffy.socket.NetworkPacket;
+import io.sniffy.socket.Protocol;
 import io.sniffy.socket.SnifferSocketImplFactory;
+import io.sniffy.socket.SocketMetaData;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.net.ConnectException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.sniffy.Threads.*;
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.fail;
+import static org.junit.Assert.*;
 
 public class Nio2SniffySocketTest extends BaseSocketTest {
 
@@ -76,6 +91,326 @@ public class Nio2SniffySocketTest extends BaseSocketTest {
 
     }
 
+    @Test
+    public void testCompletionHandlerOperationsAttributedToCurrentThread() throws Exception {
+
+        SnifferSocketImplFactory.uninstall();
+        SnifferSocketImplFactory.install();
+
+        SniffySelectorProviderModule.initialize();
+        SniffySelectorProvider.uninstall();
+        SniffySelectorProvider.install();
+
+        SniffyAsynchronousChannelProvider.install();
+
+        try {
+            try (Spy<?> s = Sniffy.spy()) {
+
+                AsynchronousSocketChannel channel = AsynchronousSocketChannel.open();
+                assertTrue(channel instanceof SniffyAsynchronousSocketChannel);
+
+                ByteBuffer requestBuffer = ByteBuffer.wrap(BaseSocketTest.REQUEST);
+                ByteBuffer responseBuffer = ByteBuffer.allocate(BaseSocketTest.RESPONSE.length);
+
+                await(Void.class, handler -> channel.connect(new InetSocketAddress(BaseSocketTest.localhost, echoServerRule.getBoundPort()), null, handler));
+                await(Integer.class, handler -> channel.write(requestBuffer, null, handler));
+                await(Integer.class, handler -> channel.read(responseBuffer, null, handler));
+
+                channel.close();
+
+                echoServerRule.joinThreads();
+
+                Assert.assertArrayEquals(BaseSocketTest.RESPONSE, responseBuffer.array());
+
+                // callbacks are invoked in channel group threads but operations belong to the thread which started them
+
+                assertEquals(1, s.getSocketOperations(CURRENT, true).size());
+                assertEquals(0, s.getSocketOperations(OTHERS, true).size());
+
+                s.getSocketOperations(CURRENT, true).values().stream().findAny().ifPresent((socketStats) -> {
+                    Assert.assertEquals(BaseSocketTest.REQUEST.length, socketStats.bytesUp.intValue());
+                    Assert.assertEquals(BaseSocketTest.RESPONSE.length, socketStats.bytesDown.intValue());
+                });
+
+            }
+        } finally {
+            SniffyAsynchronousChannelProvider.uninstall();
+            SniffySelectorProvider.uninstall();
+            SnifferSocketImplFactory.uninstall();
+        }
+
+    }
+
+    @Test
+    public void testCompletionHandlerDelayedByConnectionsRegistry() throws Exception {
+
+        SnifferSocketImplFactory.uninstall();
+        SnifferSocketImplFactory.install();
+
+        SniffySelectorProviderModule.initialize();
+        SniffySelectorProvider.uninstall();
+        SniffySelectorProvider.install();
+
+        SniffyAsynchronousChannelProvider.install();
+
+        boolean socketFaultInjectionEnabled = SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled();
+        SniffyConfiguration.INSTANCE.setSocketFaultInjectionEnabled(true);
+
+        ConnectionsRegistry.INSTANCE.setSocketAddressStatus(BaseSocketTest.localhost.getHostAddress(), echoServerRule.getBoundPort(), 500);
+
+        try {
+            AsynchronousSocketChannel channel = AsynchronousSocketChannel.open();
+            assertTrue(channel instanceof SniffyAsynchronousSocketChannel);
+
+            ByteBuffer requestBuffer = ByteBuffer.wrap(BaseSocketTest.REQUEST);
+            ByteBuffer responseBuffer = ByteBuffer.allocate(BaseSocketTest.RESPONSE.length);
+
+            Completion<Void> connect = start(handler -> channel.connect(new InetSocketAddress(BaseSocketTest.localhost, echoServerRule.getBoundPort()), null, handler));
+            connect.await();
+            Completion<Integer> write = start(handler -> channel.write(requestBuffer, null, handler));
+            write.await();
+            Completion<Integer> read = start(handler -> channel.read(responseBuffer, null, handler));
+            read.await();
+
+            channel.close();
+
+            echoServerRule.joinThreads();
+
+            Assert.assertArrayEquals(BaseSocketTest.RESPONSE, responseBuffer.array());
+
+            // operations are initiated without blocking and handlers are notified after the delay
+
+            for (Completion<?> completion : Arrays.asList(connect, write, read)) {
+                assertTrue(completion.getStartMillis() < 250);
+                assertTrue(completion.getCompletionMillis() >= 500);
+            }
+
+            // completion is delayed by DelayScheduler rather than by sleeping in channel group thread
+            // and handlers are invoked in callback pool rather than in the timer thread
+
+            assertEquals("Sniffy Delayed Callback", write.getCompletionThreadName());
+            assertEquals("Sniffy Delayed Callback", read.getCompletionThreadName());
+        } finally {
+            ConnectionsRegistry.INSTANCE.clear();
+            SniffyConfiguration.INSTANCE.setSocketFaultInjectionEnabled(socketFaultInjectionEnabled);
+            SniffyAsynchronousChannelProvider.uninstall();
+            SniffySelectorProvider.uninstall();
+            SnifferSocketImplFactory.uninstall();
+        }
+
+    }
+
+    @Test
+    public void testCompletionHandlerFailedIfConnectionRefused() throws Exception {
+
+        SnifferSocketImplFactory.uninstall();
+        SnifferSocketImplFactory.install();
+
+        SniffySelectorProviderModule.initialize();
+        SniffySelectorProvider.uninstall();
+        SniffySelectorProvider.install();
+
+        SniffyAsynchronousChannelProvider.install();
+
+        boolean socketFaultInjectionEnabled = SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled();
+
+        try {
+            InetSocketAddress address = new InetSocketAddress(BaseSocketTest.localhost, echoServerRule.getBoundPort());
+
+            // connection is established before the address is refused; status is resolved on first write
+
+            SniffyConfiguration.INSTANCE.setSocketFaultInjectionEnabled(false);
+
+            AsynchronousSocketChannel connectedChannel = AsynchronousSocketChannel.open();
+            await(Void.class, handler -> connectedChannel.connect(address, null, handler));
+
+            SniffyConfiguration.INSTANCE.setSocketFaultInjectionEnabled(true);
+            ConnectionsRegistry.INSTANCE.setSocketAddressStatus(BaseSocketTest.localhost.getHostAddress(), echoServerRule.getBoundPort(), -1);
+
+            Throwable writeException = start(Integer.class, handler -> connectedChannel.write(ByteBuffer.wrap(BaseSocketTest.REQUEST), null, handler)).awaitFailure();
+            assertTrue(writeException instanceof ConnectException);
+            assertTrue(writeException.getMessage().contains("refused by Sniffy"));
+
+            Throwable readException = start(Integer.class, handler -> connectedChannel.read(ByteBuffer.allocate(BaseSocketTest.RESPONSE.length), null, handler)).awaitFailure();
+            assertTrue(readException instanceof ConnectException);
+
+            connectedChannel.close();
+
+            // new connection is refused as well
+
+            AsynchronousSocketChannel channel = AsynchronousSocketChannel.open();
+
+            Throwable connectException = start(Void.class, handler -> channel.connect(address, null, handler)).awaitFailure();
+            assertTrue(connectException instanceof ConnectException);
+            assertTrue(connectException.getMessage().contains("refused by Sniffy"));
+
+            channel.close();
+        } finally {
+            ConnectionsRegistry.INSTANCE.clear();
+            SniffyConfiguration.INSTANCE.setSocketFaultInjectionEnabled(socketFaultInjectionEnabled);
+            SniffyAsynchronousChannelProvider.uninstall();
+            SniffySelectorProvider.uninstall();
+            SnifferSocketImplFactory.uninstall();
+        }
+
+    }
+
+    @Test
+    public void testCompletionHandlerTrafficCaptured() throws Exception {
+
+        SnifferSocketImplFactory.uninstall();
+        SnifferSocketImplFactory.install();
+
+        SniffySelectorProviderModule.initialize();
+        SniffySelectorProvider.uninstall();
+        SniffySelectorProvider.install();
+
+        SniffyAsynchronousChannelProvider.install();
+
+        try {
+            try (Spy<?> spy = Sniffy.spy(SpyConfiguration.builder().captureNetworkTraffic(true).build())) {
+
+                AsynchronousSocketChannel channel = AsynchronousSocketChannel.open();
+                assertTrue(channel instanceof SniffyAsynchronousSocketChannel);
+
+                ByteBuffer requestBuffer = ByteBuffer.wrap(BaseSocketTest.REQUEST);
+                ByteBuffer responseBuffer = ByteBuffer.allocate(BaseSocketTest.RESPONSE.length);
+
+                await(Void.class, handler -> channel.connect(new InetSocketAddress(BaseSocketTest.localhost, echoServerRule.getBoundPort()), null, handler));
+                while (requestBuffer.hasRemaining()) {
+                    await(Integer.class, handler -> channel.write(requestBuffer, null, handler));
+                }
+                while (responseBuffer.hasRemaining()) {
+                    assertTrue(await(Integer.class, handler -> channel.read(responseBuffer, null, handler)) >= 0);
+                }
+
+                channel.close();
+
+                echoServerRule.joinThreads();
+
+                Assert.assertArrayEquals(BaseSocketTest.RESPONSE, responseBuffer.array());
+
+                Map<SocketMetaData, List<NetworkPacket>> networkTraffic = spy.getNetworkTraffic();
+
+                assertEquals(1, networkTraffic.size());
+
+                SocketMetaData socketMetaData = networkTraffic.keySet().iterator().next();
+                assertEquals(Protocol.TCP, socketMetaData.getProtocol());
+                assertEquals(echoServerRule.getBoundPort(), socketMetaData.getAddress().getPort());
+
+                ByteArrayOutputStream sent = new ByteArrayOutputStream();
+                ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+                for (NetworkPacket networkPacket : networkTraffic.values().iterator().next()) {
+                    (networkPacket.isSent() ? sent : received).write(networkPacket.getBytes());
+                }
+
+                Assert.assertArrayEquals(BaseSocketTest.REQUEST, sent.toByteArray());
+                Assert.assertArrayEquals(BaseSocketTest.RESPONSE, received.toByteArray());
+
+                // traffic is attributed to the thread which initiated operations
+
+                assertEquals(1, spy.getNetworkTraffic(CURRENT, AddressMatchers.anyAddressMatcher()).size());
+                assertEquals(0, spy.getNetworkTraffic(OTHERS, AddressMatchers.anyAddressMatcher()).size());
+
+            }
+        } finally {
+            SniffyAsynchronousChannelProvider.uninstall();
+            SniffySelectorProvider.uninstall();
+            SnifferSocketImplFactory.uninstall();
+        }
+
+    }
+
+    private interface AsyncOperation<V> {
+        void start(CompletionHandler<V, Object> handler) throws Exception;
+    }
+
+    /**
+     * Records result of asynchronous operation together with its timing and the thread which notified the handler
+     */
+    private static class Completion<V> implements CompletionHandler<V, Object> {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicReference<V> result = new AtomicReference<>();
+        private final AtomicReference<Throwable> exception = new AtomicReference<>();
+        private final long start = System.nanoTime();
+
+        private volatile long started;
+        private volatile long completed;
+        private volatile String completionThreadName;
+
+        @Override
+        public void completed(V value, Object attachment) {
+            result.set(value);
+            complete();
+        }
+
+        @Override
+        public void failed(Throwable e, Object attachment) {
+            exception.set(e);
+            complete();
+        }
+
+        private void complete() {
+            completed = System.nanoTime();
+            completionThreadName = Thread.currentThread().getName();
+            latch.countDown();
+        }
+
+        private V await() throws InterruptedException {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertNull(exception.get());
+            return result.get();
+        }
+
+        private Throwable awaitFailure() throws InterruptedException {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertNotNull(exception.get());
+            return exception.get();
+        }
+
+        /**
+         * @return time spent in the method which initiated the operation
+         */
+        private long getStartMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(started - start);
+        }
+
+        /**
+         * @return time between initiating the operation and notifying the handler
+         */
+        private long getCompletionMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(completed - start);
+        }
+
+        private String getCompletionThreadName() {
+            return completionThreadName;
+        }
+
+    }
+
+    private static <V> Completion<V> start(AsyncOperation<V> operation) throws Exception {
+        Completion<V> completion = new Completion<>();
+        operation.start(completion);
+        completion.started = System.nanoTime();
+        return completion;
+    }
+
+    /**
+     * @param resultType type of the operation result; required for inferring the type of completion handler
+     */
+    private static <V> Completion<V> start(Class<V> resultType, AsyncOperation<V> operation) throws Exception {
+        return start(operation);
+    }
+
+    /**
+     * @param resultType type of the operation result; required for inferring the type of completion handler
+     */
+    private static <V> V await(Class<V> resultType, AsyncOperation<V> operation) throws Exception {
+        return start(operation).await();
+    }
+
     @Override
     protected void performSocketOperation() {
 
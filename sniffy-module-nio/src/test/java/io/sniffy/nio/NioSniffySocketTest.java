@@ -2,6 +2,8 @@ package io.sniffy.nio;
 
 import io.sniffy.Sniffy;
 import io.sniffy.Spy;
+import io.sniffy.configuration.SniffyConfiguration;
+import io.sniffy.registry.ConnectionsRegistry;
 import io.sniffy.socket.BaseSocketTest;
 import io.sniffy.socket.SnifferSocketImplFactory;
 import org.junit.Assert;
@@ -135,6 +137,75 @@ public class NioSniffySocketTest extends BaseSocketTest {
 
     }
 
+    @Test
+    public void testDelayDoesNotBlockSelectorThread() throws Exception {
+
+        SnifferSocketImplFactory.uninstall();
+        SnifferSocketImplFactory.install();
+
+        SniffySelectorProviderModule.initialize();
+        SniffySelectorProvider.uninstall();
+        SniffySelectorProvider.install();
+
+        boolean socketFaultInjectionEnabled = SniffyConfiguration.INSTANCE.getSocketFaultInjectionEnabled();
+        SniffyConfiguration.INSTANCE.setSocketFaultInjectionEnabled(true);
+
+        ConnectionsRegistry.INSTANCE.setSocketAddressStatus(BaseSocketTest.localhost.getHostAddress(), echoServerRule.getBoundPort(), 500);
+
+        try {
+            ByteBuffer requestBuffer = ByteBuffer.wrap(BaseSocketTest.REQUEST);
+            ByteBuffer responseBuffer = ByteBuffer.allocate(BaseSocketTest.RESPONSE.length);
+
+            Selector selector = Selector.open();
+
+            SocketChannel socketChannel = SocketChannel.open();
+            socketChannel.configureBlocking(false);
+
+            long start = System.currentTimeMillis();
+            long maxOperationTime = 0;
+
+            boolean connected = socketChannel.connect(new InetSocketAddress(BaseSocketTest.localhost, echoServerRule.getBoundPort()));
+            maxOperationTime = Math.max(maxOperationTime, System.currentTimeMillis() - start);
+
+            SelectionKey selectionKey = socketChannel.register(selector, connected ? SelectionKey.OP_WRITE : SelectionKey.OP_CONNECT);
+
+            while (responseBuffer.hasRemaining()) {
+                selector.select(5000);
+                selector.selectedKeys().clear();
+
+                long operationStart = System.currentTimeMillis();
+
+                if (selectionKey.isConnectable() && socketChannel.finishConnect()) {
+                    selectionKey.interestOps(SelectionKey.OP_WRITE);
+                } else if (selectionKey.isWritable()) {
+                    socketChannel.write(requestBuffer);
+                    if (!requestBuffer.hasRemaining()) {
+                        selectionKey.interestOps(SelectionKey.OP_READ);
+                    }
+                } else if (selectionKey.isReadable()) {
+                    assertTrue(socketChannel.read(responseBuffer) >= 0);
+                }
+
+                maxOperationTime = Math.max(maxOperationTime, System.currentTimeMillis() - operationStart);
+                assertTrue(System.currentTimeMillis() - start < 10000);
+            }
+
+            socketChannel.close();
+
+            Assert.assertArrayEquals(BaseSocketTest.RESPONSE, responseBuffer.array());
+
+            // connect, write and read are delayed without sleeping in selector thread
+            assertTrue(System.currentTimeMillis() - start >= 1500);
+            assertTrue(maxOperationTime < 250);
+        } finally {
+            ConnectionsRegistry.INSTANCE.clear();
+            SniffyConfiguration.INSTANCE.setSocketFaultInjectionEnabled(socketFaultInjectionEnabled);
+            SnifferSocketImplFactory.uninstall();
+            SniffySelectorProvider.uninstall();
+        }
+
+    }
+
     @Test
     public void testInstall() throws Exception {
 
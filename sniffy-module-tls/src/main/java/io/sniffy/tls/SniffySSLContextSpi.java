@@ -2,6 +2,7 @@ package io.sniffy.tls;
 
 import io.sniffy.log.Polyglog;
 import io.sniffy.log.PolyglogFactory;
+import io.sniffy.log.PolyglogLevel;
 import io.sniffy.util.ExceptionUtil;
 import io.sniffy.util.ReflectionUtil;
 import io.sniffy.util.StackTraceExtractor;
@@ -24,7 +25,9 @@ public class SniffySSLContextSpi extends SSLContextSpi {
     public SniffySSLContextSpi(SSLContextSpi delegate) {
         this.delegate = delegate;
         LOG.trace("Created SniffySSLContextSpi(" + delegate + ")");
-        CONSTRUCTOR_VERBOSE_LOG.trace("StackTrace for creating new SniffySSLEngine was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        if (CONSTRUCTOR_VERBOSE_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+            CONSTRUCTOR_VERBOSE_LOG.trace("StackTrace for creating new SniffySSLEngine was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        }
     }
 
     @Override
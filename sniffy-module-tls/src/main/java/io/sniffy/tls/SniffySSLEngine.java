@@ -3,6 +3,7 @@ package io.sniffy.tls;
 import io.sniffy.Sniffy;
 import io.sniffy.log.Polyglog;
 import io.sniffy.log.PolyglogFactory;
+import io.sniffy.log.PolyglogLevel;
 import io.sniffy.socket.Protocol;
 import io.sniffy.socket.SniffyNetworkConnection;
 import io.sniffy.socket.SniffySSLNetworkConnection;
@@ -34,15 +35,19 @@ public class SniffySSLEngine extends SSLEngine implements SniffySSLNetworkConnec
 
     public SniffySSLEngine(SSLEngine delegate) {
         this.delegate = delegate;
-        LOG.trace("Created SniffySSLEngine(" + delegate + ")");
-        CONSTRUCTOR_VERBOSE_LOG.trace("StackTrace for creating new SniffySSLEngine was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        LOG.trace("Created SniffySSLEngine({})", delegate);
+        if (CONSTRUCTOR_VERBOSE_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+            CONSTRUCTOR_VERBOSE_LOG.trace("StackTrace for creating new SniffySSLEngine was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        }
     }
 
     public SniffySSLEngine(SSLEngine delegate, String peerHost, int peerPort) {
         super(peerHost, peerPort);
         this.delegate = delegate;
-        LOG.trace("Created SniffySSLEngine(" + delegate + ", " + peerHost + ", " + peerPort + ")");
-        CONSTRUCTOR_VERBOSE_LOG.trace("StackTrace for creating new SniffySSLEngine was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        LOG.trace("Created SniffySSLEngine({}, {}, {})", delegate, peerHost, peerPort);
+        if (CONSTRUCTOR_VERBOSE_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+            CONSTRUCTOR_VERBOSE_LOG.trace("StackTrace for creating new SniffySSLEngine was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        }
     }
 
     @Override
@@ -72,7 +77,9 @@ public class SniffySSLEngine extends SSLEngine implements SniffySSLNetworkConnec
     @Override
     public SSLEngineResult wrap(ByteBuffer src, ByteBuffer dst) throws SSLException {
 
-        WRAP_VERBOSE_LOG.trace("StackTrace for first SSLEngine.wrap() invocation was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        if (WRAP_VERBOSE_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+            WRAP_VERBOSE_LOG.trace("StackTrace for first SSLEngine.wrap() invocation was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        }
 
         int srcPosition = src.position();
         int srcLength = 0;
@@ -98,28 +105,22 @@ public class SniffySSLEngine extends SSLEngine implements SniffySSLNetworkConnec
             if (firstWrap && dstLength > 0) {
                 firstWrap = false;
 
-                dst.position(dstPosition);
-                byte[] dstBuff = new byte[dstLength]; // TODO: limit it if it's bigger than say 512
-                dst.get(dstBuff, 0, dstLength);
-
-                Sniffy.CLIENT_HELLO_CACHE.put(ByteBuffer.wrap(dstBuff), this);
+                Sniffy.CLIENT_HELLO_REGISTRY.register(dst, dstPosition, dstLength, this);
 
             }
 
             if (!handshaking && srcLength > 0 && dstLength > 0) {
 
                 if (null == sniffyNetworkConnection) {
-                    UNKNOWN_CONNECTION_LOG.trace("SSLEngine invoked for unknown connection id " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
-                } else {
-
-                    src.position(srcPosition);
-                    byte[] buff = new byte[srcLength];
-                    src.get(buff, 0, srcLength);
+                    if (UNKNOWN_CONNECTION_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+                        UNKNOWN_CONNECTION_LOG.trace("SSLEngine invoked for unknown connection id " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+                    }
+                } else if (sniffyNetworkConnection.getTrafficCapture().isEnabled()) {
 
                     sniffyNetworkConnection.logDecryptedTraffic(
                             true,
                             Protocol.TCP,
-                            buff, 0, srcLength
+                            src, srcPosition, srcLength
                     );
 
                 }
@@ -138,16 +139,16 @@ public class SniffySSLEngine extends SSLEngine implements SniffySSLNetworkConnec
     // TODO: cover with tests
     @Override
     public SSLEngineResult wrap(ByteBuffer[] srcs, int offset, int length, ByteBuffer dst) throws SSLException {
-        WRAP_VERBOSE_LOG.trace("StackTrace for first SSLEngine.wrap() invocation was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        if (WRAP_VERBOSE_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+            WRAP_VERBOSE_LOG.trace("StackTrace for first SSLEngine.wrap() invocation was " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+        }
 
         int srcLength = 0;
 
         int[] positions = new int[length];
-        int[] remainings = new int[length];
 
         for (int i = 0; i < length; i++) {
             positions[i] = srcs[offset + i].position();
-            remainings[i] = srcs[offset + i].remaining();
         }
 
         int dstPosition = dst.position();
@@ -171,27 +172,22 @@ public class SniffySSLEngine extends SSLEngine implements SniffySSLNetworkConnec
             if (firstWrap && dstLength > 0) {
                 firstWrap = false;
 
-                dst.position(dstPosition);
-                byte[] dstBuff = new byte[dstLength]; // TODO: limit it if it's bigger than say 512
-                dst.get(dstBuff, 0, dstLength);
-
-                Sniffy.CLIENT_HELLO_CACHE.put(ByteBuffer.wrap(dstBuff), this);
+                Sniffy.CLIENT_HELLO_REGISTRY.register(dst, dstPosition, dstLength, this);
 
             }
 
             if (!handshaking && srcLength > 0 && dstLength > 0) {
 
                 if (null == sniffyNetworkConnection) {
-                    UNKNOWN_CONNECTION_LOG.trace("SSLEngine invoked for unknown connection id " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
-                } else {
+                    if (UNKNOWN_CONNECTION_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+                        UNKNOWN_CONNECTION_LOG.trace("SSLEngine invoked for unknown connection id " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+                    }
+                } else if (sniffyNetworkConnection.getTrafficCapture().isEnabled()) {
                     for (int i = 0; i < length; i++) {
-                        srcs[offset + i].position(positions[i]);
-                        byte[] buff = new byte[remainings[i]];
-                        srcs[offset + i].get(buff, 0, remainings[i]);
                         sniffyNetworkConnection.logDecryptedTraffic(
                                 true,
                                 Protocol.TCP,
-                                buff, 0, srcLength
+                                srcs[offset + i], positions[i], srcs[offset + i].position() - positions[i]
                         );
                     }
                 }
@@ -228,16 +224,14 @@ public class SniffySSLEngine extends SSLEngine implements SniffySSLNetworkConnec
             if (!handshaking && srcLength > 0 && dstLength > 0) {
 
                 if (null == sniffyNetworkConnection) {
-                    UNKNOWN_CONNECTION_LOG.trace("SSLEngine invoked for unknown connection id " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
-                } else {
-                    dst.position(dstPosition);
-                    byte[] buff = new byte[dstLength];
-                    dst.get(buff, 0, dstLength);
-
+                    if (UNKNOWN_CONNECTION_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+                        UNKNOWN_CONNECTION_LOG.trace("SSLEngine invoked for unknown connection id " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+                    }
+                } else if (sniffyNetworkConnection.getTrafficCapture().isEnabled()) {
                     sniffyNetworkConnection.logDecryptedTraffic(
                             false,
                             Protocol.TCP,
-                            buff, 0, dstLength
+                            dst, dstPosition, dstLength
                     );
                 }
 
@@ -254,16 +248,14 @@ public class SniffySSLEngine extends SSLEngine implements SniffySSLNetworkConnec
 
     @Override
     public SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, int offset, int length) throws SSLException {
-        LOG.trace("Scattering unwrap to " + length + " ByteBuffer instances");
+        LOG.trace("Scattering unwrap to {} ByteBuffer instances", length);
 
         int srcLength = 0;
 
         int[] positions = new int[length];
-        int[] remainings = new int[length];
 
         for (int i = 0; i < length; i++) {
             positions[i] = dsts[offset + i].position();
-            remainings[i] = dsts[offset + i].remaining();
         }
 
         int dstLength = 0;
@@ -286,16 +278,15 @@ public class SniffySSLEngine extends SSLEngine implements SniffySSLNetworkConnec
             if (!handshaking && srcLength > 0 && dstLength > 0) {
 
                 if (null == sniffyNetworkConnection) {
-                    UNKNOWN_CONNECTION_LOG.trace("SSLEngine invoked for unknown connection id " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
-                } else {
+                    if (UNKNOWN_CONNECTION_LOG.isLevelEnabled(PolyglogLevel.TRACE)) {
+                        UNKNOWN_CONNECTION_LOG.trace("SSLEngine invoked for unknown connection id " + StringUtil.LINE_SEPARATOR + StackTraceExtractor.getStackTraceAsString());
+                    }
+                } else if (sniffyNetworkConnection.getTrafficCapture().isEnabled()) {
                     for (int i = 0; i < length; i++) {
-                        dsts[offset + i].position(positions[i]);
-                        byte[] buff = new byte[remainings[i]];
-                        dsts[offset + i].get(buff, 0, remainings[i]);
                         sniffyNetworkConnection.logDecryptedTraffic(
                                 false,
                                 Protocol.TCP,
-                                buff, 0, dstLength
+                                dsts[offset + i], positions[i], dsts[offset + i].position() - positions[i]
                         );
                     }
                 }
@@ -15,6 +15,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 
 public class SniffySSLSocket extends SSLSocketAdapter implements TrafficCapturingNetworkConnection {
@@ -33,7 +34,7 @@ public class SniffySSLSocket extends SSLSocketAdapter implements TrafficCapturin
     public void logTraffic(boolean sent, Protocol protocol, byte[] traffic, int off, int len) {
         SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
         if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
-            LOG.trace("SniffySSLSocket.logTraffic() called; sent = " + sent + "; len = " + len + "; connectionId = " + id);
+            LOG.trace("SniffySSLSocket.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
             Sniffy.logDecryptedTraffic(
                     id, address,
                     sent, protocol,
@@ -47,6 +48,25 @@ public class SniffySSLSocket extends SSLSocketAdapter implements TrafficCapturin
         logTraffic(sent, protocol, traffic, off, len);
     }
 
+    @Override
+    public void logTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        SpyConfiguration effectiveSpyConfiguration = Sniffy.getEffectiveSpyConfiguration();
+        if (effectiveSpyConfiguration.isCaptureNetworkTraffic()) {
+            LOG.trace("SniffySSLSocket.logTraffic() called; sent = {}; len = {}; connectionId = {}", sent, len, id);
+            Sniffy.logDecryptedTraffic(
+                    id, address,
+                    sent, protocol,
+                    traffic, off, len,
+                    effectiveSpyConfiguration.isCaptureStackTraces()
+            );
+        }
+    }
+
+    @Override
+    public void logDecryptedTraffic(boolean sent, Protocol protocol, ByteBuffer traffic, int off, int len) {
+        logTraffic(sent, protocol, traffic, off, len);
+    }
+
     //
 
     public SniffySSLSocket(Socket delegate, InetSocketAddress address) {
@@ -55,7 +75,7 @@ public class SniffySSLSocket extends SSLSocketAdapter implements TrafficCapturin
 
     public SniffySSLSocket(SSLSocket delegate, InetSocketAddress address) {
         super(delegate);
-        LOG.trace("Created SniffySSLSocket for delegate " + delegate + " and address " + address + "; id = " + id);
+        LOG.trace("Created SniffySSLSocket for delegate {} and address {}; id = {}", delegate, address, id);
         this.socketChannel = null;
         if (null == address) {
             this.address = (InetSocketAddress) delegate.getRemoteSocketAddress();
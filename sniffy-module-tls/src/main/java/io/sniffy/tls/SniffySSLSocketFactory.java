@@ -20,7 +20,7 @@ public class SniffySSLSocketFactory extends SSLSocketFactory {
 
     public SniffySSLSocketFactory(SSLSocketFactory delegate) {
         this.delegate = delegate;
-        LOG.trace("Created SniffySSLSocketFactory(" + delegate + ")");
+        LOG.trace("Created SniffySSLSocketFactory({})", delegate);
     }
 
     public SSLSocketFactory getDelegate() {
@@ -39,31 +39,31 @@ public class SniffySSLSocketFactory extends SSLSocketFactory {
 
     @Override
     public Socket createSocket(Socket s, String host, int port, boolean autoClose) throws IOException {
-        LOG.trace("SniffySSLSocketFactory.createSocket(" + s + ", " + host + ", " + port + ", " + autoClose + ")");
+        LOG.trace("SniffySSLSocketFactory.createSocket({}, {}, {}, {})", s, host, port, autoClose);
         return new SniffySSLSocket(delegate.createSocket(s, host, port, autoClose), InetSocketAddress.createUnresolved(host, port));
     }
 
     @Override
     public Socket createSocket(String host, int port) throws IOException, UnknownHostException {
-        LOG.trace("SniffySSLSocketFactory.createSocket(" + host + ", " + port + ")");
+        LOG.trace("SniffySSLSocketFactory.createSocket({}, {})", host, port);
         return new SniffySSLSocket(delegate.createSocket(host, port), InetSocketAddress.createUnresolved(host, port));
     }
 
     @Override
     public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException, UnknownHostException {
-        LOG.trace("SniffySSLSocketFactory.createSocket(" + host + ", " + port + ", " + localHost + ", " + localPort + ")");
+        LOG.trace("SniffySSLSocketFactory.createSocket({}, {}, {}, {})", host, port, localHost, localPort);
         return new SniffySSLSocket(delegate.createSocket(host, port, localHost, localPort), InetSocketAddress.createUnresolved(host, port));
     }
 
     @Override
     public Socket createSocket(InetAddress host, int port) throws IOException {
-        LOG.trace("SniffySSLSocketFactory.createSocket(" + host + ", " + port + ")");
+        LOG.trace("SniffySSLSocketFactory.createSocket({}, {})", host, port);
         return new SniffySSLSocket(delegate.createSocket(host, port), new InetSocketAddress(host, port));
     }
 
     @Override
     public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
-        LOG.trace("SniffySSLSocketFactory.createSocket(" + address + ", " + port + ", " + localAddress + ", " + localPort + ")");
+        LOG.trace("SniffySSLSocketFactory.createSocket({}, {}, {}, {})", address, port, localAddress, localPort);
         return new SniffySSLSocket(delegate.createSocket(address, port, localAddress, localPort), new InetSocketAddress(address, port));
     }
 
@@ -13,6 +13,7 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLContextSpi;
 import javax.net.ssl.SSLSocketFactory;
 import java.security.Provider;
+import java.security.Security;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.List;
@@ -28,13 +29,17 @@ class SniffyThreadLocalProviderList extends ThreadLocal<ProviderList> {
 
     private final ThreadLocal<Boolean> insideSetProviderList = new ThreadLocal<Boolean>();
 
+    /**
+     * Called on every JCA provider lookup like {@code MessageDigest.getInstance()}, hence the stack is inspected only
+     * if current thread might be inside {@code Providers.setProviderList()}, see {@link #isInsideSetProviderList()}
+     */
     @Override
     public ProviderList get() {
 
         ProviderList providerList = delegate.get();
 
         if (null == providerList) {
-            if (!Boolean.TRUE.equals(insideSetProviderList.get()) && StackTraceExtractor.hasClassAndMethodInStackTrace(Providers.class.getName(), "setProviderList")) {
+            if (isInsideSetProviderList() && !Boolean.TRUE.equals(insideSetProviderList.get())) {
                 insideSetProviderList.set(true);
                 LOG.info("Sniffy detected call to Providers.setProviderList() - setting flag insideSetProviderList to true");
                 return ProviderList.newList();
@@ -44,6 +49,18 @@ class SniffyThreadLocalProviderList extends ThreadLocal<ProviderList> {
         return providerList;
     }
 
+    /**
+     * {@code Providers.setProviderList()} is only called by {@link Security#insertProviderAt(Provider, int)} and
+     * {@link Security#removeProvider(String)} which are static synchronized methods; checking the monitor of
+     * {@link Security} class is cheap and allows skipping stack inspection on all other JCA calls
+     *
+     * @since 3.1.14
+     */
+    static boolean isInsideSetProviderList() {
+        return Thread.holdsLock(Security.class) &&
+                StackTraceExtractor.hasClassAndMethodInStackTrace(Providers.class.getName(), "setProviderList");
+    }
+
     private static Map.Entry<ProviderList, SniffySSLContextSpiProvider> wrapProviderList(ProviderList value) throws IllegalAccessException, NoSuchFieldException, ClassNotFoundException {
 
         List<Provider> wrappedProviderList = new ArrayList<Provider>();
@@ -119,7 +136,7 @@ class SniffyThreadLocalProviderList extends ThreadLocal<ProviderList> {
             if (null == delegate.get() &&
                     Boolean.TRUE.equals(insideSetProviderList.get()) &&
                     1 == ((Number) ReflectionUtil.getField(Providers.class, null, "threadListsUsed")).intValue()) {
-                if (StackTraceExtractor.hasClassAndMethodInStackTrace(Providers.class.getName(), "setProviderList")) {
+                if (isInsideSetProviderList()) {
                     // call callback
                     try {
 
@@ -25,4 +25,18 @@ public @interface SniffyAdvancedConfiguration {
      */
     String monitorNio() default "false";
 
+    /**
+     * Maximum estimated size in bytes of request stats kept for Sniffy UI; non-positive value means no limit
+     *
+     * @since 3.1.14
+     */
+    String requestStatsCacheMaxBytes() default "33554432";
+
+    /**
+     * Time in milliseconds after which request stats kept for Sniffy UI expire; non-positive value means never
+     *
+     * @since 3.1.14
+     */
+    String requestStatsCacheExpireAfterMillis() default "0";
+
 }
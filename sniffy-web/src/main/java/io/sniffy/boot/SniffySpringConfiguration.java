@@ -47,6 +47,9 @@ public class SniffySpringConfiguration implements ImportAware, BeanFactoryAware,
 
     private Integer topSqlCapacity;
 
+    private Long requestStatsCacheMaxBytes;
+    private Long requestStatsCacheExpireAfterMillis;
+
     private Boolean filterEnabled;
     private Pattern excludePattern;
 
@@ -75,6 +78,8 @@ public class SniffySpringConfiguration implements ImportAware, BeanFactoryAware,
         SniffyConfiguration.INSTANCE.setMonitorSocket(isMonitorSocket());
         SniffyConfiguration.INSTANCE.setMonitorNio(isMonitorNio());
         SniffyConfiguration.INSTANCE.setTopSqlCapacity(getTopSqlCapacity());
+        SniffyConfiguration.INSTANCE.setRequestStatsCacheMaxBytes(getRequestStatsCacheMaxBytes());
+        SniffyConfiguration.INSTANCE.setRequestStatsCacheExpireAfterMillis(getRequestStatsCacheExpireAfterMillis());
 
         Sniffy.initialize();
 
@@ -136,6 +141,26 @@ public class SniffySpringConfiguration implements ImportAware, BeanFactoryAware,
         return topSqlCapacity;
     }
 
+    private long getRequestStatsCacheMaxBytes() {
+        if (null == requestStatsCacheMaxBytes) {
+            requestStatsCacheMaxBytes = resolveLongProperty(
+                    enableSniffy.getAnnotation("advanced").getString("requestStatsCacheMaxBytes"),
+                    SniffyConfiguration.INSTANCE.getRequestStatsCacheMaxBytes()
+            );
+        }
+        return requestStatsCacheMaxBytes;
+    }
+
+    private long getRequestStatsCacheExpireAfterMillis() {
+        if (null == requestStatsCacheExpireAfterMillis) {
+            requestStatsCacheExpireAfterMillis = resolveLongProperty(
+                    enableSniffy.getAnnotation("advanced").getString("requestStatsCacheExpireAfterMillis"),
+                    SniffyConfiguration.INSTANCE.getRequestStatsCacheExpireAfterMillis()
+            );
+        }
+        return requestStatsCacheExpireAfterMillis;
+    }
+
     private boolean isInjectHtml() {
         if (null == injectHtml) {
             injectHtml = resolveBooleanProperty(enableSniffy.getString("injectHtml"));
@@ -218,6 +243,20 @@ public class SniffySpringConfiguration implements ImportAware, BeanFactoryAware,
         return value;
     }
 
+    private long resolveLongProperty(String attributeValue, long defaultValue) {
+        Long value;
+
+        String resolvedValue = beanFactory.resolveEmbeddedValue(attributeValue);
+        Object valueObj = resolver.evaluate(resolvedValue, expressionContext);
+        try {
+            value = typeConverter.convertIfNecessary(valueObj, Long.class);
+        } catch (TypeMismatchException e) {
+            value = null;
+        }
+
+        return null == value ? defaultValue : value;
+    }
+
     private String resolveStringProperty(String attributeValue) {
         String value;
 
@@ -1,31 +1,143 @@
 package io.sniffy.servlet;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static java.lang.System.arraycopy;
 import static java.util.Arrays.copyOf;
 import static java.util.Arrays.copyOfRange;
 
 /**
+ * Byte buffer which supports inserting content without moving already written bytes.
+ * <p>
+ * Insertions are kept aside and spliced into the output by {@link #writeTo(OutputStream)},
+ * {@link #writeLeadingBytesTo(OutputStream, int)} and {@link #toByteArray()}; positions passed to
+ * {@link #insertAt(int, byte[])} as well as {@link #size()} and {@link #byteAt(int)} refer to the written bytes only
+ *
  * @see SniffyFilter
  * @since 2.3.0
  */
 class Buffer extends ByteArrayOutputStream {
 
+    private List<Insertion> insertions;
 
     public byte[] leadingBytes(int maxSize) {
-        return copyOf(buf, Math.max(count, maxSize));
+        return copyOf(buf, Math.min(count, maxSize));
     }
 
     public byte[] trailingBytes(int maxSize) {
         return maxSize >= count ? copyOf(buf, count) : copyOfRange(buf, count - maxSize, count);
     }
 
+    /**
+     * @since 3.1.14
+     */
+    public byte byteAt(int index) {
+        return buf[index];
+    }
+
+    /**
+     * Inserts given data before the byte at given position; data inserted at the same position is written in the
+     * order of insertion
+     */
     public void insertAt(int pos, byte[] data) {
-        ensureCapacity(count + data.length);
-        arraycopy(buf, pos, buf, pos + data.length, count - pos);
-        arraycopy(data, 0, buf, pos, data.length);
-        count += data.length;
+        if (pos < 0 || pos > count) {
+            throw new IndexOutOfBoundsException("Position " + pos + " is out of buffer bounds [0, " + count + "]");
+        }
+        if (null == insertions) {
+            insertions = new ArrayList<Insertion>(2);
+        }
+        int index = insertions.size();
+        while (index > 0 && insertions.get(index - 1).position > pos) {
+            index--;
+        }
+        insertions.add(index, new Insertion(pos, data));
+    }
+
+    /**
+     * Writes the first {@code length} bytes together with content inserted before them to given stream and
+     * removes them from this buffer
+     *
+     * @since 3.1.14
+     */
+    public void writeLeadingBytesTo(OutputStream out, int length) throws IOException {
+        int writtenInsertions = writeTo(out, length);
+        arraycopy(buf, length, buf, 0, count - length);
+        count -= length;
+        if (null != insertions) {
+            insertions.subList(0, writtenInsertions).clear();
+            for (Insertion insertion : insertions) {
+                insertion.position -= length;
+            }
+        }
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        writeTo(out, count);
+    }
+
+    /**
+     * @return number of insertions written
+     */
+    private int writeTo(OutputStream out, int length) throws IOException {
+        int position = 0, index = 0;
+        if (null != insertions) {
+            for (; index < insertions.size() && insertions.get(index).position <= length; index++) {
+                Insertion insertion = insertions.get(index);
+                if (insertion.position > position) {
+                    out.write(buf, position, insertion.position - position);
+                    position = insertion.position;
+                }
+                out.write(insertion.data);
+            }
+        }
+        if (length > position) {
+            out.write(buf, position, length - position);
+        }
+        return index;
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        if (null == insertions || insertions.isEmpty()) {
+            return copyOf(buf, count);
+        }
+        int length = count;
+        for (Insertion insertion : insertions) {
+            length += insertion.data.length;
+        }
+        byte[] bytes = new byte[length];
+        int position = 0, offset = 0;
+        for (Insertion insertion : insertions) {
+            arraycopy(buf, position, bytes, offset, insertion.position - position);
+            offset += insertion.position - position;
+            position = insertion.position;
+            arraycopy(insertion.data, 0, bytes, offset, insertion.data.length);
+            offset += insertion.data.length;
+        }
+        arraycopy(buf, position, bytes, offset, count - position);
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return new String(toByteArray());
+    }
+
+    @Override
+    public String toString(String charsetName) throws UnsupportedEncodingException {
+        return new String(toByteArray(), charsetName);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        insertions = null;
     }
 
     public int getCapacity() {
@@ -68,4 +180,16 @@ class Buffer extends ByteArrayOutputStream {
         buf = copyOf(buf, newCapacity);
     }
 
+    private static class Insertion {
+
+        private int position;
+        private final byte[] data;
+
+        private Insertion(int position, byte[] data) {
+            this.position = position;
+            this.data = data;
+        }
+
+    }
+
 }
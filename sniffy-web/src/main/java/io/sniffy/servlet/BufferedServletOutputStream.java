@@ -5,6 +5,14 @@ import javax.servlet.WriteListener;
 import java.io.IOException;
 
 /**
+ * Buffers the response until it is flushed or buffer overflows, so that headers can be added and HTML injected.
+ * <p>
+ * HTML page is committed as soon as its first {@link HtmlInjector#LEADING_WINDOW_SIZE} bytes are buffered since the
+ * header cannot be injected further, unless application has requested a larger buffer.
+ * Once the response is committed, written bytes are passed to the underlying stream right away except for the last
+ * {@link HtmlInjector#TRAILING_WINDOW_SIZE} bytes of HTML page which are held back until next write, flush or close in
+ * order to inject content before closing {@code body} tag
+ *
  * @see SniffyFilter
  * @since 2.3.0
  */
@@ -22,6 +30,9 @@ class BufferedServletOutputStream extends ServletOutputStream {
 
     private boolean explicitFlushDisabled;
 
+    private int requestedBufferSize;
+    private int trailingWindowSize;
+
     public void setLastChunk() {
         this.lastChunk = true;
     }
@@ -44,10 +55,26 @@ class BufferedServletOutputStream extends ServletOutputStream {
         }
     }
 
+    private void notifyBeforeCommit() throws IOException {
+        responseWrapper.notifyBeforeCommit(buffer);
+        // closing body tag is only looked for in HTML pages
+        trailingWindowSize = responseWrapper.isHtmlInjected() ? HtmlInjector.TRAILING_WINDOW_SIZE : 0;
+    }
+
+    /**
+     * Notifies listener and passes all but trailing bytes to the underlying stream without flushing it
+     */
+    private void commit() throws IOException {
+        notifyBeforeCommit();
+        buffer.writeLeadingBytesTo(target, Math.max(0, buffer.size() - trailingWindowSize));
+        responseWrapper.setCommitted();
+        flushed = true;
+    }
+
     private void flushImpl() throws IOException {
 
         if (!flushed) {
-            responseWrapper.notifyBeforeCommit(buffer);
+            notifyBeforeCommit();
         }
 
         if (lastChunk) {
@@ -82,6 +109,7 @@ class BufferedServletOutputStream extends ServletOutputStream {
     protected void setBufferSize(int size) {
         checkNotFlushed();
         buffer.ensureCapacity(size);
+        requestedBufferSize = size;
     }
 
     protected int getBufferSize() {
@@ -101,30 +129,63 @@ class BufferedServletOutputStream extends ServletOutputStream {
     @Override
     public void write(int b) throws IOException {
         checkOpen();
-        flushIfOverflow(1);
+        commitIfOverflow(1);
         buffer.write(b);
+        flushIfOverflow();
     }
 
     private int maximumBufferSize = 200 * 1024;
 
-    private void flushIfOverflow(int newBytes) throws IOException {
-        if (buffer.size() + newBytes > maximumBufferSize) {
-            flushImpl(); // TODO: do not flush the whole buffer but only say the first half
+    /**
+     * HTML header is injected within {@link HtmlInjector#LEADING_WINDOW_SIZE} leading bytes, so there's no reason to
+     * hold HTML page longer; other responses are buffered in order to count queries in Sniffy headers
+     */
+    private int getCommitThreshold() {
+        return responseWrapper.isHtmlInjected() ?
+                Math.max(HtmlInjector.LEADING_WINDOW_SIZE, requestedBufferSize) :
+                maximumBufferSize;
+    }
+
+    /**
+     * Commits buffered bytes before writing the ones which wouldn't fit into {@link #maximumBufferSize}, so that
+     * buffer never grows beyond it; HTML pages are committed once the header window is buffered instead
+     */
+    private void commitIfOverflow(int newBytes) throws IOException {
+        if (!flushed && !responseWrapper.isHtmlInjected() && buffer.size() + newBytes > maximumBufferSize) {
+            commit();
+        }
+    }
+
+    private void flushIfOverflow() throws IOException {
+        if (!flushed) {
+            if (buffer.size() > getCommitThreshold()) {
+                commit();
+            }
+        } else if (buffer.size() > 2 * trailingWindowSize) {
+            // keep trailing window only; draining at twice its size makes sure each byte is moved at most once
+            buffer.writeLeadingBytesTo(target, buffer.size() - trailingWindowSize);
         }
     }
 
     @Override
     public void write(byte[] b) throws IOException {
-        checkOpen();
-        flushIfOverflow(b.length);
-        buffer.write(b);
+        write(b, 0, b.length);
     }
 
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
         checkOpen();
-        flushIfOverflow(len);
-        buffer.write(b, off, len);
+        commitIfOverflow(len);
+        if (flushed && len > trailingWindowSize) {
+            // pass large chunks through without copying
+            buffer.writeLeadingBytesTo(target, buffer.size());
+            int passThroughBytes = len - trailingWindowSize;
+            target.write(b, off, passThroughBytes);
+            buffer.write(b, off + passThroughBytes, trailingWindowSize);
+        } else {
+            buffer.write(b, off, len);
+            flushIfOverflow();
+        }
     }
 
     // TODO: add tests with different servlet api versions (2.5, 3.0.1, 3.1.0, 4.0-betas)
@@ -15,4 +15,10 @@ interface BufferedServletResponseListener extends EventListener {
     void beforeClose(BufferedServletResponseWrapper wrapper, Buffer buffer)
             throws IOException;
 
+    /**
+     * @return true if content is injected into response with current content type
+     * @since 3.1.14
+     */
+    boolean isHtmlInjected(BufferedServletResponseWrapper wrapper);
+
 }
@@ -23,6 +23,7 @@ class BufferedServletResponseWrapper extends HttpServletResponseWrapper {
 
     private boolean committed;
     private long contentLength;
+    private int bufferSize;
     private String characterEncoding;
     private boolean corsHeadersHeaderAdded = false;
 
@@ -62,6 +63,13 @@ class BufferedServletResponseWrapper extends HttpServletResponseWrapper {
         servletResponseListener.onBeforeCommit(this, buffer);
     }
 
+    /**
+     * @since 3.1.14
+     */
+    protected boolean isHtmlInjected() {
+        return servletResponseListener.isHtmlInjected(this);
+    }
+
     protected void notifyBeforeClose() throws IOException {
         servletResponseListener.beforeClose(this, null);
     }
@@ -73,6 +81,9 @@ class BufferedServletResponseWrapper extends HttpServletResponseWrapper {
     protected BufferedServletOutputStream getBufferedServletOutputStream() throws IOException {
         if (null == bufferedServletOutputStream) {
             bufferedServletOutputStream = new BufferedServletOutputStream(this, super.getOutputStream());
+            if (bufferSize > 0) {
+                bufferedServletOutputStream.setBufferSize(bufferSize);
+            }
         }
         return bufferedServletOutputStream;
     }
@@ -246,6 +257,8 @@ class BufferedServletResponseWrapper extends HttpServletResponseWrapper {
 
     @Override
     public void setBufferSize(int size) {
+        // buffer size requested before the stream is obtained is applied once it is created
+        bufferSize = size;
         if (null != bufferedServletOutputStream) bufferedServletOutputStream.setBufferSize(size);
     }
 
@@ -1,16 +1,39 @@
 package io.sniffy.servlet;
 
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 
 /**
+ * Finds places for injecting Sniffy markup into HTML page and inserts it into {@link Buffer}.
+ * <p>
+ * Tags are searched for right in the buffered bytes if the page uses ASCII compatible encoding like UTF-8 or
+ * ISO-8859-1, so that no strings are created; pages in other encodings are decoded first
+ *
  * @see SniffyFilter
  * @since 2.3.0
  */
 class HtmlInjector {
 
+    /**
+     * Number of leading bytes scanned for the place to inject the header
+     * @since 3.1.14
+     */
+    static final int LEADING_WINDOW_SIZE = 16 * 1024;
+
+    /**
+     * Number of trailing bytes scanned for closing {@code body} and {@code html} tags
+     * @since 3.1.14
+     */
+    static final int TRAILING_WINDOW_SIZE = 16 * 1024;
+
+    private static final String ASCII_PROBE = "<!DOCTYPE html></body>";
+    private static final byte[] ASCII_PROBE_BYTES = ASCII_PROBE.getBytes(Charset.forName("US-ASCII"));
+
     private final Buffer buffer;
     private final String characterEncoding;
+    private final boolean asciiCompatible;
 
     public HtmlInjector(Buffer buffer) {
         this(buffer, Charset.defaultCharset().name());
@@ -19,19 +42,32 @@ class HtmlInjector {
     public HtmlInjector(Buffer buffer, String characterEncoding) {
         this.buffer = buffer;
         this.characterEncoding = characterEncoding;
+        this.asciiCompatible = isAsciiCompatible(characterEncoding);
+    }
+
+    private static boolean isAsciiCompatible(String characterEncoding) {
+        try {
+            return Arrays.equals(ASCII_PROBE_BYTES, ASCII_PROBE.getBytes(characterEncoding));
+        } catch (UnsupportedEncodingException e) {
+            return false;
+        }
     }
 
     /**
+     * Inserts content before the last closing {@code body} or {@code html} tag within
+     * {@link #TRAILING_WINDOW_SIZE} trailing bytes of the buffer or appends it if there's no such tag
+     *
      * @param content to be inserted
      * @throws IOException
      */
     public void injectAtTheEnd(String content) throws IOException {
 
-        String str = new String(buffer.trailingBytes(16 * 1024), characterEncoding).toLowerCase();
-        StringBuilder sb = new StringBuilder(str);
+        CharSequence html = asciiCompatible ?
+                new AsciiCharSequence(buffer, Math.max(0, buffer.size() - TRAILING_WINDOW_SIZE), buffer.size()) :
+                new String(buffer.trailingBytes(TRAILING_WINDOW_SIZE), characterEncoding);
 
-        int htmlLIOf = sb.lastIndexOf("</html");
-        int bodyLIOf = sb.lastIndexOf("</body");
+        int htmlLIOf = lastIndexOf(html, "</html");
+        int bodyLIOf = lastIndexOf(html, "</body");
 
         int i;
 
@@ -46,79 +82,162 @@ class HtmlInjector {
         if (i == -1) {
             buffer.write(content.getBytes(characterEncoding));
         } else {
-            int offset = str.substring(i).getBytes(characterEncoding).length;
+            int offset = asciiCompatible ?
+                    html.length() - i :
+                    html.subSequence(i, html.length()).toString().getBytes(characterEncoding).length;
             buffer.insertAt(buffer.size() - offset, content.getBytes(characterEncoding));
         }
 
     }
 
     /**
+     * Inserts content after the last {@code meta} tag preceding scripts, or after opening {@code head},
+     * {@code html} or doctype tag, whichever is found first within {@link #LEADING_WINDOW_SIZE} leading bytes
+     *
      * @param content to be inserted
      * @throws IOException
      */
     public void injectAtTheBeginning(String content) throws IOException {
 
-        String str = new String(buffer.leadingBytes(16 * 1024), characterEncoding).toLowerCase();
-        StringBuilder sb = new StringBuilder(str);
+        CharSequence html = asciiCompatible ?
+                new AsciiCharSequence(buffer, 0, Math.min(buffer.size(), LEADING_WINDOW_SIZE)) :
+                new String(buffer.leadingBytes(LEADING_WINDOW_SIZE), characterEncoding);
+
+        int i = findHeaderPosition(html);
 
-        int afterHtml = sb.indexOf("<html");
-        if (afterHtml != -1) {
-            afterHtml = sb.indexOf(">", afterHtml) + 1;
-            if (0 == afterHtml) afterHtml = -1;
+        int offset = asciiCompatible ? i : html.subSequence(0, i).toString().getBytes(characterEncoding).length;
+        buffer.insertAt(offset, content.getBytes(characterEncoding));
+
+    }
+
+    /**
+     * Scans given HTML once; stops at first {@code script} or {@code base} tag since header must precede them
+     */
+    private static int findHeaderPosition(CharSequence html) {
+
+        int afterHtml = -1;
+        int afterHead = -1;
+        int afterDocType = -1;
+        int afterLastMeta = -1;
+        int beforeScriptOrBase = -1;
+
+        boolean htmlFound = false, headFound = false, docTypeFound = false;
+        boolean inHtml = false, inHead = false, inDocType = false, inMeta = false;
+
+        for (int i = 0, length = html.length(); i < length; i++) {
+            char c = html.charAt(i);
+            if ('>' == c) {
+                if (inHtml) {
+                    afterHtml = i + 1;
+                    inHtml = false;
+                }
+                if (inHead) {
+                    afterHead = i + 1;
+                    inHead = false;
+                }
+                if (inDocType) {
+                    afterDocType = i + 1;
+                    inDocType = false;
+                }
+                if (inMeta) {
+                    afterLastMeta = i + 1;
+                    inMeta = false;
+                }
+            } else if ('<' == c) {
+                if (!htmlFound && startsWith(html, i, "<html")) {
+                    htmlFound = inHtml = true;
+                } else if (!headFound && startsWith(html, i, "<head")) {
+                    headFound = inHead = true;
+                } else if (!docTypeFound && startsWith(html, i, "<!doctype")) {
+                    docTypeFound = inDocType = true;
+                } else if (startsWith(html, i, "<meta") || startsWith(html, i, "</meta")) {
+                    // only the last meta tag before first script matters
+                    inMeta = true;
+                    afterLastMeta = -1;
+                } else if (startsWith(html, i, "<script") || startsWith(html, i, "<base")) {
+                    beforeScriptOrBase = i;
+                    break;
+                }
+            }
         }
 
-        int afterHead = sb.indexOf("<head");
-        if (afterHead != -1) {
-            afterHead = sb.indexOf(">", afterHead) + 1;
-            if (0 == afterHead) afterHead = -1;
+        if (-1 != afterLastMeta) {
+            return afterLastMeta;
+        } else if (-1 != afterHead) {
+            return afterHead;
+        } else if (-1 != afterHtml) {
+            return afterHtml;
+        } else if (-1 != afterDocType) {
+            return afterDocType;
+        } else if (-1 != beforeScriptOrBase) {
+            return beforeScriptOrBase;
+        } else {
+            return 0;
         }
 
-        int afterDocType = sb.indexOf("<!doctype");
-        if (afterDocType != -1) {
-            afterDocType = sb.indexOf(">", afterDocType) + 1;
-            if (0 == afterDocType) afterDocType = -1;
+    }
+
+    /**
+     * @param lowerCaseTag tag prefix in lower case
+     */
+    private static boolean startsWith(CharSequence html, int offset, String lowerCaseTag) {
+        int length = lowerCaseTag.length();
+        if (offset + length > html.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (toLowerCase(html.charAt(offset + i)) != lowerCaseTag.charAt(i)) return false;
         }
+        return true;
+    }
 
-        int beforeScript = sb.indexOf("<script");
-        int beforeBase = sb.indexOf("<base");
+    private static int lastIndexOf(CharSequence html, String lowerCaseTag) {
+        for (int i = html.length() - lowerCaseTag.length(); i >= 0; i--) {
+            if (startsWith(html, i, lowerCaseTag)) return i;
+        }
+        return -1;
+    }
 
-        int beforeScriptOrBase =
-                beforeScript >= 0 && beforeBase >= 0 ? Math.min(beforeScript, beforeBase) :
-                        beforeScript >= 0 && beforeBase < 0 ? beforeScript :
-                            beforeBase >= 0 && beforeScript < 0 ? beforeBase :
-                                    -1;
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
 
-        // Find last meta tag before first script tag
+    /**
+     * View of buffered bytes as ISO-8859-1 characters; doesn't copy them
+     */
+    private static class AsciiCharSequence implements CharSequence {
 
-        String contentBeforeScript = -1 == beforeScriptOrBase ? sb.toString() : sb.substring(0, beforeScriptOrBase);
+        private final Buffer buffer;
+        private final int start;
+        private final int end;
 
-        int lastMetaOpeningTag = contentBeforeScript.lastIndexOf("<meta");
-        int lastMetaClosingTag = contentBeforeScript.lastIndexOf("</meta");
+        private AsciiCharSequence(Buffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
 
-        int afterLastMeta = -1;
-        if (lastMetaOpeningTag != -1 || lastMetaClosingTag != -1) {
-            afterLastMeta = contentBeforeScript.indexOf(">", Math.max(lastMetaOpeningTag, lastMetaClosingTag)) + 1;
-            if (0 == afterLastMeta) afterLastMeta = -1;
+        @Override
+        public int length() {
+            return end - start;
         }
 
-        int i;
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.byteAt(start + index) & 0xff);
+        }
 
-        if (-1 != afterLastMeta) {
-            i = afterLastMeta;
-        } else if (-1 != afterHead && (-1 == beforeScriptOrBase || afterHead <= beforeScriptOrBase)) {
-            i = afterHead;
-        } else if (-1 != afterHtml && (-1 == beforeScriptOrBase || afterHtml <= beforeScriptOrBase)) {
-            i = afterHtml;
-        } else if (-1 != afterDocType && (-1 == beforeScriptOrBase || afterDocType < beforeScriptOrBase)) {
-            i = afterDocType;
-        } else if (-1 != beforeScriptOrBase) {
-            i = beforeScriptOrBase;
-        } else {
-            i = 0;
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiCharSequence(buffer, this.start + start, this.start + end);
         }
 
-        int offset = str.substring(0, i).getBytes(characterEncoding).length;
-        buffer.insertAt(offset, content.getBytes(characterEncoding));
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(length());
+            for (int i = 0; i < length(); i++) {
+                sb.append(charAt(i));
+            }
+            return sb.toString();
+        }
 
     }
 
@@ -0,0 +1,423 @@
+package io.sniffy.servlet;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streaming JSON encoder which writes UTF-8 directly to {@link HttpServletResponse#getOutputStream()}
+ * <p>
+ * Document is accumulated in a fixed size buffer first. If it fits there completely it is sent as is with
+ * {@code Content-Length} header, otherwise the response is streamed using chunked transfer encoding and compressed
+ * with gzip if the client supports it.
+ * <p>
+ * Instances are not thread safe but can be reused for subsequent responses in order to keep buffers and
+ * {@link Deflater} around; call {@link #end()} once an instance isn't needed anymore
+ *
+ * @see SniffyServlet
+ * @since 3.1.14
+ */
+class JsonWriter {
+
+    static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private static final byte[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] deflaterBuffer = new byte[BUFFER_SIZE];
+
+    private final Writer stringValueWriter = new StringValueWriter();
+
+    private HttpServletResponse response;
+    private boolean gzipAccepted;
+
+    private OutputStream outputStream;
+    private boolean gzip;
+
+    private boolean needsComma;
+    private char previousChar;
+    private char highSurrogate;
+
+    /**
+     * Prepares this instance for writing a new document to given response
+     *
+     * @param gzipAccepted if true, documents larger than {@link #BUFFER_SIZE} bytes are gzip compressed
+     */
+    JsonWriter start(HttpServletResponse response, boolean gzipAccepted) {
+        this.response = response;
+        this.gzipAccepted = gzipAccepted;
+        this.outputStream = null;
+        this.gzip = false;
+        this.position = 0;
+        this.needsComma = false;
+        this.previousChar = 0;
+        this.highSurrogate = 0;
+        deflater.reset();
+        crc.reset();
+        return this;
+    }
+
+    /**
+     * Writes remaining part of the document and flushes the response; this instance can be reused afterwards
+     */
+    void finish() throws IOException {
+        try {
+            if (null == outputStream) {
+                response.setContentLength(position);
+                OutputStream outputStream = response.getOutputStream();
+                outputStream.write(buffer, 0, position);
+                outputStream.flush();
+            } else {
+                flushBuffer();
+                if (gzip) {
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        deflate();
+                    }
+                    writeGzipTrailer();
+                }
+                outputStream.flush();
+            }
+        } finally {
+            response = null;
+            outputStream = null;
+        }
+    }
+
+    /**
+     * Releases native resources held by this instance
+     */
+    void end() {
+        deflater.end();
+    }
+
+    JsonWriter beginObject() throws IOException {
+        separate();
+        writeByte('{');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endObject() throws IOException {
+        writeByte('}');
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter beginArray() throws IOException {
+        separate();
+        writeByte('[');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endArray() throws IOException {
+        writeByte(']');
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * @param name name of object member; must be a plain ASCII string which doesn't require escaping
+     */
+    JsonWriter name(String name) throws IOException {
+        separate();
+        int length = name.length();
+        ensureCapacity(length + 3);
+        buffer[position++] = '"';
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) name.charAt(i);
+        }
+        buffer[position++] = '"';
+        buffer[position++] = ':';
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter value(long value) throws IOException {
+        separate();
+        if (Long.MIN_VALUE == value) {
+            writeAscii(Long.toString(value));
+        } else {
+            ensureCapacity(20);
+            if (value < 0) {
+                buffer[position++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long i = value; i >= 10; i /= 10) {
+                digits++;
+            }
+            for (int i = position + digits - 1; i >= position; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            position += digits;
+        }
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Writes a number formatted the same way as {@link com.eclipsesource.json.Json#value(double)} does;
+     * infinite and NaN values are written as {@code null}
+     */
+    JsonWriter value(double value) throws IOException {
+        if (Double.isInfinite(value) || Double.isNaN(value)) {
+            return rawValue("null");
+        }
+        String string = Double.toString(value);
+        return rawValue(string.endsWith(".0") ? string.substring(0, string.length() - 2) : string);
+    }
+
+    /**
+     * Writes a JSON string; unlike {@link io.sniffy.util.StringUtil#escapeJsonString(String)} it doesn't create
+     * any intermediate strings. Null and empty strings are written as {@code ""}
+     */
+    JsonWriter value(String value) throws IOException {
+        separate();
+        writeByte('"');
+        if (null != value) {
+            beginString();
+            for (int i = 0, length = value.length(); i < length; i++) {
+                writeStringChar(value.charAt(i));
+            }
+            endString();
+        }
+        writeByte('"');
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Writes stack trace of given exception as a JSON string without building it in memory first
+     */
+    JsonWriter stackTraceValue(Throwable throwable) throws IOException {
+        separate();
+        writeByte('"');
+        beginString();
+        PrintWriter printWriter = new PrintWriter(stringValueWriter);
+        throwable.printStackTrace(printWriter);
+        if (printWriter.checkError()) {
+            throw new IOException("Failed to write stack trace of " + throwable.getClass().getName());
+        }
+        endString();
+        writeByte('"');
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * @param value already encoded JSON value consisting of ASCII characters only
+     */
+    JsonWriter rawValue(String value) throws IOException {
+        separate();
+        writeAscii(value);
+        needsComma = true;
+        return this;
+    }
+
+    private void separate() throws IOException {
+        if (needsComma) {
+            writeByte(',');
+            needsComma = false;
+        }
+    }
+
+    private void beginString() {
+        previousChar = 0;
+        highSurrogate = 0;
+    }
+
+    private void endString() throws IOException {
+        if (0 != highSurrogate) {
+            // unpaired high surrogate at the end of string
+            writeByte('?');
+            highSurrogate = 0;
+        }
+    }
+
+    /**
+     * Escapes given character exactly like {@link io.sniffy.util.StringUtil#escapeJsonString(String)} does and
+     * encodes it using UTF-8
+     */
+    private void writeStringChar(char c) throws IOException {
+        ensureCapacity(7);
+        if (0 != highSurrogate && !Character.isLowSurrogate(c)) {
+            // unpaired high surrogate
+            buffer[position++] = '?';
+            highSurrogate = 0;
+        }
+        switch (c) {
+            case '\\':
+            case '"':
+                buffer[position++] = '\\';
+                buffer[position++] = (byte) c;
+                break;
+            case '/':
+                if ('<' == previousChar) {
+                    buffer[position++] = '\\';
+                }
+                buffer[position++] = '/';
+                break;
+            case '\b':
+                writeEscape('b');
+                break;
+            case '\t':
+                writeEscape('t');
+                break;
+            case '\n':
+                writeEscape('n');
+                break;
+            case '\f':
+                writeEscape('f');
+                break;
+            case '\r':
+                writeEscape('r');
+                break;
+            default:
+                if (c < ' ') {
+                    buffer[position++] = '\\';
+                    buffer[position++] = 'u';
+                    buffer[position++] = '0';
+                    buffer[position++] = '0';
+                    buffer[position++] = HEX_DIGITS[c >> 4];
+                    buffer[position++] = HEX_DIGITS[c & 0xf];
+                } else if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else {
+                    writeNonAsciiChar(c);
+                }
+                break;
+        }
+        previousChar = c;
+    }
+
+    private void writeEscape(char c) {
+        buffer[position++] = '\\';
+        buffer[position++] = (byte) c;
+    }
+
+    private void writeNonAsciiChar(char c) {
+        if (0 != highSurrogate) {
+            int codePoint = Character.toCodePoint(highSurrogate, c);
+            highSurrogate = 0;
+            buffer[position++] = (byte) (0xf0 | (codePoint >> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer[position++] = '?';
+        } else if (c < 0x800) {
+            buffer[position++] = (byte) (0xc0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3f));
+        } else {
+            buffer[position++] = (byte) (0xe0 | (c >> 12));
+            buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            buffer[position++] = (byte) (0x80 | (c & 0x3f));
+        }
+    }
+
+    private void writeAscii(String string) throws IOException {
+        for (int i = 0, length = string.length(); i < length; i++) {
+            writeByte(string.charAt(i));
+        }
+    }
+
+    private void writeByte(char c) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) c;
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (null == outputStream) {
+            commit();
+        }
+        if (gzip) {
+            crc.update(buffer, 0, position);
+            deflater.setInput(buffer, 0, position);
+            while (!deflater.needsInput()) {
+                deflate();
+            }
+        } else {
+            outputStream.write(buffer, 0, position);
+        }
+        position = 0;
+    }
+
+    private void commit() throws IOException {
+        if (gzipAccepted) {
+            response.setHeader("Content-Encoding", "gzip");
+            gzip = true;
+        }
+        outputStream = response.getOutputStream();
+        if (gzip) {
+            outputStream.write(GZIP_HEADER);
+        }
+    }
+
+    private void deflate() throws IOException {
+        int length = deflater.deflate(deflaterBuffer, 0, deflaterBuffer.length);
+        if (length > 0) {
+            outputStream.write(deflaterBuffer, 0, length);
+        }
+    }
+
+    private void writeGzipTrailer() throws IOException {
+        writeIntLE((int) crc.getValue());
+        writeIntLE(deflater.getTotalIn());
+    }
+
+    private void writeIntLE(int value) throws IOException {
+        outputStream.write(value & 0xff);
+        outputStream.write((value >> 8) & 0xff);
+        outputStream.write((value >> 16) & 0xff);
+        outputStream.write((value >> 24) & 0xff);
+    }
+
+    /**
+     * Escapes characters written to it as a part of JSON string value
+     */
+    private class StringValueWriter extends Writer {
+
+        @Override
+        public void write(char[] chars, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                writeStringChar(chars[i]);
+            }
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            writeStringChar((char) c);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
@@ -4,6 +4,7 @@ import io.sniffy.socket.SocketMetaData;
 import io.sniffy.socket.SocketStats;
 import io.sniffy.sql.SqlStats;
 import io.sniffy.sql.StatementMetaData;
+import io.sniffy.util.CapturedStackTrace;
 
 import java.util.List;
 import java.util.Map;
@@ -15,6 +16,19 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 class RequestStats {
 
+    /**
+     * Rough estimates of object sizes in bytes used by {@link #estimateRetainedBytes()}; they assume 64-bit JVM
+     * with compressed oops and count a map entry together with its key and value objects
+     */
+    private static final int OBJECT_SIZE = 64;
+    private static final int MAP_ENTRY_SIZE = 200;
+    private static final int STRING_SIZE = 40;
+    private static final int EXCEPTION_SIZE = 2048;
+    /**
+     * Characters added to class name, method name and file name of a frame when stack trace is rendered
+     */
+    private static final int FRAME_FORMAT_LENGTH = 16;
+
     private long timeToFirstByte;
     private long elapsedTime;
     private Map<StatementMetaData, SqlStats> executedStatements;
@@ -91,4 +105,51 @@ class RequestStats {
         exceptions.add(exception);
     }
 
+    /**
+     * Estimates amount of heap retained by these stats including SQL queries and stack traces; strings are counted
+     * for each statement even if they are interned and shared with other requests.
+     * Captured stack traces aren't rendered here; their size is estimated from the frames instead
+     *
+     * @return estimated size in bytes
+     * @since 3.1.14
+     */
+    public long estimateRetainedBytes() {
+        long bytes = OBJECT_SIZE;
+        Map<StatementMetaData, SqlStats> executedStatements = this.executedStatements;
+        if (null != executedStatements) {
+            for (StatementMetaData statementMetaData : executedStatements.keySet()) {
+                bytes += MAP_ENTRY_SIZE + estimateStringSize(statementMetaData.sql) + estimateStackTraceSize(statementMetaData.stackTrace, statementMetaData.getCapturedStackTrace());
+            }
+        }
+        Map<SocketMetaData, SocketStats> socketOperations = this.socketOperations;
+        if (null != socketOperations) {
+            for (SocketMetaData socketMetaData : socketOperations.keySet()) {
+                bytes += MAP_ENTRY_SIZE + estimateStackTraceSize(socketMetaData.stackTrace, socketMetaData.getCapturedStackTrace());
+            }
+        }
+        bytes += (long) exceptions.size() * EXCEPTION_SIZE;
+        return bytes;
+    }
+
+    private static long estimateStringSize(String string) {
+        return null == string ? 0 : STRING_SIZE + 2L * string.length();
+    }
+
+    /**
+     * @return estimated size of rendered stack trace; it is retained once stack trace is rendered for the first time
+     */
+    private static long estimateStackTraceSize(String stackTrace, CapturedStackTrace capturedStackTrace) {
+        if (null == capturedStackTrace) {
+            return estimateStringSize(stackTrace);
+        }
+        long length = 0;
+        for (int i = 0; i < capturedStackTrace.size(); i++) {
+            StackTraceElement frame = capturedStackTrace.getFrame(i);
+            String fileName = frame.getFileName();
+            length += frame.getClassName().length() + frame.getMethodName().length() +
+                    (null == fileName ? 0 : fileName.length()) + FRAME_FORMAT_LENGTH;
+        }
+        return STRING_SIZE + 2L * length;
+    }
+
 }
@@ -0,0 +1,199 @@
+package io.sniffy.servlet;
+
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.EntryWeigher;
+import com.googlecode.concurrentlinkedhashmap.EvictionListener;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of {@link RequestStats} served by {@link SniffyServlet}
+ * <p>
+ * Capacity is defined in bytes and each entry is weighted by {@link RequestStats#estimateRetainedBytes()} at the
+ * moment it is put to the cache, so that a request with thousands of queries takes proportionally more space than a
+ * request with a single one. Entries can optionally expire after given time since they were put; expired entries are
+ * never returned and are removed lazily on access and when new entries are added.
+ * <p>
+ * Iteration is performed over a snapshot of the cache
+ *
+ * @see SniffyFilter
+ * @since 3.1.14
+ */
+class RequestStatsCache extends AbstractMap<String, RequestStats> {
+
+    /**
+     * Maximum capacity supported by {@link ConcurrentLinkedHashMap}; used when capacity isn't limited
+     */
+    private static final long UNLIMITED_CAPACITY = Long.MAX_VALUE - Integer.MAX_VALUE;
+
+    private static final int EXPIRED_ENTRIES_CLEANUP_LIMIT = 16;
+
+    private final ConcurrentLinkedHashMap<String, CachedRequestStats> delegate;
+    private final long expireAfterNanos;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong expirationCount = new AtomicLong();
+
+    /**
+     * @param maximumBytes      maximum estimated size of all cached stats in bytes; non-positive value means no limit
+     * @param expireAfterMillis time in milliseconds after which cached stats expire; non-positive value means never
+     */
+    RequestStatsCache(long maximumBytes, long expireAfterMillis) {
+        this.delegate = new ConcurrentLinkedHashMap.Builder<String, CachedRequestStats>().
+                maximumWeightedCapacity(maximumBytes > 0 ? Math.min(maximumBytes, UNLIMITED_CAPACITY) : UNLIMITED_CAPACITY).
+                weigher(new EntryWeigher<String, CachedRequestStats>() {
+                    @Override
+                    public int weightOf(String key, CachedRequestStats value) {
+                        return value.weight;
+                    }
+                }).
+                listener(new EvictionListener<String, CachedRequestStats>() {
+                    @Override
+                    public void onEviction(String key, CachedRequestStats value) {
+                        evictionCount.incrementAndGet();
+                    }
+                }).
+                build();
+        this.expireAfterNanos = expireAfterMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(expireAfterMillis) : 0;
+    }
+
+    @Override
+    public RequestStats get(Object key) {
+        CachedRequestStats cachedRequestStats = getUnexpired(key);
+        if (null == cachedRequestStats) {
+            missCount.incrementAndGet();
+            return null;
+        } else {
+            hitCount.incrementAndGet();
+            return cachedRequestStats.requestStats;
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return null != getUnexpired(key);
+    }
+
+    /**
+     * Puts given stats to the cache; weight of an entry is evaluated here hence stats modified afterwards should be
+     * put again in order to update it
+     */
+    @Override
+    public RequestStats put(String key, RequestStats value) {
+        CachedRequestStats previous = delegate.put(key, new CachedRequestStats(value, System.nanoTime()));
+        removeExpiredEntries();
+        return null == previous ? null : previous.requestStats;
+    }
+
+    @Override
+    public RequestStats remove(Object key) {
+        CachedRequestStats previous = delegate.remove(key);
+        return null == previous ? null : previous.requestStats;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public Set<Entry<String, RequestStats>> entrySet() {
+        long now = System.nanoTime();
+        Map<String, RequestStats> snapshot = new HashMap<String, RequestStats>();
+        for (Entry<String, CachedRequestStats> entry : delegate.entrySet()) {
+            if (!isExpired(entry.getValue(), now)) {
+                snapshot.put(entry.getKey(), entry.getValue().requestStats);
+            }
+        }
+        return snapshot.entrySet();
+    }
+
+    private CachedRequestStats getUnexpired(Object key) {
+        CachedRequestStats cachedRequestStats = delegate.get(key);
+        if (null != cachedRequestStats && isExpired(cachedRequestStats, System.nanoTime())) {
+            if (delegate.remove(key, cachedRequestStats)) {
+                expirationCount.incrementAndGet();
+            }
+            return null;
+        }
+        return cachedRequestStats;
+    }
+
+    /**
+     * Removes expired entries among the least recently used ones; entries which were accessed recently are
+     * removed once they're accessed again or become least recently used
+     */
+    private void removeExpiredEntries() {
+        if (0 == expireAfterNanos) return;
+        long now = System.nanoTime();
+        for (Entry<String, CachedRequestStats> entry : delegate.ascendingMapWithLimit(EXPIRED_ENTRIES_CLEANUP_LIMIT).entrySet()) {
+            if (isExpired(entry.getValue(), now) && delegate.remove(entry.getKey(), entry.getValue())) {
+                expirationCount.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean isExpired(CachedRequestStats cachedRequestStats, long now) {
+        return 0 != expireAfterNanos && now - cachedRequestStats.createdNanos >= expireAfterNanos;
+    }
+
+    /**
+     * @return maximum estimated size of cached stats in bytes
+     */
+    public long getCapacity() {
+        return delegate.capacity();
+    }
+
+    /**
+     * @return estimated size of cached stats in bytes
+     */
+    public long getWeightedSize() {
+        return delegate.weightedSize();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of entries evicted in order to keep the cache within capacity
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getExpirationCount() {
+        return expirationCount.get();
+    }
+
+    private static class CachedRequestStats {
+
+        private final RequestStats requestStats;
+        private final int weight;
+        private final long createdNanos;
+
+        private CachedRequestStats(RequestStats requestStats, long createdNanos) {
+            this.requestStats = requestStats;
+            this.weight = (int) Math.max(1, Math.min(Integer.MAX_VALUE, requestStats.estimateRetainedBytes()));
+            this.createdNanos = createdNanos;
+        }
+
+    }
+
+}
@@ -1,6 +1,5 @@
 package io.sniffy.servlet;
 
-import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import io.sniffy.Constants;
 import io.sniffy.Sniffy;
 import io.sniffy.configuration.SniffyConfiguration;
@@ -103,9 +102,10 @@ public class SniffyFilter implements Filter {
     protected boolean injectHtml = true;
     protected Pattern injectHtmlExcludePattern = null;
 
-    protected final Map<String, RequestStats> cache = new ConcurrentLinkedHashMap.Builder<String, RequestStats>().
-            maximumWeightedCapacity(200).
-            build();
+    protected final Map<String, RequestStats> cache = new RequestStatsCache(
+            SniffyConfiguration.INSTANCE.getRequestStatsCacheMaxBytes(),
+            SniffyConfiguration.INSTANCE.getRequestStatsCacheExpireAfterMillis()
+    );
 
     protected SniffyServlet sniffyServlet = new SniffyServlet(cache);
     protected ServletContext servletContext; // TODO: log via slf4j if available
@@ -9,6 +9,7 @@ import io.sniffy.sql.SqlStatement;
 import io.sniffy.sql.SqlStats;
 import io.sniffy.sql.StatementMetaData;
 import io.sniffy.util.ExceptionUtil;
+import io.sniffy.util.StringUtil;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
@@ -18,6 +19,7 @@ import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static io.sniffy.servlet.SniffyFilter.*;
@@ -46,21 +48,21 @@ class SniffyRequestProcessor implements BufferedServletResponseListener {
     private final RequestStats requestStats;
     private final String relativeUrl;
 
-    private long startMillis;
+    private long startNanos;
     private long timeToFirstByte;
     private long elapsedTime;
 
     public void initStartMillis() {
-        startMillis = System.currentTimeMillis();
+        startNanos = System.nanoTime();
     }
 
     public long getTimeToFirstByte() {
-        if (0 == timeToFirstByte) timeToFirstByte = requestStats.getTimeToFirstByte() + System.currentTimeMillis() - startMillis;
+        if (0 == timeToFirstByte) timeToFirstByte = requestStats.getTimeToFirstByte() + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
         return timeToFirstByte;
     }
 
     public long getElapsedTime() {
-        if (0 == elapsedTime) elapsedTime = requestStats.getElapsedTime() + System.currentTimeMillis() - startMillis;
+        if (0 == elapsedTime) elapsedTime = requestStats.getElapsedTime() + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
         return elapsedTime;
     }
 
@@ -197,7 +199,7 @@ class SniffyRequestProcessor implements BufferedServletResponseListener {
             try {
                 requestStats.setTimeToFirstByte(getTimeToFirstByte());
                 requestStats.setElapsedTime(getElapsedTime());
-                updateRequestCache();
+                updateRequestCache(true);
 
                 if (SniffyConfiguration.INSTANCE.getFlushResponse()) {
                     boolean asyncStarted = false;
@@ -222,7 +224,19 @@ class SniffyRequestProcessor implements BufferedServletResponseListener {
         }
     }
 
-    private void updateRequestCache() {
+    /**
+     * Set once stats of completed request are put to the cache; they aren't collected and weighed again afterwards
+     */
+    private boolean requestCached;
+
+    /**
+     * Collects stats from the spy; stats are only put to the cache once the filter chain has returned, since the
+     * cache evaluates weight of stats on put only
+     *
+     * @param requestCompleted true if filter chain has returned and stats are final
+     */
+    private void updateRequestCache(boolean requestCompleted) {
+        if (requestCached) return;
         Map<StatementMetaData, SqlStats> executedStatements = spy.getExecutedStatements();
         Map<SocketMetaData, SocketStats> socketOperations = spy.getSocketOperations();
         if ((null != executedStatements && !executedStatements.isEmpty()) ||
@@ -234,8 +248,11 @@ class SniffyRequestProcessor implements BufferedServletResponseListener {
             if (null != socketOperations && !socketOperations.isEmpty()) {
                 requestStats.addSocketOperations(socketOperations);
             }
-            sniffyFilter.cache.put(requestId, requestStats);
+            if (requestCompleted) {
+                sniffyFilter.cache.put(requestId, requestStats);
+            }
         }
+        requestCached = requestCompleted;
         httpServletRequest.setAttribute(SNIFFY_REQUEST_STATS_REQUEST_ATTRIBUTE_NAME, requestStats);
     }
 
@@ -256,7 +273,7 @@ class SniffyRequestProcessor implements BufferedServletResponseListener {
 
             // TODO: use requestStats instead of spy
             if (null != spy.getExecutedStatements() && !spy.getExecutedStatements().isEmpty()) {
-                long sqlTime = 0;
+                long sqlTimeNanos = 0;
                 long sqlQueries = 0;
                 long sqlRows = 0;
 
@@ -265,7 +282,7 @@ class SniffyRequestProcessor implements BufferedServletResponseListener {
                 for (Map.Entry<StatementMetaData, SqlStats> entry : spy.getExecutedStatements().entrySet()) {
                     SqlStats sqlStats = entry.getValue();
                     StatementMetaData statementMetaData = entry.getKey();
-                    sqlTime += sqlStats.elapsedTime.longValue();
+                    sqlTimeNanos += sqlStats.elapsedTimeNanos.longValue();
                     if (statementMetaData.query != SqlStatement.SYSTEM) {
                         sqlQueries += sqlStats.queries.longValue();
                     }
@@ -273,7 +290,7 @@ class SniffyRequestProcessor implements BufferedServletResponseListener {
                 }
 
                 //noinspection SpellCheckingInspection
-                sb.append("SQL; desc=\"").append(sqlQueries).append(" quer").append(sqlQueries == 1 ? "y" : "ies").append(" with ").append(sqlRows).append(" rows\"").append("; dur=").append(sqlTime);
+                sb.append("SQL; desc=\"").append(sqlQueries).append(" quer").append(sqlQueries == 1 ? "y" : "ies").append(" with ").append(sqlRows).append(" rows\"").append("; dur=").append(StringUtil.formatMillis(sqlTimeNanos));
             }
 
             if (null != spy.getSocketOperations() && !spy.getSocketOperations().isEmpty()) {
@@ -298,7 +315,7 @@ class SniffyRequestProcessor implements BufferedServletResponseListener {
                             append(" ").
                             append(entry.getValue().bytesDown.longValue() + entry.getValue().bytesUp.longValue()).
                             append(" bytes\"").
-                            append("; dur=").append(entry.getValue().elapsedTime);
+                            append("; dur=").append(StringUtil.formatMillis(entry.getValue().elapsedTimeNanos.longValue()));
                 }
             }
 
@@ -326,10 +343,9 @@ class SniffyRequestProcessor implements BufferedServletResponseListener {
         wrapper.setHeader(HEADER_REQUEST_DETAILS, sb.toString());
 
         if (injectHtml) {
-            String contentType = wrapper.getContentType();
             String characterEncoding = wrapper.getCharacterEncoding();
 
-            if (null != buffer && null != contentType && contentType.startsWith("text/html")) {
+            if (null != buffer && isHtmlInjected(wrapper)) {
                 // adjust content length with the size of injected content
                 long contentLength = wrapper.getContentLength();
                 if (contentLength > 0) {
@@ -357,7 +373,7 @@ class SniffyRequestProcessor implements BufferedServletResponseListener {
     @Override
     public void beforeClose(BufferedServletResponseWrapper wrapper, Buffer buffer) throws IOException {
 
-        updateRequestCache();
+        updateRequestCache(false);
 
         if (injectHtml && isHtmlPage) {
 
@@ -375,6 +391,12 @@ class SniffyRequestProcessor implements BufferedServletResponseListener {
 
     }
 
+    @Override
+    public boolean isHtmlInjected(BufferedServletResponseWrapper wrapper) {
+        String contentType = wrapper.getContentType();
+        return injectHtml && null != contentType && contentType.startsWith("text/html");
+    }
+
     private boolean isInjectHtmlEnabled(HttpServletRequest httpServletRequest) {
 
         boolean injectHtmlEnabled = sniffyFilter.injectHtml;
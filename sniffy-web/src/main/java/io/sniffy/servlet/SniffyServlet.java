@@ -1,14 +1,14 @@
 package io.sniffy.servlet;
 
+import com.codahale.metrics.Snapshot;
 import com.codahale.metrics.Timer;
-import com.eclipsesource.json.JsonArray;
-import com.eclipsesource.json.JsonObject;
 import io.sniffy.Sniffy;
 import io.sniffy.registry.ConnectionsRegistry;
 import io.sniffy.registry.ConnectionsRegistryStorage;
 import io.sniffy.socket.SocketMetaData;
 import io.sniffy.socket.SocketStats;
 import io.sniffy.sql.SqlStats;
+import io.sniffy.sql.SqlTimer;
 import io.sniffy.sql.StatementMetaData;
 import io.sniffy.util.StringUtil;
 
@@ -19,9 +19,9 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.*;
 import java.util.Calendar;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.sniffy.servlet.SniffyFilter.SNIFFY_RESOURCE_URI_PREFIX;
 import static io.sniffy.servlet.SniffyFilter.SNIFFY_URI_PREFIX;
@@ -38,6 +38,11 @@ public class SniffyServlet extends HttpServlet {
 
     public static final String TOP_SQL_URI_PREFIX = SNIFFY_URI_PREFIX + "/topsql/";
 
+    /**
+     * @since 3.1.14
+     */
+    public static final String REQUEST_STATS_CACHE_URI_PREFIX = SNIFFY_URI_PREFIX + "/requeststatscache/";
+
     public static final String CONNECTION_REGISTRY_URI_PREFIX = SNIFFY_URI_PREFIX + "/connectionregistry/";
     public static final String SOCKET_REGISTRY_URI_PREFIX = SNIFFY_URI_PREFIX + "/connectionregistry/socket/";
     public static final String DATASOURCE_REGISTRY_URI_PREFIX = SNIFFY_URI_PREFIX + "/connectionregistry/datasource/";
@@ -45,6 +50,11 @@ public class SniffyServlet extends HttpServlet {
 
     public static final String TOP_SQL_RESOURCE_URI_PREFIX = SNIFFY_RESOURCE_URI_PREFIX + "/topsql/";
 
+    /**
+     * @since 3.1.14
+     */
+    public static final String REQUEST_STATS_CACHE_RESOURCE_URI_PREFIX = SNIFFY_RESOURCE_URI_PREFIX + "/requeststatscache/";
+
     public static final String CONNECTION_REGISTRY_RESOURCE_URI_PREFIX = SNIFFY_RESOURCE_URI_PREFIX + "/connectionregistry/";
     public static final String SOCKET_REGISTRY_RESOURCE_URI_PREFIX = SNIFFY_RESOURCE_URI_PREFIX + "/connectionregistry/socket/";
     public static final String DATASOURCE_REGISTRY_RESOURCE_URI_PREFIX = SNIFFY_RESOURCE_URI_PREFIX + "/connectionregistry/datasource/";
@@ -52,6 +62,11 @@ public class SniffyServlet extends HttpServlet {
 
     protected final Map<String, RequestStats> cache;
 
+    /**
+     * Single idle {@link JsonWriter} kept between requests; concurrent requests create additional writers
+     */
+    private final AtomicReference<JsonWriter> idleJsonWriter = new AtomicReference<JsonWriter>();
+
     protected byte[] javascript;
     protected byte[] javascriptSource;
     protected byte[] javascriptMap;
@@ -100,21 +115,43 @@ public class SniffyServlet extends HttpServlet {
             serveContent(response, JAVASCRIPT_MIME_TYPE, javascriptMap);
         } else if (path.startsWith(SniffyFilter.REQUEST_URI_PREFIX)) {
             addCorsHeaders(response);
-            byte[] requestStatsJson = getRequestStatsJson(path.substring(SniffyFilter.REQUEST_URI_PREFIX.length()));
+            RequestStats requestStats = cache.get(path.substring(SniffyFilter.REQUEST_URI_PREFIX.length()));
 
-            if (null == requestStatsJson) {
+            if (null == requestStats) {
                 response.setStatus(HttpServletResponse.SC_OK);
                 response.setContentType(JSON_MIME_TYPE);
                 response.flushBuffer();
+            } else if (!isModified(request, response, getRequestStatsETag(requestStats))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                response.flushBuffer();
             } else {
                 response.setStatus(HttpServletResponse.SC_OK);
                 response.setContentType(JSON_MIME_TYPE);
-                response.setContentLength(requestStatsJson.length);
 
-                ServletOutputStream outputStream = response.getOutputStream();
-                outputStream.write(requestStatsJson);
-                outputStream.flush();
+                JsonWriter jsonWriter = acquireJsonWriter(request, response);
+                try {
+                    writeRequestStatsJson(jsonWriter, requestStats);
+                    jsonWriter.finish();
+                } finally {
+                    releaseJsonWriter(jsonWriter);
+                }
+            }
+        } else if (path.equals(REQUEST_STATS_CACHE_URI_PREFIX) || path.equals(REQUEST_STATS_CACHE_RESOURCE_URI_PREFIX)) {
+
+            addCorsHeaders(response);
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(JSON_MIME_TYPE);
+            response.setHeader("Cache-Control", "no-cache");
+
+            JsonWriter jsonWriter = acquireJsonWriter(request, response);
+            try {
+                writeRequestStatsCacheJson(jsonWriter);
+                jsonWriter.finish();
+            } finally {
+                releaseJsonWriter(jsonWriter);
             }
+
         } else if (path.equals(CONNECTION_REGISTRY_URI_PREFIX) || path.equals(CONNECTION_REGISTRY_RESOURCE_URI_PREFIX) ) {
 
             addCorsHeaders(response);
@@ -182,154 +219,284 @@ public class SniffyServlet extends HttpServlet {
 
             } else {
 
-                response.setStatus(HttpServletResponse.SC_OK);
-                response.setContentType(JSON_MIME_TYPE);
+                Map<String, Timer> globalSqlStats = Sniffy.getGlobalSqlStats();
 
-                JsonArray arrayJson = new JsonArray();
+                if (!isModified(request, response, getTopSqlETag(globalSqlStats))) {
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    response.flushBuffer();
+                } else {
+                    response.setStatus(HttpServletResponse.SC_OK);
+                    response.setContentType(JSON_MIME_TYPE);
+
+                    JsonWriter jsonWriter = acquireJsonWriter(request, response);
+                    try {
+                        writeTopSqlJson(jsonWriter, globalSqlStats);
+                        jsonWriter.finish();
+                    } finally {
+                        releaseJsonWriter(jsonWriter);
+                    }
+                }
 
-                for (Map.Entry<String, Timer> entry : Sniffy.getGlobalSqlStats().entrySet()) {
+            }
 
-                    Timer timer = entry.getValue();
+        }
 
-                    JsonObject timerJson = new JsonObject();
-                    timerJson.add("count", timer.getCount());
-                    timerJson.add("min", timer.getSnapshot().getMin());
-                    timerJson.add("median", timer.getSnapshot().getMedian());
-                    timerJson.add("mean", timer.getSnapshot().getMean());
-                    timerJson.add("max", timer.getSnapshot().getMax());
-                    timerJson.add("p75", timer.getSnapshot().get75thPercentile());
-                    timerJson.add("p95", timer.getSnapshot().get95thPercentile());
-                    timerJson.add("p99", timer.getSnapshot().get99thPercentile());
+    }
 
-                    JsonObject objectJson = new JsonObject();
-                    objectJson.add("sql", entry.getKey());
-                    objectJson.add("timer", timerJson);
+    private static void writeRequestStatsJson(JsonWriter jsonWriter, RequestStats requestStats) throws IOException {
+        jsonWriter.beginObject().
+                name("timeToFirstByte").value(requestStats.getTimeToFirstByte()).
+                name("time").value(requestStats.getElapsedTime());
+        if (null != requestStats.getExecutedStatements()) {
+            jsonWriter.name("executedQueries").beginArray();
+            for (Map.Entry<StatementMetaData, SqlStats> entry : requestStats.getExecutedStatements().entrySet()) {
+                StatementMetaData statement = entry.getKey();
+                SqlStats sqlStats = entry.getValue();
+                jsonWriter.beginObject().
+                        name("query").value(statement.sql).
+                        name("stackTrace").value(statement.getStackTrace()).
+                        name("time").rawValue(StringUtil.formatMillis(sqlStats.elapsedTimeNanos.longValue())).
+                        name("invocations").value(sqlStats.queries.longValue()).
+                        name("rows").value(sqlStats.rows.longValue()).
+                        name("type").value(statement.query.name()).
+                        name("bytesDown").value(sqlStats.bytesDown.longValue()).
+                        name("bytesUp").value(sqlStats.bytesUp.longValue()).
+                        endObject();
+            }
+            jsonWriter.endArray();
+        }
+        if (null != requestStats.getSocketOperations()) {
+            jsonWriter.name("networkConnections").beginArray();
+            for (Map.Entry<SocketMetaData, SocketStats> entry : requestStats.getSocketOperations().entrySet()) {
+                SocketMetaData socketMetaData = entry.getKey();
+                SocketStats socketStats = entry.getValue();
+                jsonWriter.beginObject().
+                        name("host").value(socketMetaData.address.toString()).
+                        name("stackTrace").value(socketMetaData.getStackTrace()).
+                        name("time").rawValue(StringUtil.formatMillis(socketStats.elapsedTimeNanos.longValue())).
+                        name("bytesDown").value(socketStats.bytesDown.longValue()).
+                        name("bytesUp").value(socketStats.bytesUp.longValue()).
+                        endObject();
+            }
+            jsonWriter.endArray();
+        }
+        if (null != requestStats.getExceptions() && !requestStats.getExceptions().isEmpty()) {
+            jsonWriter.name("exceptions").beginArray();
+            for (Throwable exception : requestStats.getExceptions()) {
+                jsonWriter.beginObject().
+                        name("class").value(exception.getClass().getName()).
+                        name("message").value(exception.getMessage()).
+                        name("stackTrace").stackTraceValue(exception).
+                        endObject();
+            }
+            jsonWriter.endArray();
+        }
+        jsonWriter.endObject();
+    }
 
-                    arrayJson.add(objectJson);
+    private void writeRequestStatsCacheJson(JsonWriter jsonWriter) throws IOException {
+        jsonWriter.beginObject().
+                name("size").value(cache.size());
+        if (cache instanceof RequestStatsCache) {
+            RequestStatsCache requestStatsCache = (RequestStatsCache) cache;
+            jsonWriter.
+                    name("capacity").value(requestStatsCache.getCapacity()).
+                    name("weightedSize").value(requestStatsCache.getWeightedSize()).
+                    name("hitCount").value(requestStatsCache.getHitCount()).
+                    name("missCount").value(requestStatsCache.getMissCount()).
+                    name("evictionCount").value(requestStatsCache.getEvictionCount()).
+                    name("expirationCount").value(requestStatsCache.getExpirationCount());
+        }
+        jsonWriter.endObject();
+    }
+
+    private static void writeTopSqlJson(JsonWriter jsonWriter, Map<String, Timer> globalSqlStats) throws IOException {
+        jsonWriter.beginArray();
+        for (Map.Entry<String, Timer> entry : globalSqlStats.entrySet()) {
+            Timer timer = entry.getValue();
+            jsonWriter.beginObject().
+                    name("sql").value(entry.getKey()).
+                    name("timer").beginObject().
+                    name("count").value(timer.getCount());
+            writeSnapshotJson(jsonWriter, timer.getSnapshot());
+            if (timer instanceof SqlTimer) {
+                SqlTimer sqlTimer = (SqlTimer) timer;
+                jsonWriter.name("windows").beginArray();
+                for (long windowMillis : sqlTimer.getWindowsMillis()) {
+                    Snapshot snapshot = sqlTimer.getSnapshot(windowMillis);
+                    jsonWriter.beginObject().
+                            name("windowMillis").value(windowMillis).
+                            name("count").value(snapshot.size());
+                    writeSnapshotJson(jsonWriter, snapshot);
+                    jsonWriter.endObject();
                 }
+                jsonWriter.endArray();
+            }
+            jsonWriter.endObject().
+                    endObject();
+        }
+        jsonWriter.endArray();
+    }
 
-                arrayJson.writeTo(response.getWriter());
+    private static void writeSnapshotJson(JsonWriter jsonWriter, Snapshot snapshot) throws IOException {
+        jsonWriter.name("min").value(snapshot.getMin()).
+                name("median").value(snapshot.getMedian()).
+                name("mean").value(snapshot.getMean()).
+                name("max").value(snapshot.getMax()).
+                name("p75").value(snapshot.get75thPercentile()).
+                name("p95").value(snapshot.get95thPercentile()).
+                name("p99").value(snapshot.get99thPercentile()).
+                name("p999").value(snapshot.get999thPercentile());
+    }
 
-                response.flushBuffer();
+    /**
+     * Weak ETag which changes whenever any of the counters in given request stats change;
+     * computed without serializing them
+     */
+    private static String getRequestStatsETag(RequestStats requestStats) {
+        long hash = 31 * requestStats.getTimeToFirstByte() + requestStats.getElapsedTime();
+        Map<StatementMetaData, SqlStats> executedStatements = requestStats.getExecutedStatements();
+        if (null != executedStatements) {
+            long statementsHash = executedStatements.size();
+            for (Map.Entry<StatementMetaData, SqlStats> entry : executedStatements.entrySet()) {
+                SqlStats sqlStats = entry.getValue();
+                long entryHash = entry.getKey().hashCode();
+                entryHash = 31 * entryHash + sqlStats.queries.longValue();
+                entryHash = 31 * entryHash + sqlStats.rows.longValue();
+                entryHash = 31 * entryHash + getSocketStatsHash(sqlStats);
+                statementsHash += mix(entryHash);
+            }
+            hash = 31 * hash + statementsHash;
+        }
+        Map<SocketMetaData, SocketStats> socketOperations = requestStats.getSocketOperations();
+        if (null != socketOperations) {
+            long socketsHash = socketOperations.size();
+            for (Map.Entry<SocketMetaData, SocketStats> entry : socketOperations.entrySet()) {
+                socketsHash += mix(31L * entry.getKey().hashCode() + getSocketStatsHash(entry.getValue()));
+            }
+            hash = 31 * hash + socketsHash;
+        }
+        List<Throwable> exceptions = requestStats.getExceptions();
+        if (null != exceptions) {
+            for (Throwable exception : exceptions) {
+                hash = 31 * hash + System.identityHashCode(exception);
             }
-
         }
+        return toETag(hash);
+    }
 
+    private static long getSocketStatsHash(SocketStats socketStats) {
+        long hash = socketStats.elapsedTimeNanos.longValue();
+        hash = 31 * hash + socketStats.bytesDown.longValue();
+        hash = 31 * hash + socketStats.bytesUp.longValue();
+        return hash;
     }
 
-    // TODO: stream JSON instead; otherwise we are creating unnecessary garbage out of interned strings mostly
-    private byte[] getRequestStatsJson(String requestId) {
-        RequestStats requestStats = cache.get(requestId);
-        if (null != requestStats) {
-            StringBuilder sb = new StringBuilder();
-            sb.
-                    append("{").
-                    append("\"timeToFirstByte\":").
-                    append(requestStats.getTimeToFirstByte()).
-                    append(",").
-                    append("\"time\":").
-                    append(requestStats.getElapsedTime());
-            if (null != requestStats.getExecutedStatements()) {
-                sb.append(",\"executedQueries\":[");
-                Set<Map.Entry<StatementMetaData, SqlStats>> entries = requestStats.getExecutedStatements().entrySet();
-                Iterator<Map.Entry<StatementMetaData, SqlStats>> statementsIt = entries.iterator();
-                while (statementsIt.hasNext()) {
-                    Map.Entry<StatementMetaData, SqlStats> entry = statementsIt.next();
-                    StatementMetaData statement = entry.getKey();
-                    SqlStats sqlStats = entry.getValue();
-                    sb.
-                            append("{").
-                            append("\"query\":").
-                            append(StringUtil.escapeJsonString(statement.sql)).
-                            append(",").
-                            append("\"stackTrace\":").
-                            append(StringUtil.escapeJsonString(statement.stackTrace)).
-                            append(",").
-                            append("\"time\":").
-                            append(sqlStats.elapsedTime.longValue()).
-                            append(",").
-                            append("\"invocations\":").
-                            append(sqlStats.queries.longValue()).
-                            append(",").
-                            append("\"rows\":").
-                            append(sqlStats.rows.longValue()).
-                            append(",").
-                            append("\"type\":\"").
-                            append(statement.query.name()).
-                            append("\",").
-                            append("\"bytesDown\":").
-                            append(sqlStats.bytesDown.longValue()).
-                            append(",").
-                            append("\"bytesUp\":").
-                            append(sqlStats.bytesUp.longValue()).
-                            append("}");
-                    if (statementsIt.hasNext()) {
-                        sb.append(",");
-                    }
-                }
-                sb.append("]");
-            }
-            if (null != requestStats.getSocketOperations()) {
-                sb.append(",\"networkConnections\":[");
-                Iterator<Map.Entry<SocketMetaData, SocketStats>> statementsIt = requestStats.getSocketOperations().entrySet().iterator();
-                while (statementsIt.hasNext()) {
-                    Map.Entry<SocketMetaData, SocketStats> entry = statementsIt.next();
-                    SocketMetaData socketMetaData = entry.getKey();
-                    SocketStats socketStats = entry.getValue();
-
-                    sb.
-                            append("{").
-                            append("\"host\":").
-                            append(StringUtil.escapeJsonString(socketMetaData.address.toString())).
-                            append(",").
-                            append("\"stackTrace\":").
-                            append(StringUtil.escapeJsonString(socketMetaData.stackTrace)).
-                            append(",").
-                            append("\"time\":").
-                            append(socketStats.elapsedTime.longValue()).
-                            append(",").
-                            append("\"bytesDown\":").
-                            append(socketStats.bytesDown.longValue()).
-                            append(",").
-                            append("\"bytesUp\":").
-                            append(socketStats.bytesUp.longValue()).
-                            append("}");
-                    if (statementsIt.hasNext()) {
-                        sb.append(",");
-                    }
-                }
-                sb.append("]");
+    /**
+     * Weak ETag which changes whenever a query is executed, top SQL stats are reset or time windows of
+     * {@link SqlTimer} move forward; percentiles of other timers can still change over time due to decaying reservoirs
+     * but responses are considered semantically equivalent in this case
+     */
+    private static String getTopSqlETag(Map<String, Timer> globalSqlStats) {
+        long timestamp = System.currentTimeMillis();
+        long hash = globalSqlStats.size();
+        for (Map.Entry<String, Timer> entry : globalSqlStats.entrySet()) {
+            Timer timer = entry.getValue();
+            long entryHash = 31L * entry.getKey().hashCode() + timer.getCount();
+            if (timer instanceof SqlTimer) {
+                entryHash = 31 * entryHash + ((SqlTimer) timer).getWindowsEpoch(timestamp);
             }
-            if (null != requestStats.getExceptions() && !requestStats.getExceptions().isEmpty()) {
-                sb.append(",\"exceptions\":[");
-                Iterator<Throwable> exceptionsIt = requestStats.getExceptions().iterator();
-                while (exceptionsIt.hasNext()) {
-                    Throwable exception = exceptionsIt.next();
-
-                    StringWriter sw = new StringWriter();
-                    PrintWriter pw = new PrintWriter(sw);
-                    exception.printStackTrace(pw);
-
-                    sb.
-                            append("{").
-                            append("\"class\":").
-                            append(StringUtil.escapeJsonString(exception.getClass().getName())).
-                            append(",\"message\":").
-                            append(StringUtil.escapeJsonString(exception.getMessage())).
-                            append(",\"stackTrace\":").
-                            append(StringUtil.escapeJsonString(sw.toString())).
-                            append("}");
-                    if (exceptionsIt.hasNext()) {
-                        sb.append(",");
+            hash += mix(entryHash);
+        }
+        return toETag(hash);
+    }
+
+    /**
+     * Spreads bits of given hash so that sum of hashes doesn't depend on iteration order and doesn't cancel out easily
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static String toETag(long hash) {
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Sets {@code ETag} header and checks it against {@code If-None-Match} header of request
+     *
+     * @return false if client already has the current representation of resource
+     */
+    private static boolean isModified(HttpServletRequest request, HttpServletResponse response, String eTag) {
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("ETag", eTag);
+        response.setHeader("Vary", "Accept-Encoding");
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (null == ifNoneMatch) return true;
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if ("*".equals(candidate)) return false;
+            // weak comparison as defined in RFC 7232
+            if (stripWeakPrefix(candidate).equals(stripWeakPrefix(eTag))) return false;
+        }
+
+        return true;
+    }
+
+    private static String stripWeakPrefix(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    private static boolean isGzipAccepted(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (null == acceptEncoding) return false;
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if ("gzip".equalsIgnoreCase(name) || "*".equals(name)) {
+                for (int i = 1; i < parameters.length; i++) {
+                    String parameter = parameters[i].trim();
+                    if (parameter.startsWith("q=")) {
+                        try {
+                            return Double.parseDouble(parameter.substring(2)) > 0;
+                        } catch (NumberFormatException e) {
+                            return false;
+                        }
                     }
                 }
-                sb.append("]");
+                return true;
             }
-            sb.append("}");
-            return sb.toString().getBytes();
-        } else {
-            return null;
         }
+
+        return false;
+    }
+
+    private JsonWriter acquireJsonWriter(HttpServletRequest request, HttpServletResponse response) {
+        JsonWriter jsonWriter = idleJsonWriter.getAndSet(null);
+        if (null == jsonWriter) {
+            jsonWriter = new JsonWriter();
+        }
+        return jsonWriter.start(response, isGzipAccepted(request));
+    }
+
+    private void releaseJsonWriter(JsonWriter jsonWriter) {
+        if (!idleJsonWriter.compareAndSet(null, jsonWriter)) {
+            jsonWriter.end();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        JsonWriter jsonWriter = idleJsonWriter.getAndSet(null);
+        if (null != jsonWriter) {
+            jsonWriter.end();
+        }
+        super.destroy();
     }
 
     /**
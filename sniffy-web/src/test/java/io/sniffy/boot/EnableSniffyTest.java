@@ -1,28 +1,36 @@
 package io.sniffy.boot;
 
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.jayway.jsonpath.JsonPath;
 import io.qameta.allure.Issue;
 import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
 import io.sniffy.Sniffy;
 import io.sniffy.Spy;
 import io.sniffy.Threads;
+import io.sniffy.configuration.SniffyConfiguration;
 import io.sniffy.servlet.SniffyFilter;
+import io.sniffy.servlet.SniffyServlet;
 import io.sniffy.sql.SniffyDataSource;
 import io.sniffy.sql.SqlStatement;
 import io.sniffy.sql.SqlStats;
 import io.sniffy.sql.StatementMetaData;
 import org.h2.jdbcx.JdbcDataSource;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import javax.annotation.Resource;
+import javax.servlet.ServletException;
 import javax.sql.CommonDataSource;
 import javax.sql.ConnectionPoolDataSource;
 import javax.sql.DataSource;
@@ -34,6 +42,7 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
@@ -46,16 +55,32 @@ import static org.junit.Assert.*;
         advanced = @SniffyAdvancedConfiguration(
                 topSqlCapacity = "#{topSqlCapacity}",
                 excludePattern = "#{excludePattern}",
-                injectHtmlExcludePattern = "^/peds.html$"
+                injectHtmlExcludePattern = "^/peds.html$",
+                requestStatsCacheMaxBytes = "1048576"
         )
 )
 @ContextConfiguration(classes = EnableSniffyTest.class)
 @PropertySource("classpath:/test.properties")
 public class EnableSniffyTest {
 
+    private static long requestStatsCacheMaxBytesBackup;
+    private static long requestStatsCacheExpireAfterMillisBackup;
+
     @Resource
     private ApplicationContext applicationContext;
 
+    @BeforeClass
+    public static void backupSniffyConfiguration() {
+        requestStatsCacheMaxBytesBackup = SniffyConfiguration.INSTANCE.getRequestStatsCacheMaxBytes();
+        requestStatsCacheExpireAfterMillisBackup = SniffyConfiguration.INSTANCE.getRequestStatsCacheExpireAfterMillis();
+    }
+
+    @AfterClass
+    public static void restoreSniffyConfiguration() {
+        SniffyConfiguration.INSTANCE.setRequestStatsCacheMaxBytes(requestStatsCacheMaxBytesBackup);
+        SniffyConfiguration.INSTANCE.setRequestStatsCacheExpireAfterMillis(requestStatsCacheExpireAfterMillisBackup);
+    }
+
     @Bean
     public boolean injectHtml() {
         return true;
@@ -95,6 +120,38 @@ public class EnableSniffyTest {
         assertEquals(topSqlCapacity(), ((ConcurrentLinkedHashMap) Sniffy.getGlobalSqlStats()).capacity());
     }
 
+    @Test
+    public void testRequestStatsCacheMaxBytesSet() throws Exception {
+        SniffyFilter filter = applicationContext.getBean(SniffyFilter.class);
+        DataSource dataSource = applicationContext.getBean("dataSource", DataSource.class);
+
+        String json = getRequestStatsCacheJson(filter);
+        assertEquals(1048576, ((Number) JsonPath.read(json, "$.capacity")).longValue());
+        long weightedSize = ((Number) JsonPath.read(json, "$.weightedSize")).longValue();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/owners.html"), new MockHttpServletResponse(), (request, response) -> {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1 FROM DUAL");
+            } catch (SQLException e) {
+                throw new ServletException(e);
+            }
+        });
+
+        // stats are weighted by their estimated size in bytes rather than counted as a single entry
+        json = getRequestStatsCacheJson(filter);
+        assertTrue(((Number) JsonPath.read(json, "$.weightedSize")).longValue() - weightedSize > 1);
+    }
+
+    private static String getRequestStatsCacheJson(SniffyFilter filter) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(
+                new MockHttpServletRequest("GET", "/" + SniffyServlet.REQUEST_STATS_CACHE_URI_PREFIX),
+                response,
+                (request, servletResponse) -> fail("request stats cache is served by Sniffy")
+        );
+        return response.getContentAsString();
+    }
+
     @Test
     public void testExcludePatternSet() {
         assertEquals(excludePattern(), applicationContext.getBean(SniffyFilter.class).getExcludePattern().pattern());
@@ -141,7 +198,7 @@ public class EnableSniffyTest {
             assertEquals(1, executedStatements.size());
             StatementMetaData statementMetaData = executedStatements.keySet().iterator().next();
             assertNotNull(statementMetaData);
-            assertNotNull(statementMetaData.stackTrace);
+            assertNotNull(statementMetaData.getStackTrace());
             assertEquals(SqlStatement.SYSTEM, statementMetaData.query);
 
         }
@@ -3,6 +3,8 @@ package io.sniffy.servlet;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+
 public class BufferTest {
 
     @Test
@@ -14,4 +16,22 @@ public class BufferTest {
         Assert.assertArrayEquals(new byte[] {1,2,5,6,3,4}, buffer.toByteArray());
     }
 
+    @Test
+    public void testWriteLeadingBytesTo() throws Exception {
+        Buffer buffer = new Buffer();
+        buffer.write(new byte[]{1,2,3,4});
+        buffer.insertAt(1, new byte[] {5});
+        buffer.insertAt(3, new byte[] {6});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeLeadingBytesTo(out, 2);
+
+        Assert.assertArrayEquals(new byte[] {1,5,2}, out.toByteArray());
+        Assert.assertEquals(2, buffer.size());
+        Assert.assertArrayEquals(new byte[] {3,6,4}, buffer.toByteArray());
+
+        buffer.writeTo(out);
+        Assert.assertArrayEquals(new byte[] {1,5,2,3,6,4}, out.toByteArray());
+    }
+
 }
\ No newline at end of file
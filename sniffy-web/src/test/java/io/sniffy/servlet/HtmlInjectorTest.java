@@ -80,6 +80,23 @@ public class HtmlInjectorTest {
                 ));
     }
 
+    @Test
+    public void testInjectIgnoresCaseAndEncoding() throws Exception {
+        for (String characterEncoding : new String[] {"UTF-8", "UTF-16LE"}) {
+            Buffer buffer = new Buffer();
+            buffer.write("<HTML><Head><TITLE>Привет</TITLE></Head><BODY>Мир</BODY></HTML>".getBytes(characterEncoding));
+
+            HtmlInjector htmlInjector = new HtmlInjector(buffer, characterEncoding);
+            htmlInjector.injectAtTheBeginning("<header/>");
+            htmlInjector.injectAtTheEnd("<footer/>");
+
+            assertEquals(
+                    "<HTML><Head><header/><TITLE>Привет</TITLE></Head><BODY>Мир<footer/></BODY></HTML>",
+                    buffer.toString(characterEncoding)
+            );
+        }
+    }
+
     private String injectAtTheEnd(String actualContent) throws IOException {
         Buffer buffer = new Buffer();
         buffer.write(actualContent.getBytes());
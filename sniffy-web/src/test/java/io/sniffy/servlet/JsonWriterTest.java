@@ -0,0 +1,49 @@
+package io.sniffy.servlet;
+
+import io.sniffy.util.StringUtil;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JsonWriterTest {
+
+    @Test
+    public void testEscapeStringsLikeStringUtil() throws Exception {
+
+        String value = "SELECT \r\n\"1\" FROM 'DUAL' </script> \\ \t\b\f \u0001 é中😀";
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new JsonWriter().start(response, true).value(value).finish();
+
+        assertEquals(StringUtil.escapeJsonString(value), new String(response.getContentAsByteArray(), StandardCharsets.UTF_8));
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        assertNull(response.getHeader("Content-Encoding"));
+
+    }
+
+    @Test
+    public void testWriteStructure() throws Exception {
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new JsonWriter().start(response, false).
+                beginObject().
+                name("long").value(-1234567890123L).
+                name("double").value(2.5).
+                name("integralDouble").value(1.0).
+                name("null").value((String) null).
+                name("array").beginArray().value(0).beginObject().endObject().beginArray().endArray().endArray().
+                endObject().
+                finish();
+
+        assertEquals(
+                "{\"long\":-1234567890123,\"double\":2.5,\"integralDouble\":1,\"null\":\"\",\"array\":[0,{},[]]}",
+                response.getContentAsString()
+        );
+
+    }
+
+}
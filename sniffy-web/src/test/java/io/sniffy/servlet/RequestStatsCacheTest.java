@@ -0,0 +1,111 @@
+package io.sniffy.servlet;
+
+import io.sniffy.ThreadMetaData;
+import io.sniffy.sql.SqlStatement;
+import io.sniffy.sql.SqlStats;
+import io.sniffy.sql.StatementMetaData;
+import io.sniffy.util.CapturedStackTrace;
+import io.sniffy.util.StackTraceExtractor;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RequestStatsCacheTest {
+
+    private static RequestStats requestStats(int numberOfStatements) {
+        Map<StatementMetaData, SqlStats> executedStatements = new HashMap<>();
+        for (int i = 0; i < numberOfStatements; i++) {
+            executedStatements.put(
+                    new StatementMetaData("SELECT " + i + " FROM DUAL", SqlStatement.SELECT, "", Thread.currentThread()),
+                    new SqlStats(1, 0, 0, 0, 1)
+            );
+        }
+        return new RequestStats(1, 2, executedStatements);
+    }
+
+    @Test
+    public void testCapturedStackTraceWeightedWithoutRendering() {
+
+        CapturedStackTrace capturedStackTrace = StackTraceExtractor.captureTraceTillPackage("io.sniffy.servlet");
+        StatementMetaData statementMetaData = new StatementMetaData(
+                "SELECT 1 FROM DUAL", SqlStatement.SELECT, ThreadMetaData.create(Thread.currentThread()), capturedStackTrace
+        );
+        Map<StatementMetaData, SqlStats> executedStatements = new HashMap<>();
+        executedStatements.put(statementMetaData, new SqlStats(1, 0, 0, 0, 1));
+
+        long retainedBytes = new RequestStats(1, 2, executedStatements).estimateRetainedBytes();
+
+        assertNull(statementMetaData.stackTrace);
+        assertTrue(retainedBytes - requestStats(1).estimateRetainedBytes() > capturedStackTrace.render().length());
+
+    }
+
+    @Test
+    public void testEntriesWeightedByRetainedBytes() {
+
+        RequestStats small = requestStats(1);
+        RequestStats large = requestStats(1000);
+
+        assertTrue(large.estimateRetainedBytes() > 100 * small.estimateRetainedBytes());
+
+        RequestStatsCache cache = new RequestStatsCache(large.estimateRetainedBytes() + small.estimateRetainedBytes(), 0);
+
+        cache.put("small", small);
+        cache.put("large", large);
+
+        assertEquals(2, cache.size());
+        assertEquals(large.estimateRetainedBytes() + small.estimateRetainedBytes(), cache.getWeightedSize());
+        assertEquals(0, cache.getEvictionCount());
+
+        cache.put("anotherSmall", requestStats(1));
+
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get("small"));
+        assertSame(large, cache.get("large"));
+
+    }
+
+    @Test
+    public void testHitAndMissCounts() {
+
+        RequestStatsCache cache = new RequestStatsCache(0, 0);
+
+        RequestStats requestStats = requestStats(1);
+        cache.put("foo", requestStats);
+
+        assertSame(requestStats, cache.get("foo"));
+        assertSame(requestStats, cache.get("foo"));
+        assertNull(cache.get("bar"));
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+
+        RequestStatsCache cache = new RequestStatsCache(0, 1);
+
+        cache.put("foo", requestStats(1));
+        cache.put("bar", requestStats(1));
+
+        Thread.sleep(10);
+
+        assertFalse(cache.containsKey("foo"));
+        assertNull(cache.get("foo"));
+        assertTrue(cache.entrySet().isEmpty());
+
+        // adding new entries removes the expired ones
+        cache.put("baz", requestStats(1));
+
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getExpirationCount());
+        assertEquals(0, cache.getEvictionCount());
+
+    }
+
+}
@@ -34,6 +34,7 @@ import java.io.PrintWriter;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -816,6 +817,118 @@ public class SniffyFilterTest extends BaseTest {
 
     }
 
+    @Test
+    public void testInjectHtmlLargeResponseStreamed() throws IOException, ServletException {
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 30000; i++) {
+            body.append("<p>").append(i).append("</p>");
+        }
+
+        doAnswer(invocation -> {
+            HttpServletResponse response = (HttpServletResponse) invocation.getArguments()[1];
+
+            response.setContentType("text/html");
+
+            PrintWriter printWriter = response.getWriter();
+            printWriter.append("<html><head><title>Title</title></head><body>");
+            printWriter.append(body);
+            executeStatement();
+            printWriter.append("</body></html>");
+            executeStatement();
+
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+
+        SniffyFilter filter = new SniffyFilter();
+        filter.init(getFilterConfig());
+
+        filter.doFilter(requestWithPathAndQueryParameter, httpServletResponse, filterChain);
+
+        // response is committed once leading window is buffered
+        assertEquals(0, httpServletResponse.getHeaderValue(HEADER_NUMBER_OF_QUERIES));
+        String contentAsString = httpServletResponse.getContentAsString();
+        assertTrue(contentAsString.indexOf("id=\"sniffy-header\"") < contentAsString.indexOf("<title>"));
+        assertTrue(contentAsString.contains(body));
+        assertTrue(contentAsString.indexOf("id=\"sniffy\"") > contentAsString.indexOf(body.toString()));
+        assertTrue(contentAsString.indexOf("id=\"sniffy\"") < contentAsString.indexOf("</body>"));
+        assertTrue(contentAsString.contains("data-sql-queries=\"2\""));
+
+    }
+
+    @Test
+    public void testInjectHtmlCommittedAfterLeadingWindow() throws IOException, ServletException {
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            body.append("<p>").append(i).append("</p>");
+        }
+
+        doAnswer(invocation -> {
+            HttpServletResponse response = (HttpServletResponse) invocation.getArguments()[1];
+
+            response.setContentType("text/html");
+
+            ServletOutputStream outputStream = response.getOutputStream();
+            outputStream.write("<html><head><title>Title</title></head><body>".getBytes());
+            outputStream.write(body.toString().getBytes());
+
+            // header cannot be injected further so page is passed to container while it is still being rendered
+            assertTrue(httpServletResponse.getContentAsString().contains("id=\"sniffy-header\""));
+
+            executeStatement();
+            outputStream.write("</body></html>".getBytes());
+
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+
+        SniffyFilter filter = new SniffyFilter();
+        filter.init(getFilterConfig());
+
+        filter.doFilter(requestWithPathAndQueryParameter, httpServletResponse, filterChain);
+
+        assertEquals(0, httpServletResponse.getHeaderValue(HEADER_NUMBER_OF_QUERIES));
+        String contentAsString = httpServletResponse.getContentAsString();
+        assertTrue(contentAsString.contains(body));
+        assertTrue(contentAsString.indexOf("id=\"sniffy\"") < contentAsString.indexOf("</body>"));
+        assertTrue(contentAsString.contains("data-sql-queries=\"1\""));
+
+    }
+
+    @Test
+    public void testInjectHtmlRequestedBufferSize() throws IOException, ServletException {
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            body.append("<p>").append(i).append("</p>");
+        }
+
+        doAnswer(invocation -> {
+            HttpServletResponse response = (HttpServletResponse) invocation.getArguments()[1];
+
+            response.setContentType("text/html");
+            response.setBufferSize(64 * 1024);
+
+            ServletOutputStream outputStream = response.getOutputStream();
+            outputStream.write("<html><head><title>Title</title></head><body>".getBytes());
+            outputStream.write(body.toString().getBytes());
+            executeStatement();
+            outputStream.write("</body></html>".getBytes());
+
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+
+        SniffyFilter filter = new SniffyFilter();
+        filter.init(getFilterConfig());
+
+        filter.doFilter(requestWithPathAndQueryParameter, httpServletResponse, filterChain);
+
+        // page fits into requested buffer
+        assertEquals(1, httpServletResponse.getHeaderValue(HEADER_NUMBER_OF_QUERIES));
+        assertTrue(httpServletResponse.getContentAsString().contains("data-sql-queries=\"1\""));
+
+    }
+
     @Test
     public void testInjectHtmlSetContentLength() throws IOException, ServletException {
 
@@ -1223,7 +1336,7 @@ public class SniffyFilterTest extends BaseTest {
             Sniffy.logSocket(
                     1,
                     InetSocketAddress.createUnresolved("localhost", 1234),
-                    10, 3, 5
+                    TimeUnit.MILLISECONDS.toNanos(10), 3, 5
             );
             HttpServletResponse response = (HttpServletResponse) invocation.getArguments()[1];
             response.getOutputStream().write(1);
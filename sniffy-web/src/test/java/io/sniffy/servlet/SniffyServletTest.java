@@ -22,13 +22,18 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.*;
 
@@ -505,6 +510,130 @@ public class SniffyServletTest extends BaseTest {
 
     }
 
+    @Test
+    public void testGetRequestNotModified() throws Exception {
+
+        cache.put("foo", new RequestStats(21, 42, Collections.singletonMap(
+                new StatementMetaData(
+                        "SELECT 1 FROM DUAL",
+                        SqlUtil.guessQueryType("SELECT 1 FROM DUAL"),
+                        "",
+                        Thread.currentThread()
+                ), new SqlStats(301, 0, 0, 0, 1))
+        ));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest request = MockMvcRequestBuilders.
+                get("/petclinic/" + SniffyFilter.REQUEST_URI_PREFIX + "foo").
+                buildRequest(servletContext);
+
+        sniffyServlet.service(request, response);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        String eTag = response.getHeader("ETag");
+        assertNotNull(eTag);
+
+        response = new MockHttpServletResponse();
+        request = MockMvcRequestBuilders.
+                get("/petclinic/" + SniffyFilter.REQUEST_URI_PREFIX + "foo").
+                header("If-None-Match", eTag).
+                buildRequest(servletContext);
+
+        sniffyServlet.service(request, response);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+
+        cache.get("foo").getExecutedStatements().values().iterator().next().accumulate(10, 0, 0, 0, 1);
+
+        response = new MockHttpServletResponse();
+        request = MockMvcRequestBuilders.
+                get("/petclinic/" + SniffyFilter.REQUEST_URI_PREFIX + "foo").
+                header("If-None-Match", eTag).
+                buildRequest(servletContext);
+
+        sniffyServlet.service(request, response);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNotEquals(eTag, response.getHeader("ETag"));
+        assertEquals(2, (int) JsonPath.read(response.getContentAsString(), "$.executedQueries[0].invocations"));
+
+    }
+
+    @Test
+    public void testGetLargeRequestGzipped() throws Exception {
+
+        RequestStats requestStats = new RequestStats(21, 42, null, null);
+        for (int i = 0; i < 100; i++) {
+            requestStats.addException(new SampleApplicationException("Message " + i));
+        }
+        cache.put("foo", requestStats);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest request = MockMvcRequestBuilders.
+                get("/petclinic/" + SniffyFilter.REQUEST_URI_PREFIX + "foo").
+                header("Accept-Encoding", "gzip, deflate").
+                buildRequest(servletContext);
+
+        sniffyServlet.service(request, response);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = is.read(buffer)) > 0) {
+                baos.write(buffer, 0, count);
+            }
+        }
+        String json = new String(baos.toByteArray(), StandardCharsets.UTF_8);
+
+        assertTrue(json.length() > JsonWriter.BUFFER_SIZE);
+        assertEquals(100, (int) JsonPath.read(json, "$.exceptions.length()"));
+        assertEquals("Message 99", JsonPath.read(json, "$.exceptions[99].message"));
+
+        response = new MockHttpServletResponse();
+        request = MockMvcRequestBuilders.
+                get("/petclinic/" + SniffyFilter.REQUEST_URI_PREFIX + "foo").
+                buildRequest(servletContext);
+
+        sniffyServlet.service(request, response);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(json, response.getContentAsString());
+
+    }
+
+    @Test
+    public void testGetRequestStatsCacheMetrics() throws Exception {
+
+        RequestStatsCache requestStatsCache = new RequestStatsCache(1024 * 1024, 0);
+        SniffyServlet sniffyServlet = new SniffyServlet(requestStatsCache);
+        sniffyServlet.init(servletConfig);
+
+        requestStatsCache.put("foo", new RequestStats(21, 42, null));
+        requestStatsCache.get("foo");
+        requestStatsCache.get("bar");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest request = MockMvcRequestBuilders.
+                get("/petclinic/" + SniffyServlet.REQUEST_STATS_CACHE_URI_PREFIX).
+                buildRequest(servletContext);
+
+        sniffyServlet.service(request, response);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        assertEquals(1, (int) JsonPath.read(response.getContentAsString(), "$.size"));
+        assertEquals(1024 * 1024, (int) JsonPath.read(response.getContentAsString(), "$.capacity"));
+        assertEquals(1, (int) JsonPath.read(response.getContentAsString(), "$.hitCount"));
+        assertEquals(1, (int) JsonPath.read(response.getContentAsString(), "$.missCount"));
+        assertEquals(0, (int) JsonPath.read(response.getContentAsString(), "$.evictionCount"));
+
+    }
+
     @Test
     public void testGetRequestNotFound() throws Exception {
 
@@ -578,6 +707,49 @@ public class SniffyServletTest extends BaseTest {
 
     }
 
+    @Test
+    public void testGetTopSqlNotModified() throws Exception {
+
+        Sniffy.getGlobalSqlStats().clear();
+
+        executeStatement();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest request = MockMvcRequestBuilders.
+                get("/petclinic/" + SniffyServlet.TOP_SQL_URI_PREFIX).
+                buildRequest(servletContext);
+
+        sniffyServlet.service(request, response);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        String eTag = response.getHeader("ETag");
+        assertNotNull(eTag);
+
+        response = new MockHttpServletResponse();
+        request = MockMvcRequestBuilders.
+                get("/petclinic/" + SniffyServlet.TOP_SQL_URI_PREFIX).
+                header("If-None-Match", eTag).
+                buildRequest(servletContext);
+
+        sniffyServlet.service(request, response);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+
+        executeStatement();
+
+        response = new MockHttpServletResponse();
+        request = MockMvcRequestBuilders.
+                get("/petclinic/" + SniffyServlet.TOP_SQL_URI_PREFIX).
+                header("If-None-Match", eTag).
+                buildRequest(servletContext);
+
+        sniffyServlet.service(request, response);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(2, (int) JsonPath.read(response.getContentAsString(), "$[0].timer.count"));
+
+    }
+
     @Test
     @Feature("issues/292")
     public void testResetTopSql() throws Exception {